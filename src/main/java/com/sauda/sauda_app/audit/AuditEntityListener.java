@@ -0,0 +1,204 @@
+package com.sauda.sauda_app.audit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sauda.sauda_app.entity.AuditLog;
+import com.sauda.sauda_app.entity.ErrorLog;
+import com.sauda.sauda_app.entity.Product;
+import com.sauda.sauda_app.entity.ProductHistory;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.type.Type;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Перехват изменений сущностей для аудита.
+ *
+ * Слушатели Hibernate вызываются после фиксации транзакции, поэтому в аудит попадают только
+ * зафиксированные изменения, а сама транзакция не делает лишних вставок. Аудируются сущности
+ * с полем tenantId, кроме самих журналов. В подробности попадают простые поля сущности (без связей):
+ * для вставки и удаления — состояние, для изменения — измененные поля со старым и новым значением.
+ * Создание и изменение товаров дополнительно пишутся в историю товара в формате {@link ProductDiffCodec}.
+ */
+@Component
+public class AuditEntityListener implements PostCommitInsertEventListener, PostCommitUpdateEventListener,
+        PostCommitDeleteEventListener {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditEntityListener.class);
+
+    private static final String TENANT_PROPERTY = "tenantId";
+    private static final Set<Class<?>> EXCLUDED = Set.of(AuditLog.class, ProductHistory.class, ErrorLog.class);
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final AuditPipeline auditPipeline;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+
+    @Autowired
+    public AuditEntityListener(EntityManagerFactory entityManagerFactory, AuditPipeline auditPipeline,
+                               ObjectMapper objectMapper, @Value("${sauda.audit.enabled:true}") boolean enabled) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.auditPipeline = auditPipeline;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+    }
+
+    @PostConstruct
+    void register() {
+        if (!enabled) {
+            return;
+        }
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return !EXCLUDED.contains(persister.getMappedClass()) && propertyIndex(persister, TENANT_PROPERTY) >= 0;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        Map<String, Object> state = simpleProperties(event.getPersister(), event.getState());
+        ProductChange productChange = event.getPersister().getMappedClass() == Product.class
+                ? new ProductChange(state, state.keySet()) : null;
+        submit(event.getPersister(), event.getId(), event.getState(), "INSERT", Map.of("state", state), productChange);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        EntityPersister persister = event.getPersister();
+        Object[] state = event.getState();
+        Object[] oldState = event.getOldState();
+        Map<String, Object> oldValues = new LinkedHashMap<>();
+        Map<String, Object> newValues = new LinkedHashMap<>();
+        String[] names = persister.getPropertyNames();
+        Type[] types = persister.getPropertyTypes();
+        for (int i : dirtyProperties(event)) {
+            if (isSimple(types[i])) {
+                oldValues.put(names[i], oldState != null ? oldState[i] : null);
+                newValues.put(names[i], state[i]);
+            }
+        }
+        if (newValues.isEmpty()) {
+            return;
+        }
+        ProductChange productChange = persister.getMappedClass() == Product.class
+                ? new ProductChange(simpleProperties(persister, state), newValues.keySet()) : null;
+        submit(persister, event.getId(), state, "UPDATE", Map.of("old", oldValues, "new", newValues), productChange);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        submit(event.getPersister(), event.getId(), event.getDeletedState(), "DELETE",
+                Map.of("state", simpleProperties(event.getPersister(), event.getDeletedState())), null);
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+        // Транзакция откатилась — аудировать нечего
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        // Транзакция откатилась — аудировать нечего
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        // Транзакция откатилась — аудировать нечего
+    }
+
+    private void submit(EntityPersister persister, Object id, Object[] state, String action, Map<String, ?> details,
+                        ProductChange productChange) {
+        if (!(id instanceof Number objectId) || state == null
+                || !(state[propertyIndex(persister, TENANT_PROPERTY)] instanceof Number tenantId)) {
+            return;
+        }
+        try {
+            auditPipeline.submit(new AuditEntry(tenantId.longValue(), currentUsername(), action,
+                    persister.getMappedClass().getSimpleName(), objectId.longValue(), LocalDateTime.now(),
+                    objectMapper.writeValueAsString(details), productChange));
+        } catch (JsonProcessingException e) {
+            log.warn("Не удалось сериализовать изменение {} {}#{} для аудита", action,
+                    persister.getMappedClass().getSimpleName(), id, e);
+        }
+    }
+
+    private static Map<String, Object> simpleProperties(EntityPersister persister, Object[] state) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        if (state == null) {
+            return values;
+        }
+        String[] names = persister.getPropertyNames();
+        Type[] types = persister.getPropertyTypes();
+        for (int i = 0; i < names.length; i++) {
+            if (isSimple(types[i])) {
+                values.put(names[i], state[i]);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Измененные поля: из события, а если Hibernate их не посчитал — сравнением состояний
+     */
+    private static int[] dirtyProperties(PostUpdateEvent event) {
+        if (event.getDirtyProperties() != null) {
+            return event.getDirtyProperties();
+        }
+        Object[] state = event.getState();
+        Object[] oldState = event.getOldState();
+        if (oldState == null) {
+            return new int[0];
+        }
+        return IntStream.range(0, state.length)
+                .filter(i -> !Objects.equals(state[i], oldState[i]))
+                .toArray();
+    }
+
+    private static boolean isSimple(Type type) {
+        return !type.isAssociationType() && !type.isCollectionType();
+    }
+
+    private static int propertyIndex(EntityPersister persister, String property) {
+        String[] names = persister.getPropertyNames();
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(property)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String currentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated() ? authentication.getName() : null;
+    }
+}
@@ -0,0 +1,25 @@
+package com.sauda.sauda_app.audit;
+
+import java.time.LocalDateTime;
+
+/**
+ * Изменение сущности, ожидающее записи в журнал аудита
+ * @param tenantId идентификатор магазина
+ * @param username имя пользователя, выполнившего изменение, или null для фоновых задач
+ * @param action INSERT, UPDATE или DELETE
+ * @param objectType тип сущности
+ * @param objectId идентификатор сущности
+ * @param timestamp время фиксации изменения
+ * @param detailsJson подробности изменения (JSON)
+ * @param productChange состояние и измененные поля товара — только для создания и изменения товара
+ */
+public record AuditEntry(Long tenantId, String username, String action, String objectType, Long objectId,
+                         LocalDateTime timestamp, String detailsJson, ProductChange productChange) {
+
+    /**
+     * Нужна ли запись в историю товара (product_history)
+     */
+    public boolean isProductHistory() {
+        return productChange != null;
+    }
+}
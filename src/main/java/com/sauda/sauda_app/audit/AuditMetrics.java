@@ -0,0 +1,18 @@
+package com.sauda.sauda_app.audit;
+
+/**
+ * Снимок показателей конвейера аудита
+ * @param queueDepth записей в очереди
+ * @param queueCapacity емкость очереди
+ * @param enqueued принято в очередь с запуска
+ * @param dropped отброшено из-за переполнения
+ * @param written записано в базу
+ * @param failed не удалось записать
+ * @param flushes число сбросов пакетов
+ * @param lastFlushMillis длительность последнего сброса, мс
+ * @param maxFlushMillis наибольшая длительность сброса, мс
+ * @param averageFlushMillis средняя длительность сброса, мс
+ */
+public record AuditMetrics(int queueDepth, int queueCapacity, long enqueued, long dropped, long written, long failed,
+                           long flushes, double lastFlushMillis, double maxFlushMillis, double averageFlushMillis) {
+}
@@ -0,0 +1,285 @@
+package com.sauda.sauda_app.audit;
+
+import com.sauda.sauda_app.repository.AuditJdbcRepository;
+import com.sauda.sauda_app.tenant.TenantContext;
+import com.sauda.sauda_app.tenant.TenantDatabases;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Асинхронная запись аудита.
+ *
+ * Изменения сущностей кладутся в ограниченную очередь без блокировок ({@link AuditQueue}) и не
+ * добавляют записей в транзакцию, которая их произвела. Отдельный поток-писатель сбрасывает очередь
+ * пакетами JDBC: раз в заданный интервал или сразу, как только набралось записей на пакет.
+ * При переполнении действует настраиваемая политика ({@link OverflowPolicy}); при остановке
+ * приложения писатель дописывает оставшиеся записи. Изменения товаров идут отдельной очередью и не
+ * отбрасываются ни при какой политике: история товара хранит ревизии как разницу с предыдущей, и
+ * пропущенная ревизия испортила бы восстановление всех следующих. При заполненной очереди изменений
+ * товаров поток ждет писателя.
+ *
+ * Неудачный пакет повторяется построчно, чтобы одна ошибочная запись не теряла весь пакет.
+ * У писателя нет магазина запроса, поэтому записи магазинов с выделенной базой пишутся
+ * от имени магазина в его базу, остальные — одним пакетом в основную.
+ */
+@Component
+public class AuditPipeline implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditPipeline.class);
+
+    private final AuditJdbcRepository auditRepository;
+    private final TenantDatabases tenantDatabases;
+    private final AuditQueue queue;
+    private final AuditQueue productQueue;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final OverflowPolicy overflowPolicy;
+    private final long offerTimeoutNanos;
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong totalFlushNanos = new AtomicLong();
+    private final AtomicLong maxFlushNanos = new AtomicLong();
+    private volatile long lastFlushNanos;
+
+    private volatile Thread writer;
+    private volatile boolean running;
+
+    @Autowired
+    public AuditPipeline(AuditJdbcRepository auditRepository, TenantDatabases tenantDatabases,
+                         @Value("${sauda.audit.queue-capacity:10000}") int queueCapacity,
+                         @Value("${sauda.audit.batch-size:500}") int batchSize,
+                         @Value("${sauda.audit.flush-interval-ms:200}") long flushIntervalMs,
+                         @Value("${sauda.audit.overflow-policy:drop-oldest}") String overflowPolicy,
+                         @Value("${sauda.audit.offer-timeout-ms:50}") long offerTimeoutMs) {
+        if (batchSize <= 0 || flushIntervalMs <= 0) {
+            throw new IllegalArgumentException("Размер пакета и интервал сброса аудита должны быть положительными");
+        }
+        this.auditRepository = auditRepository;
+        this.tenantDatabases = tenantDatabases;
+        this.queue = new AuditQueue(queueCapacity);
+        this.productQueue = new AuditQueue(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.overflowPolicy = OverflowPolicy.valueOf(overflowPolicy.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+        this.offerTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(offerTimeoutMs);
+    }
+
+    /**
+     * Поставить запись в очередь. Не обращается к базе и не ждет писателя
+     * (кроме политики BLOCK при заполненной очереди)
+     * @param entry запись аудита
+     * @return false, если запись отброшена из-за переполнения
+     */
+    public boolean submit(AuditEntry entry) {
+        boolean accepted = entry.isProductHistory()
+                ? offerProductChange(entry)
+                : queue.offer(entry) || offerOnOverflow(entry);
+        if (!accepted) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        enqueued.incrementAndGet();
+        if (pending() >= batchSize) {
+            Thread current = writer;
+            if (current != null) {
+                LockSupport.unpark(current);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Текущие показатели: глубина очереди, потери и длительность сброса пакетов
+     */
+    public AuditMetrics getMetrics() {
+        long flushCount = flushes.get();
+        return new AuditMetrics(pending(), queue.capacity() + productQueue.capacity(), enqueued.get(), dropped.get(), written.get(),
+                failed.get(), flushCount, millis(lastFlushNanos), millis(maxFlushNanos.get()),
+                flushCount == 0 ? 0 : millis(totalFlushNanos.get()) / flushCount);
+    }
+
+    /**
+     * Записать все накопленные записи; возвращает число записанных
+     */
+    int flush() {
+        int total = 0;
+        // Каждому пакету свой список: репозиторий может держать ссылку на переданный
+        List<AuditEntry> batch = new ArrayList<>(batchSize);
+        while (drainBatch(batch) > 0) {
+            long started = System.nanoTime();
+            total += write(batch);
+            long elapsed = System.nanoTime() - started;
+            flushes.incrementAndGet();
+            totalFlushNanos.addAndGet(elapsed);
+            maxFlushNanos.accumulateAndGet(elapsed, Math::max);
+            lastFlushNanos = elapsed;
+            batch = new ArrayList<>(batchSize);
+        }
+        return total;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        Thread thread = new Thread(this::runWriter, "audit-writer");
+        thread.setDaemon(true);
+        writer = thread;
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread thread = writer;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        writer = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void runWriter() {
+        while (running) {
+            if (pending() < batchSize) {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+            }
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                log.error("Ошибка сброса очереди аудита", e);
+            }
+        }
+        // Остановка: дописываем то, что успело попасть в очередь
+        flush();
+    }
+
+    private int pending() {
+        return queue.size() + productQueue.size();
+    }
+
+    /**
+     * Изменения товаров первыми: их очередь не теряет записей и при заполнении задерживает потоки
+     */
+    private int drainBatch(List<AuditEntry> batch) {
+        int drained = productQueue.drainTo(batch, batchSize);
+        return drained + queue.drainTo(batch, batchSize - drained);
+    }
+
+    /**
+     * Поставить изменение товара в очередь, дожидаясь места. Отбрасывается только после
+     * остановки писателя, когда записывать его уже некому
+     */
+    private boolean offerProductChange(AuditEntry entry) {
+        while (!productQueue.offer(entry)) {
+            Thread current = writer;
+            if (!running || current == null) {
+                return false;
+            }
+            LockSupport.unpark(current);
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        return true;
+    }
+
+    private boolean offerOnOverflow(AuditEntry entry) {
+        switch (overflowPolicy) {
+            case DROP_OLDEST -> {
+                while (!queue.offer(entry)) {
+                    if (queue.poll() != null) {
+                        dropped.incrementAndGet();
+                    }
+                }
+                return true;
+            }
+            case BLOCK -> {
+                long deadline = System.nanoTime() + offerTimeoutNanos;
+                while (System.nanoTime() < deadline) {
+                    Thread current = writer;
+                    if (current != null) {
+                        LockSupport.unpark(current);
+                    }
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                    if (queue.offer(entry)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            default -> {
+                return false;
+            }
+        }
+    }
+
+    private int write(List<AuditEntry> batch) {
+        List<AuditEntry> primary = new ArrayList<>(batch.size());
+        Map<Long, List<AuditEntry>> dedicated = new TreeMap<>();
+        for (AuditEntry entry : batch) {
+            if (tenantDatabases.isDedicated(entry.tenantId())) {
+                dedicated.computeIfAbsent(entry.tenantId(), id -> new ArrayList<>()).add(entry);
+            } else {
+                primary.add(entry);
+            }
+        }
+        if (dedicated.isEmpty()) {
+            return writeBatch(batch);
+        }
+        int count = primary.isEmpty() ? 0 : writeBatch(primary);
+        for (Map.Entry<Long, List<AuditEntry>> tenant : dedicated.entrySet()) {
+            count += TenantContext.callAs(tenant.getKey(), () -> writeBatch(tenant.getValue()));
+        }
+        return count;
+    }
+
+    private int writeBatch(List<AuditEntry> batch) {
+        try {
+            auditRepository.insertAll(batch);
+            written.addAndGet(batch.size());
+            return batch.size();
+        } catch (RuntimeException e) {
+            log.warn("Пакет аудита из {} записей не записан, повтор построчно", batch.size(), e);
+        }
+        int count = 0;
+        for (AuditEntry entry : batch) {
+            try {
+                auditRepository.insertAll(List.of(entry));
+                count++;
+            } catch (RuntimeException e) {
+                failed.incrementAndGet();
+                log.error("Запись аудита {} {}#{} не записана", entry.action(), entry.objectType(), entry.objectId(), e);
+            }
+        }
+        written.addAndGet(count);
+        return count;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
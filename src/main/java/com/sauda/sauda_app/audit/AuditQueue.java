@@ -0,0 +1,78 @@
+package com.sauda.sauda_app.audit;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ограниченная очередь без блокировок: ConcurrentLinkedQueue и счетчик занятых мест.
+ * Место резервируется CAS-увеличением счетчика до вставки, поэтому размер никогда не превышает
+ * емкость, а производители не ждут друг друга и писателя. Размер приблизительный: на короткое время
+ * место может быть занято раньше, чем запись станет видна в очереди.
+ */
+final class AuditQueue {
+
+    private final ConcurrentLinkedQueue<AuditEntry> entries = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final int capacity;
+
+    AuditQueue(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Емкость очереди аудита должна быть положительной");
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Добавить запись, если есть место
+     * @param entry запись
+     * @return false, если очередь заполнена
+     */
+    boolean offer(AuditEntry entry) {
+        int current;
+        do {
+            current = size.get();
+            if (current >= capacity) {
+                return false;
+            }
+        } while (!size.compareAndSet(current, current + 1));
+        entries.add(entry);
+        return true;
+    }
+
+    /**
+     * Извлечь самую старую запись
+     * @return запись или null, если очередь пуста
+     */
+    AuditEntry poll() {
+        AuditEntry entry = entries.poll();
+        if (entry != null) {
+            size.decrementAndGet();
+        }
+        return entry;
+    }
+
+    /**
+     * Перенести записи в пакет
+     * @param batch пакет
+     * @param max наибольшее число записей
+     * @return число перенесенных записей
+     */
+    int drainTo(List<AuditEntry> batch, int max) {
+        int drained = 0;
+        AuditEntry entry;
+        while (drained < max && (entry = poll()) != null) {
+            batch.add(entry);
+            drained++;
+        }
+        return drained;
+    }
+
+    int size() {
+        return size.get();
+    }
+
+    int capacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,16 @@
+package com.sauda.sauda_app.audit;
+
+/**
+ * Поведение при заполненной очереди аудита
+ */
+public enum OverflowPolicy {
+
+    /** Отбросить новую запись */
+    DROP_NEWEST,
+
+    /** Вытеснить самую старую запись из очереди */
+    DROP_OLDEST,
+
+    /** Подождать освобождения места не дольше заданного времени, затем отбросить новую запись */
+    BLOCK
+}
@@ -0,0 +1,26 @@
+package com.sauda.sauda_app.audit;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Изменение товара для истории товара
+ * @param state простые поля товара после изменения
+ * @param changed имена измененных полей; для нового товара — все поля
+ */
+public record ProductChange(Map<String, Object> state, Set<String> changed) {
+
+    /**
+     * Только измененные поля с их новыми значениями
+     */
+    public Map<String, Object> changedFields() {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        state.forEach((name, value) -> {
+            if (changed.contains(name)) {
+                fields.put(name, value);
+            }
+        });
+        return fields;
+    }
+}
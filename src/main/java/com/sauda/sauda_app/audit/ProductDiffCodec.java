@@ -0,0 +1,201 @@
+package com.sauda.sauda_app.audit;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Компактный двоичный формат изменений товара для product_history.
+ *
+ * Запись — либо полный снимок полей товара, либо только измененные поля. Формат версии 1:
+ * байт версии, байт вида (0 — изменение, 1 — снимок), число полей (varint) и поля подряд.
+ * Поле — номер поля (varint), байт типа и значение: строка — длина и UTF-8, целое — zigzag varint,
+ * логическое значение — в самом байте типа, число — масштаб и байты немасштабированного значения,
+ * дата-время — секунды и наносекунды. Каждое значение описывает себя, поэтому декодер
+ * пропускает поля с незнакомыми номерами.
+ *
+ * Номера полей — часть формата: их нельзя менять или переиспользовать, новые поля добавляются в конец.
+ */
+public final class ProductDiffCodec {
+
+    public static final byte VERSION = 1;
+
+    private static final byte KIND_DIFF = 0;
+    private static final byte KIND_SNAPSHOT = 1;
+
+    private static final byte TYPE_NULL = 0;
+    private static final byte TYPE_STRING = 1;
+    private static final byte TYPE_LONG = 2;
+    private static final byte TYPE_TRUE = 3;
+    private static final byte TYPE_FALSE = 4;
+    private static final byte TYPE_DECIMAL = 5;
+    private static final byte TYPE_DATE_TIME = 6;
+
+    /**
+     * Поля товара по номерам: номер поля — индекс в массиве плюс один
+     */
+    private static final String[] FIELDS = {
+            "tenantId", "name", "barcode", "sku", "categoryId", "unitId", "description",
+            "isActive", "isDeleted", "price", "quantity", "createdAt", "lastUpdated"
+    };
+
+    private static final Map<String, Integer> TAGS = new LinkedHashMap<>();
+
+    static {
+        for (int i = 0; i < FIELDS.length; i++) {
+            TAGS.put(FIELDS[i], i + 1);
+        }
+    }
+
+    /**
+     * Раскодированная запись истории
+     * @param snapshot true — полный снимок, false — только измененные поля
+     * @param fields значения полей по именам свойств товара
+     */
+    public record ProductDiff(boolean snapshot, Map<String, Object> fields) {
+    }
+
+    private ProductDiffCodec() {
+    }
+
+    /**
+     * Закодировать поля товара. Поля, которых нет в формате, пропускаются
+     * @param fields значения полей по именам свойств товара
+     * @param snapshot true — полный снимок, false — изменение
+     * @return запись в формате текущей версии
+     */
+    public static byte[] encode(Map<String, ?> fields, boolean snapshot) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(32 + fields.size() * 8);
+        out.write(VERSION);
+        out.write(snapshot ? KIND_SNAPSHOT : KIND_DIFF);
+        int count = (int) fields.keySet().stream().filter(TAGS::containsKey).count();
+        writeVarint(out, count);
+        fields.forEach((name, value) -> {
+            Integer tag = TAGS.get(name);
+            if (tag != null) {
+                writeVarint(out, tag);
+                writeValue(out, name, value);
+            }
+        });
+        return out.toByteArray();
+    }
+
+    /**
+     * Раскодировать запись
+     * @param data запись
+     * @return вид записи и значения полей
+     * @throws IllegalArgumentException если версия формата не поддерживается или запись повреждена
+     */
+    public static ProductDiff decode(byte[] data) {
+        ByteBuffer in = ByteBuffer.wrap(data);
+        try {
+            byte version = in.get();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Неподдерживаемая версия формата истории товара: " + version);
+            }
+            boolean snapshot = in.get() == KIND_SNAPSHOT;
+            int count = (int) readVarint(in);
+            Map<String, Object> fields = new LinkedHashMap<>(count * 4 / 3 + 1);
+            for (int i = 0; i < count; i++) {
+                int tag = (int) readVarint(in);
+                Object value = readValue(in);
+                if (tag >= 1 && tag <= FIELDS.length) {
+                    fields.put(FIELDS[tag - 1], value);
+                }
+            }
+            return new ProductDiff(snapshot, fields);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Запись истории товара повреждена", e);
+        }
+    }
+
+    private static void writeValue(ByteArrayOutputStream out, String name, Object value) {
+        if (value == null) {
+            out.write(TYPE_NULL);
+        } else if (value instanceof String text) {
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            out.write(TYPE_STRING);
+            writeVarint(out, bytes.length);
+            out.writeBytes(bytes);
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short) {
+            out.write(TYPE_LONG);
+            writeVarint(out, zigzag(((Number) value).longValue()));
+        } else if (value instanceof Boolean flag) {
+            out.write(flag ? TYPE_TRUE : TYPE_FALSE);
+        } else if (value instanceof BigDecimal number) {
+            byte[] unscaled = number.unscaledValue().toByteArray();
+            out.write(TYPE_DECIMAL);
+            writeVarint(out, zigzag(number.scale()));
+            writeVarint(out, unscaled.length);
+            out.writeBytes(unscaled);
+        } else if (value instanceof LocalDateTime dateTime) {
+            out.write(TYPE_DATE_TIME);
+            writeVarint(out, zigzag(dateTime.toEpochSecond(ZoneOffset.UTC)));
+            writeVarint(out, dateTime.getNano());
+        } else {
+            throw new IllegalArgumentException("Неподдерживаемый тип поля " + name + ": " + value.getClass().getName());
+        }
+    }
+
+    private static Object readValue(ByteBuffer in) {
+        byte type = in.get();
+        return switch (type) {
+            case TYPE_NULL -> null;
+            case TYPE_STRING -> {
+                byte[] bytes = new byte[(int) readVarint(in)];
+                in.get(bytes);
+                yield new String(bytes, StandardCharsets.UTF_8);
+            }
+            case TYPE_LONG -> unzigzag(readVarint(in));
+            case TYPE_TRUE -> Boolean.TRUE;
+            case TYPE_FALSE -> Boolean.FALSE;
+            case TYPE_DECIMAL -> {
+                int scale = (int) unzigzag(readVarint(in));
+                byte[] unscaled = new byte[(int) readVarint(in)];
+                in.get(unscaled);
+                yield new BigDecimal(new BigInteger(unscaled), scale);
+            }
+            case TYPE_DATE_TIME -> {
+                long seconds = unzigzag(readVarint(in));
+                int nanos = (int) readVarint(in);
+                yield LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+            }
+            default -> throw new IllegalArgumentException("Неизвестный тип поля в истории товара: " + type);
+        };
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarint(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Запись истории товара повреждена: слишком длинное число");
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,235 @@
+package com.sauda.sauda_app.cache;
+
+import com.sauda.sauda_app.dto.ProductSnapshot;
+
+import java.util.Collection;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Таблица штрих-код → снимок товара одного магазина с открытой адресацией (линейное пробирование).
+ *
+ * Вместо HashMap хранятся два параллельных массива: int[] с хэшами штрих-кодов и ProductSnapshot[]
+ * со снимками. Сам ключ отдельно не хранится — строка штрих-кода берется из снимка, а сравнение
+ * строк выполняется только при совпадении хэша. Удаление делается обратным сдвигом, без «надгробий»,
+ * поэтому цепочки пробирования не деградируют со временем.
+ *
+ * Чтение идет без блокировки в оптимистическом режиме StampedLock и повторяется под read-lock,
+ * только если во время поиска произошла запись. Записи (правки товаров) редки по сравнению со сканами.
+ *
+ * Память на 100 000 товаров (64-bit JVM, compressed oops):
+ * <ul>
+ *   <li>таблица: емкость 262 144 слота (степень двойки, заполнение не выше 0.75)
+ *       × (4 байта хэш + 4 байта ссылка) ≈ 2 МБ;</li>
+ *   <li>снимок: объект с 8 ссылками ≈ 48 байт, Long id ≈ 16 байт, штрих-код EAN-13 ≈ 56 байт,
+ *       артикул ≈ 56 байт, название ~30 символов кириллицей ≈ 100 байт — итого ≈ 280 байт;</li>
+ *   <li>всего ≈ 30 МБ, из них сама таблица ≈ 2 МБ. HashMap&lt;String, Product&gt; тратил бы
+ *       еще ≈ 32 байта на узел и держал бы сущности со всеми полями.</li>
+ * </ul>
+ */
+class BarcodeTable {
+
+    private static final int MIN_CAPACITY = 16;
+    private static final float MAX_LOAD = 0.75f;
+
+    /**
+     * Массивы одной емкости, подменяются целиком при расширении,
+     * чтобы оптимистическое чтение не увидело массивы разной длины
+     */
+    private static final class Slots {
+        final int[] hashes;
+        final ProductSnapshot[] values;
+
+        Slots(int capacity) {
+            this.hashes = new int[capacity];
+            this.values = new ProductSnapshot[capacity];
+        }
+    }
+
+    private final StampedLock lock = new StampedLock();
+    private Slots slots;
+    private int size;
+
+    BarcodeTable(int expectedSize) {
+        this.slots = new Slots(capacityFor(expectedSize));
+    }
+
+    ProductSnapshot get(String barcode) {
+        int hash = hash(barcode);
+        long stamp = lock.tryOptimisticRead();
+        ProductSnapshot found = find(slots, hash, barcode);
+        if (lock.validate(stamp)) {
+            return found;
+        }
+        stamp = lock.readLock();
+        try {
+            return find(slots, hash, barcode);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    void put(ProductSnapshot snapshot) {
+        long stamp = lock.writeLock();
+        try {
+            ensureCapacity(size + 1);
+            if (insert(slots, snapshot, true)) {
+                size++;
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Добавить снимки, не перезаписывая уже имеющиеся записи
+     * (они могли прийти из событий изменения и быть свежее)
+     */
+    void putAllAbsent(Collection<ProductSnapshot> snapshots) {
+        long stamp = lock.writeLock();
+        try {
+            ensureCapacity(size + snapshots.size());
+            for (ProductSnapshot snapshot : snapshots) {
+                if (insert(slots, snapshot, false)) {
+                    size++;
+                }
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    boolean putIfAbsent(ProductSnapshot snapshot) {
+        long stamp = lock.writeLock();
+        try {
+            ensureCapacity(size + 1);
+            boolean inserted = insert(slots, snapshot, false);
+            if (inserted) {
+                size++;
+            }
+            return inserted;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    boolean remove(String barcode) {
+        long stamp = lock.writeLock();
+        try {
+            int[] hashes = slots.hashes;
+            ProductSnapshot[] values = slots.values;
+            int mask = values.length - 1;
+            int hash = hash(barcode);
+            int i = hash & mask;
+            while (true) {
+                ProductSnapshot value = values[i];
+                if (value == null) {
+                    return false;
+                }
+                if (hashes[i] == hash && barcode.equals(value.barcode())) {
+                    break;
+                }
+                i = (i + 1) & mask;
+            }
+
+            // Обратный сдвиг: подтягиваем в дыру записи, чья домашняя ячейка не лежит между дырой и ними
+            int gap = i;
+            int j = i;
+            while (true) {
+                j = (j + 1) & mask;
+                ProductSnapshot value = values[j];
+                if (value == null) {
+                    break;
+                }
+                int home = hashes[j] & mask;
+                if (((j - home) & mask) >= ((j - gap) & mask)) {
+                    hashes[gap] = hashes[j];
+                    values[gap] = value;
+                    gap = j;
+                }
+            }
+            values[gap] = null;
+            hashes[gap] = 0;
+            size--;
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private static ProductSnapshot find(Slots slots, int hash, String barcode) {
+        int[] hashes = slots.hashes;
+        ProductSnapshot[] values = slots.values;
+        int mask = values.length - 1;
+        int i = hash & mask;
+        // Ограничение числа проб защищает оптимистическое чтение от зацикливания на меняющейся таблице
+        for (int probes = 0; probes <= mask; probes++) {
+            ProductSnapshot value = values[i];
+            if (value == null) {
+                return null;
+            }
+            if (hashes[i] == hash && barcode.equals(value.barcode())) {
+                return value;
+            }
+            i = (i + 1) & mask;
+        }
+        return null;
+    }
+
+    private static boolean insert(Slots slots, ProductSnapshot snapshot, boolean replace) {
+        int[] hashes = slots.hashes;
+        ProductSnapshot[] values = slots.values;
+        int mask = values.length - 1;
+        int hash = hash(snapshot.barcode());
+        int i = hash & mask;
+        while (true) {
+            ProductSnapshot value = values[i];
+            if (value == null) {
+                hashes[i] = hash;
+                values[i] = snapshot;
+                return true;
+            }
+            if (hashes[i] == hash && snapshot.barcode().equals(value.barcode())) {
+                if (replace) {
+                    values[i] = snapshot;
+                }
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= slots.values.length * MAX_LOAD) {
+            return;
+        }
+        Slots resized = new Slots(capacityFor(required));
+        for (ProductSnapshot value : slots.values) {
+            if (value != null) {
+                insert(resized, value, true);
+            }
+        }
+        slots = resized;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * MAX_LOAD < expectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static int hash(String barcode) {
+        int h = barcode.hashCode();
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,17 @@
+package com.sauda.sauda_app.cache;
+
+/**
+ * Снимок показателей области кэша справочников
+ * @param region название области
+ * @param tenants магазинов в кэше
+ * @param maxTenants наибольшее число магазинов
+ * @param hits попаданий
+ * @param misses промахов (загрузок из базы)
+ * @param evictions вытеснено по размеру
+ * @param expirations истекло по времени жизни
+ * @param invalidations сброшено после изменений
+ * @param hitRatio доля попаданий
+ */
+public record CacheRegionMetrics(String region, int tenants, int maxTenants, long hits, long misses, long evictions,
+                                 long expirations, long invalidations, double hitRatio) {
+}
@@ -0,0 +1,210 @@
+package com.sauda.sauda_app.cache;
+
+import com.sauda.sauda_app.dto.DiscountRuleDefinition;
+import com.sauda.sauda_app.dto.ProductSnapshot;
+import com.sauda.sauda_app.entity.SalesItem;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Неизменяемый набор правил скидок одного магазина, скомпилированный для расчета чека.
+ *
+ * Правила раскладываются по уровням: правила товара и категории сводятся в один массив на товар
+ * (правило категории копируется каждому ее товару при компиляции), правила чека — в отдельный массив.
+ * Расчет позиции — один поиск по товару и перебор только его правил, без обращения к базе
+ * и без просмотра правил, не относящихся к чеку.
+ *
+ * Правила не суммируются: позиция получает наибольшую из скидок своих правил (или ручную скидку,
+ * если она больше), чек — наибольшую из скидок правил уровня чека, чей порог он проходит.
+ * Скидка чека распределяется по позициям пропорционально их сумме после скидок позиций.
+ */
+final class CompiledDiscountRules {
+
+    static final String PERCENTAGE = "percentage";
+    static final String FIXED = "fixed";
+    static final String PRODUCT = "product";
+    static final String CATEGORY = "category";
+    static final String TOTAL = "total";
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+    private static final Rule[] NO_RULES = new Rule[0];
+
+    /**
+     * Скомпилированное правило
+     * @param startDay первый день действия (epoch day)
+     * @param endDay последний день действия включительно (epoch day)
+     * @param percentage true — процент от суммы, false — фиксированная сумма
+     * @param value размер скидки
+     * @param minAmount порог суммы для правил чека
+     */
+    private record Rule(int startDay, int endDay, boolean percentage, BigDecimal value, BigDecimal minAmount) {
+
+        boolean activeOn(int day) {
+            return startDay <= day && day <= endDay;
+        }
+    }
+
+    private final Map<Long, Rule[]> lineRules;
+    private final Rule[] basketRules;
+    private final boolean categoryRules;
+
+    private CompiledDiscountRules(Map<Long, Rule[]> lineRules, Rule[] basketRules, boolean categoryRules) {
+        this.lineRules = lineRules;
+        this.basketRules = basketRules;
+        this.categoryRules = categoryRules;
+    }
+
+    /**
+     * Скомпилировать правила магазина.
+     * Правила с неизвестным типом или уровнем, без цели и с некорректным размером пропускаются
+     * @param rules правила магазина
+     * @param products продаваемые товары магазина (нужны для раскрытия правил категорий)
+     * @return скомпилированный набор
+     */
+    static CompiledDiscountRules compile(List<DiscountRuleDefinition> rules, List<ProductSnapshot> products) {
+        Map<Long, List<Rule>> byProduct = new HashMap<>();
+        Map<Long, List<Rule>> byCategory = new HashMap<>();
+        List<Rule> basket = new ArrayList<>();
+
+        for (DiscountRuleDefinition definition : rules) {
+            Rule rule = rule(definition);
+            if (rule == null) {
+                continue;
+            }
+            String appliesTo = definition.appliesTo().toLowerCase(Locale.ROOT);
+            if (TOTAL.equals(appliesTo)) {
+                basket.add(rule);
+            } else if (definition.targetId() != null && PRODUCT.equals(appliesTo)) {
+                byProduct.computeIfAbsent(definition.targetId(), id -> new ArrayList<>()).add(rule);
+            } else if (definition.targetId() != null && CATEGORY.equals(appliesTo)) {
+                byCategory.computeIfAbsent(definition.targetId(), id -> new ArrayList<>()).add(rule);
+            }
+        }
+
+        if (!byCategory.isEmpty()) {
+            for (ProductSnapshot product : products) {
+                List<Rule> categoryRules = product.categoryId() == null ? null : byCategory.get(product.categoryId());
+                if (categoryRules != null) {
+                    byProduct.computeIfAbsent(product.id(), id -> new ArrayList<>()).addAll(categoryRules);
+                }
+            }
+        }
+
+        Map<Long, Rule[]> lineRules = new HashMap<>(byProduct.size() * 4 / 3 + 1);
+        byProduct.forEach((productId, productRules) -> lineRules.put(productId, productRules.toArray(NO_RULES)));
+        return new CompiledDiscountRules(lineRules, basket.toArray(NO_RULES), !byCategory.isEmpty());
+    }
+
+    /**
+     * Рассчитать скидки чека и записать их в позиции.
+     * Ручная скидка позиции сохраняется, если она больше скидки по правилам
+     * @param items позиции чека с ценой, количеством и ручной скидкой
+     * @param day день продажи (epoch day)
+     */
+    void apply(List<SalesItem> items, int day) {
+        BigDecimal subtotal = BigDecimal.ZERO;
+        for (SalesItem item : items) {
+            BigDecimal amount = item.getPrice().multiply(item.getQuantity());
+            BigDecimal manual = item.getDiscount() != null ? item.getDiscount() : BigDecimal.ZERO;
+            BigDecimal discount = best(lineRules.getOrDefault(item.getProductId(), NO_RULES), day, amount).max(manual);
+            item.setDiscount(discount);
+            subtotal = subtotal.add(amount.subtract(discount));
+        }
+
+        BigDecimal basketDiscount = basketDiscount(subtotal, day);
+        if (basketDiscount.signum() > 0) {
+            distribute(items, subtotal, basketDiscount);
+        }
+    }
+
+    boolean hasCategoryRules() {
+        return categoryRules;
+    }
+
+    int productCount() {
+        return lineRules.size();
+    }
+
+    private BigDecimal basketDiscount(BigDecimal subtotal, int day) {
+        return subtotal.signum() > 0 ? best(basketRules, day, subtotal) : BigDecimal.ZERO;
+    }
+
+    /**
+     * Наибольшая скидка среди действующих правил. Из процентных правил выигрывает наибольший процент,
+     * из фиксированных — наибольшая сумма, поэтому перебор только сравнивает размеры,
+     * а сумма скидки считается не больше двух раз
+     */
+    private static BigDecimal best(Rule[] rules, int day, BigDecimal amount) {
+        BigDecimal percent = null;
+        BigDecimal fixed = null;
+        for (Rule rule : rules) {
+            if (!rule.activeOn(day) || (rule.minAmount() != null && amount.compareTo(rule.minAmount()) < 0)) {
+                continue;
+            }
+            if (rule.percentage()) {
+                percent = percent == null || rule.value().compareTo(percent) > 0 ? rule.value() : percent;
+            } else {
+                fixed = fixed == null || rule.value().compareTo(fixed) > 0 ? rule.value() : fixed;
+            }
+        }
+        BigDecimal best = fixed == null ? BigDecimal.ZERO : fixed.min(amount);
+        if (percent != null) {
+            best = best.max(amount.multiply(percent).divide(HUNDRED, 2, RoundingMode.HALF_UP));
+        }
+        return best;
+    }
+
+    /**
+     * Разложить скидку чека по позициям пропорционально их сумме после скидок.
+     * Доли округляются вниз до копейки, остаток округления отдается первым позициям, где есть запас
+     */
+    private static void distribute(List<SalesItem> items, BigDecimal subtotal, BigDecimal basketDiscount) {
+        BigDecimal remainder = basketDiscount;
+        for (SalesItem item : items) {
+            BigDecimal net = net(item);
+            if (net.signum() <= 0) {
+                continue;
+            }
+            BigDecimal share = basketDiscount.multiply(net).divide(subtotal, 2, RoundingMode.DOWN);
+            item.setDiscount(item.getDiscount().add(share));
+            remainder = remainder.subtract(share);
+        }
+        for (int i = 0; remainder.signum() > 0 && i < items.size(); i++) {
+            SalesItem item = items.get(i);
+            BigDecimal extra = remainder.min(net(item));
+            if (extra.signum() > 0) {
+                item.setDiscount(item.getDiscount().add(extra));
+                remainder = remainder.subtract(extra);
+            }
+        }
+    }
+
+    private static BigDecimal net(SalesItem item) {
+        return item.getPrice().multiply(item.getQuantity()).subtract(item.getDiscount()).max(BigDecimal.ZERO);
+    }
+
+    private static Rule rule(DiscountRuleDefinition definition) {
+        if (definition.discountType() == null || definition.appliesTo() == null
+                || definition.value() == null || definition.value().signum() <= 0
+                || definition.startDate() == null) {
+            return null;
+        }
+        String type = definition.discountType().toLowerCase(Locale.ROOT);
+        boolean percentage = PERCENTAGE.equals(type);
+        if (!percentage && !FIXED.equals(type)) {
+            return null;
+        }
+        if (percentage && definition.value().compareTo(HUNDRED) > 0) {
+            return null;
+        }
+        int endDay = definition.endDate() == null ? Integer.MAX_VALUE : (int) definition.endDate().toEpochDay();
+        BigDecimal minAmount = TOTAL.equalsIgnoreCase(definition.appliesTo()) ? definition.minAmount() : null;
+        return new Rule((int) definition.startDate().toEpochDay(), endDay, percentage, definition.value(), minAmount);
+    }
+}
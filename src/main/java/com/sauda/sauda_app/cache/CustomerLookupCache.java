@@ -0,0 +1,123 @@
+package com.sauda.sauda_app.cache;
+
+import com.sauda.sauda_app.dto.CustomerSummary;
+import com.sauda.sauda_app.event.CustomerChangedEvent;
+import com.sauda.sauda_app.repository.CustomerRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Кэш поиска клиента на кассе по дисконтной карте и по телефону внутри магазина.
+ *
+ * Касса ищет клиента на каждом чеке, и чаще всего по неизвестной карте (подарочной, чужой сети),
+ * поэтому пустой результат тоже кэшируется, но живет меньше найденного. Кэш ограничен оценкой
+ * занимаемой памяти, а не числом записей: длина имени и номеров у клиентов разная.
+ * Изменения клиента ({@link CustomerChangedEvent} после фиксации транзакции) сбрасывают записи
+ * по прежним и новым карте и телефону; изменения в обход сервиса видны не позже времени жизни.
+ */
+@Component
+public class CustomerLookupCache {
+
+    /**
+     * Узел LinkedHashMap, запись кэша и ключ без строки
+     */
+    private static final long ENTRY_OVERHEAD_BYTES = 112;
+    private static final long SUMMARY_OVERHEAD_BYTES = 80;
+    private static final long STRING_OVERHEAD_BYTES = 40;
+
+    enum KeyType { DISCOUNT_CARD, PHONE }
+
+    record Key(Long tenantId, KeyType type, String value) {
+    }
+
+    private final CustomerRepository customerRepository;
+    private final WeightedLookupCache<Key, CustomerSummary> cache;
+
+    @Autowired
+    public CustomerLookupCache(CustomerRepository customerRepository,
+                               @Value("${sauda.customer-cache.max-bytes:16777216}") long maxBytes,
+                               @Value("${sauda.customer-cache.ttl-seconds:300}") long ttlSeconds,
+                               @Value("${sauda.customer-cache.negative-ttl-seconds:60}") long negativeTtlSeconds) {
+        this.customerRepository = customerRepository;
+        this.cache = new WeightedLookupCache<>("customers", maxBytes, Duration.ofSeconds(ttlSeconds),
+                Duration.ofSeconds(negativeTtlSeconds), CustomerLookupCache::weigh, System::nanoTime);
+    }
+
+    /**
+     * Клиент магазина по дисконтной карте
+     * @param tenantId идентификатор магазина
+     * @param discountCard номер карты
+     * @return клиент, если карта выдана и клиент не удален
+     */
+    public Optional<CustomerSummary> findByDiscountCard(Long tenantId, String discountCard) {
+        return cache.get(new Key(tenantId, KeyType.DISCOUNT_CARD, discountCard), key -> first(
+                customerRepository.findSummariesByTenantIdAndDiscountCard(key.tenantId(), key.value(), Limit.of(1))));
+    }
+
+    /**
+     * Клиент магазина по номеру телефона
+     * @param tenantId идентификатор магазина
+     * @param phone номер телефона
+     * @return клиент с наименьшим идентификатором, если номер найден
+     */
+    public Optional<CustomerSummary> findByPhone(Long tenantId, String phone) {
+        return cache.get(new Key(tenantId, KeyType.PHONE, phone), key -> first(
+                customerRepository.findSummariesByTenantIdAndPhone(key.tenantId(), key.value(), Limit.of(1))));
+    }
+
+    /**
+     * Сбросить записи по картам и телефонам клиента
+     * @param event изменение клиента
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCustomerChanged(CustomerChangedEvent event) {
+        for (String discountCard : event.discountCards()) {
+            if (discountCard != null) {
+                cache.invalidate(new Key(event.tenantId(), KeyType.DISCOUNT_CARD, discountCard));
+            }
+        }
+        for (String phone : event.phones()) {
+            if (phone != null) {
+                cache.invalidate(new Key(event.tenantId(), KeyType.PHONE, phone));
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Показатели кэша: занятая память, попадания (в том числе в пустой результат), промахи и сбросы
+     */
+    public LookupCacheMetrics getMetrics() {
+        return cache.metrics();
+    }
+
+    static long weigh(Key key, CustomerSummary customer) {
+        long bytes = ENTRY_OVERHEAD_BYTES + sizeOf(key.value());
+        if (customer != null) {
+            bytes += SUMMARY_OVERHEAD_BYTES + sizeOf(customer.fullName()) + sizeOf(customer.phone())
+                    + sizeOf(customer.discountCard());
+        }
+        return bytes;
+    }
+
+    /**
+     * Верхняя оценка: два байта на символ, как у строк не в Latin-1 (имена на кириллице)
+     */
+    private static long sizeOf(String value) {
+        return value == null ? 0 : STRING_OVERHEAD_BYTES + 2L * value.length();
+    }
+
+    private static Optional<CustomerSummary> first(List<CustomerSummary> customers) {
+        return customers.isEmpty() ? Optional.empty() : Optional.of(customers.get(0));
+    }
+}
@@ -0,0 +1,205 @@
+package com.sauda.sauda_app.cache;
+
+import com.sauda.sauda_app.dto.CustomerCounts;
+import com.sauda.sauda_app.event.CustomerChangedEvent;
+import com.sauda.sauda_app.repository.CustomerStatsJdbcRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Счетчики клиентов по магазинам в памяти процесса: статистика для дашборда читается без обращения к базе.
+ *
+ * Всего клиентов, клиентов с картой и новых за день меняют события {@link CustomerChangedEvent}
+ * после фиксации транзакции. Активных за 30 дней событиями не посчитать — окно сдвигается без
+ * всяких записей, — поэтому это число, как и поправка всех остальных, приходит только со сверкой:
+ * один GROUP BY по всем магазинам ({@link #reconcileAll()}, по расписанию) или по одному магазину
+ * при первом обращении к нему.
+ *
+ * Изменения, пришедшие, пока идет запрос сверки, копятся отдельно и добавляются к пересчитанным
+ * значениям, чтобы сверка не затерла их. Удаление клиента, созданного сегодня, уменьшает число
+ * новых за день только при следующей сверке: в событии нет даты создания клиента.
+ */
+@Component
+public class CustomerStatsCounters {
+
+    private static final int ACTIVE_DAYS = 30;
+
+    /**
+     * Счетчики одного магазина; все изменения под блокировкой объекта — обращения редки и коротки
+     */
+    private static final class TenantCounters {
+        long total;
+        long withDiscountCard;
+        long newToday;
+        long activeLast30Days;
+        LocalDate day;
+        boolean loaded;
+
+        boolean reconciling;
+        long pendingTotal;
+        long pendingWithDiscountCard;
+        long pendingNew;
+
+        synchronized void apply(CustomerChangedEvent event, LocalDate today) {
+            rollOver(today);
+            total += event.customersDelta();
+            withDiscountCard += event.discountCardsDelta();
+            int created = Math.max(event.customersDelta(), 0);
+            newToday += created;
+            if (reconciling) {
+                pendingTotal += event.customersDelta();
+                pendingWithDiscountCard += event.discountCardsDelta();
+                pendingNew += created;
+            }
+        }
+
+        synchronized void beginReconcile() {
+            reconciling = true;
+            pendingTotal = 0;
+            pendingWithDiscountCard = 0;
+            pendingNew = 0;
+        }
+
+        /**
+         * @return true, если учтенные значения расходились с пересчетом
+         */
+        synchronized boolean finishReconcile(CustomerCounts counts, LocalDate countedDay) {
+            long expectedTotal = counts.total() + pendingTotal;
+            long expectedWithCard = counts.withDiscountCard() + pendingWithDiscountCard;
+            boolean drifted = loaded && (total != expectedTotal || withDiscountCard != expectedWithCard);
+            total = expectedTotal;
+            withDiscountCard = expectedWithCard;
+            newToday = counts.newToday() + pendingNew;
+            activeLast30Days = counts.activeLast30Days();
+            day = countedDay;
+            loaded = true;
+            reconciling = false;
+            return drifted;
+        }
+
+        synchronized CustomerCounts snapshot(Long tenantId, LocalDate today) {
+            rollOver(today);
+            return new CustomerCounts(tenantId, total, withDiscountCard, newToday, activeLast30Days);
+        }
+
+        private void rollOver(LocalDate today) {
+            if (day != null && !day.equals(today)) {
+                newToday = 0;
+                pendingNew = 0;
+            }
+            day = today;
+        }
+
+        synchronized boolean isLoaded() {
+            return loaded;
+        }
+    }
+
+    private final CustomerStatsJdbcRepository statsRepository;
+    private final Clock clock;
+    private final Map<Long, TenantCounters> counters = new ConcurrentHashMap<>();
+
+    @Autowired
+    public CustomerStatsCounters(CustomerStatsJdbcRepository statsRepository) {
+        this(statsRepository, Clock.systemDefaultZone());
+    }
+
+    CustomerStatsCounters(CustomerStatsJdbcRepository statsRepository, Clock clock) {
+        this.statsRepository = statsRepository;
+        this.clock = clock;
+    }
+
+    /**
+     * Счетчики магазина; при первом обращении к магазину — пересчет по нему одним запросом
+     * @param tenantId идентификатор магазина
+     */
+    public CustomerCounts get(Long tenantId) {
+        TenantCounters tenant = counters.computeIfAbsent(tenantId, id -> new TenantCounters());
+        if (!tenant.isLoaded()) {
+            reconcile(tenantId, tenant);
+        }
+        return tenant.snapshot(tenantId, LocalDate.now(clock));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCustomerChanged(CustomerChangedEvent event) {
+        if (event.customersDelta() == 0 && event.discountCardsDelta() == 0) {
+            return;
+        }
+        counters.computeIfAbsent(event.tenantId(), id -> new TenantCounters()).apply(event, LocalDate.now(clock));
+    }
+
+    /**
+     * Сверка всех магазинов одним запросом
+     * @return магазины, у которых учтенные значения расходились с пересчетом
+     */
+    public List<Long> reconcileAll() {
+        return reconcileAll(Set.of());
+    }
+
+    /**
+     * Сверка всех магазинов текущей базы одним запросом
+     * @param skippedTenantIds магазины, данных которых в этой базе нет (выделенные базы): их счетчики не трогаются
+     * @return магазины, у которых учтенные значения расходились с пересчетом
+     */
+    public List<Long> reconcileAll(Set<Long> skippedTenantIds) {
+        LocalDate today = LocalDate.now(clock);
+        Map<Long, TenantCounters> reconciled = new HashMap<>(counters);
+        reconciled.keySet().removeAll(skippedTenantIds);
+        reconciled.values().forEach(TenantCounters::beginReconcile);
+        List<CustomerCounts> rows = statsRepository.countAll(today.atStartOfDay(), activeSince());
+
+        List<Long> drifted = new ArrayList<>();
+        for (CustomerCounts row : rows) {
+            if (skippedTenantIds.contains(row.tenantId())) {
+                continue;
+            }
+            TenantCounters tenant = reconciled.remove(row.tenantId());
+            if (tenant == null) {
+                tenant = counters.computeIfAbsent(row.tenantId(), id -> new TenantCounters());
+            }
+            if (tenant.finishReconcile(row, today)) {
+                drifted.add(row.tenantId());
+            }
+        }
+        // Магазины без клиентов в базе
+        reconciled.forEach((tenantId, tenant) -> {
+            if (tenant.finishReconcile(CustomerCounts.empty(tenantId), today)) {
+                drifted.add(tenantId);
+            }
+        });
+        return drifted;
+    }
+
+    /**
+     * Сверка одного магазина
+     * @param tenantId идентификатор магазина
+     * @return true, если учтенные значения расходились с пересчетом
+     */
+    public boolean reconcile(Long tenantId) {
+        return reconcile(tenantId, counters.computeIfAbsent(tenantId, id -> new TenantCounters()));
+    }
+
+    private boolean reconcile(Long tenantId, TenantCounters tenant) {
+        LocalDate today = LocalDate.now(clock);
+        tenant.beginReconcile();
+        CustomerCounts counts = statsRepository.countByTenant(tenantId, today.atStartOfDay(), activeSince())
+                .orElseGet(() -> CustomerCounts.empty(tenantId));
+        return tenant.finishReconcile(counts, today);
+    }
+
+    private LocalDateTime activeSince() {
+        return LocalDateTime.now(clock).minusDays(ACTIVE_DAYS);
+    }
+}
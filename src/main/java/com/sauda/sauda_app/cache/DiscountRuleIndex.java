@@ -0,0 +1,91 @@
+package com.sauda.sauda_app.cache;
+
+import com.sauda.sauda_app.entity.SalesItem;
+import com.sauda.sauda_app.event.DiscountRulesChangedEvent;
+import com.sauda.sauda_app.event.ProductChangedEvent;
+import com.sauda.sauda_app.repository.DiscountRuleRepository;
+import com.sauda.sauda_app.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Скомпилированные правила скидок в памяти процесса.
+ * Для каждого магазина при первом чеке загружаются его правила и продаваемые товары и компилируются
+ * в {@link CompiledDiscountRules}; после этого скидки чека считаются без обращения к базе.
+ *
+ * Изменение правил ({@link DiscountRulesChangedEvent}) сбрасывает набор магазина. Изменение товара
+ * ({@link ProductChangedEvent}) сбрасывает его, только если в наборе есть правила категорий:
+ * товар мог сменить категорию. Счетчик поколений работает так же, как в {@link ProductPriceIndex}.
+ */
+@Component
+public class DiscountRuleIndex {
+
+    private final DiscountRuleRepository discountRuleRepository;
+    private final ProductRepository productRepository;
+    private final Map<Long, CompiledDiscountRules> rules = new ConcurrentHashMap<>();
+    private final Map<Long, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    @Autowired
+    public DiscountRuleIndex(DiscountRuleRepository discountRuleRepository, ProductRepository productRepository) {
+        this.discountRuleRepository = discountRuleRepository;
+        this.productRepository = productRepository;
+    }
+
+    /**
+     * Рассчитать скидки чека и записать их в позиции
+     * @param tenantId идентификатор магазина
+     * @param items позиции чека
+     * @param date дата продажи
+     */
+    public void apply(Long tenantId, List<SalesItem> items, LocalDate date) {
+        rulesFor(tenantId).apply(items, (int) date.toEpochDay());
+    }
+
+    /**
+     * Сбросить правила магазина; следующий чек скомпилирует их заново
+     * @param tenantId идентификатор магазина
+     */
+    public void invalidate(Long tenantId) {
+        generationOf(tenantId).incrementAndGet();
+        rules.remove(tenantId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDiscountRulesChanged(DiscountRulesChangedEvent event) {
+        invalidate(event.tenantId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        Long tenantId = event.product().tenantId();
+        CompiledDiscountRules cached = rules.get(tenantId);
+        if (cached != null && cached.hasCategoryRules()) {
+            invalidate(tenantId);
+        }
+    }
+
+    private CompiledDiscountRules rulesFor(Long tenantId) {
+        CompiledDiscountRules cached = rules.get(tenantId);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = generationOf(tenantId).get();
+        CompiledDiscountRules loaded = CompiledDiscountRules.compile(
+                discountRuleRepository.findDefinitionsByTenantId(tenantId, LocalDate.now()),
+                productRepository.findSellableSnapshotsByTenantId(tenantId));
+        rules.compute(tenantId, (id, current) ->
+                current != null ? current : generationOf(id).get() == generation ? loaded : null);
+        return loaded;
+    }
+
+    private AtomicLong generationOf(Long tenantId) {
+        return generations.computeIfAbsent(tenantId, id -> new AtomicLong());
+    }
+}
@@ -0,0 +1,20 @@
+package com.sauda.sauda_app.cache;
+
+/**
+ * Снимок показателей кэша поиска с ограничением по памяти
+ * @param name название кэша
+ * @param entries записей в кэше, включая закэшированные пустые результаты
+ * @param weightBytes оценка занятой памяти, байт
+ * @param maxWeightBytes бюджет памяти, байт
+ * @param hits попаданий
+ * @param negativeHits из них попаданий в закэшированный пустой результат
+ * @param misses промахов (поисков в базе)
+ * @param evictions вытеснено по размеру
+ * @param expirations истекло по времени жизни
+ * @param invalidations сброшено после изменений
+ * @param hitRatio доля попаданий
+ */
+public record LookupCacheMetrics(String name, int entries, long weightBytes, long maxWeightBytes, long hits,
+                                 long negativeHits, long misses, long evictions, long expirations, long invalidations,
+                                 double hitRatio) {
+}
@@ -0,0 +1,176 @@
+package com.sauda.sauda_app.cache;
+
+import com.sauda.sauda_app.dto.PriceInterval;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Индекс цен одного магазина: для каждого товара — неизменяемая шкала времени без пересечений.
+ *
+ * Интервалы прайс-листа могут пересекаться (например, акция поверх базовой цены). При построении
+ * они сводятся к последовательности отрезков, где на каждом отрезке действует цена интервала
+ * с самой поздней датой начала. Отрезок задается днем начала и действует до начала следующего,
+ * поэтому цена на дату — один двоичный поиск по отсортированному массиву дней, O(log n).
+ *
+ * Память: на товар два массива (int[] дней и BigDecimal[] цен) длиной не больше удвоенного
+ * числа его интервалов; соседние отрезки с одинаковой ценой склеиваются.
+ *
+ * Изменение цен товара заменяет только его шкалу ({@link #replace}); чтение идет без блокировок
+ * и видит шкалу товара целиком — прежнюю или новую. Из нескольких обновлений товара остается
+ * обновление с наибольшим номером, в каком бы порядке они ни завершились.
+ */
+final class PriceTimelines {
+
+    /**
+     * Шкала цен товара
+     * @param days день начала каждого отрезка (epoch day), по возрастанию
+     * @param prices цена на отрезке; null — цены нет
+     */
+    private record Timeline(int[] days, BigDecimal[] prices) {
+
+        BigDecimal priceAt(int day) {
+            int index = Arrays.binarySearch(days, day);
+            if (index < 0) {
+                // Точки вставки минус один — последний отрезок, начавшийся раньше дня
+                index = -index - 2;
+            }
+            return index < 0 ? null : prices[index];
+        }
+    }
+
+    private final Map<Long, Timeline> byProduct;
+    /** Номер последнего примененного обновления по товару */
+    private final Map<Long, Long> versions = new ConcurrentHashMap<>();
+
+    private PriceTimelines(Map<Long, Timeline> byProduct) {
+        this.byProduct = byProduct;
+    }
+
+    /**
+     * Построить индекс из строк прайс-листа
+     * @param intervals интервалы цен магазина в любом порядке
+     * @return индекс
+     */
+    static PriceTimelines build(List<PriceInterval> intervals) {
+        Map<Long, List<PriceInterval>> grouped = new HashMap<>();
+        for (PriceInterval interval : intervals) {
+            if (interval.endDate() == null || !interval.endDate().isBefore(interval.startDate())) {
+                grouped.computeIfAbsent(interval.productId(), id -> new ArrayList<>()).add(interval);
+            }
+        }
+        Map<Long, Timeline> byProduct = new ConcurrentHashMap<>(grouped.size() * 4 / 3 + 1);
+        grouped.forEach((productId, productIntervals) -> byProduct.put(productId, timeline(productIntervals)));
+        return new PriceTimelines(byProduct);
+    }
+
+    /**
+     * Цена товара на дату
+     * @param productId идентификатор товара
+     * @param date дата
+     * @return цена или null, если на эту дату цены нет
+     */
+    BigDecimal priceAt(Long productId, LocalDate date) {
+        Timeline timeline = byProduct.get(productId);
+        return timeline == null ? null : timeline.priceAt((int) date.toEpochDay());
+    }
+
+    /**
+     * Заменить шкалу товара, если не применено более позднее обновление
+     * @param productId идентификатор товара
+     * @param intervals все интервалы цен товара; пустой список — цен у товара нет
+     * @param version номер обновления; обновление с меньшим номером, пришедшее позже, отбрасывается
+     */
+    void replace(Long productId, List<PriceInterval> intervals, long version) {
+        List<PriceInterval> valid = new ArrayList<>(intervals.size());
+        for (PriceInterval interval : intervals) {
+            if (interval.endDate() == null || !interval.endDate().isBefore(interval.startDate())) {
+                valid.add(interval);
+            }
+        }
+        Timeline timeline = valid.isEmpty() ? null : timeline(valid);
+        versions.compute(productId, (id, applied) -> {
+            if (applied != null && applied > version) {
+                return applied;
+            }
+            if (timeline == null) {
+                byProduct.remove(id);
+            } else {
+                byProduct.put(id, timeline);
+            }
+            return version;
+        });
+    }
+
+    int productCount() {
+        return byProduct.size();
+    }
+
+    /**
+     * Свести интервалы одного товара к шкале без пересечений проходом по точкам смены цены:
+     * началам интервалов и дням сразу после их окончания
+     */
+    private static Timeline timeline(List<PriceInterval> intervals) {
+        intervals.sort(Comparator.comparing(PriceInterval::startDate));
+        int[] points = new int[intervals.size() * 2];
+        int pointCount = 0;
+        for (PriceInterval interval : intervals) {
+            points[pointCount++] = (int) interval.startDate().toEpochDay();
+            if (interval.endDate() != null) {
+                points[pointCount++] = (int) interval.endDate().toEpochDay() + 1;
+            }
+        }
+        Arrays.sort(points, 0, pointCount);
+
+        // Действующие интервалы по дню начала: побеждает самый поздний; окончания — в очереди по дню конца
+        TreeMap<Integer, PriceInterval> active = new TreeMap<>();
+        PriorityQueue<PriceInterval> ending = new PriorityQueue<>(Comparator.comparing(PriceInterval::endDate));
+        int[] days = new int[pointCount];
+        BigDecimal[] prices = new BigDecimal[pointCount];
+        int size = 0;
+        int next = 0;
+
+        for (int i = 0; i < pointCount; i++) {
+            int day = points[i];
+            if (i > 0 && day == points[i - 1]) {
+                continue;
+            }
+            while (next < intervals.size() && intervals.get(next).startDate().toEpochDay() <= day) {
+                PriceInterval interval = intervals.get(next++);
+                active.put((int) interval.startDate().toEpochDay(), interval);
+                if (interval.endDate() != null) {
+                    ending.add(interval);
+                }
+            }
+            while (!ending.isEmpty() && ending.peek().endDate().toEpochDay() < day) {
+                PriceInterval ended = ending.poll();
+                active.remove((int) ended.startDate().toEpochDay(), ended);
+            }
+
+            BigDecimal price = active.isEmpty() ? null : active.lastEntry().getValue().price();
+            if (size == 0 && price == null) {
+                continue;
+            }
+            if (size > 0 && samePrice(prices[size - 1], price)) {
+                continue;
+            }
+            days[size] = day;
+            prices[size] = price;
+            size++;
+        }
+        return new Timeline(Arrays.copyOf(days, size), Arrays.copyOf(prices, size));
+    }
+
+    private static boolean samePrice(BigDecimal left, BigDecimal right) {
+        return left == null ? right == null : right != null && left.compareTo(right) == 0;
+    }
+}
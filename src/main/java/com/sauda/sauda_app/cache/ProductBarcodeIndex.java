@@ -0,0 +1,96 @@
+package com.sauda.sauda_app.cache;
+
+import com.sauda.sauda_app.dto.ProductSnapshot;
+import com.sauda.sauda_app.event.ProductChangedEvent;
+import com.sauda.sauda_app.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Индекс штрих-кодов в памяти процесса для пути сканирования на кассе.
+ * Для каждого магазина держится своя таблица {@link BarcodeTable} со снимками активных товаров.
+ *
+ * Индекс прогревается при старте приложения и поддерживается событиями {@link ProductChangedEvent}
+ * после фиксации транзакции. Изменения в обход сервисов (прямой SQL) индекс не видит до перезапуска,
+ * однако промах по индексу всегда проверяется в базе, поэтому новый товар не потеряется.
+ */
+@Component
+public class ProductBarcodeIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductBarcodeIndex.class);
+
+    private final ProductRepository productRepository;
+    private final Map<Long, BarcodeTable> tables = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ProductBarcodeIndex(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    /**
+     * Найти товар по штрих-коду в магазине
+     * @param tenantId идентификатор магазина
+     * @param barcode штрих-код
+     * @return снимок товара или пустой Optional
+     */
+    public Optional<ProductSnapshot> find(Long tenantId, String barcode) {
+        BarcodeTable table = tables.get(tenantId);
+        return table == null ? Optional.empty() : Optional.ofNullable(table.get(barcode));
+    }
+
+    /**
+     * Добавить товар, прочитанный из базы при промахе, если событие не успело сделать это раньше
+     * @param snapshot снимок товара
+     */
+    public void putIfAbsent(ProductSnapshot snapshot) {
+        tableFor(snapshot.tenantId(), 0).putIfAbsent(snapshot);
+    }
+
+    /**
+     * Количество товаров в индексе магазина
+     * @param tenantId идентификатор магазина
+     * @return количество товаров
+     */
+    public int size(Long tenantId) {
+        BarcodeTable table = tables.get(tenantId);
+        return table == null ? 0 : table.size();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        Map<Long, List<ProductSnapshot>> byTenant = productRepository.findAllSellableSnapshots().stream()
+                .collect(Collectors.groupingBy(ProductSnapshot::tenantId));
+        byTenant.forEach((tenantId, snapshots) -> tableFor(tenantId, snapshots.size()).putAllAbsent(snapshots));
+        log.info("Barcode index warmed up: {} tenants, {} products",
+                byTenant.size(), byTenant.values().stream().mapToInt(List::size).sum());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        ProductSnapshot snapshot = event.product();
+        BarcodeTable table = tableFor(snapshot.tenantId(), 0);
+        if (event.previousBarcode() != null && !event.previousBarcode().equals(snapshot.barcode())) {
+            table.remove(event.previousBarcode());
+        }
+        if (event.isSellable()) {
+            table.put(snapshot);
+        } else {
+            table.remove(snapshot.barcode());
+        }
+    }
+
+    private BarcodeTable tableFor(Long tenantId, int expectedSize) {
+        return tables.computeIfAbsent(tenantId, id -> new BarcodeTable(expectedSize));
+    }
+}
@@ -0,0 +1,153 @@
+package com.sauda.sauda_app.cache;
+
+import com.sauda.sauda_app.event.PriceListChangedEvent;
+import com.sauda.sauda_app.repository.PriceListRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Индекс действующих цен в памяти процесса.
+ * Для каждого магазина при первом обращении загружается весь его прайс-лист и сводится
+ * в {@link PriceTimelines}; после этого цена на дату находится без обращения к базе.
+ *
+ * Параллельные промахи по одному магазину ждут одну загрузку, а не читают прайс-лист каждый сам.
+ *
+ * Изменение цен товара ({@link PriceListChangedEvent} после фиксации транзакции) перестраивает
+ * в загруженном индексе только шкалу этого товара. Строки товара читаются вне блокировок,
+ * а из параллельных обновлений остается самое позднее по номеру поколения (см. {@link PriceTimelines#replace}),
+ * поэтому последним применяется самое свежее состояние строк. Событие без товара
+ * сбрасывает индекс магазина целиком. Счетчик поколений не дает загрузке, начатой до изменения,
+ * положить в кэш устаревший индекс.
+ */
+@Component
+public class ProductPriceIndex {
+
+    private final PriceListRepository priceListRepository;
+    private final Map<Long, PriceTimelines> timelines = new ConcurrentHashMap<>();
+    private final Map<Long, AtomicLong> generations = new ConcurrentHashMap<>();
+    private final Map<Long, CompletableFuture<PriceTimelines>> loads = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ProductPriceIndex(PriceListRepository priceListRepository) {
+        this.priceListRepository = priceListRepository;
+    }
+
+    /**
+     * Цена товара на дату
+     * @param tenantId идентификатор магазина
+     * @param productId идентификатор товара
+     * @param date дата
+     * @return цена или null, если в прайс-листе нет цены на эту дату
+     */
+    public BigDecimal priceAt(Long tenantId, Long productId, LocalDate date) {
+        return timelinesFor(tenantId).priceAt(productId, date);
+    }
+
+    /**
+     * Цены набора товаров на дату по одному снимку индекса
+     * @param tenantId идентификатор магазина
+     * @param productIds идентификаторы товаров
+     * @param date дата
+     * @return цены по товарам; товаров без цены в результате нет
+     */
+    public Map<Long, BigDecimal> pricesAt(Long tenantId, Iterable<Long> productIds, LocalDate date) {
+        PriceTimelines snapshot = timelinesFor(tenantId);
+        Map<Long, BigDecimal> prices = new HashMap<>();
+        for (Long productId : productIds) {
+            BigDecimal price = snapshot.priceAt(productId, date);
+            if (price != null) {
+                prices.put(productId, price);
+            }
+        }
+        return prices;
+    }
+
+    /**
+     * Сбросить индекс магазина; следующий запрос загрузит прайс-лист заново
+     * @param tenantId идентификатор магазина
+     */
+    public void invalidate(Long tenantId) {
+        generationOf(tenantId).incrementAndGet();
+        timelines.remove(tenantId);
+    }
+
+    /**
+     * Перечитать цены одного товара; индекс магазина, если он загружен, остается в кэше
+     * @param tenantId идентификатор магазина
+     * @param productId идентификатор товара
+     */
+    public void refresh(Long tenantId, Long productId) {
+        // Загрузка, начатая до изменения, не попадет в кэш. Номер берется до чтения строк, поэтому
+        // обновление с большим номером читает состояние не старше, чем с меньшим
+        long version = generationOf(tenantId).incrementAndGet();
+        PriceTimelines cached = timelines.get(tenantId);
+        if (cached == null) {
+            return;
+        }
+        // Запрос идет без блокировок; загруженный индекс правится на месте. Если индекс магазина
+        // тем временем сбросили, правка уйдет в выброшенный экземпляр
+        cached.replace(productId, priceListRepository.findIntervalsByTenantIdAndProductId(tenantId, productId), version);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPriceListChanged(PriceListChangedEvent event) {
+        if (event.productId() == null) {
+            invalidate(event.tenantId());
+        } else {
+            refresh(event.tenantId(), event.productId());
+        }
+    }
+
+    private PriceTimelines timelinesFor(Long tenantId) {
+        PriceTimelines cached = timelines.get(tenantId);
+        if (cached != null) {
+            return cached;
+        }
+        CompletableFuture<PriceTimelines> load = new CompletableFuture<>();
+        CompletableFuture<PriceTimelines> inFlight = loads.putIfAbsent(tenantId, load);
+        if (inFlight != null) {
+            return await(inFlight);
+        }
+        try {
+            // Загрузка идет вне блокировок карты; результат сохраняется, только если за это время
+            // не было изменений
+            long generation = generationOf(tenantId).get();
+            PriceTimelines loaded = timelines.get(tenantId);
+            if (loaded == null) {
+                loaded = PriceTimelines.build(priceListRepository.findIntervalsByTenantId(tenantId));
+                PriceTimelines built = loaded;
+                timelines.compute(tenantId, (id, current) ->
+                        current != null ? current : generationOf(id).get() == generation ? built : null);
+            }
+            load.complete(loaded);
+            return loaded;
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            loads.remove(tenantId, load);
+        }
+    }
+
+    private static PriceTimelines await(CompletableFuture<PriceTimelines> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    private AtomicLong generationOf(Long tenantId) {
+        return generations.computeIfAbsent(tenantId, id -> new AtomicLong());
+    }
+}
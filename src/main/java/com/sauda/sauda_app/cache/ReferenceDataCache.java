@@ -0,0 +1,139 @@
+package com.sauda.sauda_app.cache;
+
+import com.sauda.sauda_app.dto.CategorySummary;
+import com.sauda.sauda_app.dto.RoleSummary;
+import com.sauda.sauda_app.dto.ShopSummary;
+import com.sauda.sauda_app.dto.UnitSummary;
+import com.sauda.sauda_app.dto.WarehouseSummary;
+import com.sauda.sauda_app.repository.CategoryRepository;
+import com.sauda.sauda_app.repository.RoleRepository;
+import com.sauda.sauda_app.repository.ShopRepository;
+import com.sauda.sauda_app.repository.UnitRepository;
+import com.sauda.sauda_app.repository.WarehouseRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Кэш справочников магазина в памяти процесса: категории, единицы измерения, склады, роли и магазины.
+ *
+ * Каждая область хранит список записей магазина целиком, поэтому и список, и поиск по идентификатору
+ * после первой загрузки не обращаются к базе. Области ограничены по числу магазинов и времени жизни
+ * записи; изменения справочников через JPA сбрасывают область магазина после фиксации
+ * ({@link ReferenceDataInvalidator}), а изменения в обход JPA видны не позже времени жизни.
+ */
+@Component
+public class ReferenceDataCache {
+
+    private final CategoryRepository categoryRepository;
+    private final UnitRepository unitRepository;
+    private final WarehouseRepository warehouseRepository;
+    private final RoleRepository roleRepository;
+    private final ShopRepository shopRepository;
+
+    private final TenantCache<CategorySummary> categories;
+    private final TenantCache<UnitSummary> units;
+    private final TenantCache<WarehouseSummary> warehouses;
+    private final TenantCache<RoleSummary> roles;
+    private final TenantCache<ShopSummary> shops;
+    private final Map<ReferenceRegion, TenantCache<?>> regions = new EnumMap<>(ReferenceRegion.class);
+
+    @Autowired
+    public ReferenceDataCache(CategoryRepository categoryRepository, UnitRepository unitRepository,
+                              WarehouseRepository warehouseRepository, RoleRepository roleRepository,
+                              ShopRepository shopRepository,
+                              @Value("${sauda.reference-cache.max-tenants:1000}") int maxTenants,
+                              @Value("${sauda.reference-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.categoryRepository = categoryRepository;
+        this.unitRepository = unitRepository;
+        this.warehouseRepository = warehouseRepository;
+        this.roleRepository = roleRepository;
+        this.shopRepository = shopRepository;
+        Duration ttl = Duration.ofSeconds(ttlSeconds);
+        this.categories = region(ReferenceRegion.CATEGORIES, maxTenants, ttl);
+        this.units = region(ReferenceRegion.UNITS, maxTenants, ttl);
+        this.warehouses = region(ReferenceRegion.WAREHOUSES, maxTenants, ttl);
+        this.roles = region(ReferenceRegion.ROLES, maxTenants, ttl);
+        this.shops = region(ReferenceRegion.SHOPS, maxTenants, ttl);
+    }
+
+    public List<CategorySummary> getCategories(Long tenantId) {
+        return categories.get(tenantId, categoryRepository::findSummariesByTenantId);
+    }
+
+    public List<UnitSummary> getUnits(Long tenantId) {
+        return units.get(tenantId, unitRepository::findSummariesByTenantId);
+    }
+
+    public List<WarehouseSummary> getWarehouses(Long tenantId) {
+        return warehouses.get(tenantId, warehouseRepository::findSummariesByTenantId);
+    }
+
+    public List<RoleSummary> getRoles(Long tenantId) {
+        return roles.get(tenantId, roleRepository::findSummariesByTenantId);
+    }
+
+    public List<ShopSummary> getShops(Long tenantId) {
+        return shops.get(tenantId, shopRepository::findSummariesByTenantId);
+    }
+
+    /**
+     * Склад магазина по идентификатору
+     * @param tenantId идентификатор магазина
+     * @param warehouseId идентификатор склада
+     * @return склад, если он принадлежит магазину и не удален
+     */
+    public Optional<WarehouseSummary> findWarehouse(Long tenantId, Long warehouseId) {
+        return getWarehouses(tenantId).stream().filter(w -> w.id().equals(warehouseId)).findFirst();
+    }
+
+    /**
+     * Магазин по идентификатору
+     * @param tenantId идентификатор арендатора
+     * @param shopId идентификатор магазина
+     * @return магазин, если он принадлежит арендатору
+     */
+    public Optional<ShopSummary> findShop(Long tenantId, Long shopId) {
+        return getShops(tenantId).stream().filter(s -> s.id().equals(shopId)).findFirst();
+    }
+
+    /**
+     * Сбросить область магазина; следующий запрос загрузит ее заново
+     * @param region область
+     * @param tenantId идентификатор магазина
+     */
+    public void invalidate(ReferenceRegion region, Long tenantId) {
+        regions.get(region).invalidate(tenantId);
+    }
+
+    /**
+     * Сбросить область для всех магазинов
+     * @param region область
+     */
+    public void invalidateAll(ReferenceRegion region) {
+        regions.get(region).invalidateAll();
+    }
+
+    /**
+     * Показатели по областям: размер, попадания, промахи, вытеснения и сбросы
+     */
+    public List<CacheRegionMetrics> getMetrics() {
+        List<CacheRegionMetrics> metrics = new ArrayList<>(regions.size());
+        regions.values().forEach(region -> metrics.add(region.metrics()));
+        return metrics;
+    }
+
+    private <T> TenantCache<T> region(ReferenceRegion region, int maxTenants, Duration ttl) {
+        TenantCache<T> cache = new TenantCache<>(region.name().toLowerCase(Locale.ROOT), maxTenants, ttl, System::nanoTime);
+        regions.put(region, cache);
+        return cache;
+    }
+}
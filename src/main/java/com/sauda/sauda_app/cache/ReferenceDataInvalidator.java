@@ -0,0 +1,99 @@
+package com.sauda.sauda_app.cache;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Сброс кэша справочников при записи через JPA.
+ * Слушатели Hibernate вызываются после фиксации транзакции, поэтому откаченные изменения
+ * кэш не сбрасывают, а следующий запрос после фиксации уже читает новые данные.
+ * Изменение магазина у записи (tenantId) сбрасывает области обоих магазинов.
+ */
+@Component
+public class ReferenceDataInvalidator implements PostCommitInsertEventListener, PostCommitUpdateEventListener,
+        PostCommitDeleteEventListener {
+
+    private static final String TENANT_PROPERTY = "tenantId";
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final ReferenceDataCache referenceDataCache;
+
+    @Autowired
+    public ReferenceDataInvalidator(EntityManagerFactory entityManagerFactory, ReferenceDataCache referenceDataCache) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.referenceDataCache = referenceDataCache;
+    }
+
+    @PostConstruct
+    void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return ReferenceRegion.of(persister.getMappedClass()) != null;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        invalidate(event.getPersister(), event.getState());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        invalidate(event.getPersister(), event.getState());
+        invalidate(event.getPersister(), event.getOldState());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        invalidate(event.getPersister(), event.getDeletedState());
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+        // Транзакция откатилась — кэш не менялся
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        // Транзакция откатилась — кэш не менялся
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        // Транзакция откатилась — кэш не менялся
+    }
+
+    private void invalidate(EntityPersister persister, Object[] state) {
+        ReferenceRegion region = ReferenceRegion.of(persister.getMappedClass());
+        if (region == null || state == null) {
+            return;
+        }
+        String[] names = persister.getPropertyNames();
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(TENANT_PROPERTY) && state[i] instanceof Number tenantId) {
+                referenceDataCache.invalidate(region, tenantId.longValue());
+                return;
+            }
+        }
+        // Магазин записи неизвестен — сбрасываем область целиком
+        referenceDataCache.invalidateAll(region);
+    }
+}
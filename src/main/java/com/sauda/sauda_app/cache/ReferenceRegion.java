@@ -0,0 +1,38 @@
+package com.sauda.sauda_app.cache;
+
+import com.sauda.sauda_app.entity.Category;
+import com.sauda.sauda_app.entity.Role;
+import com.sauda.sauda_app.entity.Shop;
+import com.sauda.sauda_app.entity.Unit;
+import com.sauda.sauda_app.entity.Warehouse;
+
+/**
+ * Области кэша справочников и сущности, изменение которых их сбрасывает
+ */
+public enum ReferenceRegion {
+    CATEGORIES(Category.class),
+    UNITS(Unit.class),
+    WAREHOUSES(Warehouse.class),
+    ROLES(Role.class),
+    SHOPS(Shop.class);
+
+    private final Class<?> entityClass;
+
+    ReferenceRegion(Class<?> entityClass) {
+        this.entityClass = entityClass;
+    }
+
+    /**
+     * Область по классу сущности
+     * @param entityClass класс сущности
+     * @return область или null, если сущность не относится к справочникам
+     */
+    public static ReferenceRegion of(Class<?> entityClass) {
+        for (ReferenceRegion region : values()) {
+            if (region.entityClass == entityClass) {
+                return region;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,138 @@
+package com.sauda.sauda_app.cache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Область кэша справочника: неизменяемый список записей на магазин.
+ *
+ * Запись живет не дольше ttl с момента загрузки; при превышении числа магазинов вытесняется
+ * магазин, к которому дольше всех не обращались. Загрузка идет вне блокировок карты, а счетчик
+ * поколений, как в {@link ProductPriceIndex}, не дает загрузке, начатой до сброса, положить
+ * в кэш устаревший список.
+ *
+ * @param <T> тип записи справочника
+ */
+final class TenantCache<T> {
+
+    private static final class Entry<T> {
+        final List<T> values;
+        final long loadedAt;
+        volatile long lastAccess;
+
+        Entry(List<T> values, long loadedAt) {
+            this.values = values;
+            this.loadedAt = loadedAt;
+            this.lastAccess = loadedAt;
+        }
+    }
+
+    private final String name;
+    private final int maxTenants;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    private final Map<Long, Entry<T>> entries = new ConcurrentHashMap<>();
+    private final Map<Long, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    TenantCache(String name, int maxTenants, Duration ttl, LongSupplier clock) {
+        if (maxTenants <= 0 || ttl.isNegative()) {
+            throw new IllegalArgumentException("Размер кэша " + name + " должен быть положительным, а время жизни — неотрицательным");
+        }
+        this.name = name;
+        this.maxTenants = maxTenants;
+        this.ttlNanos = ttl.toNanos();
+        this.clock = clock;
+    }
+
+    /**
+     * Список магазина из кэша или из загрузчика при промахе
+     * @param tenantId идентификатор магазина
+     * @param loader загрузка списка из базы
+     * @return неизменяемый список
+     */
+    List<T> get(Long tenantId, Function<Long, List<T>> loader) {
+        long now = clock.getAsLong();
+        Entry<T> cached = entries.get(tenantId);
+        if (cached != null) {
+            if (now - cached.loadedAt < ttlNanos) {
+                cached.lastAccess = now;
+                hits.increment();
+                return cached.values;
+            }
+            if (entries.remove(tenantId, cached)) {
+                expirations.increment();
+            }
+        }
+        misses.increment();
+        long generation = generationOf(tenantId).get();
+        Entry<T> loaded = new Entry<>(List.copyOf(loader.apply(tenantId)), now);
+        entries.compute(tenantId, (id, current) ->
+                current != null ? current : generationOf(id).get() == generation ? loaded : null);
+        if (entries.size() > maxTenants) {
+            evictLeastRecentlyUsed();
+        }
+        return loaded.values;
+    }
+
+    /**
+     * Сбросить список магазина; следующий запрос загрузит его заново
+     * @param tenantId идентификатор магазина
+     */
+    void invalidate(Long tenantId) {
+        generationOf(tenantId).incrementAndGet();
+        if (entries.remove(tenantId) != null) {
+            invalidations.increment();
+        }
+    }
+
+    void invalidateAll() {
+        for (Long tenantId : entries.keySet()) {
+            invalidate(tenantId);
+        }
+    }
+
+    CacheRegionMetrics metrics() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long requests = hitCount + missCount;
+        return new CacheRegionMetrics(name, entries.size(), maxTenants, hitCount, missCount, evictions.sum(),
+                expirations.sum(), invalidations.sum(), requests == 0 ? 0 : (double) hitCount / requests);
+    }
+
+    /**
+     * Вытеснение проходом по записям: выполняется только при переполнении,
+     * а число магазинов в области ограничено maxTenants
+     */
+    private void evictLeastRecentlyUsed() {
+        while (entries.size() > maxTenants) {
+            Map.Entry<Long, Entry<T>> oldest = null;
+            for (Map.Entry<Long, Entry<T>> candidate : entries.entrySet()) {
+                if (oldest == null || candidate.getValue().lastAccess < oldest.getValue().lastAccess) {
+                    oldest = candidate;
+                }
+            }
+            if (oldest == null) {
+                return;
+            }
+            if (entries.remove(oldest.getKey(), oldest.getValue())) {
+                evictions.increment();
+            }
+        }
+    }
+
+    private AtomicLong generationOf(Long tenantId) {
+        return generations.computeIfAbsent(tenantId, id -> new AtomicLong());
+    }
+}
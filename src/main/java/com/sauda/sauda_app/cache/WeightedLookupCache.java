@@ -0,0 +1,160 @@
+package com.sauda.sauda_app.cache;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongBiFunction;
+
+/**
+ * Кэш поиска по ключу с ограничением по оценке занимаемой памяти.
+ *
+ * Каждая запись весит столько байт, сколько насчитал weigher; при превышении бюджета вытесняются
+ * записи, к которым дольше всех не обращались (LinkedHashMap в порядке доступа). Пустой результат
+ * поиска тоже кэшируется — с отдельным, обычно более коротким временем жизни. Загрузка идет вне
+ * блокировки, а счетчик поколений, как в {@link TenantCache}, не дает загрузке, начатой до сброса,
+ * положить в кэш устаревшее значение: сбросы редки, поэтому поколение общее на весь кэш.
+ *
+ * @param <K> тип ключа
+ * @param <V> тип значения
+ */
+final class WeightedLookupCache<K, V> {
+
+    private static final class Entry<V> {
+        final V value;
+        final long weight;
+        final long loadedAt;
+
+        Entry(V value, long weight, long loadedAt) {
+            this.value = value;
+            this.weight = weight;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    private final String name;
+    private final long maxWeight;
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+    private final ToLongBiFunction<K, V> weigher;
+    private final LongSupplier clock;
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight;
+    private long generation;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    WeightedLookupCache(String name, long maxWeight, Duration ttl, Duration negativeTtl,
+                        ToLongBiFunction<K, V> weigher, LongSupplier clock) {
+        if (maxWeight <= 0 || ttl.isNegative() || negativeTtl.isNegative()) {
+            throw new IllegalArgumentException("Размер кэша " + name + " должен быть положительным, а время жизни — неотрицательным");
+        }
+        this.name = name;
+        this.maxWeight = maxWeight;
+        this.ttlNanos = ttl.toNanos();
+        this.negativeTtlNanos = negativeTtl.toNanos();
+        this.weigher = weigher;
+        this.clock = clock;
+    }
+
+    /**
+     * Значение из кэша или из загрузчика при промахе
+     * @param key ключ
+     * @param loader поиск в базе
+     * @return найденное значение или пустой результат, в том числе закэшированный
+     */
+    Optional<V> get(K key, Function<K, Optional<V>> loader) {
+        long now = clock.getAsLong();
+        long startedGeneration;
+        synchronized (this) {
+            Entry<V> cached = entries.get(key);
+            if (cached != null) {
+                if (now - cached.loadedAt < (cached.value != null ? ttlNanos : negativeTtlNanos)) {
+                    hits.increment();
+                    if (cached.value == null) {
+                        negativeHits.increment();
+                    }
+                    return Optional.ofNullable(cached.value);
+                }
+                remove(key);
+                expirations.increment();
+            }
+            startedGeneration = generation;
+        }
+        misses.increment();
+        Optional<V> loaded = loader.apply(key);
+        V value = loaded.orElse(null);
+        long entryWeight = weigher.applyAsLong(key, value);
+        synchronized (this) {
+            if (generation == startedGeneration && entryWeight <= maxWeight) {
+                remove(key);
+                entries.put(key, new Entry<>(value, entryWeight, now));
+                weight += entryWeight;
+                evictLeastRecentlyUsed();
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Сбросить запись; следующий поиск по ключу обратится к базе
+     * @param key ключ
+     */
+    synchronized void invalidate(K key) {
+        generation++;
+        if (remove(key)) {
+            invalidations.increment();
+        }
+    }
+
+    synchronized void invalidateAll() {
+        generation++;
+        invalidations.add(entries.size());
+        entries.clear();
+        weight = 0;
+    }
+
+    LookupCacheMetrics metrics() {
+        int size;
+        long currentWeight;
+        synchronized (this) {
+            size = entries.size();
+            currentWeight = weight;
+        }
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long requests = hitCount + missCount;
+        return new LookupCacheMetrics(name, size, currentWeight, maxWeight, hitCount, negativeHits.sum(), missCount,
+                evictions.sum(), expirations.sum(), invalidations.sum(), requests == 0 ? 0 : (double) hitCount / requests);
+    }
+
+    private boolean remove(K key) {
+        Entry<V> removed = entries.remove(key);
+        if (removed == null) {
+            return false;
+        }
+        weight -= removed.weight;
+        return true;
+    }
+
+    /**
+     * Итератор LinkedHashMap в порядке доступа начинается с записи, к которой дольше всех не обращались
+     */
+    private void evictLeastRecentlyUsed() {
+        Iterator<Map.Entry<K, Entry<V>>> eldest = entries.entrySet().iterator();
+        while (weight > maxWeight && eldest.hasNext()) {
+            weight -= eldest.next().getValue().weight;
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+}
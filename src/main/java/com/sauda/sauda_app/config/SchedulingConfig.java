@@ -0,0 +1,36 @@
+package com.sauda.sauda_app.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.task.SimpleAsyncTaskSchedulerBuilder;
+import org.springframework.boot.task.ThreadPoolTaskSchedulerBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.SimpleAsyncTaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Фоновые задачи приложения (см. пакет job)
+ *
+ * Свой планировщик taskScheduler обязателен: брокер STOMP регистрирует messageBrokerTaskScheduler,
+ * из-за него автоконфигурация планировщик не создает, и задачи @Scheduled выполнялись бы в пуле
+ * heartbeat брокера, задерживая heartbeat и друг друга. При нескольких планировщиках @Scheduled
+ * берет бин с именем taskScheduler; настройки — spring.task.scheduling.*, потоки — по spring.threads.virtual.enabled.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+    @Bean(name = "taskScheduler")
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public ThreadPoolTaskScheduler taskScheduler(ThreadPoolTaskSchedulerBuilder builder) {
+        return builder.build();
+    }
+
+    @Bean(name = "taskScheduler")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public SimpleAsyncTaskScheduler taskSchedulerVirtualThreads(SimpleAsyncTaskSchedulerBuilder builder) {
+        return builder.build();
+    }
+}
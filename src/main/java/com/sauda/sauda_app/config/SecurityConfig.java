@@ -1,5 +1,13 @@
 package com.sauda.sauda_app.config;
 
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import com.sauda.sauda_app.security.CachingJwtDecoder;
+import com.sauda.sauda_app.security.JwkSetCache;
+import com.sauda.sauda_app.security.KeycloakJwtAuthenticationConverter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
@@ -7,22 +15,23 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.server.resource.web.BearerTokenResolver;
+import org.springframework.security.oauth2.server.resource.web.DefaultBearerTokenResolver;
 import org.springframework.security.web.SecurityFilterChain;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
-import java.util.Map;
+import java.time.Clock;
 
 @Configuration
 @EnableWebSecurity
 @Profile("!test")
 public class SecurityConfig {
 
+    private static final int MAX_ROLE_SETS = 256;
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
@@ -49,15 +58,33 @@ public class SecurityConfig {
                 // Sales operations - cashier and above
                 .requestMatchers("/api/sales/**").hasAnyRole("CASHIER", "SALES_MANAGER", "MANAGER", "ADMIN")
                 
+                // POS terminals - catalog download and offline receipt upload for cashier and above
+                .requestMatchers("GET", "/api/pos/**").hasAnyRole("CASHIER", "SALES_MANAGER", "MANAGER", "ADMIN")
+                .requestMatchers("POST", "/api/pos/receipts").hasAnyRole("CASHIER", "SALES_MANAGER", "MANAGER", "ADMIN")
+                
                 // Inventory operations - inventory manager and above
                 .requestMatchers("/api/inventory/**").hasAnyRole("INVENTORY_MANAGER", "MANAGER", "ADMIN")
                 
+                // Customer lookup at checkout - cashier and above; lookup cache metrics - admin only
+                .requestMatchers("/api/customers/cache/**").hasRole("ADMIN")
+                .requestMatchers("GET", "/api/customers/lookup").hasAnyRole("CASHIER", "SALES_MANAGER", "MANAGER", "ADMIN")
+                
                 // Customer management - sales manager and above
                 .requestMatchers("/api/customers/**").hasAnyRole("SALES_MANAGER", "MANAGER", "ADMIN")
                 
                 // Reports - manager and admin only
                 .requestMatchers("/api/reports/**").hasAnyRole("MANAGER", "ADMIN")
                 
+                // Audit pipeline metrics - admin only
+                .requestMatchers("/api/audit/**").hasRole("ADMIN")
+                
+                // Reference data - cashier and above; cache metrics - admin only
+                .requestMatchers("/api/reference/cache/**").hasRole("ADMIN")
+                .requestMatchers("GET", "/api/reference/**").hasAnyRole("CASHIER", "INVENTORY_MANAGER", "SALES_MANAGER", "MANAGER", "ADMIN")
+                
+                // Real-time dashboards (STOMP over WebSocket); topic roles and tenant are checked per subscription
+                .requestMatchers("/ws/**").hasAnyRole("CASHIER", "INVENTORY_MANAGER", "SALES_MANAGER", "MANAGER", "ADMIN")
+                
                 // Auth test endpoints
                 .requestMatchers("/api/auth-test/authenticated").authenticated()
                 .requestMatchers("/api/auth-test/admin-only").hasRole("ADMIN")
@@ -67,6 +94,7 @@ public class SecurityConfig {
                 .anyRequest().authenticated()
             )
             .oauth2ResourceServer(oauth2 -> oauth2
+                .bearerTokenResolver(bearerTokenResolver())
                 .jwt(jwt -> jwt
                     .jwtAuthenticationConverter(jwtAuthenticationConverter())
                 )
@@ -77,33 +105,32 @@ public class SecurityConfig {
 
     @Bean
     public JwtAuthenticationConverter jwtAuthenticationConverter() {
-        JwtAuthenticationConverter jwtAuthenticationConverter = new JwtAuthenticationConverter();
-        jwtAuthenticationConverter.setPrincipalClaimName("preferred_username");
-        jwtAuthenticationConverter.setJwtGrantedAuthoritiesConverter(this::extractAuthorities);
-        
-        return jwtAuthenticationConverter;
+        return new KeycloakJwtAuthenticationConverter(MAX_ROLE_SETS);
+    }
+
+    // Browsers cannot set headers on the WebSocket handshake: on /ws the token may also come as ?access_token=
+    private static BearerTokenResolver bearerTokenResolver() {
+        DefaultBearerTokenResolver headerOnly = new DefaultBearerTokenResolver();
+        DefaultBearerTokenResolver headerOrQuery = new DefaultBearerTokenResolver();
+        headerOrQuery.setAllowUriQueryParameter(true);
+        return request -> request.getRequestURI().startsWith(request.getContextPath() + "/ws")
+                ? headerOrQuery.resolve(request)
+                : headerOnly.resolve(request);
     }
 
-    private Collection<GrantedAuthority> extractAuthorities(Jwt jwt) {
-        List<GrantedAuthority> authorities = new ArrayList<>();
-        
-        // Extract roles from realm_access.roles
-        Map<String, Object> realmAccess = jwt.getClaimAsMap("realm_access");
-        if (realmAccess != null && realmAccess.containsKey("roles")) {
-            @SuppressWarnings("unchecked")
-            List<String> roles = (List<String>) realmAccess.get("roles");
-            if (roles != null) {
-                for (String role : roles) {
-                    // Skip default Keycloak roles
-                    if (!role.equals("offline_access") && 
-                        !role.equals("uma_authorization") && 
-                        !role.equals("default-roles-sauda-realm")) {
-                        authorities.add(new SimpleGrantedAuthority("ROLE_" + role));
-                    }
-                }
-            }
-        }
-        
-        return authorities;
+    // Signatures are checked against the prefetched JWK set (no Keycloak round trip per request);
+    // verified tokens are cached until expiry
+    @Bean
+    public JwtDecoder jwtDecoder(JwkSetCache jwkSetCache,
+                                 @Value("${spring.security.oauth2.resourceserver.jwt.issuer-uri}") String issuerUri,
+                                 @Value("${sauda.security.jwt-cache.max-tokens:10000}") int maxTokens) {
+        DefaultJWTProcessor<SecurityContext> jwtProcessor = new DefaultJWTProcessor<>();
+        jwtProcessor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.RS256, jwkSetCache));
+        // Claims are checked by Spring validators (timestamps, issuer)
+        jwtProcessor.setJWTClaimsSetVerifier((claims, context) -> { });
+
+        NimbusJwtDecoder decoder = new NimbusJwtDecoder(jwtProcessor);
+        decoder.setJwtValidator(JwtValidators.createDefaultWithIssuer(issuerUri));
+        return new CachingJwtDecoder(decoder, maxTokens, jwkSetCache::version, Clock.systemUTC());
     }
 }
@@ -0,0 +1,24 @@
+package com.sauda.sauda_app.config;
+
+import com.sauda.sauda_app.tenant.CurrentTenantArgumentResolver;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Параметры контроллеров с магазином запроса (см. пакет tenant)
+ */
+@Configuration
+public class TenantWebConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private CurrentTenantArgumentResolver currentTenantArgumentResolver;
+
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(currentTenantArgumentResolver);
+    }
+}
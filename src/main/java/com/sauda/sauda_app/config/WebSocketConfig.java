@@ -0,0 +1,81 @@
+package com.sauda.sauda_app.config;
+
+import com.sauda.sauda_app.realtime.TenantSubscriptionInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.simp.config.ChannelRegistration;
+import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
+import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
+import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+/**
+ * STOMP поверх WebSocket для панелей в реальном времени (см. пакет realtime).
+ *
+ * Встроенный брокер держит подписки в памяти узла. Каждая сессия пишет через ограниченный буфер:
+ * если клиент не успевает принимать кадры и неотправленное превышает send-buffer-bytes
+ * или отправка длится дольше send-time-limit-ms, сессия закрывается, а остальные подписчики
+ * не ждут медленного клиента. Heartbeat закрывает соединения, оборванные без закрытия.
+ */
+@Configuration
+@EnableWebSocketMessageBroker
+public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+
+    private static final int INBOUND_MESSAGE_SIZE_LIMIT = 16 * 1024;
+
+    @Autowired
+    private TenantSubscriptionInterceptor tenantSubscriptionInterceptor;
+
+    @Autowired
+    @Lazy
+    private TaskScheduler messageBrokerTaskScheduler;
+
+    @Value("${sauda.realtime.allowed-origin-patterns:*}")
+    private String[] allowedOriginPatterns;
+
+    @Value("${sauda.realtime.send-buffer-bytes:65536}")
+    private int sendBufferBytes;
+
+    @Value("${sauda.realtime.send-time-limit-ms:5000}")
+    private int sendTimeLimitMs;
+
+    @Value("${sauda.realtime.heartbeat-ms:10000}")
+    private long heartbeatMs;
+
+    @Value("${sauda.realtime.subscription-cache-limit:10000}")
+    private int subscriptionCacheLimit;
+
+    @Override
+    public void registerStompEndpoints(StompEndpointRegistry registry) {
+        registry.addEndpoint("/ws").setAllowedOriginPatterns(allowedOriginPatterns);
+    }
+
+    @Override
+    public void configureMessageBroker(MessageBrokerRegistry registry) {
+        registry.enableSimpleBroker("/topic")
+                .setHeartbeatValue(new long[]{heartbeatMs, heartbeatMs})
+                // Пул только для heartbeat брокера; задачи @Scheduled идут в taskScheduler (SchedulingConfig)
+                .setTaskScheduler(messageBrokerTaskScheduler)
+                // Селекторы подписок не используются — не разбираем заголовок на каждую доставку
+                .setSelectorHeaderName(null);
+        registry.setApplicationDestinationPrefixes("/app");
+        // Кэш разрешения адреса в подписчиков: по записи на канал склада и канал продаж магазина
+        registry.setCacheLimit(subscriptionCacheLimit);
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendBufferSizeLimit(sendBufferBytes)
+                .setSendTimeLimit(sendTimeLimitMs)
+                .setMessageSizeLimit(INBOUND_MESSAGE_SIZE_LIMIT);
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(tenantSubscriptionInterceptor);
+    }
+}
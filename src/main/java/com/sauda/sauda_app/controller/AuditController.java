@@ -0,0 +1,26 @@
+package com.sauda.sauda_app.controller;
+
+import com.sauda.sauda_app.audit.AuditMetrics;
+import com.sauda.sauda_app.audit.AuditPipeline;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/audit")
+@CrossOrigin(origins = "*")
+public class AuditController {
+
+    @Autowired
+    private AuditPipeline auditPipeline;
+
+    /**
+     * Показатели очереди аудита: глубина, потери при переполнении, длительность сброса пакетов
+     */
+    @GetMapping("/metrics")
+    public AuditMetrics getMetrics() {
+        return auditPipeline.getMetrics();
+    }
+}
@@ -1,29 +1,51 @@
 package com.sauda.sauda_app.controller;
 
+import com.sauda.sauda_app.cache.CustomerLookupCache;
+import com.sauda.sauda_app.cache.LookupCacheMetrics;
+import com.sauda.sauda_app.dto.CursorSlice;
+import com.sauda.sauda_app.dto.CustomerSummary;
+import com.sauda.sauda_app.service.CustomerService;
+import com.sauda.sauda_app.tenant.CurrentTenant;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/customers")
 @CrossOrigin(origins = "*")
 public class CustomerController {
 
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private CustomerLookupCache customerLookupCache;
+
     @GetMapping
-    public ResponseEntity<Map<String, String>> getCustomers(@RequestParam(defaultValue = "1") Long tenantId, Authentication authentication) {
+    public ResponseEntity<?> getCustomers(@CurrentTenant Long tenantId,
+                                          @RequestParam(defaultValue = "id") String sort,
+                                          @RequestParam(required = false) String cursor,
+                                          @RequestParam(defaultValue = "20") int size,
+                                          Authentication authentication) {
         if (authentication == null) {
             return ResponseEntity.status(401).body(Map.of(
                 "error", "Unauthorized",
                 "message", "Authentication required"
             ));
         }
-        return ResponseEntity.ok(Map.of(
-            "message", "Customers data for tenant " + tenantId,
-            "access", "SALES_MANAGER, MANAGER, ADMIN only",
-            "status", "success"
-        ));
+        try {
+            CursorSlice<CustomerSummary> customers = customerService.getCustomerSlice(tenantId, sort, cursor, size);
+            return ResponseEntity.ok(customers);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "Bad Request",
+                "message", e.getMessage()
+            ));
+        }
     }
 
     @PostMapping
@@ -36,11 +58,45 @@ public class CustomerController {
     }
 
     @GetMapping("/loyalty")
-    public Map<String, String> getLoyaltyCustomers(@RequestParam(defaultValue = "1") Long tenantId) {
+    public Map<String, String> getLoyaltyCustomers(@CurrentTenant Long tenantId) {
         return Map.of(
             "message", "Loyalty customers for tenant " + tenantId,
             "count", "25",
             "status", "success"
         );
     }
+
+    /**
+     * Статистика клиентов магазина для дашборда: читается из счетчиков в памяти
+     */
+    @GetMapping("/stats")
+    public CustomerService.CustomerStats getCustomerStats(@CurrentTenant Long tenantId) {
+        return customerService.getCustomerStatsByTenant(tenantId);
+    }
+
+    /**
+     * Поиск клиента на кассе по дисконтной карте или телефону (через кэш поиска клиентов)
+     */
+    @GetMapping("/lookup")
+    public ResponseEntity<?> lookupCustomer(@CurrentTenant Long tenantId,
+                                            @RequestParam(required = false) String card,
+                                            @RequestParam(required = false) String phone) {
+        try {
+            Optional<CustomerSummary> customer = card != null
+                    ? customerService.findCustomerByDiscountCard(tenantId, card)
+                    : customerService.findCustomerByPhone(tenantId, phone);
+            return customer.<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "Bad Request",
+                "message", e.getMessage()
+            ));
+        }
+    }
+
+    @GetMapping("/cache/metrics")
+    public LookupCacheMetrics getLookupCacheMetrics() {
+        return customerLookupCache.getMetrics();
+    }
 }
@@ -1,9 +1,21 @@
 package com.sauda.sauda_app.controller;
 
+import com.sauda.sauda_app.dto.CursorSlice;
+import com.sauda.sauda_app.dto.InventoryLevel;
+import com.sauda.sauda_app.dto.InventoryMovement;
+import com.sauda.sauda_app.dto.TransferDto;
+import com.sauda.sauda_app.service.InventoryLedgerService;
+import com.sauda.sauda_app.service.InventoryService;
+import com.sauda.sauda_app.tenant.CurrentTenant;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.Map;
 
 @RestController
@@ -11,32 +23,85 @@ import java.util.Map;
 @CrossOrigin(origins = "*")
 public class InventoryController {
 
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private InventoryLedgerService inventoryLedgerService;
+
     @GetMapping
-    public ResponseEntity<Map<String, String>> getInventory(@RequestParam(defaultValue = "1") Long tenantId, Authentication authentication) {
+    public ResponseEntity<?> getInventory(@CurrentTenant Long tenantId,
+                                          @RequestParam(required = false) String cursor,
+                                          @RequestParam(defaultValue = "20") int size,
+                                          Authentication authentication) {
         if (authentication == null) {
             return ResponseEntity.status(401).body(Map.of(
                 "error", "Unauthorized",
                 "message", "Authentication required"
             ));
         }
-        return ResponseEntity.ok(Map.of(
-            "message", "Inventory data for tenant " + tenantId,
-            "access", "INVENTORY_MANAGER, MANAGER, ADMIN only",
-            "status", "success"
-        ));
+        try {
+            CursorSlice<InventoryLevel> inventory = inventoryService.getInventorySlice(tenantId, cursor, size);
+            return ResponseEntity.ok(inventory);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "Bad Request",
+                "message", e.getMessage()
+            ));
+        }
     }
 
-    @PostMapping("/adjust")
-    public Map<String, String> adjustInventory(@RequestBody Map<String, Object> adjustmentData) {
-        return Map.of(
-            "message", "Inventory adjusted successfully",
-            "adjustmentId", "67890",
-            "status", "success"
-        );
+    @PostMapping("/transfer")
+    public ResponseEntity<Map<String, Object>> transferInventory(@RequestBody TransferDto transferDto,
+                                                                 @CurrentTenant Long tenantId) {
+        transferDto.setTenantId(tenantId);
+        try {
+            int lines = inventoryService.transferInventoryBatch(transferDto);
+            return ResponseEntity.ok(Map.of(
+                "message", "Inventory transferred successfully",
+                "lines", lines,
+                "status", "success"
+            ));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "Bad Request",
+                "message", e.getMessage()
+            ));
+        }
+    }
+
+    /**
+     * Движения остатков товара из журнала, новые первыми
+     */
+    @GetMapping("/history/{productId}")
+    public ResponseEntity<Page<InventoryMovement>> getInventoryHistory(@CurrentTenant Long tenantId,
+                                                                       @PathVariable Long productId,
+                                                                       @RequestParam(defaultValue = "0") int page,
+                                                                       @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(inventoryService.getInventoryHistory(tenantId, productId, PageRequest.of(page, size)));
+    }
+
+    /**
+     * Остатки склада на момент времени, восстановленные по журналу движений (по умолчанию — сейчас)
+     */
+    @GetMapping("/as-of")
+    public ResponseEntity<?> getStockAt(@CurrentTenant Long tenantId,
+                                        @RequestParam Long warehouseId,
+                                        @RequestParam(required = false)
+                                        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        try {
+            LocalDateTime moment = at != null ? at : LocalDateTime.now();
+            return ResponseEntity.ok(inventoryLedgerService.getStockAt(tenantId, warehouseId, moment));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "Bad Request",
+                "message", e.getMessage()
+            ));
+        }
     }
 
     @GetMapping("/low-stock")
-    public Map<String, String> getLowStockItems(@RequestParam(defaultValue = "1") Long tenantId) {
+    public Map<String, String> getLowStockItems(@CurrentTenant Long tenantId) {
         return Map.of(
             "message", "Low stock items for tenant " + tenantId,
             "items", "5",
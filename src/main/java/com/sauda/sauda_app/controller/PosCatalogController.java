@@ -0,0 +1,54 @@
+package com.sauda.sauda_app.controller;
+
+import com.sauda.sauda_app.service.PosCatalogService;
+import com.sauda.sauda_app.tenant.CurrentTenant;
+import com.sauda.sauda_app.tenant.TenantContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/pos")
+@CrossOrigin(origins = "*")
+public class PosCatalogController {
+
+    public static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    @Autowired
+    private PosCatalogService posCatalogService;
+
+    /**
+     * Каталог магазина для загрузки кассы: полный (since=0) или изменения после версии.
+     * ETag — версия каталога; если касса уже загрузила ее, ответ 304 без тела.
+     * Сжатие gzip включается настройками server.compression
+     */
+    @GetMapping("/catalog")
+    public ResponseEntity<?> getCatalog(@CurrentTenant Long tenantId,
+                                        @RequestParam(defaultValue = "0") long since,
+                                        @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        if (since < 0) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "Bad Request",
+                "message", "Версия каталога не может быть отрицательной"
+            ));
+        }
+        long version = posCatalogService.getCatalogVersion(tenantId);
+        String etag = "\"" + tenantId + "-" + version + "\"";
+        if (ifNoneMatch != null && ifNoneMatch.contains(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+
+        // Тело пишется в потоке асинхронной обработки, где магазина запроса уже нет
+        StreamingResponseBody body = out ->
+                TenantContext.runCheckedAs(tenantId, () -> posCatalogService.writeCatalog(tenantId, since, out));
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .contentType(APPLICATION_NDJSON)
+                .body(body);
+    }
+}
@@ -0,0 +1,52 @@
+package com.sauda.sauda_app.controller;
+
+import com.sauda.sauda_app.dto.PosReceiptBatchDto;
+import com.sauda.sauda_app.dto.ReceiptSyncResult;
+import com.sauda.sauda_app.dto.ReceiptSyncStatus;
+import com.sauda.sauda_app.service.PosSyncService;
+import com.sauda.sauda_app.tenant.CurrentTenant;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/pos")
+@CrossOrigin(origins = "*")
+public class PosSyncController {
+
+    @Autowired
+    private PosSyncService posSyncService;
+
+    /**
+     * Выгрузка чеков, проведенных кассой без связи. Пакет можно повторять: уже выгруженные чеки
+     * возвращаются как DUPLICATE и повторно не записываются. Очередь кассы выгружается
+     * последовательными пакетами до sauda.pos-sync.max-receipts чеков
+     */
+    @PostMapping("/receipts")
+    public ResponseEntity<Map<String, Object>> syncReceipts(@RequestBody PosReceiptBatchDto batch,
+                                                            @CurrentTenant Long tenantId) {
+        batch.setTenantId(tenantId);
+        try {
+            List<ReceiptSyncResult> results = posSyncService.syncReceipts(batch);
+            return ResponseEntity.ok(Map.of(
+                "accepted", count(results, ReceiptSyncStatus.ACCEPTED),
+                "duplicates", count(results, ReceiptSyncStatus.DUPLICATE),
+                "rejected", count(results, ReceiptSyncStatus.REJECTED),
+                "results", results,
+                "status", "success"
+            ));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "Bad Request",
+                "message", e.getMessage()
+            ));
+        }
+    }
+
+    private static long count(List<ReceiptSyncResult> results, ReceiptSyncStatus status) {
+        return results.stream().filter(r -> r.status() == status).count();
+    }
+}
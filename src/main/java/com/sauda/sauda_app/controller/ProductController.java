@@ -1,18 +1,25 @@
 package com.sauda.sauda_app.controller;
 
+import com.sauda.sauda_app.dto.CursorSlice;
 import com.sauda.sauda_app.dto.ProductDto;
+import com.sauda.sauda_app.dto.ProductSnapshot;
 import com.sauda.sauda_app.entity.Product;
+import com.sauda.sauda_app.event.ProductChangedEvent;
 import com.sauda.sauda_app.repository.ProductRepository;
+import com.sauda.sauda_app.service.ProductHistoryService;
 import com.sauda.sauda_app.service.ProductService;
+import com.sauda.sauda_app.tenant.CurrentTenant;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.time.LocalDateTime;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
@@ -26,57 +33,95 @@ public class ProductController {
     @Autowired
     private ProductService productService;
     
+    @Autowired
+    private ProductHistoryService productHistoryService;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
     @GetMapping
-    public ResponseEntity<Page<Product>> getAllProducts(@RequestParam(defaultValue = "1") Long tenantId,
-                                                       @RequestParam(defaultValue = "0") int page,
-                                                       @RequestParam(defaultValue = "10") int size,
-                                                       Authentication authentication) {
+    public ResponseEntity<?> getAllProducts(@CurrentTenant Long tenantId,
+                                            @RequestParam(defaultValue = "id") String sort,
+                                            @RequestParam(required = false) String cursor,
+                                            @RequestParam(defaultValue = "20") int size,
+                                            Authentication authentication) {
         if (authentication == null) {
             return ResponseEntity.status(401).build();
         }
-        Pageable pageable = PageRequest.of(page, size);
-        Page<Product> products = productService.getProductsByTenant(tenantId, pageable);
-        return ResponseEntity.ok(products);
+        try {
+            CursorSlice<ProductDto> products = productService.getProductSlice(tenantId, sort, cursor, size);
+            return ResponseEntity.ok(products);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "Bad Request",
+                "message", e.getMessage()
+            ));
+        }
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getProductById(@PathVariable Long id, @RequestParam(defaultValue = "1") Long tenantId) {
-        Optional<Product> product = productRepository.findById(id);
-        if (product.isPresent() && product.get().getTenantId().equals(tenantId)) {
-            return ResponseEntity.ok(product.get());
+    public ResponseEntity<ProductDto> getProductById(@PathVariable Long id, @CurrentTenant Long tenantId) {
+        Optional<ProductDto> product = productRepository.findDtoByIdAndTenantId(id, tenantId);
+        return product.map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
+    }
+    
+    @GetMapping("/{id}/as-of")
+    public ResponseEntity<?> getProductAt(@PathVariable Long id,
+                                          @CurrentTenant Long tenantId,
+                                          @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        try {
+            Optional<ProductDto> product = productHistoryService.getProductAt(tenantId, id, at);
+            return product.<ResponseEntity<?>>map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "Bad Request",
+                "message", e.getMessage()
+            ));
         }
-        return ResponseEntity.notFound().build();
     }
     
     @GetMapping("/search")
-    public ResponseEntity<List<Product>> searchProducts(@RequestParam String searchTerm,
-                                                       @RequestParam(defaultValue = "1") Long tenantId) {
-        List<Product> products = productRepository.searchProducts(tenantId, searchTerm);
+    public ResponseEntity<Page<ProductSnapshot>> searchProducts(@RequestParam String searchTerm,
+                                                                @CurrentTenant Long tenantId,
+                                                                @RequestParam(defaultValue = "0") int page,
+                                                                @RequestParam(defaultValue = "20") int size) {
+        Page<ProductSnapshot> products = productService.searchCatalog(tenantId, searchTerm, PageRequest.of(page, size));
         return ResponseEntity.ok(products);
     }
     
     @GetMapping("/category/{categoryId}")
-    public ResponseEntity<List<Product>> getProductsByCategory(@PathVariable Long categoryId,
-                                                              @RequestParam(defaultValue = "1") Long tenantId) {
-        List<Product> products = productRepository.findByTenantIdAndCategoryIdAndIsActiveTrueAndIsDeletedFalse(tenantId, categoryId);
-        return ResponseEntity.ok(products);
+    public ResponseEntity<?> getProductsByCategory(@PathVariable Long categoryId,
+                                                   @CurrentTenant Long tenantId,
+                                                   @RequestParam(required = false) String cursor,
+                                                   @RequestParam(defaultValue = "20") int size) {
+        try {
+            CursorSlice<ProductDto> products = productService.getActiveProductSliceByCategory(tenantId, categoryId, cursor, size);
+            return ResponseEntity.ok(products);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "Bad Request",
+                "message", e.getMessage()
+            ));
+        }
     }
     
     @PostMapping
     public ResponseEntity<Product> createProduct(@RequestBody Product product, 
-                                                @RequestParam(defaultValue = "1") Long tenantId) {
+                                                @CurrentTenant Long tenantId) {
         product.setTenantId(tenantId);
         Product savedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.of(savedProduct, null));
         return ResponseEntity.ok(savedProduct);
     }
     
     @PutMapping("/{id}")
     public ResponseEntity<Product> updateProduct(@PathVariable Long id, 
                                                 @RequestBody Product productDetails,
-                                                @RequestParam(defaultValue = "1") Long tenantId) {
+                                                @CurrentTenant Long tenantId) {
         Optional<Product> productOptional = productRepository.findById(id);
         if (productOptional.isPresent() && productOptional.get().getTenantId().equals(tenantId)) {
             Product product = productOptional.get();
+            String previousBarcode = product.getBarcode();
             product.setName(productDetails.getName());
             product.setBarcode(productDetails.getBarcode());
             product.setSku(productDetails.getSku());
@@ -87,18 +132,19 @@ public class ProductController {
             product.setIsActive(productDetails.getIsActive());
             
             Product updatedProduct = productRepository.save(product);
+            eventPublisher.publishEvent(ProductChangedEvent.of(updatedProduct, previousBarcode));
             return ResponseEntity.ok(updatedProduct);
         }
         return ResponseEntity.notFound().build();
     }
     
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteProduct(@PathVariable Long id, @RequestParam(defaultValue = "1") Long tenantId) {
+    public ResponseEntity<Void> deleteProduct(@PathVariable Long id, @CurrentTenant Long tenantId) {
         Optional<Product> productOptional = productRepository.findById(id);
         if (productOptional.isPresent() && productOptional.get().getTenantId().equals(tenantId)) {
             Product product = productOptional.get();
             product.setIsDeleted(true);
-            productRepository.save(product);
+            eventPublisher.publishEvent(ProductChangedEvent.of(productRepository.save(product), null));
             return ResponseEntity.ok().build();
         }
         return ResponseEntity.notFound().build();
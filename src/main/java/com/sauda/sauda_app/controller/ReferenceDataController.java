@@ -0,0 +1,62 @@
+package com.sauda.sauda_app.controller;
+
+import com.sauda.sauda_app.cache.CacheRegionMetrics;
+import com.sauda.sauda_app.cache.ReferenceDataCache;
+import com.sauda.sauda_app.dto.CategorySummary;
+import com.sauda.sauda_app.dto.RoleSummary;
+import com.sauda.sauda_app.dto.UnitSummary;
+import com.sauda.sauda_app.dto.WarehouseSummary;
+import com.sauda.sauda_app.tenant.CurrentTenant;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Справочники магазина для касс и форм: отдаются из кэша справочников без обращения к базе
+ */
+@RestController
+@RequestMapping("/api/reference")
+@CrossOrigin(origins = "*")
+public class ReferenceDataController {
+
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
+    @GetMapping("/categories")
+    public List<CategorySummary> getCategories(@CurrentTenant Long tenantId) {
+        return referenceDataCache.getCategories(tenantId);
+    }
+
+    @GetMapping("/units")
+    public List<UnitSummary> getUnits(@CurrentTenant Long tenantId) {
+        return referenceDataCache.getUnits(tenantId);
+    }
+
+    @GetMapping("/warehouses")
+    public List<WarehouseSummary> getWarehouses(@CurrentTenant Long tenantId) {
+        return referenceDataCache.getWarehouses(tenantId);
+    }
+
+    @GetMapping("/warehouses/{id}")
+    public ResponseEntity<WarehouseSummary> getWarehouse(@PathVariable Long id,
+                                                         @CurrentTenant Long tenantId) {
+        return referenceDataCache.findWarehouse(tenantId, id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/roles")
+    public List<RoleSummary> getRoles(@CurrentTenant Long tenantId) {
+        return referenceDataCache.getRoles(tenantId);
+    }
+
+    /**
+     * Показатели кэша справочников по областям: попадания, промахи, вытеснения и сбросы
+     */
+    @GetMapping("/cache/metrics")
+    public List<CacheRegionMetrics> getCacheMetrics() {
+        return referenceDataCache.getMetrics();
+    }
+}
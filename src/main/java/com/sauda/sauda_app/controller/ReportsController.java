@@ -1,7 +1,24 @@
 package com.sauda.sauda_app.controller;
 
+import com.sauda.sauda_app.dto.ExportDataset;
+import com.sauda.sauda_app.dto.InventoryValuationReport;
+import com.sauda.sauda_app.dto.ValuationDiscrepancy;
+import com.sauda.sauda_app.service.InventoryValuationService;
+import com.sauda.sauda_app.service.ReportExportService;
+import com.sauda.sauda_app.service.SalesReportService;
+import com.sauda.sauda_app.tenant.CurrentTenant;
+import com.sauda.sauda_app.tenant.TenantContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -9,28 +26,98 @@ import java.util.Map;
 @CrossOrigin(origins = "*")
 public class ReportsController {
 
+    public static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv;charset=UTF-8");
+
+    @Autowired
+    private SalesReportService salesReportService;
+
+    @Autowired
+    private ReportExportService reportExportService;
+
+    @Autowired
+    private InventoryValuationService inventoryValuationService;
+
+    /**
+     * Выручка, число чеков и средний чек магазина за период (по умолчанию — текущий месяц)
+     */
     @GetMapping("/sales")
-    public Map<String, String> getSalesReport(@RequestParam(defaultValue = "1") Long tenantId) {
-        return Map.of(
-            "message", "Sales report for tenant " + tenantId,
-            "access", "MANAGER, ADMIN only",
-            "totalRevenue", "500000",
-            "status", "success"
-        );
+    public ResponseEntity<?> getSalesReport(@CurrentTenant Long tenantId,
+                                            @RequestParam(required = false)
+                                            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                            @RequestParam(required = false)
+                                            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return ResponseEntity.ok(salesReportService.getSalesReport(tenantId, from, to, null, null));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "Bad Request",
+                "message", e.getMessage()
+            ));
+        }
     }
 
+    /**
+     * Выгрузка чеков (sales), позиций (sales-items) или оплат (payments) за период в CSV
+     * (по умолчанию — текущий месяц). Строки читаются из базы курсором и сразу пишутся в ответ
+     */
+    @GetMapping("/export/{dataset}")
+    public ResponseEntity<?> exportCsv(@PathVariable String dataset,
+                                       @CurrentTenant Long tenantId,
+                                       @RequestParam(required = false)
+                                       @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                       @RequestParam(required = false)
+                                       @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate periodTo = to != null ? to : LocalDate.now();
+        LocalDate periodFrom = from != null ? from : periodTo.withDayOfMonth(1);
+        ExportDataset exportDataset;
+        try {
+            exportDataset = ExportDataset.fromPath(dataset);
+            if (periodFrom.isAfter(periodTo)) {
+                throw new IllegalArgumentException("Начало периода позже его окончания");
+            }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "Bad Request",
+                "message", e.getMessage()
+            ));
+        }
+
+        String filename = exportDataset.getPath() + "-" + periodFrom + "-" + periodTo + ".csv";
+        // Тело пишется в потоке асинхронной обработки, где магазина запроса уже нет
+        StreamingResponseBody body = out -> TenantContext.runCheckedAs(tenantId,
+                () -> reportExportService.writeCsv(tenantId, exportDataset, periodFrom, periodTo, out));
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .contentType(TEXT_CSV)
+                .body(body);
+    }
+
+    /**
+     * Стоимость остатков магазина по складам по действующим ценам прайс-листа
+     */
     @GetMapping("/inventory")
-    public Map<String, String> getInventoryReport(@RequestParam(defaultValue = "1") Long tenantId) {
-        return Map.of(
-            "message", "Inventory report for tenant " + tenantId,
-            "access", "MANAGER, ADMIN only",
-            "totalValue", "200000",
-            "status", "success"
-        );
+    public InventoryValuationReport getInventoryReport(@CurrentTenant Long tenantId) {
+        return inventoryValuationService.getValuation(tenantId);
+    }
+
+    /**
+     * Склады, чья поддерживаемая стоимость расходится с полным пересчетом
+     */
+    @GetMapping("/inventory/consistency")
+    public List<ValuationDiscrepancy> checkInventoryValuation(@CurrentTenant Long tenantId) {
+        return inventoryValuationService.checkConsistency(tenantId);
+    }
+
+    /**
+     * Сверить стоимость складов магазина с полным пересчетом и исправить расхождения
+     */
+    @PostMapping("/inventory/reconcile")
+    public List<ValuationDiscrepancy> reconcileInventoryValuation(@CurrentTenant Long tenantId) {
+        return inventoryValuationService.reconcile(tenantId);
     }
 
     @GetMapping("/financial")
-    public Map<String, String> getFinancialReport(@RequestParam(defaultValue = "1") Long tenantId) {
+    public Map<String, String> getFinancialReport(@CurrentTenant Long tenantId) {
         return Map.of(
             "message", "Financial report for tenant " + tenantId,
             "access", "ADMIN only",
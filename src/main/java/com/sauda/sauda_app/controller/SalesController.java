@@ -1,7 +1,16 @@
 package com.sauda.sauda_app.controller;
 
+import com.sauda.sauda_app.dto.SaleDto;
+import com.sauda.sauda_app.entity.Sale;
+import com.sauda.sauda_app.service.SaleService;
+import com.sauda.sauda_app.service.SalesReportService;
+import com.sauda.sauda_app.tenant.CurrentTenant;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.Map;
 
 @RestController
@@ -9,8 +18,14 @@ import java.util.Map;
 @CrossOrigin(origins = "*")
 public class SalesController {
 
+    @Autowired
+    private SaleService saleService;
+
+    @Autowired
+    private SalesReportService salesReportService;
+
     @GetMapping
-    public Map<String, String> getSales(@RequestParam(defaultValue = "1") Long tenantId) {
+    public Map<String, String> getSales(@CurrentTenant Long tenantId) {
         return Map.of(
             "message", "Sales data for tenant " + tenantId,
             "access", "CASHIER, SALES_MANAGER, MANAGER, ADMIN only",
@@ -19,20 +34,43 @@ public class SalesController {
     }
 
     @PostMapping
-    public Map<String, String> createSale(@RequestBody Map<String, Object> saleData) {
-        return Map.of(
-            "message", "Sale created successfully",
-            "saleId", "12345",
-            "status", "success"
-        );
+    public ResponseEntity<Map<String, Object>> createSale(@RequestBody SaleDto saleDto,
+                                                          @CurrentTenant Long tenantId) {
+        saleDto.setTenantId(tenantId);
+        try {
+            Sale sale = saleService.createSale(saleDto);
+            return ResponseEntity.ok(Map.of(
+                "message", "Sale created successfully",
+                "saleId", sale.getId(),
+                "totalAmount", sale.getTotalAmount(),
+                "status", "success"
+            ));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "Bad Request",
+                "message", e.getMessage()
+            ));
+        }
     }
 
+    /**
+     * Продажи по дням за период (по умолчанию — текущий месяц), при необходимости по одной кассе или сотруднику
+     */
     @GetMapping("/reports")
-    public Map<String, String> getSalesReports(@RequestParam(defaultValue = "1") Long tenantId) {
-        return Map.of(
-            "message", "Sales reports for tenant " + tenantId,
-            "totalSales", "100000",
-            "status", "success"
-        );
+    public ResponseEntity<?> getSalesReports(@CurrentTenant Long tenantId,
+                                             @RequestParam(required = false)
+                                             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                             @RequestParam(required = false)
+                                             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                             @RequestParam(required = false) Long posTerminalId,
+                                             @RequestParam(required = false) Long employeeId) {
+        try {
+            return ResponseEntity.ok(salesReportService.getSalesReport(tenantId, from, to, posTerminalId, employeeId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "Bad Request",
+                "message", e.getMessage()
+            ));
+        }
     }
 }
@@ -1,8 +1,12 @@
 package com.sauda.sauda_app.controller;
 
+import com.sauda.sauda_app.cache.ReferenceDataCache;
+import com.sauda.sauda_app.dto.ShopSummary;
 import com.sauda.sauda_app.entity.Shop;
 import com.sauda.sauda_app.repository.ShopRepository;
+import com.sauda.sauda_app.tenant.CurrentTenant;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -17,24 +21,27 @@ public class ShopController {
     @Autowired
     private ShopRepository shopRepository;
     
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+    
     @GetMapping
-    public ResponseEntity<List<Shop>> getAllShops(@RequestParam(defaultValue = "1") Long tenantId) {
-        List<Shop> shops = shopRepository.findAllByTenantId(tenantId);
+    public ResponseEntity<List<ShopSummary>> getAllShops(@CurrentTenant Long tenantId) {
+        List<ShopSummary> shops = referenceDataCache.getShops(tenantId);
         return ResponseEntity.ok(shops);
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<Shop> getShopById(@PathVariable Long id, @RequestParam(defaultValue = "1") Long tenantId) {
-        Optional<Shop> shop = shopRepository.findById(id);
-        if (shop.isPresent() && shop.get().getTenantId().equals(tenantId)) {
-            return ResponseEntity.ok(shop.get());
-        }
-        return ResponseEntity.notFound().build();
+    public ResponseEntity<ShopSummary> getShopById(@PathVariable Long id, @CurrentTenant Long tenantId) {
+        Optional<ShopSummary> shop = referenceDataCache.findShop(tenantId, id);
+        return shop.map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
     }
     
     @GetMapping("/tenant/{tenantId}")
-    public ResponseEntity<Shop> getShopByTenantId(@PathVariable Long tenantId) {
-        Optional<Shop> shop = shopRepository.findByTenantId(tenantId);
+    public ResponseEntity<ShopSummary> getShopByTenantId(@PathVariable Long tenantId, @CurrentTenant Long currentTenantId) {
+        if (!tenantId.equals(currentTenantId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        Optional<ShopSummary> shop = referenceDataCache.getShops(tenantId).stream().findFirst();
         return shop.map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
     }
     
@@ -47,7 +54,7 @@ public class ShopController {
     @PutMapping("/{id}")
     public ResponseEntity<Shop> updateShop(@PathVariable Long id, 
                                           @RequestBody Shop shopDetails,
-                                          @RequestParam(defaultValue = "1") Long tenantId) {
+                                          @CurrentTenant Long tenantId) {
         Optional<Shop> shopOptional = shopRepository.findById(id);
         if (shopOptional.isPresent() && shopOptional.get().getTenantId().equals(tenantId)) {
             Shop shop = shopOptional.get();
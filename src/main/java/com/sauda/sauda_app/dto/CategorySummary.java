@@ -0,0 +1,12 @@
+package com.sauda.sauda_app.dto;
+
+/**
+ * Категория для справочника: только колонки таблицы categories, без товаров
+ * @param id идентификатор категории
+ * @param tenantId идентификатор магазина
+ * @param name название
+ * @param description описание
+ * @param isActive активна ли категория
+ */
+public record CategorySummary(Long id, Long tenantId, String name, String description, Boolean isActive) {
+}
@@ -0,0 +1,41 @@
+package com.sauda.sauda_app.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Страница keyset-пагинации без общего количества строк
+ * @param content строки страницы
+ * @param size запрошенный размер страницы
+ * @param hasNext есть ли следующая страница
+ * @param nextCursor курсор следующей страницы (null, если это последняя)
+ */
+public record CursorSlice<T>(List<T> content, int size, boolean hasNext, String nextCursor) {
+
+    public static final int DEFAULT_SIZE = 20;
+    public static final int MAX_SIZE = 200;
+
+    /**
+     * Ограничить размер страницы допустимым диапазоном
+     * @param size запрошенный размер
+     * @return размер от 1 до {@link #MAX_SIZE}
+     */
+    public static int clampSize(int size) {
+        return Math.max(1, Math.min(size, MAX_SIZE));
+    }
+
+    /**
+     * Собрать страницу из выборки на одну строку больше размера страницы.
+     * Лишняя строка только сообщает о наличии следующей страницы и в ответ не попадает
+     * @param rows строки, выбранные с лимитом size + 1
+     * @param size размер страницы
+     * @param cursorOf курсор по последней строке страницы
+     * @return страница
+     */
+    public static <T> CursorSlice<T> of(List<T> rows, int size, Function<T, KeysetCursor> cursorOf) {
+        boolean hasNext = rows.size() > size;
+        List<T> content = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? cursorOf.apply(content.get(content.size() - 1)).encode() : null;
+        return new CursorSlice<>(List.copyOf(content), size, hasNext, nextCursor);
+    }
+}
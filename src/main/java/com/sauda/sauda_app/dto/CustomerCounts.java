@@ -0,0 +1,16 @@
+package com.sauda.sauda_app.dto;
+
+/**
+ * Счетчики клиентов магазина
+ * @param tenantId идентификатор магазина
+ * @param total всего клиентов
+ * @param withDiscountCard клиентов с дисконтной картой
+ * @param newToday новых клиентов с начала дня
+ * @param activeLast30Days клиентов с покупками за последние 30 дней
+ */
+public record CustomerCounts(Long tenantId, long total, long withDiscountCard, long newToday, long activeLast30Days) {
+
+    public static CustomerCounts empty(Long tenantId) {
+        return new CustomerCounts(tenantId, 0, 0, 0, 0);
+    }
+}
@@ -0,0 +1,12 @@
+package com.sauda.sauda_app.dto;
+
+/**
+ * Клиент для списка и поиска на кассе: только поля, нужные для чека, без продаж и контактов
+ * @param id идентификатор клиента
+ * @param tenantId идентификатор магазина
+ * @param fullName имя клиента
+ * @param phone номер телефона
+ * @param discountCard номер дисконтной карты
+ */
+public record CustomerSummary(Long id, Long tenantId, String fullName, String phone, String discountCard) {
+}
@@ -0,0 +1,25 @@
+package com.sauda.sauda_app.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Правило скидки без загрузки сущности, для компиляции правил магазина в памяти
+ * @param id идентификатор правила
+ * @param discountType percentage — процент от суммы, fixed — фиксированная сумма
+ * @param value размер скидки
+ * @param appliesTo product, category или total (весь чек)
+ * @param targetId товар или категория для правил product/category
+ * @param minAmount порог суммы чека для правил total (null — без порога)
+ * @param startDate первый день действия
+ * @param endDate последний день действия включительно (null — бессрочно)
+ */
+public record DiscountRuleDefinition(Long id,
+                                     String discountType,
+                                     BigDecimal value,
+                                     String appliesTo,
+                                     Long targetId,
+                                     BigDecimal minAmount,
+                                     LocalDate startDate,
+                                     LocalDate endDate) {
+}
@@ -0,0 +1,35 @@
+package com.sauda.sauda_app.dto;
+
+/**
+ * Наборы данных для выгрузки в CSV
+ */
+public enum ExportDataset {
+
+    SALES("sales"),
+    SALES_ITEMS("sales-items"),
+    PAYMENTS("payments");
+
+    private final String path;
+
+    ExportDataset(String path) {
+        this.path = path;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Найти набор по имени из адреса запроса
+     * @param path имя набора (sales, sales-items, payments)
+     * @return набор данных
+     */
+    public static ExportDataset fromPath(String path) {
+        for (ExportDataset dataset : values()) {
+            if (dataset.path.equals(path)) {
+                return dataset;
+            }
+        }
+        throw new IllegalArgumentException("Неизвестный набор данных: " + path);
+    }
+}
@@ -0,0 +1,12 @@
+package com.sauda.sauda_app.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Контрольная точка остатков магазина
+ * @param id идентификатор
+ * @param tenantId идентификатор магазина
+ * @param takenAt момент, на который зафиксированы остатки
+ */
+public record InventoryCheckpoint(Long id, Long tenantId, LocalDateTime takenAt) {
+}
@@ -0,0 +1,14 @@
+package com.sauda.sauda_app.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Проекция строки inventory: страницы остатков и результат атомарных изменений остатка
+ */
+public interface InventoryLevel {
+    Long getId();
+    Long getTenantId();
+    Long getProductId();
+    Long getWarehouseId();
+    BigDecimal getQuantity();
+}
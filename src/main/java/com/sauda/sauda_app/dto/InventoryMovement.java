@@ -0,0 +1,26 @@
+package com.sauda.sauda_app.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Строка журнала движений остатков
+ * @param id идентификатор (null до записи)
+ * @param tenantId идентификатор магазина
+ * @param productId идентификатор товара
+ * @param warehouseId идентификатор склада
+ * @param movementType вид движения
+ * @param quantity изменение остатка: положительное — приход, отрицательное — расход
+ * @param reason причина
+ * @param referenceId документ-основание: чек для продажи, склад-корреспондент для перемещения
+ * @param createdAt время записи (null до записи)
+ */
+public record InventoryMovement(Long id, Long tenantId, Long productId, Long warehouseId, MovementType movementType,
+                                BigDecimal quantity, String reason, Long referenceId, LocalDateTime createdAt) {
+
+    public static InventoryMovement of(Long tenantId, Long productId, Long warehouseId, MovementType movementType,
+                                       BigDecimal quantity, String reason, Long referenceId) {
+        return new InventoryMovement(null, tenantId, productId, warehouseId, movementType, quantity, reason,
+                referenceId, null);
+    }
+}
@@ -0,0 +1,18 @@
+package com.sauda.sauda_app.dto;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Стоимость остатков магазина по действующим ценам прайс-листа
+ * @param tenantId идентификатор магазина
+ * @param totalValue стоимость всех складов
+ * @param warehouses стоимость по складам
+ */
+public record InventoryValuationReport(Long tenantId, BigDecimal totalValue, Map<Long, BigDecimal> warehouses) {
+
+    public static InventoryValuationReport of(Long tenantId, Map<Long, BigDecimal> warehouses) {
+        BigDecimal total = warehouses.values().stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+        return new InventoryValuationReport(tenantId, total, warehouses);
+    }
+}
@@ -0,0 +1,53 @@
+package com.sauda.sauda_app.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Позиция keyset-пагинации: ключ сортировки последней строки страницы.
+ * Клиенту отдается непрозрачной строкой (base64url), следующая страница
+ * начинается строго после этой позиции, без OFFSET и без подсчета строк
+ * @param id идентификатор последней строки
+ * @param name значение сортировки по названию (null при сортировке по id)
+ */
+public record KeysetCursor(Long id, String name) {
+
+    /**
+     * Позиция перед первой строкой: идентификаторы положительны, названия не меньше пустой строки
+     */
+    public static final KeysetCursor START = new KeysetCursor(0L, "");
+
+    public static KeysetCursor afterId(Long id) {
+        return new KeysetCursor(id, null);
+    }
+
+    public static KeysetCursor afterName(String name, Long id) {
+        return new KeysetCursor(id, name);
+    }
+
+    /**
+     * Разобрать курсор из запроса
+     * @param cursor строка курсора или null для первой страницы
+     * @return позиция
+     */
+    public static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return START;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            if (separator < 0) {
+                return new KeysetCursor(Long.parseLong(raw), "");
+            }
+            return new KeysetCursor(Long.parseLong(raw.substring(0, separator)), raw.substring(separator + 1));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Некорректный курсор страницы");
+        }
+    }
+
+    public String encode() {
+        String raw = name == null ? String.valueOf(id) : id + "|" + name;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,36 @@
+package com.sauda.sauda_app.dto;
+
+/**
+ * Вид движения остатка в журнале inventory_movements
+ */
+public enum MovementType {
+
+    SALE("sale"),
+    RECEIPT("receipt"),
+    TRANSFER("transfer"),
+    ADJUSTMENT("adjustment");
+
+    private final String code;
+
+    MovementType(String code) {
+        this.code = code;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    /**
+     * Найти вид движения по коду из базы
+     * @param code код (sale, receipt, transfer, adjustment)
+     * @return вид движения
+     */
+    public static MovementType fromCode(String code) {
+        for (MovementType type : values()) {
+            if (type.code.equals(code)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Неизвестный вид движения: " + code);
+    }
+}
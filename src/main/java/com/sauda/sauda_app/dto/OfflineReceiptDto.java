@@ -0,0 +1,26 @@
+package com.sauda.sauda_app.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Чек, проведенный кассой без связи с сервером.
+ * Цены и скидки — те, по которым касса продала товар; сервер их не пересчитывает
+ */
+@Data
+public class OfflineReceiptDto {
+
+    // Ключ идемпотентности, сгенерированный кассой при продаже (например, UUID)
+    private String idempotencyKey;
+
+    // Время продажи по часам кассы
+    private LocalDateTime soldAt;
+
+    private Long employeeId;
+    private Long customerId;
+    private String paymentMethod;
+    private List<SaleItemDto> items;
+    private List<PaymentDto> payments;
+}
@@ -0,0 +1,10 @@
+package com.sauda.sauda_app.dto;
+
+import lombok.Data;
+import java.math.BigDecimal;
+
+@Data
+public class PaymentDto {
+    private BigDecimal amount;
+    private String paymentType;
+}
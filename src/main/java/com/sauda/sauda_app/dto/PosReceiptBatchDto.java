@@ -0,0 +1,19 @@
+package com.sauda.sauda_app.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Пакет чеков, проведенных кассой без связи с сервером
+ */
+@Data
+public class PosReceiptBatchDto {
+    private Long tenantId;
+    private Long posTerminalId;
+
+    // Склад кассы, с которого списываются остатки по всем чекам пакета
+    private Long warehouseId;
+
+    private List<OfflineReceiptDto> receipts;
+}
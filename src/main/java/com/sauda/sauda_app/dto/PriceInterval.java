@@ -0,0 +1,14 @@
+package com.sauda.sauda_app.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Строка прайс-листа без загрузки сущности: цена товара на интервале дат
+ * @param productId идентификатор товара
+ * @param price цена
+ * @param startDate первый день действия
+ * @param endDate последний день действия включительно (null — бессрочно)
+ */
+public record PriceInterval(Long productId, BigDecimal price, LocalDate startDate, LocalDate endDate) {
+}
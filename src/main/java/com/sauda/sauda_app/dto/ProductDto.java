@@ -1,9 +1,18 @@
 package com.sauda.sauda_app.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import java.math.BigDecimal;
 
+/**
+ * Товар для запросов на создание и изменение и для ответов на чтение.
+ * Конструктор со всеми полями используется JPQL-проекциями ProductRepository
+ * (порядок аргументов совпадает с порядком полей)
+ */
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class ProductDto {
     private Long id;
     private Long tenantId;
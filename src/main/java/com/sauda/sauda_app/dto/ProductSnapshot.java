@@ -0,0 +1,23 @@
+package com.sauda.sauda_app.dto;
+
+import com.sauda.sauda_app.entity.Product;
+
+/**
+ * Неизменяемый снимок товара для горячих путей чтения (сканирование штрих-кода, каталог кассы).
+ * Хранит только поля, нужные кассе, без связей сущности
+ */
+public record ProductSnapshot(Long id,
+                              Long tenantId,
+                              String name,
+                              String barcode,
+                              String sku,
+                              Long categoryId,
+                              Long unitId,
+                              Boolean isActive) {
+
+    public static ProductSnapshot from(Product product) {
+        return new ProductSnapshot(product.getId(), product.getTenantId(), product.getName(),
+                product.getBarcode(), product.getSku(), product.getCategoryId(), product.getUnitId(),
+                product.getIsActive());
+    }
+}
@@ -0,0 +1,23 @@
+package com.sauda.sauda_app.dto;
+
+/**
+ * Результат выгрузки одного чека
+ * @param idempotencyKey ключ идемпотентности чека
+ * @param status результат
+ * @param saleId идентификатор записанного чека (только для ACCEPTED)
+ * @param message причина отказа (только для REJECTED)
+ */
+public record ReceiptSyncResult(String idempotencyKey, ReceiptSyncStatus status, Long saleId, String message) {
+
+    public static ReceiptSyncResult accepted(String idempotencyKey, Long saleId) {
+        return new ReceiptSyncResult(idempotencyKey, ReceiptSyncStatus.ACCEPTED, saleId, null);
+    }
+
+    public static ReceiptSyncResult duplicate(String idempotencyKey) {
+        return new ReceiptSyncResult(idempotencyKey, ReceiptSyncStatus.DUPLICATE, null, null);
+    }
+
+    public static ReceiptSyncResult rejected(String idempotencyKey, String message) {
+        return new ReceiptSyncResult(idempotencyKey, ReceiptSyncStatus.REJECTED, null, message);
+    }
+}
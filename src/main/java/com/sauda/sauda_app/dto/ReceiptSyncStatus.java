@@ -0,0 +1,16 @@
+package com.sauda.sauda_app.dto;
+
+/**
+ * Результат выгрузки чека кассы
+ */
+public enum ReceiptSyncStatus {
+
+    // Чек записан, остатки списаны
+    ACCEPTED,
+
+    // Чек с этим ключом уже выгружен ранее или повторяется в пакете; повторно не записан
+    DUPLICATE,
+
+    // Чек не прошел проверку и не записан; ключ не занят
+    REJECTED
+}
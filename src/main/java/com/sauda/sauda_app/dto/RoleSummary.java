@@ -0,0 +1,11 @@
+package com.sauda.sauda_app.dto;
+
+/**
+ * Роль для справочника: только колонки таблицы roles, без пользователей
+ * @param id идентификатор роли
+ * @param tenantId идентификатор магазина
+ * @param name название
+ * @param permissionsJson права роли (JSON)
+ */
+public record RoleSummary(Long id, Long tenantId, String name, String permissionsJson) {
+}
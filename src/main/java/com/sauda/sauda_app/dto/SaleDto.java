@@ -0,0 +1,20 @@
+package com.sauda.sauda_app.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class SaleDto {
+    private Long tenantId;
+    private Long employeeId;
+    private Long customerId;
+    private Long posTerminalId;
+    
+    // Склад, с которого списываются остатки по чеку
+    private Long warehouseId;
+    
+    private String paymentMethod;
+    private List<SaleItemDto> items;
+    private List<PaymentDto> payments;
+}
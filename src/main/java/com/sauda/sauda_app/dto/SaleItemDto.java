@@ -0,0 +1,12 @@
+package com.sauda.sauda_app.dto;
+
+import lombok.Data;
+import java.math.BigDecimal;
+
+@Data
+public class SaleItemDto {
+    private Long productId;
+    private BigDecimal quantity;
+    private BigDecimal price;
+    private BigDecimal discount;
+}
@@ -0,0 +1,24 @@
+package com.sauda.sauda_app.dto;
+
+import com.sauda.sauda_app.event.SaleCompletedEvent;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Проведенный чек для панели продаж
+ * @param saleId идентификатор чека
+ * @param warehouseId склад списания
+ * @param posTerminalId касса
+ * @param totalAmount сумма чека
+ * @param itemCount число позиций
+ * @param completedAt время проведения
+ */
+public record SaleNotification(Long saleId, Long warehouseId, Long posTerminalId, BigDecimal totalAmount,
+                               int itemCount, LocalDateTime completedAt) {
+
+    public static SaleNotification from(SaleCompletedEvent event) {
+        return new SaleNotification(event.saleId(), event.warehouseId(), event.posTerminalId(), event.totalAmount(),
+                event.itemCount(), event.completedAt());
+    }
+}
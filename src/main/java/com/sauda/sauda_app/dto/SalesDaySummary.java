@@ -0,0 +1,28 @@
+package com.sauda.sauda_app.dto;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+
+/**
+ * Итоги продаж за день
+ * @param day день
+ * @param revenue выручка
+ * @param receipts число чеков
+ * @param averageTicket средний чек
+ * @param discountAmount сумма скидок
+ */
+public record SalesDaySummary(LocalDate day,
+                              BigDecimal revenue,
+                              long receipts,
+                              BigDecimal averageTicket,
+                              BigDecimal discountAmount) {
+
+    public static SalesDaySummary of(LocalDate day, BigDecimal revenue, long receipts, BigDecimal discountAmount) {
+        return new SalesDaySummary(day, revenue, receipts, averageTicket(revenue, receipts), discountAmount);
+    }
+
+    static BigDecimal averageTicket(BigDecimal revenue, long receipts) {
+        return receipts == 0 ? BigDecimal.ZERO : revenue.divide(BigDecimal.valueOf(receipts), 2, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,37 @@
+package com.sauda.sauda_app.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Отчет о продажах за период: итоги и разбивка по дням (дни без продаж не выводятся)
+ * @param from первый день периода
+ * @param to последний день периода включительно
+ * @param revenue выручка
+ * @param receipts число чеков
+ * @param averageTicket средний чек
+ * @param discountAmount сумма скидок
+ * @param days итоги по дням
+ */
+public record SalesReport(LocalDate from,
+                          LocalDate to,
+                          BigDecimal revenue,
+                          long receipts,
+                          BigDecimal averageTicket,
+                          BigDecimal discountAmount,
+                          List<SalesDaySummary> days) {
+
+    public static SalesReport of(LocalDate from, LocalDate to, List<SalesDaySummary> days) {
+        BigDecimal revenue = BigDecimal.ZERO;
+        BigDecimal discountAmount = BigDecimal.ZERO;
+        long receipts = 0;
+        for (SalesDaySummary day : days) {
+            revenue = revenue.add(day.revenue());
+            discountAmount = discountAmount.add(day.discountAmount());
+            receipts += day.receipts();
+        }
+        return new SalesReport(from, to, revenue, receipts, SalesDaySummary.averageTicket(revenue, receipts),
+                discountAmount, days);
+    }
+}
@@ -0,0 +1,12 @@
+package com.sauda.sauda_app.dto;
+
+import java.util.List;
+
+/**
+ * Чеки магазина, проведенные за интервал рассылки
+ * @param tenantId идентификатор магазина
+ * @param sales чеки в порядке проведения
+ * @param dropped число чеков, не вошедших в пакет (вытеснены более новыми)
+ */
+public record SalesUpdateBatch(Long tenantId, List<SaleNotification> sales, int dropped) {
+}
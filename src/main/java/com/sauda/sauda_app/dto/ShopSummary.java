@@ -0,0 +1,14 @@
+package com.sauda.sauda_app.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Магазин для ответов на чтение: только колонки таблицы shops, без пользователей и владельца
+ * @param id идентификатор магазина
+ * @param tenantId идентификатор арендатора
+ * @param name название
+ * @param ownerId идентификатор владельца
+ * @param createdAt дата создания
+ */
+public record ShopSummary(Long id, Long tenantId, String name, Long ownerId, LocalDateTime createdAt) {
+}
@@ -0,0 +1,11 @@
+package com.sauda.sauda_app.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Изменение остатка товара за интервал рассылки
+ * @param productId идентификатор товара
+ * @param quantity суммарное изменение: положительное — приход, отрицательное — расход
+ */
+public record StockDelta(Long productId, BigDecimal quantity) {
+}
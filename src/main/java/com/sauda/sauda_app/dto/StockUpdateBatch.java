@@ -0,0 +1,14 @@
+package com.sauda.sauda_app.dto;
+
+import java.util.List;
+
+/**
+ * Изменения остатков склада, накопленные за интервал рассылки
+ * @param tenantId идентификатор магазина
+ * @param warehouseId идентификатор склада
+ * @param deltas изменения по товарам, по одному на товар
+ * @param truncated за интервал изменилось больше товаров, чем помещается в пакет:
+ *                  часть изменений не передана, остатки нужно перечитать через /api/inventory
+ */
+public record StockUpdateBatch(Long tenantId, Long warehouseId, List<StockDelta> deltas, boolean truncated) {
+}
@@ -0,0 +1,13 @@
+package com.sauda.sauda_app.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class TransferDto {
+    private Long tenantId;
+    private Long fromWarehouseId;
+    private Long toWarehouseId;
+    private List<TransferItemDto> items;
+}
@@ -0,0 +1,12 @@
+package com.sauda.sauda_app.dto;
+
+/**
+ * Единица измерения для справочника: только колонки таблицы units, без товаров
+ * @param id идентификатор единицы
+ * @param tenantId идентификатор магазина
+ * @param name название
+ * @param symbol обозначение
+ * @param isActive активна ли единица
+ */
+public record UnitSummary(Long id, Long tenantId, String name, String symbol, Boolean isActive) {
+}
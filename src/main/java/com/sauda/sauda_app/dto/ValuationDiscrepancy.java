@@ -0,0 +1,16 @@
+package com.sauda.sauda_app.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Расхождение стоимости остатков склада: поддерживаемая по приращениям против полного пересчета
+ * @param warehouseId идентификатор склада
+ * @param trackedValue стоимость по приращениям
+ * @param actualValue стоимость по полному пересчету
+ */
+public record ValuationDiscrepancy(Long warehouseId, BigDecimal trackedValue, BigDecimal actualValue) {
+
+    public BigDecimal getDifference() {
+        return trackedValue.subtract(actualValue);
+    }
+}
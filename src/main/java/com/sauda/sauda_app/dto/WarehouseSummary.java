@@ -0,0 +1,12 @@
+package com.sauda.sauda_app.dto;
+
+/**
+ * Склад для справочника: только колонки таблицы warehouses, без остатков и заказов
+ * @param id идентификатор склада
+ * @param tenantId идентификатор магазина
+ * @param name название
+ * @param address адрес
+ * @param isActive активен ли склад
+ */
+public record WarehouseSummary(Long id, Long tenantId, String name, String address, Boolean isActive) {
+}
@@ -1,16 +1,20 @@
 package com.sauda.sauda_app.entity;
 
+import com.sauda.sauda_app.tenant.TenantContext;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Filter;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "categories")
+@Table(name = "product_categories")
+@Filter(name = TenantContext.FILTER_NAME)
 @Data
 public class Category {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_categories_id_seq")
+    @SequenceGenerator(name = "product_categories_id_seq", sequenceName = "product_categories_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "name", nullable = false)
@@ -1,22 +1,27 @@
 package com.sauda.sauda_app.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.sauda.sauda_app.tenant.TenantContext;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
+import org.hibernate.annotations.Filter;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
 @Table(name = "customers")
+@Filter(name = TenantContext.FILTER_NAME)
 @Data
 @EqualsAndHashCode(callSuper = false)
 @ToString(exclude = {"sales"})
 public class Customer {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customers_id_seq")
+    @SequenceGenerator(name = "customers_id_seq", sequenceName = "customers_id_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "tenant_id", nullable = false)
@@ -48,6 +53,7 @@ public class Customer {
     
     // Relationships
     @OneToMany(mappedBy = "customer", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @JsonIgnore
     private List<Sale> sales;
 }
 
@@ -1,20 +1,24 @@
 package com.sauda.sauda_app.entity;
 
+import com.sauda.sauda_app.tenant.TenantContext;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import org.hibernate.annotations.Filter;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 
 @Entity
 @Table(name = "discount_rules")
+@Filter(name = TenantContext.FILTER_NAME)
 @Data
 @EqualsAndHashCode(callSuper = false)
 public class DiscountRule {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "discount_rules_id_seq")
+    @SequenceGenerator(name = "discount_rules_id_seq", sequenceName = "discount_rules_id_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "tenant_id", nullable = false)
@@ -26,7 +30,7 @@ public class DiscountRule {
     @Column(name = "discount_type", nullable = false)
     private String discountType;
     
-    @Column(name = "discount_value", nullable = false)
+    @Column(name = "value", nullable = false)
     private BigDecimal value;
     
     @Column(name = "start_date", nullable = false)
@@ -37,4 +41,12 @@ public class DiscountRule {
     
     @Column(name = "applies_to")
     private String appliesTo;
+
+    // Товар или категория для правил product/category
+    @Column(name = "target_id")
+    private Long targetId;
+
+    // Порог суммы чека для правил total
+    @Column(name = "min_amount")
+    private BigDecimal minAmount;
 }
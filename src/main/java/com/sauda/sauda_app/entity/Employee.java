@@ -1,22 +1,26 @@
 package com.sauda.sauda_app.entity;
 
+import com.sauda.sauda_app.tenant.TenantContext;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
+import org.hibernate.annotations.Filter;
 
 import java.time.LocalDate;
 import java.util.List;
 
 @Entity
 @Table(name = "employees")
+@Filter(name = TenantContext.FILTER_NAME)
 @Data
 @EqualsAndHashCode(callSuper = false)
 @ToString(exclude = {"users", "sales"})
 public class Employee {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "employees_id_seq")
+    @SequenceGenerator(name = "employees_id_seq", sequenceName = "employees_id_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "tenant_id", nullable = false)
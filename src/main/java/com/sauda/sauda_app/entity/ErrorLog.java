@@ -14,7 +14,8 @@ import java.time.LocalDateTime;
 public class ErrorLog {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "error_log_id_seq")
+    @SequenceGenerator(name = "error_log_id_seq", sequenceName = "error_log_id_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "tenant_id", nullable = false)
@@ -1,9 +1,12 @@
 package com.sauda.sauda_app.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.sauda.sauda_app.tenant.TenantContext;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
+import org.hibernate.annotations.Filter;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
@@ -11,13 +14,15 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "inventory")
+@Filter(name = TenantContext.FILTER_NAME)
 @Data
 @EqualsAndHashCode(callSuper = false)
 @ToString(exclude = {"product", "warehouse"})
 public class Inventory {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inventory_id_seq")
+    @SequenceGenerator(name = "inventory_id_seq", sequenceName = "inventory_id_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "tenant_id", nullable = false)
@@ -43,10 +48,12 @@ public class Inventory {
     // Relationships
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id", insertable = false, updatable = false)
+    @JsonIgnore
     private Product product;
     
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "warehouse_id", insertable = false, updatable = false)
+    @JsonIgnore
     private Warehouse warehouse;
 }
 
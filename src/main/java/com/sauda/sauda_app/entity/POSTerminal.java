@@ -1,21 +1,25 @@
 package com.sauda.sauda_app.entity;
 
+import com.sauda.sauda_app.tenant.TenantContext;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
+import org.hibernate.annotations.Filter;
 
 import java.util.List;
 
 @Entity
 @Table(name = "pos_terminals")
+@Filter(name = TenantContext.FILTER_NAME)
 @Data
 @EqualsAndHashCode(callSuper = false)
 @ToString(exclude = {"sales"})
 public class POSTerminal {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pos_terminals_id_seq")
+    @SequenceGenerator(name = "pos_terminals_id_seq", sequenceName = "pos_terminals_id_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "tenant_id", nullable = false)
@@ -15,7 +15,8 @@ import java.util.List;
 public class ProductAttribute {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_attributes_id_seq")
+    @SequenceGenerator(name = "product_attributes_id_seq", sequenceName = "product_attributes_id_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "tenant_id", nullable = false)
@@ -15,7 +15,8 @@ import java.math.BigDecimal;
 public class ProductAttributeValue {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_attribute_values_id_seq")
+    @SequenceGenerator(name = "product_attribute_values_id_seq", sequenceName = "product_attribute_values_id_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "product_id", nullable = false)
@@ -16,7 +16,8 @@ import java.time.LocalDateTime;
 public class ProductHistory {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_history_id_seq")
+    @SequenceGenerator(name = "product_history_id_seq", sequenceName = "product_history_id_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "tenant_id", nullable = false)
@@ -37,7 +38,17 @@ public class ProductHistory {
     
     @Column(name = "changed_by")
     private Long changedBy;
-    
+
+    // Ревизия товара и запись в формате ProductDiffCodec
+    @Column(name = "revision")
+    private Integer revision;
+
+    @Column(name = "snapshot", nullable = false)
+    private Boolean snapshot = false;
+
+    @Column(name = "diff")
+    private byte[] diff;
+
     // Relationships
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id", insertable = false, updatable = false)
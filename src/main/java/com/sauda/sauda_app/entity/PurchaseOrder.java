@@ -17,7 +17,8 @@ import java.util.List;
 public class PurchaseOrder {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "purchase_orders_id_seq")
+    @SequenceGenerator(name = "purchase_orders_id_seq", sequenceName = "purchase_orders_id_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "tenant_id", nullable = false)
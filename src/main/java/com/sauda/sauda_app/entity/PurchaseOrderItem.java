@@ -15,7 +15,8 @@ import java.math.BigDecimal;
 public class PurchaseOrderItem {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "purchase_order_items_id_seq")
+    @SequenceGenerator(name = "purchase_order_items_id_seq", sequenceName = "purchase_order_items_id_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "tenant_id", nullable = false)
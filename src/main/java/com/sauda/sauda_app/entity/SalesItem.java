@@ -15,7 +15,8 @@ import java.math.BigDecimal;
 public class SalesItem {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sales_items_id_seq")
+    @SequenceGenerator(name = "sales_items_id_seq", sequenceName = "sales_items_id_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "tenant_id", nullable = false)
@@ -13,7 +13,8 @@ import lombok.ToString;
 public class UserShopRole {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_shop_roles_id_seq")
+    @SequenceGenerator(name = "user_shop_roles_id_seq", sequenceName = "user_shop_roles_id_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "user_id", nullable = false)
@@ -0,0 +1,19 @@
+/**
+ * Сущности базы данных.
+ *
+ * Фильтр магазина включен в каждой сессии: сущности с {@code @Filter(name = TenantContext.FILTER_NAME)}
+ * в запросах ограничиваются магазином текущего запроса. Без магазина (фоновые задачи, миграции)
+ * параметр равен {@link com.sauda.sauda_app.tenant.TenantContext#ALL_TENANTS} и условие не ограничивает выборку.
+ * Загрузка по первичному ключу фильтром не ограничивается — ее проверяют сервисы по tenantId.
+ */
+@FilterDef(
+        name = TenantContext.FILTER_NAME,
+        autoEnabled = true,
+        defaultCondition = "(:tenantId = 0 OR tenant_id = :tenantId)",
+        parameters = @ParamDef(name = "tenantId", type = Long.class, resolver = TenantFilterParameter.class))
+package com.sauda.sauda_app.entity;
+
+import com.sauda.sauda_app.tenant.TenantContext;
+import com.sauda.sauda_app.tenant.TenantFilterParameter;
+import org.hibernate.annotations.FilterDef;
+import org.hibernate.annotations.ParamDef;
@@ -0,0 +1,18 @@
+package com.sauda.sauda_app.event;
+
+import java.util.List;
+
+/**
+ * Событие изменения клиента: создание, изменение, выдача или снятие дисконтной карты, удаление.
+ * Несет прежние и новые значения карты и телефона, чтобы сбросить записи кэша по обоим ключам,
+ * и изменение числа клиентов и выданных карт для счетчиков статистики.
+ * Слушатели получают его после фиксации транзакции
+ * @param tenantId идентификатор магазина
+ * @param discountCards затронутые дисконтные карты; значения null пропускаются
+ * @param phones затронутые номера телефонов; значения null пропускаются
+ * @param customersDelta изменение числа клиентов: 1 — создан, -1 — удален
+ * @param discountCardsDelta изменение числа клиентов с картой
+ */
+public record CustomerChangedEvent(Long tenantId, List<String> discountCards, List<String> phones,
+                                   int customersDelta, int discountCardsDelta) {
+}
@@ -0,0 +1,9 @@
+package com.sauda.sauda_app.event;
+
+/**
+ * Событие изменения правил скидок магазина: добавление, изменение или удаление правила.
+ * Слушатели получают его после фиксации транзакции
+ * @param tenantId идентификатор магазина
+ */
+public record DiscountRulesChangedEvent(Long tenantId) {
+}
@@ -0,0 +1,10 @@
+package com.sauda.sauda_app.event;
+
+/**
+ * Событие изменения прайс-листа магазина: добавление, изменение или удаление цены.
+ * Слушатели получают его после фиксации транзакции
+ * @param tenantId идентификатор магазина
+ * @param productId товар, цены которого изменились; null — изменения по всему магазину
+ */
+public record PriceListChangedEvent(Long tenantId, Long productId) {
+}
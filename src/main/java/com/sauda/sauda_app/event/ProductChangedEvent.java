@@ -0,0 +1,26 @@
+package com.sauda.sauda_app.event;
+
+import com.sauda.sauda_app.dto.ProductSnapshot;
+import com.sauda.sauda_app.entity.Product;
+
+/**
+ * Событие изменения товара: создание, обновление, активация, деактивация, удаление.
+ * Публикуется после сохранения; слушатели получают его после фиксации транзакции
+ * @param product снимок товара после изменения
+ * @param previousBarcode штрих-код до изменения (null для нового товара)
+ * @param deleted товар удален (мягко)
+ */
+public record ProductChangedEvent(ProductSnapshot product, String previousBarcode, boolean deleted) {
+
+    public static ProductChangedEvent of(Product product, String previousBarcode) {
+        return new ProductChangedEvent(ProductSnapshot.from(product), previousBarcode,
+                Boolean.TRUE.equals(product.getIsDeleted()));
+    }
+
+    /**
+     * Товар доступен для продажи: активен и не удален
+     */
+    public boolean isSellable() {
+        return !deleted && Boolean.TRUE.equals(product.isActive());
+    }
+}
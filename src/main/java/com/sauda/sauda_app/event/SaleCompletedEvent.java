@@ -0,0 +1,25 @@
+package com.sauda.sauda_app.event;
+
+import com.sauda.sauda_app.entity.Sale;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Событие проведения чека. Слушатели получают его после фиксации транзакции
+ * @param tenantId идентификатор магазина
+ * @param saleId идентификатор чека
+ * @param warehouseId склад списания
+ * @param posTerminalId касса
+ * @param totalAmount сумма чека
+ * @param itemCount число позиций
+ * @param completedAt время проведения
+ */
+public record SaleCompletedEvent(Long tenantId, Long saleId, Long warehouseId, Long posTerminalId,
+                                 BigDecimal totalAmount, int itemCount, LocalDateTime completedAt) {
+
+    public static SaleCompletedEvent of(Sale sale, Long warehouseId) {
+        return new SaleCompletedEvent(sale.getTenantId(), sale.getId(), warehouseId, sale.getPosTerminalId(),
+                sale.getTotalAmount(), sale.getItems().size(), LocalDateTime.now());
+    }
+}
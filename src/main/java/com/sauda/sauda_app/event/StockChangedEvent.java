@@ -0,0 +1,13 @@
+package com.sauda.sauda_app.event;
+
+import com.sauda.sauda_app.dto.InventoryMovement;
+
+import java.util.List;
+
+/**
+ * Событие изменения остатков: движения, записанные в журнал одной операцией
+ * (изменение остатка, перемещение, продажа). Слушатели получают его после фиксации транзакции
+ * @param movements движения остатков
+ */
+public record StockChangedEvent(List<InventoryMovement> movements) {
+}
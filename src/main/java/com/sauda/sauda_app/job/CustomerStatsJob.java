@@ -0,0 +1,53 @@
+package com.sauda.sauda_app.job;
+
+import com.sauda.sauda_app.cache.CustomerStatsCounters;
+import com.sauda.sauda_app.tenant.TenantContext;
+import com.sauda.sauda_app.tenant.TenantDatabases;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Сверка счетчиков клиентов с базой.
+ *
+ * Один GROUP BY по всем магазинам: поправляет счетчики после изменений в обход сервиса
+ * и обновляет число активных за 30 дней, которое событиями не поддерживается. Первый запуск —
+ * при старте, чтобы дашборды сразу читали счетчики из памяти. Магазины с выделенной базой
+ * в основной базе не сверяются: каждый пересчитывается отдельным запросом в своей базе.
+ */
+@Component
+public class CustomerStatsJob {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerStatsJob.class);
+
+    private final CustomerStatsCounters statsCounters;
+    private final TenantDatabases tenantDatabases;
+
+    @Autowired
+    public CustomerStatsJob(CustomerStatsCounters statsCounters, TenantDatabases tenantDatabases) {
+        this.statsCounters = statsCounters;
+        this.tenantDatabases = tenantDatabases;
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${sauda.customer-stats.reconcile-interval-ms:600000}")
+    public void reconcile() {
+        try {
+            List<Long> drifted = new ArrayList<>(statsCounters.reconcileAll(tenantDatabases.dedicatedTenantIds()));
+            for (Long tenantId : tenantDatabases.dedicatedTenantIds()) {
+                if (TenantContext.callAs(tenantId, () -> statsCounters.reconcile(tenantId))) {
+                    drifted.add(tenantId);
+                }
+            }
+            if (!drifted.isEmpty()) {
+                log.warn("Счетчики клиентов магазинов {} расходились с пересчетом и поправлены", drifted);
+            }
+        } catch (RuntimeException e) {
+            log.error("Не удалось сверить счетчики клиентов", e);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.sauda.sauda_app.job;
+
+import com.sauda.sauda_app.service.InventoryLedgerService;
+import com.sauda.sauda_app.tenant.TenantContext;
+import com.sauda.sauda_app.tenant.TenantDatabases;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Обслуживание журнала движений остатков.
+ *
+ * Заранее создает месячные секции журнала, чтобы движения не попадали в секцию по умолчанию.
+ * Раз в сутки записывает контрольные точки всех магазинов: восстановление остатков на момент
+ * читает журнал только после последней точки. Точка берется с отставанием от текущего времени,
+ * чтобы к ней успели завершиться транзакции, уже записавшие движения с более ранним временем.
+ * Секции создаются в каждой базе, точка магазина пишется в его базу (см. {@link TenantDatabases}).
+ */
+@Component
+public class InventoryLedgerJob {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryLedgerJob.class);
+
+    private static final int PARTITION_MONTHS_AHEAD = 2;
+
+    private final InventoryLedgerService ledgerService;
+    private final TenantDatabases tenantDatabases;
+    private final long checkpointLagMinutes;
+
+    @Autowired
+    public InventoryLedgerJob(InventoryLedgerService ledgerService, TenantDatabases tenantDatabases,
+                              @Value("${sauda.inventory.ledger.checkpoint-lag-minutes:10}") long checkpointLagMinutes) {
+        this.ledgerService = ledgerService;
+        this.tenantDatabases = tenantDatabases;
+        this.checkpointLagMinutes = checkpointLagMinutes;
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${sauda.inventory.ledger.partition-interval-ms:21600000}")
+    public void createPartitions() {
+        tenantDatabases.forEachDatabase(() -> {
+            try {
+                ledgerService.ensurePartitions(LocalDate.now(), PARTITION_MONTHS_AHEAD);
+            } catch (RuntimeException e) {
+                log.error("Не удалось создать секции журнала движений остатков", e);
+            }
+        });
+    }
+
+    @Scheduled(cron = "${sauda.inventory.ledger.checkpoint-cron:0 30 0 * * *}")
+    public void createCheckpoints() {
+        LocalDateTime takenAt = LocalDateTime.now().minusMinutes(checkpointLagMinutes);
+        for (Long tenantId : tenantDatabases.withDedicated(ledgerService.getTenantIds())) {
+            try {
+                TenantContext.callAs(tenantId, () -> ledgerService.createCheckpoint(tenantId, takenAt));
+            } catch (RuntimeException e) {
+                log.error("Не удалось записать контрольную точку остатков магазина {}", tenantId, e);
+            }
+        }
+    }
+}
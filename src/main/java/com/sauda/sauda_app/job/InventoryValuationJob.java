@@ -0,0 +1,84 @@
+package com.sauda.sauda_app.job;
+
+import com.sauda.sauda_app.dto.ValuationDiscrepancy;
+import com.sauda.sauda_app.event.PriceListChangedEvent;
+import com.sauda.sauda_app.service.InventoryValuationService;
+import com.sauda.sauda_app.tenant.TenantContext;
+import com.sauda.sauda_app.tenant.TenantDatabases;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Обслуживание стоимости остатков.
+ *
+ * Часто: переносит журнал изменений стоимости в итоги складов, чтобы чтение оставалось дешевым,
+ * и сверяет магазины, у которых менялся прайс-лист (смена цены не меняет остатков, поэтому
+ * триггер ее не видит). Раз в сутки: сверяет все магазины — с началом дня вступают в силу
+ * и заканчиваются ценовые интервалы. Найденные расхождения пишутся в лог.
+ * Журнал переносится в каждой базе, магазин сверяется в своей базе (см. {@link TenantDatabases}).
+ */
+@Component
+public class InventoryValuationJob {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryValuationJob.class);
+
+    private final InventoryValuationService valuationService;
+    private final TenantDatabases tenantDatabases;
+    private final Set<Long> repricedTenants = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public InventoryValuationJob(InventoryValuationService valuationService, TenantDatabases tenantDatabases) {
+        this.valuationService = valuationService;
+        this.tenantDatabases = tenantDatabases;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPriceListChanged(PriceListChangedEvent event) {
+        repricedTenants.add(event.tenantId());
+    }
+
+    @Scheduled(fixedDelayString = "${sauda.inventory.valuation.fold-interval-ms:5000}")
+    public void foldAndReconcileRepriced() {
+        tenantDatabases.forEachDatabase(() -> {
+            try {
+                valuationService.foldPendingDeltas();
+            } catch (RuntimeException e) {
+                log.error("Не удалось перенести журнал стоимости остатков", e);
+            }
+        });
+        for (Long tenantId : List.copyOf(repricedTenants)) {
+            repricedTenants.remove(tenantId);
+            reconcile(tenantId);
+        }
+    }
+
+    @Scheduled(cron = "${sauda.inventory.valuation.reconcile-cron:0 5 0 * * *}")
+    public void reconcileAll() {
+        for (Long tenantId : tenantDatabases.withDedicated(valuationService.getTenantIds())) {
+            reconcile(tenantId);
+        }
+    }
+
+    private void reconcile(Long tenantId) {
+        try {
+            List<ValuationDiscrepancy> discrepancies =
+                    TenantContext.callAs(tenantId, () -> valuationService.reconcile(tenantId));
+            for (ValuationDiscrepancy discrepancy : discrepancies) {
+                log.warn("Стоимость склада {} магазина {} расходилась с пересчетом: учтено {}, фактически {}",
+                        discrepancy.warehouseId(), tenantId, discrepancy.trackedValue(), discrepancy.actualValue());
+            }
+        } catch (RuntimeException e) {
+            // Магазин вернется в очередь и будет сверен при следующем запуске
+            repricedTenants.add(tenantId);
+            log.error("Не удалось сверить стоимость остатков магазина {}", tenantId, e);
+        }
+    }
+}
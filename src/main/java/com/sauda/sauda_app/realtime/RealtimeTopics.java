@@ -0,0 +1,74 @@
+package com.sauda.sauda_app.realtime;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Каналы панелей в реальном времени:
+ * /topic/tenants/{tenantId}/warehouses/{warehouseId}/stock — изменения остатков склада,
+ * /topic/tenants/{tenantId}/sales — проведенные чеки магазина
+ */
+final class RealtimeTopics {
+
+    static final String BROKER_PREFIX = "/topic";
+
+    private static final Pattern TOPIC = Pattern.compile(
+            "^/topic/tenants/(\\d+)/(?:warehouses/(\\d+)/stock|sales)$");
+
+    /**
+     * Вид канала и роли, которым доступна подписка (как у /api/inventory и /api/sales)
+     */
+    enum Kind {
+        STOCK(Set.of("ROLE_INVENTORY_MANAGER", "ROLE_MANAGER", "ROLE_ADMIN")),
+        SALES(Set.of("ROLE_CASHIER", "ROLE_SALES_MANAGER", "ROLE_MANAGER", "ROLE_ADMIN"));
+
+        private final Set<String> authorities;
+
+        Kind(Set<String> authorities) {
+            this.authorities = authorities;
+        }
+
+        Set<String> authorities() {
+            return authorities;
+        }
+    }
+
+    record Topic(Kind kind, Long tenantId, Long warehouseId) {
+    }
+
+    private RealtimeTopics() {
+    }
+
+    static String stock(Long tenantId, Long warehouseId) {
+        return BROKER_PREFIX + "/tenants/" + tenantId + "/warehouses/" + warehouseId + "/stock";
+    }
+
+    static String sales(Long tenantId) {
+        return BROKER_PREFIX + "/tenants/" + tenantId + "/sales";
+    }
+
+    /**
+     * Разобрать адрес канала
+     * @param destination адрес из кадра SUBSCRIBE
+     * @return канал, если адрес — один из каналов панелей
+     */
+    static Optional<Topic> parse(String destination) {
+        if (destination == null) {
+            return Optional.empty();
+        }
+        Matcher matcher = TOPIC.matcher(destination);
+        if (!matcher.matches()) {
+            return Optional.empty();
+        }
+        try {
+            Long tenantId = Long.valueOf(matcher.group(1));
+            return Optional.of(matcher.group(2) != null
+                    ? new Topic(Kind.STOCK, tenantId, Long.valueOf(matcher.group(2)))
+                    : new Topic(Kind.SALES, tenantId, null));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.sauda.sauda_app.realtime;
+
+import com.sauda.sauda_app.dto.InventoryMovement;
+import com.sauda.sauda_app.dto.SaleNotification;
+import com.sauda.sauda_app.dto.SalesUpdateBatch;
+import com.sauda.sauda_app.dto.StockDelta;
+import com.sauda.sauda_app.dto.StockUpdateBatch;
+import com.sauda.sauda_app.event.SaleCompletedEvent;
+import com.sauda.sauda_app.event.StockChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Рассылка изменений остатков и проведенных чеков в каналы панелей.
+ *
+ * Изменения копятся в буферах по каналу и отправляются пакетом раз в flush-interval-ms:
+ * изменения остатка одного товара за интервал складываются, поэтому частые продажи одного товара
+ * дают одну строку в пакете, а число сообщений брокера не зависит от числа продаж.
+ * Буферы ограничены: сверх max-stock-deltas товаров пакет помечается как неполный, сверх max-sales
+ * чеков вытесняются самые старые. Медленных подписчиков отключает транспорт WebSocket
+ * (см. WebSocketConfig), поэтому рассылка не ждет отдельных клиентов.
+ *
+ * Слушатели получают события после фиксации транзакции: откаченные изменения не рассылаются.
+ */
+@Component
+public class RealtimeUpdatePublisher {
+
+    /**
+     * Буфер канала. Рассылка закрывает буфер, забирая содержимое; запись в закрытый буфер
+     * не проходит, и слушатель создает новый — так изменение не теряется между выборкой и удалением
+     */
+    private abstract static class Buffer {
+        private boolean closed;
+
+        final synchronized boolean isClosed() {
+            return closed;
+        }
+
+        final synchronized void close() {
+            closed = true;
+        }
+    }
+
+    private static final class StockBuffer extends Buffer {
+        private final Map<Long, BigDecimal> deltas = new LinkedHashMap<>();
+        private boolean truncated;
+
+        synchronized boolean add(InventoryMovement movement, int maxDeltas) {
+            if (isClosed()) {
+                return false;
+            }
+            BigDecimal current = deltas.get(movement.productId());
+            if (current != null) {
+                deltas.put(movement.productId(), current.add(movement.quantity()));
+            } else if (deltas.size() < maxDeltas) {
+                deltas.put(movement.productId(), movement.quantity());
+            } else {
+                truncated = true;
+            }
+            return true;
+        }
+
+        synchronized StockUpdateBatch drain(Long tenantId, Long warehouseId) {
+            close();
+            List<StockDelta> batch = new ArrayList<>(deltas.size());
+            deltas.forEach((productId, quantity) -> {
+                if (quantity.signum() != 0) {
+                    batch.add(new StockDelta(productId, quantity));
+                }
+            });
+            return new StockUpdateBatch(tenantId, warehouseId, batch, truncated);
+        }
+    }
+
+    private static final class SalesBuffer extends Buffer {
+        private final ArrayDeque<SaleNotification> sales = new ArrayDeque<>();
+        private int dropped;
+
+        synchronized boolean add(SaleNotification sale, int maxSales) {
+            if (isClosed()) {
+                return false;
+            }
+            if (sales.size() == maxSales) {
+                sales.pollFirst();
+                dropped++;
+            }
+            sales.addLast(sale);
+            return true;
+        }
+
+        synchronized SalesUpdateBatch drain(Long tenantId) {
+            close();
+            return new SalesUpdateBatch(tenantId, List.copyOf(sales), dropped);
+        }
+    }
+
+    private record WarehouseKey(Long tenantId, Long warehouseId) {
+    }
+
+    private final SimpMessageSendingOperations messagingTemplate;
+    private final int maxStockDeltas;
+    private final int maxSales;
+    private final Map<WarehouseKey, StockBuffer> stock = new ConcurrentHashMap<>();
+    private final Map<Long, SalesBuffer> sales = new ConcurrentHashMap<>();
+
+    @Autowired
+    public RealtimeUpdatePublisher(SimpMessageSendingOperations messagingTemplate,
+                                   @Value("${sauda.realtime.max-stock-deltas:5000}") int maxStockDeltas,
+                                   @Value("${sauda.realtime.max-sales:500}") int maxSales) {
+        if (maxStockDeltas <= 0 || maxSales <= 0) {
+            throw new IllegalArgumentException("Размеры буферов рассылки должны быть положительными");
+        }
+        this.messagingTemplate = messagingTemplate;
+        this.maxStockDeltas = maxStockDeltas;
+        this.maxSales = maxSales;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        for (InventoryMovement movement : event.movements()) {
+            WarehouseKey key = new WarehouseKey(movement.tenantId(), movement.warehouseId());
+            while (!stock.computeIfAbsent(key, k -> new StockBuffer()).add(movement, maxStockDeltas)) {
+                // Буфер закрыт рассылкой — следующий проход создаст новый
+                stock.computeIfPresent(key, (k, buffer) -> buffer.isClosed() ? null : buffer);
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSaleCompleted(SaleCompletedEvent event) {
+        SaleNotification sale = SaleNotification.from(event);
+        while (!sales.computeIfAbsent(event.tenantId(), k -> new SalesBuffer()).add(sale, maxSales)) {
+            sales.computeIfPresent(event.tenantId(), (k, buffer) -> buffer.isClosed() ? null : buffer);
+        }
+    }
+
+    /**
+     * Отправить накопленные изменения: одно сообщение на канал с изменениями
+     */
+    @Scheduled(fixedDelayString = "${sauda.realtime.flush-interval-ms:100}")
+    public void flush() {
+        for (WarehouseKey key : List.copyOf(stock.keySet())) {
+            StockBuffer buffer = stock.remove(key);
+            if (buffer != null) {
+                StockUpdateBatch batch = buffer.drain(key.tenantId(), key.warehouseId());
+                if (!batch.deltas().isEmpty() || batch.truncated()) {
+                    messagingTemplate.convertAndSend(RealtimeTopics.stock(key.tenantId(), key.warehouseId()), batch);
+                }
+            }
+        }
+        for (Long tenantId : List.copyOf(sales.keySet())) {
+            SalesBuffer buffer = sales.remove(tenantId);
+            if (buffer != null) {
+                messagingTemplate.convertAndSend(RealtimeTopics.sales(tenantId), buffer.drain(tenantId));
+            }
+        }
+    }
+}
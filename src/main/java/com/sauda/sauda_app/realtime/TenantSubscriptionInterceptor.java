@@ -0,0 +1,65 @@
+package com.sauda.sauda_app.realtime;
+
+import com.sauda.sauda_app.tenant.TenantResolver;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+/**
+ * Проверка входящих кадров STOMP.
+ *
+ * Пользователь соединения — аутентификация запроса установки WebSocket (токен проверен цепочкой
+ * Spring Security). Подписаться можно только на каналы панелей своего магазина и с ролью,
+ * которой доступен соответствующий REST API; публиковать в каналы клиентам нельзя.
+ * Магазин канала подтверждается только утверждением токена: в отличие от REST, параметра tenantId
+ * и магазина по умолчанию здесь нет, поэтому токен без магазина не подписывается ни при каком require-claim.
+ * Исключение отклоняет кадр, и клиент получает кадр ERROR.
+ */
+@Component
+public class TenantSubscriptionInterceptor implements ChannelInterceptor {
+
+    private final TenantResolver tenantResolver;
+
+    @Autowired
+    public TenantSubscriptionInterceptor(TenantResolver tenantResolver) {
+        this.tenantResolver = tenantResolver;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null) {
+            return message;
+        }
+        if (StompCommand.SEND.equals(accessor.getCommand())) {
+            throw new AccessDeniedException("Публикация в каналы недоступна клиентам");
+        }
+        if (StompCommand.SUBSCRIBE.equals(accessor.getCommand())) {
+            authorize(accessor.getUser(), accessor.getDestination());
+        }
+        return message;
+    }
+
+    private void authorize(Object user, String destination) {
+        RealtimeTopics.Topic topic = RealtimeTopics.parse(destination)
+                .orElseThrow(() -> new AccessDeniedException("Неизвестный канал: " + destination));
+        if (!(user instanceof Authentication authentication) || !authentication.isAuthenticated()) {
+            throw new AccessDeniedException("Подписка без аутентификации");
+        }
+        boolean permitted = authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .anyMatch(topic.kind().authorities()::contains);
+        if (!permitted) {
+            throw new AccessDeniedException("Канал " + destination + " недоступен для ролей пользователя");
+        }
+        tenantResolver.resolveFromToken(authentication, topic.tenantId());
+    }
+}
@@ -0,0 +1,139 @@
+package com.sauda.sauda_app.repository;
+
+import com.sauda.sauda_app.audit.AuditEntry;
+import com.sauda.sauda_app.audit.ProductChange;
+import com.sauda.sauda_app.audit.ProductDiffCodec;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Пакетная запись журнала аудита и истории товаров.
+ * Пользователь находится по имени подзапросом в той же вставке, поэтому запись аудита
+ * не требует отдельного обращения к users.
+ *
+ * История товара пишется в формате {@link ProductDiffCodec}: ревизии товара нумеруются подряд,
+ * первая и каждая snapshotInterval-я после нее — полный снимок, остальные — только измененные поля.
+ * Ревизии назначает единственный поток-писатель аудита, поэтому они не пересекаются.
+ *
+ * Пакет пишется одной транзакцией: при ошибке не остается ни строк audit_log, ни ревизий истории,
+ * и построчный повтор в {@link com.sauda.sauda_app.audit.AuditPipeline} не дублирует записи
+ */
+@Repository
+public class AuditJdbcRepository {
+
+    private static final String INSERT_AUDIT_SQL =
+            "INSERT INTO audit_log (tenant_id, user_id, action, object_type, object_id, timestamp, details_json) " +
+            "VALUES (?, (SELECT id FROM users WHERE username = ?), ?, ?, ?, ?, CAST(? AS JSONB))";
+
+    private static final String INSERT_PRODUCT_HISTORY_SQL =
+            "INSERT INTO product_history (tenant_id, product_id, changed_at, revision, snapshot, diff, changed_by) " +
+            "VALUES (?, ?, ?, ?, ?, ?, (SELECT id FROM users WHERE username = ?))";
+
+    private static final String LATEST_REVISIONS_SQL =
+            "SELECT p.id AS product_id, " +
+            "       (SELECT h.revision FROM product_history h " +
+            "        WHERE h.product_id = p.id AND h.revision IS NOT NULL " +
+            "        ORDER BY h.revision DESC LIMIT 1) AS revision " +
+            "FROM unnest(?::bigint[]) AS p(id)";
+
+    // Последний снимок не позже момента и все изменения после него до момента, по порядку ревизий
+    private static final String REPLAY_SQL =
+            "WITH base AS (" +
+            "    SELECT revision FROM product_history " +
+            "    WHERE product_id = ? AND snapshot AND changed_at <= ? " +
+            "    ORDER BY revision DESC LIMIT 1" +
+            ") " +
+            "SELECT h.diff FROM product_history h, base " +
+            "WHERE h.product_id = ? AND h.revision >= base.revision AND h.changed_at <= ? AND h.diff IS NOT NULL " +
+            "ORDER BY h.revision";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int snapshotInterval;
+
+    @Autowired
+    public AuditJdbcRepository(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                               @Value("${sauda.audit.product-history.snapshot-interval:32}") int snapshotInterval) {
+        if (snapshotInterval <= 0) {
+            throw new IllegalArgumentException("Интервал снимков истории товара должен быть положительным");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    /**
+     * Записать пакет одной транзакцией: все записи — в audit_log, создание и изменение товаров —
+     * еще и в product_history
+     * @param entries записи аудита
+     */
+    public void insertAll(List<AuditEntry> entries) {
+        transactionTemplate.executeWithoutResult(status -> insertInTransaction(entries));
+    }
+
+    /**
+     * Записи истории товара от последнего снимка не позже момента до момента, по порядку ревизий
+     * @param productId идентификатор товара
+     * @param at момент
+     * @return записи в формате {@link ProductDiffCodec}, первая — снимок; пусто, если снимка до момента нет
+     */
+    public List<byte[]> findProductReplay(Long productId, LocalDateTime at) {
+        Timestamp moment = Timestamp.valueOf(at);
+        return jdbcTemplate.query(REPLAY_SQL, (rs, rowNum) -> rs.getBytes("diff"),
+                productId, moment, productId, moment);
+    }
+
+    private void insertInTransaction(List<AuditEntry> entries) {
+        jdbcTemplate.batchUpdate(INSERT_AUDIT_SQL, entries, entries.size(), (ps, entry) -> {
+            ps.setLong(1, entry.tenantId());
+            ps.setString(2, entry.username());
+            ps.setString(3, entry.action());
+            ps.setString(4, entry.objectType());
+            ps.setLong(5, entry.objectId());
+            ps.setTimestamp(6, Timestamp.valueOf(entry.timestamp()));
+            ps.setString(7, entry.detailsJson());
+        });
+        List<AuditEntry> history = entries.stream().filter(AuditEntry::isProductHistory).toList();
+        if (!history.isEmpty()) {
+            insertProductHistory(history);
+        }
+    }
+
+    private void insertProductHistory(List<AuditEntry> history) {
+        Map<Long, Integer> revisions = latestRevisions(history.stream().map(AuditEntry::objectId).distinct()
+                .toArray(Long[]::new));
+        List<Object[]> rows = new ArrayList<>(history.size());
+        for (AuditEntry entry : history) {
+            int revision = revisions.merge(entry.objectId(), 1, Integer::sum);
+            boolean snapshot = (revision - 1) % snapshotInterval == 0;
+            ProductChange change = entry.productChange();
+            byte[] diff = ProductDiffCodec.encode(snapshot ? change.state() : change.changedFields(), snapshot);
+            rows.add(new Object[]{entry.tenantId(), entry.objectId(), Timestamp.valueOf(entry.timestamp()),
+                    revision, snapshot, diff, entry.username()});
+        }
+        jdbcTemplate.batchUpdate(INSERT_PRODUCT_HISTORY_SQL, rows);
+    }
+
+    private Map<Long, Integer> latestRevisions(Long[] productIds) {
+        Map<Long, Integer> revisions = new HashMap<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(LATEST_REVISIONS_SQL);
+            ps.setArray(1, con.createArrayOf("bigint", productIds));
+            return ps;
+        }, rs -> {
+            revisions.put(rs.getLong("product_id"), rs.getInt("revision"));
+        });
+        return revisions;
+    }
+}
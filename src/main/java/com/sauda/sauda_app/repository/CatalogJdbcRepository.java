@@ -0,0 +1,133 @@
+package com.sauda.sauda_app.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+
+/**
+ * Чтение каталога магазина для выгрузки на кассы.
+ * Строки читаются курсором (fetch size) и передаются обработчику по одной,
+ * поэтому выгрузка каталога любого размера не держит его целиком в памяти.
+ * Чтобы драйвер PostgreSQL читал порциями, методы вызываются внутри транзакции.
+ *
+ * Каждая выборка возвращает строки с catalog_version больше заданной:
+ * 0 — весь каталог, версия предыдущей выгрузки — только изменения после нее.
+ * Версия строки — номер записавшей ее транзакции (со смещением), а выгружаемая версия
+ * не выше catalog_watermark(): транзакции до этой границы завершены, поэтому строка
+ * с меньшей версией уже не появится после выгрузки.
+ */
+@Repository
+public class CatalogJdbcRepository {
+
+    private static final int FETCH_SIZE = 1000;
+
+    // Пока последние изменения магазина новее границы, версия равна границе: незавершенная
+    // транзакция с меньшей версией еще может зафиксироваться, и такие строки уйдут в следующий раз
+    private static final String VERSION_SQL =
+            "SELECT LEAST(GREATEST(" +
+            "(SELECT max(catalog_version) FROM product_categories WHERE tenant_id = ?), " +
+            "(SELECT max(catalog_version) FROM units WHERE tenant_id = ?), " +
+            "(SELECT max(catalog_version) FROM products WHERE tenant_id = ?), " +
+            "(SELECT max(catalog_version) FROM price_list WHERE tenant_id = ?), " +
+            "(SELECT max(catalog_version) FROM inventory WHERE tenant_id = ?), " +
+            "(SELECT max(catalog_version) FROM catalog_tombstones WHERE tenant_id = ?), 0), catalog_watermark())";
+
+    private static final String CATEGORIES_SQL =
+            "SELECT id, name, parent_id FROM product_categories " +
+            "WHERE tenant_id = ? AND catalog_version > ? ORDER BY id";
+
+    private static final String UNITS_SQL =
+            "SELECT id, name, symbol FROM units WHERE tenant_id = ? AND catalog_version > ? ORDER BY id";
+
+    // В полной выгрузке только продаваемые товары; в изменениях — все, неактивные приходят как удаление
+    private static final String PRODUCTS_SQL =
+            "SELECT id, name, barcode, sku, category_id, unit_id, " +
+            "COALESCE(is_active, true) AND NOT COALESCE(is_deleted, false) AS active " +
+            "FROM products WHERE tenant_id = ? AND catalog_version > ? " +
+            "AND (? OR (COALESCE(is_active, true) AND NOT COALESCE(is_deleted, false))) ORDER BY name, id";
+
+    private static final String PRICES_SQL =
+            "SELECT id, product_id, price, start_date, end_date FROM price_list " +
+            "WHERE tenant_id = ? AND catalog_version > ? AND (end_date IS NULL OR end_date >= CURRENT_DATE) " +
+            "ORDER BY product_id, start_date";
+
+    private static final String STOCK_SQL =
+            "SELECT product_id, warehouse_id, quantity FROM inventory " +
+            "WHERE tenant_id = ? AND catalog_version > ? ORDER BY product_id, warehouse_id";
+
+    private static final String TOMBSTONES_SQL =
+            "SELECT entity, entity_id, warehouse_id FROM catalog_tombstones " +
+            "WHERE tenant_id = ? AND catalog_version > ? ORDER BY catalog_version";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public CatalogJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Текущая версия каталога магазина: наибольшая catalog_version среди его строк и следов удаления,
+     * но не выше границы завершенных транзакций
+     * @param tenantId идентификатор магазина
+     * @return версия (0 для пустого каталога)
+     */
+    public long currentVersion(Long tenantId) {
+        Long version = jdbcTemplate.queryForObject(VERSION_SQL, Long.class,
+                tenantId, tenantId, tenantId, tenantId, tenantId, tenantId);
+        return version == null ? 0L : version;
+    }
+
+    public void streamCategories(Long tenantId, long sinceVersion, RowCallbackHandler handler) {
+        stream(CATEGORIES_SQL, tenantId, sinceVersion, null, handler);
+    }
+
+    public void streamUnits(Long tenantId, long sinceVersion, RowCallbackHandler handler) {
+        stream(UNITS_SQL, tenantId, sinceVersion, null, handler);
+    }
+
+    /**
+     * Товары магазина, измененные после версии
+     * @param tenantId идентификатор магазина
+     * @param sinceVersion версия предыдущей выгрузки (0 — полная выгрузка только активных товаров)
+     * @param handler обработчик строк: id, name, barcode, sku, category_id, unit_id, active
+     */
+    public void streamProducts(Long tenantId, long sinceVersion, RowCallbackHandler handler) {
+        stream(PRODUCTS_SQL, tenantId, sinceVersion, sinceVersion > 0, handler);
+    }
+
+    public void streamPrices(Long tenantId, long sinceVersion, RowCallbackHandler handler) {
+        stream(PRICES_SQL, tenantId, sinceVersion, null, handler);
+    }
+
+    public void streamStock(Long tenantId, long sinceVersion, RowCallbackHandler handler) {
+        stream(STOCK_SQL, tenantId, sinceVersion, null, handler);
+    }
+
+    /**
+     * Следы строк каталога, удаленных после версии
+     * @param tenantId идентификатор магазина
+     * @param sinceVersion версия предыдущей выгрузки
+     * @param handler обработчик строк: entity (category, unit, product, price, stock), entity_id, warehouse_id
+     */
+    public void streamTombstones(Long tenantId, long sinceVersion, RowCallbackHandler handler) {
+        stream(TOMBSTONES_SQL, tenantId, sinceVersion, null, handler);
+    }
+
+    private void stream(String sql, Long tenantId, long sinceVersion, Boolean includeInactive,
+                        RowCallbackHandler handler) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setFetchSize(FETCH_SIZE);
+            ps.setLong(1, tenantId);
+            ps.setLong(2, sinceVersion);
+            if (includeInactive != null) {
+                ps.setBoolean(3, includeInactive);
+            }
+            return ps;
+        }, handler);
+    }
+}
@@ -1,9 +1,12 @@
 package com.sauda.sauda_app.repository;
 
+import com.sauda.sauda_app.dto.CategorySummary;
 import com.sauda.sauda_app.entity.Category;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -31,4 +34,9 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
     // Старые методы (для обратной совместимости)
     List<Category> findByTenantId(Long tenantId);
     List<Category> findByTenantIdAndIsActiveTrueAndIsDeletedFalse(Long tenantId);
+
+    // Справочник для кэша: без загрузки сущностей и связей, удаленные не попадают
+    @Query("SELECT new com.sauda.sauda_app.dto.CategorySummary(c.id, c.tenantId, c.name, c.description, c.isActive) " +
+           "FROM Category c WHERE c.tenantId = :tenantId AND (c.isDeleted = false OR c.isDeleted IS NULL) ORDER BY c.name, c.id")
+    List<CategorySummary> findSummariesByTenantId(@Param("tenantId") Long tenantId);
 }
@@ -1,6 +1,8 @@
 package com.sauda.sauda_app.repository;
 
+import com.sauda.sauda_app.dto.CustomerSummary;
 import com.sauda.sauda_app.entity.Customer;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -13,6 +15,10 @@ import java.util.Optional;
 
 @Repository
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
+
+    // Проекция для чтения: только колонки таблицы customers, без продаж
+    String CUSTOMER_SUMMARY_SELECT = "SELECT new com.sauda.sauda_app.dto.CustomerSummary(c.id, c.tenantId, " +
+            "c.fullName, c.phone, c.discountCard) FROM Customer c ";
     
     // Базовые методы поиска
     Optional<Customer> findByPhone(String phone);
@@ -50,6 +56,22 @@ public interface CustomerRepository extends JpaRepository<Customer, Long> {
            "LOWER(c.email) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
            "LOWER(c.discountCard) LIKE LOWER(CONCAT('%', :searchTerm, '%')))")
     List<Customer> searchCustomers(@Param("tenantId") Long tenantId, @Param("searchTerm") String searchTerm);
-}
 
+    // Keyset-пагинация по (tenant_id, id) и (tenant_id, full_name, id)
+    @Query(CUSTOMER_SUMMARY_SELECT + "WHERE c.tenantId = :tenantId AND c.id > :afterId ORDER BY c.id")
+    List<CustomerSummary> findByTenantIdAfterId(@Param("tenantId") Long tenantId, @Param("afterId") Long afterId, Limit limit);
+
+    @Query(CUSTOMER_SUMMARY_SELECT + "WHERE c.tenantId = :tenantId AND c.fullName >= :afterName AND " +
+           "(c.fullName > :afterName OR c.id > :afterId) ORDER BY c.fullName, c.id")
+    List<CustomerSummary> findByTenantIdAfterName(@Param("tenantId") Long tenantId, @Param("afterName") String afterName,
+                                                  @Param("afterId") Long afterId, Limit limit);
 
+    // Поиск клиента на кассе по карте или телефону внутри магазина (для кэша поиска клиентов)
+    @Query(CUSTOMER_SUMMARY_SELECT + "WHERE c.tenantId = :tenantId AND c.discountCard = :discountCard AND c.isDeleted = false ORDER BY c.id")
+    List<CustomerSummary> findSummariesByTenantIdAndDiscountCard(@Param("tenantId") Long tenantId,
+                                                                 @Param("discountCard") String discountCard, Limit limit);
+
+    @Query(CUSTOMER_SUMMARY_SELECT + "WHERE c.tenantId = :tenantId AND c.phone = :phone AND c.isDeleted = false ORDER BY c.id")
+    List<CustomerSummary> findSummariesByTenantIdAndPhone(@Param("tenantId") Long tenantId,
+                                                          @Param("phone") String phone, Limit limit);
+}
@@ -0,0 +1,67 @@
+package com.sauda.sauda_app.repository;
+
+import com.sauda.sauda_app.dto.CustomerCounts;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Пересчет счетчиков клиентов одним запросом: GROUP BY по customers и по продажам за период,
+ * соединенные по магазину. Используется только для сверки — чтение статистики идет из памяти.
+ */
+@Repository
+public class CustomerStatsJdbcRepository {
+
+    private static final String COUNTS_SQL =
+            "SELECT c.tenant_id, c.total, c.with_card, c.new_today, COALESCE(a.active, 0) AS active FROM (" +
+            "SELECT tenant_id, COUNT(*) AS total, COUNT(discount_card) AS with_card, " +
+            "COUNT(*) FILTER (WHERE created_at >= ?) AS new_today FROM customers %1$s GROUP BY tenant_id) c " +
+            "LEFT JOIN (SELECT tenant_id, COUNT(DISTINCT customer_id) AS active FROM sales " +
+            "WHERE customer_id IS NOT NULL AND sale_date >= ? %2$s GROUP BY tenant_id) a ON a.tenant_id = c.tenant_id";
+
+    private static final String ALL_TENANTS_SQL = COUNTS_SQL.formatted("", "");
+
+    private static final String TENANT_SQL = COUNTS_SQL.formatted("WHERE tenant_id = ?", "AND tenant_id = ?");
+
+    private static final RowMapper<CustomerCounts> COUNTS_MAPPER = (rs, rowNum) -> new CustomerCounts(
+            rs.getLong("tenant_id"),
+            rs.getLong("total"),
+            rs.getLong("with_card"),
+            rs.getLong("new_today"),
+            rs.getLong("active"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public CustomerStatsJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Счетчики всех магазинов, у которых есть клиенты
+     * @param dayStart начало текущего дня — граница новых клиентов
+     * @param activeSince начало периода активности
+     */
+    public List<CustomerCounts> countAll(LocalDateTime dayStart, LocalDateTime activeSince) {
+        return jdbcTemplate.query(ALL_TENANTS_SQL, COUNTS_MAPPER,
+                Timestamp.valueOf(dayStart), Timestamp.valueOf(activeSince));
+    }
+
+    /**
+     * Счетчики одного магазина
+     * @param tenantId идентификатор магазина
+     * @param dayStart начало текущего дня — граница новых клиентов
+     * @param activeSince начало периода активности
+     * @return счетчики или пустой Optional, если у магазина нет клиентов
+     */
+    public Optional<CustomerCounts> countByTenant(Long tenantId, LocalDateTime dayStart, LocalDateTime activeSince) {
+        return jdbcTemplate.query(TENANT_SQL, COUNTS_MAPPER,
+                Timestamp.valueOf(dayStart), tenantId, Timestamp.valueOf(activeSince), tenantId).stream().findFirst();
+    }
+}
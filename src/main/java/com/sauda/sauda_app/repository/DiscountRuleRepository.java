@@ -0,0 +1,24 @@
+package com.sauda.sauda_app.repository;
+
+import com.sauda.sauda_app.dto.DiscountRuleDefinition;
+import com.sauda.sauda_app.entity.DiscountRule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DiscountRuleRepository extends JpaRepository<DiscountRule, Long> {
+
+    List<DiscountRule> findByTenantIdOrderByStartDate(Long tenantId);
+
+    // Правила магазина, не закончившиеся к дате, для компиляции в памяти без загрузки сущностей
+    @Query("SELECT new com.sauda.sauda_app.dto.DiscountRuleDefinition(r.id, r.discountType, r.value, r.appliesTo, " +
+           "r.targetId, r.minAmount, r.startDate, r.endDate) FROM DiscountRule r " +
+           "WHERE r.tenantId = :tenantId AND (r.endDate IS NULL OR r.endDate >= :date)")
+    List<DiscountRuleDefinition> findDefinitionsByTenantId(@Param("tenantId") Long tenantId,
+                                                           @Param("date") LocalDate date);
+}
@@ -0,0 +1,121 @@
+package com.sauda.sauda_app.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Пакетные изменения остатков напрямую через JDBC.
+ * Строки передаются в PostgreSQL массивами и разворачиваются через unnest,
+ * поэтому число обращений к базе не зависит от количества товаров.
+ */
+@Repository
+public class InventoryJdbcRepository {
+
+    private static final String LOCK_SQL =
+            "SELECT product_id, warehouse_id, quantity FROM inventory " +
+            "WHERE tenant_id = ? AND warehouse_id IN (?, ?) AND product_id = ANY (?) " +
+            "ORDER BY product_id, warehouse_id FOR UPDATE";
+
+    private static final String DECREASE_SQL =
+            "UPDATE inventory i SET quantity = i.quantity - d.quantity, last_updated = CURRENT_TIMESTAMP " +
+            "FROM unnest(?::bigint[], ?::numeric[]) AS d(product_id, quantity) " +
+            "WHERE i.tenant_id = ? AND i.warehouse_id = ? AND i.product_id = d.product_id";
+
+    private static final String INCREASE_SQL =
+            "INSERT INTO inventory (tenant_id, product_id, warehouse_id, quantity, last_updated) " +
+            "SELECT ?, d.product_id, ?, d.quantity, CURRENT_TIMESTAMP " +
+            "FROM unnest(?::bigint[], ?::numeric[]) AS d(product_id, quantity) " +
+            "ON CONFLICT (tenant_id, product_id, warehouse_id) " +
+            "DO UPDATE SET quantity = inventory.quantity + EXCLUDED.quantity, last_updated = EXCLUDED.last_updated";
+
+    private static final String WAREHOUSE_TENANT_SQL = "SELECT tenant_id FROM warehouses WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public InventoryJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Заблокировать строки остатков обоих складов по списку товаров.
+     * Строки блокируются в порядке (product_id, warehouse_id), поэтому встречные
+     * перемещения между одними и теми же складами не приводят к взаимной блокировке
+     * @param tenantId идентификатор магазина
+     * @param fromWarehouseId идентификатор склада-источника
+     * @param toWarehouseId идентификатор склада-назначения
+     * @param productIds идентификаторы товаров
+     * @return остатки склада-источника по товарам
+     */
+    public Map<Long, BigDecimal> lockForTransfer(Long tenantId, Long fromWarehouseId, Long toWarehouseId,
+                                                 Long[] productIds) {
+        Map<Long, BigDecimal> sourceQuantities = new HashMap<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(LOCK_SQL);
+            ps.setLong(1, tenantId);
+            ps.setLong(2, fromWarehouseId);
+            ps.setLong(3, toWarehouseId);
+            ps.setArray(4, con.createArrayOf("bigint", productIds));
+            return ps;
+        }, rs -> {
+            if (rs.getLong("warehouse_id") == fromWarehouseId) {
+                sourceQuantities.put(rs.getLong("product_id"), rs.getBigDecimal("quantity"));
+            }
+        });
+        return sourceQuantities;
+    }
+
+    /**
+     * Уменьшить остатки склада одним запросом
+     * @param tenantId идентификатор магазина
+     * @param warehouseId идентификатор склада
+     * @param productIds идентификаторы товаров
+     * @param quantities количества для списания, в том же порядке
+     * @return число измененных строк
+     */
+    public int decreaseAll(Long tenantId, Long warehouseId, Long[] productIds, BigDecimal[] quantities) {
+        return jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(DECREASE_SQL);
+            ps.setArray(1, con.createArrayOf("bigint", productIds));
+            ps.setArray(2, con.createArrayOf("numeric", quantities));
+            ps.setLong(3, tenantId);
+            ps.setLong(4, warehouseId);
+            return ps;
+        });
+    }
+
+    /**
+     * Увеличить остатки склада одним запросом, создавая недостающие записи
+     * @param tenantId идентификатор магазина
+     * @param warehouseId идентификатор склада
+     * @param productIds идентификаторы товаров
+     * @param quantities количества для оприходования, в том же порядке
+     * @return число вставленных или измененных строк
+     */
+    public int increaseAll(Long tenantId, Long warehouseId, Long[] productIds, BigDecimal[] quantities) {
+        return jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(INCREASE_SQL);
+            ps.setLong(1, tenantId);
+            ps.setLong(2, warehouseId);
+            ps.setArray(3, con.createArrayOf("bigint", productIds));
+            ps.setArray(4, con.createArrayOf("numeric", quantities));
+            return ps;
+        });
+    }
+
+    /**
+     * Магазин, которому принадлежит склад
+     * @param warehouseId идентификатор склада
+     * @return идентификатор магазина, если склад существует
+     */
+    public Optional<Long> findWarehouseTenantId(Long warehouseId) {
+        return jdbcTemplate.queryForList(WAREHOUSE_TENANT_SQL, Long.class, warehouseId).stream().findFirst();
+    }
+}
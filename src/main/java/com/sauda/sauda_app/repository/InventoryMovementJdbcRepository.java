@@ -0,0 +1,234 @@
+package com.sauda.sauda_app.repository;
+
+import com.sauda.sauda_app.dto.InventoryCheckpoint;
+import com.sauda.sauda_app.dto.InventoryMovement;
+import com.sauda.sauda_app.dto.MovementType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Журнал движений остатков и контрольные точки.
+ * Движения одной операции пишутся одним INSERT из массивов (unnest), поэтому чек или перемещение
+ * на любое число позиций добавляет в транзакцию один запрос. Время движения — clock_timestamp(),
+ * то есть момент записи в конце операции, а не начало транзакции.
+ *
+ * Остаток на момент — строки последней контрольной точки до него плюс движения после точки;
+ * диапазон по created_at отсекает лишние месячные секции журнала.
+ */
+@Repository
+public class InventoryMovementJdbcRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO inventory_movements (tenant_id, product_id, warehouse_id, movement_type, quantity, " +
+            "reason, reference_id, created_at) " +
+            "SELECT m.tenant_id, m.product_id, m.warehouse_id, m.movement_type, m.quantity, m.reason, " +
+            "m.reference_id, clock_timestamp()::timestamp " +
+            "FROM unnest(?::bigint[], ?::bigint[], ?::bigint[], ?::varchar[], ?::numeric[], ?::varchar[], ?::bigint[]) " +
+            "AS m(tenant_id, product_id, warehouse_id, movement_type, quantity, reason, reference_id)";
+
+    private static final String MOVEMENT_COLUMNS =
+            "id, tenant_id, product_id, warehouse_id, movement_type, quantity, reason, reference_id, created_at";
+
+    private static final String BY_PRODUCT_SQL =
+            "SELECT " + MOVEMENT_COLUMNS + " FROM inventory_movements WHERE tenant_id = ? AND product_id = ? " +
+            "ORDER BY created_at DESC, id DESC LIMIT ? OFFSET ?";
+
+    private static final String COUNT_BY_PRODUCT_SQL =
+            "SELECT COUNT(*) FROM inventory_movements WHERE tenant_id = ? AND product_id = ?";
+
+    private static final String LATEST_CHECKPOINT_SQL =
+            "SELECT id, tenant_id, taken_at FROM inventory_checkpoints WHERE tenant_id = ? AND taken_at <= ? " +
+            "ORDER BY taken_at DESC, id DESC LIMIT 1";
+
+    // Движения после контрольной точки; без точки — с начала журнала
+    private static final String MOVEMENTS_AFTER =
+            "FROM inventory_movements WHERE tenant_id = ? " +
+            "AND created_at > COALESCE(CAST(? AS TIMESTAMP), '-infinity'::timestamp) AND created_at <= ?";
+
+    private static final String STOCK_AT_SQL =
+            "SELECT product_id, SUM(quantity) AS quantity FROM (" +
+            "SELECT product_id, quantity FROM inventory_checkpoint_items WHERE checkpoint_id = ? AND warehouse_id = ? " +
+            "UNION ALL SELECT product_id, quantity " + MOVEMENTS_AFTER + " AND warehouse_id = ?) s " +
+            "GROUP BY product_id HAVING SUM(quantity) <> 0";
+
+    private static final String INSERT_CHECKPOINT_SQL =
+            "INSERT INTO inventory_checkpoints (tenant_id, taken_at) VALUES (?, ?) RETURNING id";
+
+    private static final String INSERT_CHECKPOINT_ITEMS_SQL =
+            "INSERT INTO inventory_checkpoint_items (checkpoint_id, warehouse_id, product_id, quantity) " +
+            "SELECT ?, warehouse_id, product_id, SUM(quantity) FROM (" +
+            "SELECT warehouse_id, product_id, quantity FROM inventory_checkpoint_items WHERE checkpoint_id = ? " +
+            "UNION ALL SELECT warehouse_id, product_id, quantity " + MOVEMENTS_AFTER + ") s " +
+            "GROUP BY warehouse_id, product_id HAVING SUM(quantity) <> 0";
+
+    private static final String CREATE_PARTITION_SQL = "SELECT create_inventory_movements_partition(?)";
+
+    private static final String TENANTS_SQL = "SELECT DISTINCT tenant_id FROM warehouses ORDER BY tenant_id";
+
+    private static final RowMapper<InventoryMovement> MOVEMENT_MAPPER = (rs, rowNum) -> new InventoryMovement(
+            rs.getLong("id"),
+            rs.getLong("tenant_id"),
+            rs.getLong("product_id"),
+            rs.getLong("warehouse_id"),
+            MovementType.fromCode(rs.getString("movement_type")),
+            rs.getBigDecimal("quantity"),
+            rs.getString("reason"),
+            rs.getObject("reference_id", Long.class),
+            rs.getTimestamp("created_at").toLocalDateTime());
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public InventoryMovementJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Записать движения одним запросом. Вызывается в транзакции изменения остатков
+     * @param movements движения
+     * @return число записанных строк
+     */
+    public int insertAll(List<InventoryMovement> movements) {
+        if (movements.isEmpty()) {
+            return 0;
+        }
+        int size = movements.size();
+        Long[] tenantIds = new Long[size];
+        Long[] productIds = new Long[size];
+        Long[] warehouseIds = new Long[size];
+        String[] types = new String[size];
+        BigDecimal[] quantities = new BigDecimal[size];
+        String[] reasons = new String[size];
+        Long[] referenceIds = new Long[size];
+        for (int i = 0; i < size; i++) {
+            InventoryMovement movement = movements.get(i);
+            tenantIds[i] = movement.tenantId();
+            productIds[i] = movement.productId();
+            warehouseIds[i] = movement.warehouseId();
+            types[i] = movement.movementType().getCode();
+            quantities[i] = movement.quantity();
+            reasons[i] = movement.reason();
+            referenceIds[i] = movement.referenceId();
+        }
+        return jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(INSERT_SQL);
+            ps.setArray(1, con.createArrayOf("bigint", tenantIds));
+            ps.setArray(2, con.createArrayOf("bigint", productIds));
+            ps.setArray(3, con.createArrayOf("bigint", warehouseIds));
+            ps.setArray(4, con.createArrayOf("varchar", types));
+            ps.setArray(5, con.createArrayOf("numeric", quantities));
+            ps.setArray(6, con.createArrayOf("varchar", reasons));
+            ps.setArray(7, con.createArrayOf("bigint", referenceIds));
+            return ps;
+        });
+    }
+
+    /**
+     * Движения товара магазина, новые первыми
+     * @param tenantId идентификатор магазина
+     * @param productId идентификатор товара
+     * @param limit число строк
+     * @param offset смещение
+     * @return движения
+     */
+    public List<InventoryMovement> findByTenantIdAndProductId(Long tenantId, Long productId, int limit, long offset) {
+        return jdbcTemplate.query(BY_PRODUCT_SQL, MOVEMENT_MAPPER, tenantId, productId, limit, offset);
+    }
+
+    public long countByTenantIdAndProductId(Long tenantId, Long productId) {
+        Long count = jdbcTemplate.queryForObject(COUNT_BY_PRODUCT_SQL, Long.class, tenantId, productId);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Последняя контрольная точка магазина не позже момента
+     * @param tenantId идентификатор магазина
+     * @param at момент
+     * @return контрольная точка, если есть
+     */
+    public Optional<InventoryCheckpoint> findLatestCheckpoint(Long tenantId, LocalDateTime at) {
+        List<InventoryCheckpoint> checkpoints = jdbcTemplate.query(LATEST_CHECKPOINT_SQL,
+                (rs, rowNum) -> new InventoryCheckpoint(rs.getLong("id"), rs.getLong("tenant_id"),
+                        rs.getTimestamp("taken_at").toLocalDateTime()),
+                tenantId, Timestamp.valueOf(at));
+        return checkpoints.stream().findFirst();
+    }
+
+    /**
+     * Остатки склада на момент: контрольная точка плюс движения после нее
+     * @param tenantId идентификатор магазина
+     * @param warehouseId идентификатор склада
+     * @param checkpoint последняя контрольная точка до момента или null
+     * @param at момент
+     * @return ненулевые остатки по товарам
+     */
+    public Map<Long, BigDecimal> stockAt(Long tenantId, Long warehouseId, InventoryCheckpoint checkpoint,
+                                         LocalDateTime at) {
+        Map<Long, BigDecimal> stock = new TreeMap<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(STOCK_AT_SQL);
+            ps.setObject(1, checkpoint != null ? checkpoint.id() : null, Types.BIGINT);
+            ps.setLong(2, warehouseId);
+            ps.setLong(3, tenantId);
+            ps.setObject(4, checkpoint != null ? Timestamp.valueOf(checkpoint.takenAt()) : null, Types.TIMESTAMP);
+            ps.setTimestamp(5, Timestamp.valueOf(at));
+            ps.setLong(6, warehouseId);
+            return ps;
+        }, rs -> {
+            stock.put(rs.getLong("product_id"), rs.getBigDecimal("quantity"));
+        });
+        return stock;
+    }
+
+    /**
+     * Записать контрольную точку, выведенную из предыдущей и движений после нее
+     * @param tenantId идентификатор магазина
+     * @param previous предыдущая контрольная точка или null
+     * @param takenAt момент новой точки
+     * @return идентификатор новой точки
+     */
+    public Long insertCheckpoint(Long tenantId, InventoryCheckpoint previous, LocalDateTime takenAt) {
+        Long checkpointId = jdbcTemplate.queryForObject(INSERT_CHECKPOINT_SQL, Long.class,
+                tenantId, Timestamp.valueOf(takenAt));
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(INSERT_CHECKPOINT_ITEMS_SQL);
+            ps.setLong(1, checkpointId);
+            ps.setObject(2, previous != null ? previous.id() : null, Types.BIGINT);
+            ps.setLong(3, tenantId);
+            ps.setObject(4, previous != null ? Timestamp.valueOf(previous.takenAt()) : null, Types.TIMESTAMP);
+            ps.setTimestamp(5, Timestamp.valueOf(takenAt));
+            return ps;
+        });
+        return checkpointId;
+    }
+
+    /**
+     * Создать секцию журнала для месяца, если ее еще нет
+     * @param month любой день месяца
+     */
+    public void createPartition(LocalDate month) {
+        jdbcTemplate.query(CREATE_PARTITION_SQL, rs -> { }, Date.valueOf(month));
+    }
+
+    /**
+     * Магазины, у которых есть склады
+     * @return идентификаторы магазинов
+     */
+    public List<Long> findTenantIds() {
+        return jdbcTemplate.queryForList(TENANTS_SQL, Long.class);
+    }
+}
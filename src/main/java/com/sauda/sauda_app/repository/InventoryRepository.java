@@ -1,12 +1,15 @@
 package com.sauda.sauda_app.repository;
 
+import com.sauda.sauda_app.dto.InventoryLevel;
 import com.sauda.sauda_app.entity.Inventory;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -14,6 +17,10 @@ import java.util.Optional;
 
 @Repository
 public interface InventoryRepository extends JpaRepository<Inventory, Long> {
+
+    // Колонки проекции InventoryLevel для запросов с RETURNING
+    String LEVEL_COLUMNS = "id AS \"id\", tenant_id AS \"tenantId\", product_id AS \"productId\", " +
+                           "warehouse_id AS \"warehouseId\", quantity AS \"quantity\"";
     
     // Базовые методы поиска
     Optional<Inventory> findByProductIdAndWarehouseId(Long productId, Long warehouseId);
@@ -47,6 +54,58 @@ public interface InventoryRepository extends JpaRepository<Inventory, Long> {
     
     @Query("SELECT i FROM Inventory i WHERE i.tenantId = :tenantId AND i.quantity <= :threshold")
     List<Inventory> findLowStockInventory(@Param("tenantId") Long tenantId, @Param("threshold") BigDecimal threshold);
+
+    // Keyset-пагинация по (tenant_id, id), строки — проекция InventoryLevel без товара и склада
+    @Query("SELECT i.id AS id, i.tenantId AS tenantId, i.productId AS productId, i.warehouseId AS warehouseId, " +
+           "i.quantity AS quantity FROM Inventory i WHERE i.tenantId = :tenantId AND i.id > :afterId ORDER BY i.id")
+    List<InventoryLevel> findByTenantIdAfterId(@Param("tenantId") Long tenantId, @Param("afterId") Long afterId, Limit limit);
+
+    // Атомарные изменения остатка: одна команда UPDATE ... RETURNING вместо чтения и сохранения сущности.
+    // Строка остатка и товар должны принадлежать магазину, поэтому склад или товар другого магазина
+    // дают пустой результат, как и отсутствие записи (или, для списания, нехватка остатка)
+    @Transactional
+    @Query(value = "UPDATE inventory i SET quantity = i.quantity - :quantity, last_updated = CURRENT_TIMESTAMP " +
+                   "WHERE i.tenant_id = :tenantId AND i.product_id = :productId AND i.warehouse_id = :warehouseId " +
+                   "AND i.quantity >= :quantity " +
+                   "AND EXISTS (SELECT 1 FROM products p WHERE p.id = i.product_id AND p.tenant_id = :tenantId) " +
+                   "RETURNING " + LEVEL_COLUMNS, nativeQuery = true)
+    Optional<InventoryLevel> decreaseTenantQuantity(@Param("tenantId") Long tenantId,
+                                                    @Param("productId") Long productId,
+                                                    @Param("warehouseId") Long warehouseId,
+                                                    @Param("quantity") BigDecimal quantity);
+
+    // Оприходование одной командой INSERT ... ON CONFLICT, как в InventoryJdbcRepository.increaseAll:
+    // параллельные поступления по новой паре товар-склад не спорят за уникальный ключ
+    @Transactional
+    @Query(value = "INSERT INTO inventory (tenant_id, product_id, warehouse_id, quantity, last_updated) " +
+                   "VALUES (:tenantId, :productId, :warehouseId, :quantity, CURRENT_TIMESTAMP) " +
+                   "ON CONFLICT (tenant_id, product_id, warehouse_id) " +
+                   "DO UPDATE SET quantity = inventory.quantity + EXCLUDED.quantity, last_updated = EXCLUDED.last_updated " +
+                   "RETURNING " + LEVEL_COLUMNS, nativeQuery = true)
+    InventoryLevel upsertQuantity(@Param("tenantId") Long tenantId,
+                                  @Param("productId") Long productId,
+                                  @Param("warehouseId") Long warehouseId,
+                                  @Param("quantity") BigDecimal quantity);
+
+    // Текущий остаток с блокировкой строки до конца транзакции (нужен для записи изменения в журнал)
+    @Query(value = "SELECT i.quantity FROM inventory i " +
+                   "WHERE i.tenant_id = :tenantId AND i.product_id = :productId AND i.warehouse_id = :warehouseId " +
+                   "AND EXISTS (SELECT 1 FROM products p WHERE p.id = i.product_id AND p.tenant_id = :tenantId) " +
+                   "FOR UPDATE", nativeQuery = true)
+    Optional<BigDecimal> lockQuantity(@Param("tenantId") Long tenantId,
+                                      @Param("productId") Long productId,
+                                      @Param("warehouseId") Long warehouseId);
+
+    @Transactional
+    @Query(value = "UPDATE inventory i SET quantity = :quantity, last_updated = CURRENT_TIMESTAMP " +
+                   "WHERE i.tenant_id = :tenantId AND i.product_id = :productId AND i.warehouse_id = :warehouseId " +
+                   "AND EXISTS (SELECT 1 FROM products p WHERE p.id = i.product_id AND p.tenant_id = :tenantId) " +
+                   "RETURNING " + LEVEL_COLUMNS, nativeQuery = true)
+    Optional<InventoryLevel> setQuantity(@Param("tenantId") Long tenantId,
+                                         @Param("productId") Long productId,
+                                         @Param("warehouseId") Long warehouseId,
+                                         @Param("quantity") BigDecimal quantity);
+
 }
 
 
@@ -0,0 +1,149 @@
+package com.sauda.sauda_app.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Стоимость остатков по складам.
+ * Поддерживаемая стоимость — итог склада в inventory_valuation плюс еще не перенесенные
+ * записи журнала inventory_value_deltas, который пополняет триггер на inventory.
+ * Полный пересчет — один запрос по inventory с действующей ценой прайс-листа (LATERAL).
+ *
+ * Перенос журнала и сверка выполняются под общей транзакционной advisory-блокировкой:
+ * иначе сверка, начатая до переноса, могла бы затереть перенесенные в итог изменения.
+ */
+@Repository
+public class InventoryValuationJdbcRepository {
+
+    private static final long VALUATION_LOCK_KEY = 7_340_014L;
+
+    private static final String LOCK_SQL = "SELECT pg_advisory_xact_lock(?)";
+
+    private static final String TRACKED_BY_WAREHOUSE_SQL =
+            "SELECT COALESCE((SELECT total_value FROM inventory_valuation WHERE warehouse_id = ?), 0) + " +
+            "COALESCE((SELECT SUM(delta) FROM inventory_value_deltas WHERE warehouse_id = ?), 0)";
+
+    private static final String TRACKED_BY_TENANT_SQL =
+            "SELECT warehouse_id, SUM(value) AS value FROM (" +
+            "SELECT warehouse_id, total_value AS value FROM inventory_valuation WHERE tenant_id = ? " +
+            "UNION ALL SELECT warehouse_id, delta FROM inventory_value_deltas WHERE tenant_id = ?) t " +
+            "GROUP BY warehouse_id";
+
+    // Стоимость складов магазина по действующим на дату ценам; склады без остатков — с нулем
+    private static final String ACTUAL_SQL =
+            "SELECT w.id AS warehouse_id, w.tenant_id, COALESCE(v.total_value, 0) AS total_value " +
+            "FROM warehouses w LEFT JOIN (" +
+            "SELECT i.warehouse_id, SUM(i.quantity * p.price) AS total_value FROM inventory i " +
+            "JOIN LATERAL (SELECT pl.price FROM price_list pl " +
+            "WHERE pl.tenant_id = i.tenant_id AND pl.product_id = i.product_id " +
+            "AND pl.start_date <= ? AND (pl.end_date IS NULL OR pl.end_date >= ?) " +
+            "ORDER BY pl.start_date DESC LIMIT 1) p ON true " +
+            "WHERE i.tenant_id = ? GROUP BY i.warehouse_id) v ON v.warehouse_id = w.id " +
+            "WHERE w.tenant_id = ?";
+
+    private static final String FOLD_SQL =
+            "WITH moved AS (DELETE FROM inventory_value_deltas RETURNING tenant_id, warehouse_id, delta) " +
+            "INSERT INTO inventory_valuation (warehouse_id, tenant_id, total_value) " +
+            "SELECT warehouse_id, MIN(tenant_id), SUM(delta) FROM moved GROUP BY warehouse_id " +
+            "ON CONFLICT (warehouse_id) DO UPDATE SET " +
+            "total_value = inventory_valuation.total_value + EXCLUDED.total_value";
+
+    // Один оператор — один снимок: удаляются ровно те записи журнала, что уже учтены пересчетом
+    private static final String RECONCILE_SQL =
+            "WITH actual AS (" + ACTUAL_SQL + "), " +
+            "dropped AS (DELETE FROM inventory_value_deltas WHERE tenant_id = ? RETURNING id) " +
+            "INSERT INTO inventory_valuation (warehouse_id, tenant_id, total_value, reconciled_at) " +
+            "SELECT warehouse_id, tenant_id, total_value, CURRENT_TIMESTAMP FROM actual " +
+            "ON CONFLICT (warehouse_id) DO UPDATE SET " +
+            "total_value = EXCLUDED.total_value, reconciled_at = EXCLUDED.reconciled_at";
+
+    private static final String TODAY_SQL = "SELECT CURRENT_DATE";
+
+    private static final String TENANTS_SQL = "SELECT DISTINCT tenant_id FROM warehouses ORDER BY tenant_id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public InventoryValuationJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Поддерживаемая стоимость остатков склада
+     * @param warehouseId идентификатор склада
+     * @return стоимость
+     */
+    public BigDecimal trackedValue(Long warehouseId) {
+        BigDecimal value = jdbcTemplate.queryForObject(TRACKED_BY_WAREHOUSE_SQL, BigDecimal.class,
+                warehouseId, warehouseId);
+        return value == null ? BigDecimal.ZERO : value;
+    }
+
+    /**
+     * Поддерживаемая стоимость остатков по складам магазина
+     * @param tenantId идентификатор магазина
+     * @return стоимость по складам
+     */
+    public Map<Long, BigDecimal> trackedValues(Long tenantId) {
+        Map<Long, BigDecimal> values = new TreeMap<>();
+        jdbcTemplate.query(TRACKED_BY_TENANT_SQL,
+                rs -> { values.put(rs.getLong("warehouse_id"), rs.getBigDecimal("value")); },
+                tenantId, tenantId);
+        return values;
+    }
+
+    /**
+     * Полный пересчет стоимости остатков по складам магазина одним запросом
+     * @param tenantId идентификатор магазина
+     * @param date дата, на которую берутся цены
+     * @return стоимость по складам, включая склады без остатков
+     */
+    public Map<Long, BigDecimal> actualValues(Long tenantId, LocalDate date) {
+        Map<Long, BigDecimal> values = new TreeMap<>();
+        jdbcTemplate.query(ACTUAL_SQL,
+                rs -> { values.put(rs.getLong("warehouse_id"), rs.getBigDecimal("total_value")); },
+                Date.valueOf(date), Date.valueOf(date), tenantId, tenantId);
+        return values;
+    }
+
+    /**
+     * Перенести журнал изменений в итоги складов. Вызывается внутри транзакции
+     * @return число затронутых складов
+     */
+    public int foldDeltas() {
+        lock();
+        return jdbcTemplate.update(FOLD_SQL);
+    }
+
+    /**
+     * Заменить итоги складов магазина полным пересчетом на сегодня и очистить учтенный журнал.
+     * «Сегодня» берется по часам базы, как и в триггере. Вызывается внутри транзакции
+     * @param tenantId идентификатор магазина
+     * @return число складов
+     */
+    public int reconcile(Long tenantId) {
+        lock();
+        Date today = jdbcTemplate.queryForObject(TODAY_SQL, Date.class);
+        return jdbcTemplate.update(RECONCILE_SQL, today, today, tenantId, tenantId, tenantId);
+    }
+
+    /**
+     * Магазины, у которых есть склады
+     * @return идентификаторы магазинов
+     */
+    public List<Long> findTenantIds() {
+        return jdbcTemplate.queryForList(TENANTS_SQL, Long.class);
+    }
+
+    private void lock() {
+        jdbcTemplate.query(LOCK_SQL, rs -> { }, VALUATION_LOCK_KEY);
+    }
+}
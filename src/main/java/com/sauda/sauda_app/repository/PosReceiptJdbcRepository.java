@@ -0,0 +1,124 @@
+package com.sauda.sauda_app.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Ключи идемпотентности чеков, выгруженных кассами, и проверки пакета выгрузки.
+ * Ключи пакета занимаются одним INSERT из массива (unnest) с ON CONFLICT DO NOTHING:
+ * ключ, уже занятый ранее, стоит одной проверки первичного ключа и не пишет строк.
+ * Параллельная выгрузка того же ключа ждет фиксации первой и получает конфликт,
+ * поэтому чек записывается ровно один раз.
+ */
+@Repository
+public class PosReceiptJdbcRepository {
+
+    private static final String CLAIM_SQL =
+            "INSERT INTO pos_receipt_uploads (tenant_id, idempotency_key, pos_terminal_id) " +
+            "SELECT ?, k.idempotency_key, ? FROM unnest(?::varchar[]) AS k(idempotency_key) " +
+            "ON CONFLICT (tenant_id, idempotency_key) DO NOTHING RETURNING idempotency_key";
+
+    private static final String RELEASE_SQL =
+            "DELETE FROM pos_receipt_uploads WHERE tenant_id = ? AND idempotency_key = ANY (?)";
+
+    private static final String ATTACH_SALES_SQL =
+            "UPDATE pos_receipt_uploads u SET sale_id = s.sale_id " +
+            "FROM unnest(?::varchar[], ?::bigint[]) AS s(idempotency_key, sale_id) " +
+            "WHERE u.tenant_id = ? AND u.idempotency_key = s.idempotency_key";
+
+    private static final String TENANT_PRODUCTS_SQL =
+            "SELECT id FROM products WHERE tenant_id = ? AND id = ANY (?)";
+
+    private static final String MARK_TERMINAL_ONLINE_SQL =
+            "UPDATE pos_terminals SET is_online = true WHERE id = ? AND tenant_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public PosReceiptJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Занять ключи идемпотентности чеков одним запросом
+     * @param tenantId идентификатор магазина
+     * @param posTerminalId идентификатор кассы
+     * @param idempotencyKeys ключи без повторов
+     * @return ключи, занятые этим вызовом; остальные уже были заняты
+     */
+    public Set<String> claim(Long tenantId, Long posTerminalId, String[] idempotencyKeys) {
+        Set<String> claimed = new HashSet<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(CLAIM_SQL);
+            ps.setLong(1, tenantId);
+            ps.setLong(2, posTerminalId);
+            ps.setArray(3, con.createArrayOf("varchar", idempotencyKeys));
+            return ps;
+        }, rs -> {
+            claimed.add(rs.getString(1));
+        });
+        return claimed;
+    }
+
+    /**
+     * Освободить ключи чеков, отклоненных после занятия ключа
+     * @param tenantId идентификатор магазина
+     * @param idempotencyKeys ключи
+     */
+    public void release(Long tenantId, String[] idempotencyKeys) {
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(RELEASE_SQL);
+            ps.setLong(1, tenantId);
+            ps.setArray(2, con.createArrayOf("varchar", idempotencyKeys));
+            return ps;
+        });
+    }
+
+    /**
+     * Связать ключи с записанными чеками одним запросом
+     * @param tenantId идентификатор магазина
+     * @param idempotencyKeys ключи
+     * @param saleIds идентификаторы чеков, в том же порядке
+     */
+    public void attachSales(Long tenantId, String[] idempotencyKeys, Long[] saleIds) {
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(ATTACH_SALES_SQL);
+            ps.setArray(1, con.createArrayOf("varchar", idempotencyKeys));
+            ps.setArray(2, con.createArrayOf("bigint", saleIds));
+            ps.setLong(3, tenantId);
+            return ps;
+        });
+    }
+
+    /**
+     * Товары магазина из списка
+     * @param tenantId идентификатор магазина
+     * @param productIds идентификаторы товаров
+     * @return идентификаторы, принадлежащие магазину
+     */
+    public Set<Long> findTenantProductIds(Long tenantId, Long[] productIds) {
+        List<Long> found = jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(TENANT_PRODUCTS_SQL);
+            ps.setLong(1, tenantId);
+            ps.setArray(2, con.createArrayOf("bigint", productIds));
+            return ps;
+        }, (rs, rowNum) -> rs.getLong(1));
+        return new HashSet<>(found);
+    }
+
+    /**
+     * Отметить кассу как находящуюся на связи
+     * @param tenantId идентификатор магазина
+     * @param posTerminalId идентификатор кассы
+     * @return false, если касса не найдена в магазине
+     */
+    public boolean markTerminalOnline(Long tenantId, Long posTerminalId) {
+        return jdbcTemplate.update(MARK_TERMINAL_ONLINE_SQL, posTerminalId, tenantId) > 0;
+    }
+}
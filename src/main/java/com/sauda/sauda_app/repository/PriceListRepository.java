@@ -0,0 +1,31 @@
+package com.sauda.sauda_app.repository;
+
+import com.sauda.sauda_app.dto.PriceInterval;
+import com.sauda.sauda_app.entity.PriceList;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PriceListRepository extends JpaRepository<PriceList, Long> {
+
+    Optional<PriceList> findByTenantIdAndProductIdAndStartDate(Long tenantId, Long productId, LocalDate startDate);
+
+    List<PriceList> findByTenantIdAndProductIdOrderByStartDate(Long tenantId, Long productId);
+
+    // Все интервалы цен магазина для построения индекса в памяти, без загрузки сущностей
+    @Query("SELECT new com.sauda.sauda_app.dto.PriceInterval(pl.productId, pl.price, pl.startDate, pl.endDate) " +
+           "FROM PriceList pl WHERE pl.tenantId = :tenantId")
+    List<PriceInterval> findIntervalsByTenantId(@Param("tenantId") Long tenantId);
+
+    // Интервалы цен одного товара для обновления его шкалы в индексе
+    @Query("SELECT new com.sauda.sauda_app.dto.PriceInterval(pl.productId, pl.price, pl.startDate, pl.endDate) " +
+           "FROM PriceList pl WHERE pl.tenantId = :tenantId AND pl.productId = :productId")
+    List<PriceInterval> findIntervalsByTenantIdAndProductId(@Param("tenantId") Long tenantId,
+                                                            @Param("productId") Long productId);
+}
@@ -1,6 +1,9 @@
 package com.sauda.sauda_app.repository;
 
+import com.sauda.sauda_app.dto.ProductDto;
+import com.sauda.sauda_app.dto.ProductSnapshot;
 import com.sauda.sauda_app.entity.Product;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -13,6 +16,12 @@ import java.util.Optional;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
+
+    // Проекция для чтения: колонки товара и названия категории и единицы одним запросом с JOIN,
+    // без загрузки сущности и ее ленивых связей
+    String PRODUCT_DTO_SELECT = "SELECT new com.sauda.sauda_app.dto.ProductDto(p.id, p.tenantId, p.name, " +
+            "p.barcode, p.sku, p.categoryId, p.unitId, p.description, p.isActive, p.isDeleted, p.price, " +
+            "p.quantity, c.name, u.name) FROM Product p LEFT JOIN p.category c LEFT JOIN p.unit u ";
     
     // Базовые методы поиска
     Optional<Product> findByBarcode(String barcode);
@@ -55,6 +64,35 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     @Query("SELECT p FROM Product p WHERE p.tenantId = :tenantId AND p.isActive = true AND p.isDeleted = false " +
            "ORDER BY p.name")
     List<Product> findAllActiveByTenantIdOrderByName(@Param("tenantId") Long tenantId);
+
+    // Снимки активных товаров для прогрева индекса штрих-кодов, без загрузки сущностей
+    @Query("SELECT new com.sauda.sauda_app.dto.ProductSnapshot(p.id, p.tenantId, p.name, p.barcode, p.sku, " +
+           "p.categoryId, p.unitId, p.isActive) FROM Product p WHERE p.isActive = true AND p.isDeleted = false")
+    List<ProductSnapshot> findAllSellableSnapshots();
+
+    @Query("SELECT new com.sauda.sauda_app.dto.ProductSnapshot(p.id, p.tenantId, p.name, p.barcode, p.sku, " +
+           "p.categoryId, p.unitId, p.isActive) FROM Product p " +
+           "WHERE p.tenantId = :tenantId AND p.isActive = true AND p.isDeleted = false")
+    List<ProductSnapshot> findSellableSnapshotsByTenantId(@Param("tenantId") Long tenantId);
+
+    // Keyset-пагинация: страница начинается строго после последней строки предыдущей,
+    // без OFFSET и без запроса количества. Условие name >= :afterName дает индексу границу диапазона
+    @Query(PRODUCT_DTO_SELECT + "WHERE p.tenantId = :tenantId AND p.id > :afterId ORDER BY p.id")
+    List<ProductDto> findByTenantIdAfterId(@Param("tenantId") Long tenantId, @Param("afterId") Long afterId, Limit limit);
+
+    @Query(PRODUCT_DTO_SELECT + "WHERE p.tenantId = :tenantId AND p.name >= :afterName AND " +
+           "(p.name > :afterName OR p.id > :afterId) ORDER BY p.name, p.id")
+    List<ProductDto> findByTenantIdAfterName(@Param("tenantId") Long tenantId, @Param("afterName") String afterName,
+                                             @Param("afterId") Long afterId, Limit limit);
+
+    @Query(PRODUCT_DTO_SELECT + "WHERE p.tenantId = :tenantId AND p.categoryId = :categoryId AND " +
+           "p.isActive = true AND p.isDeleted = false AND p.id > :afterId ORDER BY p.id")
+    List<ProductDto> findActiveByTenantIdAndCategoryIdAfterId(@Param("tenantId") Long tenantId,
+                                                           @Param("categoryId") Long categoryId,
+                                                           @Param("afterId") Long afterId, Limit limit);
+
+    @Query(PRODUCT_DTO_SELECT + "WHERE p.id = :id AND p.tenantId = :tenantId")
+    Optional<ProductDto> findDtoByIdAndTenantId(@Param("id") Long id, @Param("tenantId") Long tenantId);
 }
 
 
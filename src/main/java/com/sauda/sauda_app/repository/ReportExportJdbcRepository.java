@@ -0,0 +1,81 @@
+package com.sauda.sauda_app.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+
+/**
+ * Чтение чеков, позиций и оплат магазина за период для выгрузки.
+ * Строки читаются курсором (fetch size) и передаются обработчику по одной, поэтому выгрузка
+ * миллионов строк держит в памяти только текущую порцию. Методы вызываются внутри транзакции,
+ * иначе драйвер PostgreSQL читает результат целиком.
+ *
+ * Период задается по дате чека: sale_date в [from, to + 1 день).
+ */
+@Repository
+public class ReportExportJdbcRepository {
+
+    private static final int FETCH_SIZE = 1000;
+
+    private static final String SALES_SQL =
+            "SELECT id, sale_date, employee_id, customer_id, pos_terminal_id, total_amount, payment_method " +
+            "FROM sales WHERE tenant_id = ? AND sale_date >= ? AND sale_date < ? ORDER BY sale_date, id";
+
+    private static final String SALES_ITEMS_SQL =
+            "SELECT si.id, si.sale_id, s.sale_date, si.product_id, si.quantity, si.price, si.discount " +
+            "FROM sales s JOIN sales_items si ON si.sale_id = s.id " +
+            "WHERE s.tenant_id = ? AND s.sale_date >= ? AND s.sale_date < ? ORDER BY s.sale_date, s.id, si.id";
+
+    private static final String PAYMENTS_SQL =
+            "SELECT p.id, p.sale_id, s.sale_date, p.payment_date, p.amount, p.payment_type " +
+            "FROM sales s JOIN payments p ON p.sale_id = s.id " +
+            "WHERE s.tenant_id = ? AND s.sale_date >= ? AND s.sale_date < ? ORDER BY s.sale_date, s.id, p.id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public ReportExportJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Чеки за период
+     * @param handler обработчик строк: id, sale_date, employee_id, customer_id, pos_terminal_id,
+     *                total_amount, payment_method
+     */
+    public void streamSales(Long tenantId, LocalDate from, LocalDate to, RowCallbackHandler handler) {
+        stream(SALES_SQL, tenantId, from, to, handler);
+    }
+
+    /**
+     * Позиции чеков за период
+     * @param handler обработчик строк: id, sale_id, sale_date, product_id, quantity, price, discount
+     */
+    public void streamSalesItems(Long tenantId, LocalDate from, LocalDate to, RowCallbackHandler handler) {
+        stream(SALES_ITEMS_SQL, tenantId, from, to, handler);
+    }
+
+    /**
+     * Оплаты чеков за период
+     * @param handler обработчик строк: id, sale_id, sale_date, payment_date, amount, payment_type
+     */
+    public void streamPayments(Long tenantId, LocalDate from, LocalDate to, RowCallbackHandler handler) {
+        stream(PAYMENTS_SQL, tenantId, from, to, handler);
+    }
+
+    private void stream(String sql, Long tenantId, LocalDate from, LocalDate to, RowCallbackHandler handler) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setFetchSize(FETCH_SIZE);
+            ps.setLong(1, tenantId);
+            ps.setTimestamp(2, Timestamp.valueOf(from.atStartOfDay()));
+            ps.setTimestamp(3, Timestamp.valueOf(to.plusDays(1).atStartOfDay()));
+            return ps;
+        }, handler);
+    }
+}
@@ -0,0 +1,19 @@
+package com.sauda.sauda_app.repository;
+
+import com.sauda.sauda_app.dto.RoleSummary;
+import com.sauda.sauda_app.entity.Role;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface RoleRepository extends JpaRepository<Role, Long> {
+
+    // Справочник для кэша: без загрузки сущностей и связей
+    @Query("SELECT new com.sauda.sauda_app.dto.RoleSummary(r.id, r.tenantId, r.name, r.permissionsJson) " +
+           "FROM Role r WHERE r.tenantId = :tenantId ORDER BY r.name, r.id")
+    List<RoleSummary> findSummariesByTenantId(@Param("tenantId") Long tenantId);
+}
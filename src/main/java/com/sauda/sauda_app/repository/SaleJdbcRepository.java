@@ -0,0 +1,218 @@
+package com.sauda.sauda_app.repository;
+
+import com.sauda.sauda_app.entity.Payment;
+import com.sauda.sauda_app.entity.Sale;
+import com.sauda.sauda_app.entity.SalesItem;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Запись чеков напрямую через JDBC.
+ * Позиции и оплаты вставляются пакетами, чтобы чек любого размера
+ * укладывался в фиксированное число обращений к базе.
+ */
+@Repository
+public class SaleJdbcRepository {
+
+    private static final String INSERT_SALE_SQL =
+            "INSERT INTO sales (tenant_id, employee_id, customer_id, pos_terminal_id, total_amount, payment_method) " +
+            "VALUES (?, ?, ?, ?, ?, ?) RETURNING id, sale_date";
+
+    private static final String INSERT_SALE_WITH_DATE_SQL =
+            "INSERT INTO sales (tenant_id, sale_date, employee_id, customer_id, pos_terminal_id, total_amount, " +
+            "payment_method) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_SALES_ITEM_SQL =
+            "INSERT INTO sales_items (tenant_id, sale_id, product_id, quantity, price, discount) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_PAYMENT_SQL =
+            "INSERT INTO payments (tenant_id, sale_id, amount, payment_type) VALUES (?, ?, ?, ?)";
+
+    private static final String UPSERT_DAILY_ROLLUP_SQL =
+            "INSERT INTO sales_daily_rollup (tenant_id, sale_day, pos_terminal_id, employee_id, " +
+            "revenue, receipts, discount_amount) VALUES (?, ?, ?, ?, ?, 1, ?) " +
+            "ON CONFLICT (tenant_id, sale_day, pos_terminal_id, employee_id) DO UPDATE SET " +
+            "revenue = sales_daily_rollup.revenue + EXCLUDED.revenue, " +
+            "receipts = sales_daily_rollup.receipts + 1, " +
+            "discount_amount = sales_daily_rollup.discount_amount + EXCLUDED.discount_amount";
+
+    private static final String UPSERT_DAILY_ROLLUP_TOTALS_SQL =
+            "INSERT INTO sales_daily_rollup (tenant_id, sale_day, pos_terminal_id, employee_id, " +
+            "revenue, receipts, discount_amount) VALUES (?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (tenant_id, sale_day, pos_terminal_id, employee_id) DO UPDATE SET " +
+            "revenue = sales_daily_rollup.revenue + EXCLUDED.revenue, " +
+            "receipts = sales_daily_rollup.receipts + EXCLUDED.receipts, " +
+            "discount_amount = sales_daily_rollup.discount_amount + EXCLUDED.discount_amount";
+
+    /**
+     * Строка дневных итогов и накопленные по ней суммы
+     */
+    private record RollupKey(Long tenantId, LocalDate saleDay, Long posTerminalId, Long employeeId) {
+    }
+
+    private static final class RollupTotals {
+        private BigDecimal revenue = BigDecimal.ZERO;
+        private BigDecimal discountAmount = BigDecimal.ZERO;
+        private int receipts;
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public SaleJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Вставить заголовок чека
+     * @param sale чек без идентификатора
+     * @return тот же чек с заполненными id и sale_date
+     */
+    public Sale insertSale(Sale sale) {
+        return jdbcTemplate.queryForObject(INSERT_SALE_SQL, (rs, rowNum) -> {
+            sale.setId(rs.getLong("id"));
+            sale.setSaleDate(rs.getTimestamp("sale_date").toLocalDateTime());
+            return sale;
+        }, sale.getTenantId(), sale.getEmployeeId(), sale.getCustomerId(), sale.getPosTerminalId(),
+                sale.getTotalAmount(), sale.getPaymentMethod());
+    }
+
+    /**
+     * Вставить заголовки чеков со временем продажи одним пакетом JDBC (чеки, проведенные кассой без связи)
+     * @param sales чеки без идентификаторов с заполненным sale_date
+     */
+    public void insertSales(List<Sale> sales) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_SALE_WITH_DATE_SQL, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Sale sale = sales.get(i);
+                        ps.setLong(1, sale.getTenantId());
+                        ps.setTimestamp(2, Timestamp.valueOf(sale.getSaleDate()));
+                        ps.setObject(3, sale.getEmployeeId(), Types.BIGINT);
+                        ps.setObject(4, sale.getCustomerId(), Types.BIGINT);
+                        ps.setObject(5, sale.getPosTerminalId(), Types.BIGINT);
+                        ps.setBigDecimal(6, sale.getTotalAmount());
+                        ps.setString(7, sale.getPaymentMethod());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return sales.size();
+                    }
+                }, keyHolder);
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < sales.size(); i++) {
+            sales.get(i).setId(((Number) keys.get(i).get("id")).longValue());
+        }
+    }
+
+    /**
+     * Вставить позиции чека одним пакетом
+     * @param items позиции чека
+     */
+    public void insertItems(List<SalesItem> items) {
+        jdbcTemplate.batchUpdate(INSERT_SALES_ITEM_SQL, items, items.size(), (ps, item) -> {
+            ps.setLong(1, item.getTenantId());
+            ps.setLong(2, item.getSaleId());
+            ps.setLong(3, item.getProductId());
+            ps.setBigDecimal(4, item.getQuantity());
+            ps.setBigDecimal(5, item.getPrice());
+            ps.setBigDecimal(6, item.getDiscount());
+        });
+    }
+
+    /**
+     * Вставить оплаты чека одним пакетом
+     * @param payments оплаты чека
+     */
+    public void insertPayments(List<Payment> payments) {
+        jdbcTemplate.batchUpdate(INSERT_PAYMENT_SQL, payments, payments.size(), (ps, payment) -> {
+            ps.setLong(1, payment.getTenantId());
+            ps.setLong(2, payment.getSaleId());
+            ps.setBigDecimal(3, payment.getAmount());
+            ps.setString(4, payment.getPaymentType());
+        });
+    }
+
+    /**
+     * Прибавить чек к дневным итогам его магазина, кассы и сотрудника.
+     * Вызывается в транзакции записи чека, поэтому итоги меняются только вместе с зафиксированным чеком.
+     * Строку итогов блокируют только чеки той же кассы и того же сотрудника за тот же день
+     * @param sale записанный чек с sale_date
+     * @param items позиции чека
+     */
+    public void addToDailyRollup(Sale sale, List<SalesItem> items) {
+        BigDecimal discountAmount = BigDecimal.ZERO;
+        for (SalesItem item : items) {
+            if (item.getDiscount() != null) {
+                discountAmount = discountAmount.add(item.getDiscount());
+            }
+        }
+        jdbcTemplate.update(UPSERT_DAILY_ROLLUP_SQL,
+                sale.getTenantId(),
+                Date.valueOf(sale.getSaleDate().toLocalDate()),
+                sale.getPosTerminalId() != null ? sale.getPosTerminalId() : 0L,
+                sale.getEmployeeId() != null ? sale.getEmployeeId() : 0L,
+                sale.getTotalAmount(),
+                discountAmount);
+    }
+
+    /**
+     * Прибавить чеки к дневным итогам: чеки сначала суммируются по строкам итогов,
+     * затем каждая строка обновляется один раз. Строки обновляются в порядке ключа,
+     * поэтому параллельные пакеты блокируют их в одном порядке
+     * @param sales записанные чеки с sale_date и позициями
+     */
+    public void addAllToDailyRollup(List<Sale> sales) {
+        Map<RollupKey, RollupTotals> rows = new TreeMap<>(Comparator
+                .comparing(RollupKey::tenantId)
+                .thenComparing(RollupKey::saleDay)
+                .thenComparing(RollupKey::posTerminalId)
+                .thenComparing(RollupKey::employeeId));
+        for (Sale sale : sales) {
+            RollupKey key = new RollupKey(sale.getTenantId(), sale.getSaleDate().toLocalDate(),
+                    sale.getPosTerminalId() != null ? sale.getPosTerminalId() : 0L,
+                    sale.getEmployeeId() != null ? sale.getEmployeeId() : 0L);
+            RollupTotals totals = rows.computeIfAbsent(key, k -> new RollupTotals());
+            totals.revenue = totals.revenue.add(sale.getTotalAmount());
+            totals.receipts++;
+            for (SalesItem item : sale.getItems()) {
+                if (item.getDiscount() != null) {
+                    totals.discountAmount = totals.discountAmount.add(item.getDiscount());
+                }
+            }
+        }
+        List<Map.Entry<RollupKey, RollupTotals>> entries = new ArrayList<>(rows.entrySet());
+        jdbcTemplate.batchUpdate(UPSERT_DAILY_ROLLUP_TOTALS_SQL, entries, entries.size(), (ps, entry) -> {
+            RollupKey key = entry.getKey();
+            RollupTotals totals = entry.getValue();
+            ps.setLong(1, key.tenantId());
+            ps.setDate(2, Date.valueOf(key.saleDay()));
+            ps.setLong(3, key.posTerminalId());
+            ps.setLong(4, key.employeeId());
+            ps.setBigDecimal(5, totals.revenue);
+            ps.setInt(6, totals.receipts);
+            ps.setBigDecimal(7, totals.discountAmount);
+        });
+    }
+}
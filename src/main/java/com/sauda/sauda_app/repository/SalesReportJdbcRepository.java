@@ -0,0 +1,64 @@
+package com.sauda.sauda_app.repository;
+
+import com.sauda.sauda_app.dto.SalesDaySummary;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Чтение дневных итогов продаж из sales_daily_rollup.
+ * На день приходится по строке на пару касса-сотрудник, поэтому отчет за период
+ * читает число строк, не зависящее от числа чеков
+ */
+@Repository
+public class SalesReportJdbcRepository {
+
+    private static final String DAYS_SQL =
+            "SELECT sale_day, SUM(revenue) AS revenue, SUM(receipts) AS receipts, " +
+            "SUM(discount_amount) AS discount_amount FROM sales_daily_rollup " +
+            "WHERE tenant_id = ? AND sale_day BETWEEN ? AND ? " +
+            "AND (CAST(? AS BIGINT) IS NULL OR pos_terminal_id = ?) " +
+            "AND (CAST(? AS BIGINT) IS NULL OR employee_id = ?) " +
+            "GROUP BY sale_day ORDER BY sale_day";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public SalesReportJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Итоги продаж по дням
+     * @param tenantId идентификатор магазина
+     * @param from первый день
+     * @param to последний день включительно
+     * @param posTerminalId касса или null — все кассы
+     * @param employeeId сотрудник или null — все сотрудники
+     * @return итоги дней с продажами по возрастанию дня
+     */
+    public List<SalesDaySummary> findDays(Long tenantId, LocalDate from, LocalDate to,
+                                          Long posTerminalId, Long employeeId) {
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(DAYS_SQL);
+            ps.setLong(1, tenantId);
+            ps.setDate(2, Date.valueOf(from));
+            ps.setDate(3, Date.valueOf(to));
+            ps.setObject(4, posTerminalId, Types.BIGINT);
+            ps.setObject(5, posTerminalId, Types.BIGINT);
+            ps.setObject(6, employeeId, Types.BIGINT);
+            ps.setObject(7, employeeId, Types.BIGINT);
+            return ps;
+        }, (rs, rowNum) -> SalesDaySummary.of(
+                rs.getDate("sale_day").toLocalDate(),
+                rs.getBigDecimal("revenue"),
+                rs.getLong("receipts"),
+                rs.getBigDecimal("discount_amount")));
+    }
+}
@@ -1,5 +1,6 @@
 package com.sauda.sauda_app.repository;
 
+import com.sauda.sauda_app.dto.ShopSummary;
 import com.sauda.sauda_app.entity.Shop;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -11,6 +12,10 @@ import java.util.Optional;
 
 @Repository
 public interface ShopRepository extends JpaRepository<Shop, Long> {
+
+    // Проекция для чтения: без загрузки сущности, пользователей и владельца
+    String SHOP_SUMMARY_SELECT = "SELECT new com.sauda.sauda_app.dto.ShopSummary(s.id, s.tenantId, s.name, " +
+            "s.ownerId, s.createdAt) FROM Shop s ";
     
     Optional<Shop> findByTenantId(Long tenantId);
     
@@ -19,6 +24,9 @@ public interface ShopRepository extends JpaRepository<Shop, Long> {
     
     @Query("SELECT s FROM Shop s WHERE s.ownerId = :ownerId")
     List<Shop> findByOwnerId(@Param("ownerId") Long ownerId);
+
+    @Query(SHOP_SUMMARY_SELECT + "WHERE s.tenantId = :tenantId ORDER BY s.id")
+    List<ShopSummary> findSummariesByTenantId(@Param("tenantId") Long tenantId);
 }
 
 
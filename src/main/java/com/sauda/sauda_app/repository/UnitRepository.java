@@ -1,9 +1,12 @@
 package com.sauda.sauda_app.repository;
 
+import com.sauda.sauda_app.dto.UnitSummary;
 import com.sauda.sauda_app.entity.Unit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -31,4 +34,9 @@ public interface UnitRepository extends JpaRepository<Unit, Long> {
     // Старые методы (для обратной совместимости)
     List<Unit> findByTenantId(Long tenantId);
     List<Unit> findByTenantIdAndIsActiveTrueAndIsDeletedFalse(Long tenantId);
+
+    // Справочник для кэша: без загрузки сущностей и связей, удаленные не попадают
+    @Query("SELECT new com.sauda.sauda_app.dto.UnitSummary(u.id, u.tenantId, u.name, u.symbol, u.isActive) " +
+           "FROM Unit u WHERE u.tenantId = :tenantId AND (u.isDeleted = false OR u.isDeleted IS NULL) ORDER BY u.name, u.id")
+    List<UnitSummary> findSummariesByTenantId(@Param("tenantId") Long tenantId);
 }
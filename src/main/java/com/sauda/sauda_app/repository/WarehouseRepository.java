@@ -1,9 +1,12 @@
 package com.sauda.sauda_app.repository;
 
+import com.sauda.sauda_app.dto.WarehouseSummary;
 import com.sauda.sauda_app.entity.Warehouse;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -31,4 +34,9 @@ public interface WarehouseRepository extends JpaRepository<Warehouse, Long> {
     // Старые методы (для обратной совместимости)
     List<Warehouse> findByTenantId(Long tenantId);
     List<Warehouse> findByTenantIdAndIsActiveTrueAndIsDeletedFalse(Long tenantId);
+
+    // Справочник для кэша: без загрузки сущностей и связей, удаленные не попадают
+    @Query("SELECT new com.sauda.sauda_app.dto.WarehouseSummary(w.id, w.tenantId, w.name, w.address, w.isActive) " +
+           "FROM Warehouse w WHERE w.tenantId = :tenantId AND (w.isDeleted = false OR w.isDeleted IS NULL) ORDER BY w.name, w.id")
+    List<WarehouseSummary> findSummariesByTenantId(@Param("tenantId") Long tenantId);
 }
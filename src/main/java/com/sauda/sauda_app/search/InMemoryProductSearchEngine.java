@@ -0,0 +1,89 @@
+package com.sauda.sauda_app.search;
+
+import com.sauda.sauda_app.dto.ProductSnapshot;
+import com.sauda.sauda_app.event.ProductChangedEvent;
+import com.sauda.sauda_app.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Поиск по инвертированному индексу триграмм в памяти процесса, отдельный индекс на магазин.
+ * Индекс строится при старте и обновляется событиями {@link ProductChangedEvent} после фиксации транзакции
+ */
+@Component
+@ConditionalOnProperty(name = "sauda.search.backend", havingValue = "memory", matchIfMissing = true)
+public class InMemoryProductSearchEngine implements ProductSearchEngine {
+
+    private final ProductRepository productRepository;
+    private final Map<Long, TrigramIndex> indexes = new ConcurrentHashMap<>();
+
+    @Autowired
+    public InMemoryProductSearchEngine(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    @Override
+    public Page<ProductSnapshot> search(Long tenantId, String query, Pageable pageable) {
+        List<String> tokens = TrigramIndex.tokens(query);
+        TrigramIndex index = indexes.get(tenantId);
+        if (tokens.isEmpty() || index == null) {
+            return Page.empty(pageable);
+        }
+
+        List<ProductSnapshot> matches = index.search(tokens);
+        int from = (int) Math.min(pageable.getOffset(), matches.size());
+        int to = Math.min(from + pageable.getPageSize(), matches.size());
+        return new PageImpl<>(matches.subList(from, to), pageable, matches.size());
+    }
+
+    /**
+     * Добавить или обновить товар в индексе
+     * @param product снимок товара
+     */
+    public void index(ProductSnapshot product) {
+        indexFor(product.tenantId()).index(product);
+    }
+
+    /**
+     * Убрать товар из индекса
+     * @param tenantId идентификатор магазина
+     * @param productId идентификатор товара
+     */
+    public void remove(Long tenantId, Long productId) {
+        TrigramIndex index = indexes.get(tenantId);
+        if (index != null) {
+            index.remove(productId);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        for (ProductSnapshot product : productRepository.findAllSellableSnapshots()) {
+            index(product);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.isSellable()) {
+            index(event.product());
+        } else {
+            remove(event.product().tenantId(), event.product().id());
+        }
+    }
+
+    private TrigramIndex indexFor(Long tenantId) {
+        return indexes.computeIfAbsent(tenantId, id -> new TrigramIndex());
+    }
+}
@@ -0,0 +1,70 @@
+package com.sauda.sauda_app.search;
+
+import com.sauda.sauda_app.dto.ProductSnapshot;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Поиск средствами PostgreSQL. Условия LIKE по lower(name), lower(barcode) и lower(sku)
+ * обслуживаются GIN-индексами pg_trgm (changelog 004), ранжирование — по similarity()
+ */
+@Component
+@ConditionalOnProperty(name = "sauda.search.backend", havingValue = "postgres")
+public class PostgresProductSearchEngine implements ProductSearchEngine {
+
+    private static final String MATCH_SQL =
+            "FROM products WHERE tenant_id = :tenantId AND is_active = true AND is_deleted = false " +
+            "AND (lower(name) LIKE :pattern OR lower(barcode) LIKE :pattern OR lower(sku) LIKE :pattern) ";
+
+    private static final String SEARCH_SQL =
+            "SELECT id, tenant_id, name, barcode, sku, category_id, unit_id, is_active " + MATCH_SQL +
+            "ORDER BY (lower(barcode) = :term OR lower(sku) = :term) DESC, " +
+            "similarity(lower(name), :term) DESC, name, id LIMIT :limit OFFSET :offset";
+
+    private static final String COUNT_SQL = "SELECT count(*) " + MATCH_SQL;
+
+    private static final RowMapper<ProductSnapshot> SNAPSHOT_MAPPER = (rs, rowNum) -> new ProductSnapshot(
+            rs.getLong("id"), rs.getLong("tenant_id"), rs.getString("name"), rs.getString("barcode"),
+            rs.getString("sku"), rs.getObject("category_id", Long.class), rs.getObject("unit_id", Long.class),
+            rs.getBoolean("is_active"));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public PostgresProductSearchEngine(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Page<ProductSnapshot> search(Long tenantId, String query, Pageable pageable) {
+        String term = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+        if (term.isEmpty()) {
+            return Page.empty(pageable);
+        }
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("tenantId", tenantId)
+                .addValue("term", term)
+                .addValue("pattern", "%" + escapeLike(term) + "%")
+                .addValue("limit", pageable.getPageSize())
+                .addValue("offset", pageable.getOffset());
+
+        List<ProductSnapshot> content = jdbcTemplate.query(SEARCH_SQL, params, SNAPSHOT_MAPPER);
+        Long total = jdbcTemplate.queryForObject(COUNT_SQL, params, Long.class);
+        return new PageImpl<>(content, pageable, total == null ? 0 : total);
+    }
+
+    private static String escapeLike(String term) {
+        return term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,23 @@
+package com.sauda.sauda_app.search;
+
+import com.sauda.sauda_app.dto.ProductSnapshot;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Поиск товаров каталога по названию, штрих-коду и артикулу.
+ * Реализация выбирается свойством {@code sauda.search.backend}:
+ * {@code memory} (по умолчанию) — инвертированный индекс триграмм в памяти,
+ * {@code postgres} — запросы к PostgreSQL с индексами pg_trgm
+ */
+public interface ProductSearchEngine {
+
+    /**
+     * Найти активные товары магазина
+     * @param tenantId идентификатор магазина
+     * @param query строка поиска (все слова должны найтись)
+     * @param pageable параметры пагинации
+     * @return страница товаров, отсортированная по релевантности
+     */
+    Page<ProductSnapshot> search(Long tenantId, String query, Pageable pageable);
+}
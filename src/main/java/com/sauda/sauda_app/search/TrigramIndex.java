@@ -0,0 +1,303 @@
+package com.sauda.sauda_app.search;
+
+import com.sauda.sauda_app.dto.ProductSnapshot;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Инвертированный индекс триграмм по товарам одного магазина.
+ *
+ * Каждое слово названия, штрих-кода и артикула дополняется слева двумя пробелами и режется на триграммы:
+ * «молоко» → «  м», « мо», «мол», «оло», «лок», «око». Короткий запрос (1–2 символа) ищется как начало
+ * слова по триграммам с пробелами, запрос от 3 символов — как подстрока по обычным триграммам.
+ * Кириллица и латиница обрабатываются одинаково: текст приводится к нижнему регистру, «ё» заменяется на «е».
+ *
+ * Списки документов по триграмме отсортированы по возрастанию (новые документы получают большие номера),
+ * поэтому кандидаты находятся слиянием списков, а затем проверяются по тексту — триграммы могут
+ * совпасть и без совпадения подстроки. Обновление товара — удаление и повторное добавление документа;
+ * удаленные документы вычищаются пересборкой, когда их становится больше половины.
+ */
+class TrigramIndex {
+
+    private static final int COMPACT_MIN_REMOVED = 1024;
+
+    private static final int SCORE_EXACT_CODE = 100;
+    private static final int SCORE_NAME_WORD_PREFIX = 10;
+    private static final int SCORE_NAME_SUBSTRING = 5;
+    private static final int SCORE_CODE_MATCH = 3;
+
+    private static final Comparator<Match> RANKING = Comparator
+            .comparingInt(Match::score).reversed()
+            .thenComparingInt(match -> match.doc().name().length())
+            .thenComparing(match -> match.doc().name())
+            .thenComparing(match -> match.doc().product().id());
+
+    /**
+     * Документ индекса: снимок товара и его нормализованный текст.
+     * Тексты начинаются и заканчиваются пробелом, чтобы начало и конец слова проверялись через contains
+     */
+    private record Doc(ProductSnapshot product, String name, String codes) {
+    }
+
+    private record Match(Doc doc, int score) {
+    }
+
+    private static final class IntList {
+        int[] data = new int[4];
+        int size;
+
+        void add(int value) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, size * 2);
+            }
+            data[size++] = value;
+        }
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, IntList> postings = new HashMap<>();
+    private final Map<Long, Integer> docByProduct = new HashMap<>();
+    private final List<Doc> docs = new ArrayList<>();
+    private int removed;
+
+    /**
+     * Добавить или обновить товар в индексе
+     * @param product снимок товара
+     */
+    void index(ProductSnapshot product) {
+        lock.writeLock().lock();
+        try {
+            removeDoc(product.id());
+            addDoc(product);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Убрать товар из индекса
+     * @param productId идентификатор товара
+     */
+    void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeDoc(productId);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Найти товары, содержащие все слова запроса
+     * @param tokens нормализованные слова запроса
+     * @return товары по убыванию релевантности
+     */
+    List<ProductSnapshot> search(List<String> tokens) {
+        lock.readLock().lock();
+        try {
+            int[] candidates = null;
+            for (String token : tokens) {
+                for (long gram : queryGrams(token)) {
+                    IntList list = postings.get(gram);
+                    if (list == null) {
+                        return List.of();
+                    }
+                    candidates = candidates == null
+                            ? Arrays.copyOf(list.data, list.size)
+                            : intersect(candidates, list);
+                    if (candidates.length == 0) {
+                        return List.of();
+                    }
+                }
+            }
+            if (candidates == null) {
+                return List.of();
+            }
+
+            List<Match> matches = new ArrayList<>();
+            for (int docId : candidates) {
+                Doc doc = docs.get(docId);
+                if (doc == null) {
+                    continue;
+                }
+                int score = score(doc, tokens);
+                if (score > 0) {
+                    matches.add(new Match(doc, score));
+                }
+            }
+            matches.sort(RANKING);
+
+            List<ProductSnapshot> result = new ArrayList<>(matches.size());
+            for (Match match : matches) {
+                result.add(match.doc().product());
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return docByProduct.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Разбить строку на нормализованные слова: нижний регистр, «ё» → «е», все кроме букв и цифр — разделители
+     * @param text исходная строка
+     * @return слова
+     */
+    static List<String> tokens(String text) {
+        String normalized = normalize(text);
+        return normalized.isEmpty() ? List.of() : List.of(normalized.split(" "));
+    }
+
+    private void addDoc(ProductSnapshot product) {
+        int docId = docs.size();
+        Doc doc = new Doc(product,
+                " " + normalize(product.name()) + " ",
+                " " + normalize(product.barcode()) + " " + normalize(product.sku()) + " ");
+        docs.add(doc);
+        docByProduct.put(product.id(), docId);
+
+        Set<Long> grams = new HashSet<>();
+        collectGrams(doc.name(), grams);
+        collectGrams(doc.codes(), grams);
+        for (Long gram : grams) {
+            postings.computeIfAbsent(gram, key -> new IntList()).add(docId);
+        }
+    }
+
+    private void removeDoc(Long productId) {
+        Integer docId = docByProduct.remove(productId);
+        if (docId != null) {
+            docs.set(docId, null);
+            removed++;
+        }
+    }
+
+    private void compactIfNeeded() {
+        if (removed < COMPACT_MIN_REMOVED || removed * 2 < docs.size()) {
+            return;
+        }
+        List<ProductSnapshot> live = new ArrayList<>(docByProduct.size());
+        for (Doc doc : docs) {
+            if (doc != null) {
+                live.add(doc.product());
+            }
+        }
+        postings.clear();
+        docByProduct.clear();
+        docs.clear();
+        removed = 0;
+        for (ProductSnapshot product : live) {
+            addDoc(product);
+        }
+    }
+
+    private static int score(Doc doc, List<String> tokens) {
+        int total = 0;
+        for (String token : tokens) {
+            int score;
+            if (doc.codes().contains(" " + token + " ")) {
+                score = SCORE_EXACT_CODE;
+            } else if (doc.name().contains(" " + token)) {
+                score = SCORE_NAME_WORD_PREFIX;
+            } else if (doc.codes().contains(" " + token)) {
+                score = SCORE_CODE_MATCH;
+            } else if (token.length() < 3) {
+                // Короткие слова ищутся только как начало слова
+                return 0;
+            } else if (doc.name().contains(token)) {
+                score = SCORE_NAME_SUBSTRING;
+            } else if (doc.codes().contains(token)) {
+                score = SCORE_CODE_MATCH;
+            } else {
+                return 0;
+            }
+            total += score;
+        }
+        return total;
+    }
+
+    private static int[] intersect(int[] left, IntList right) {
+        int[] result = new int[Math.min(left.length, right.size)];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < left.length && j < right.size) {
+            int a = left[i];
+            int b = right.data[j];
+            if (a == b) {
+                result[n++] = a;
+                i++;
+                j++;
+            } else if (a < b) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, n);
+    }
+
+    private static void collectGrams(String text, Set<Long> grams) {
+        for (String word : text.split(" ")) {
+            if (!word.isEmpty()) {
+                addGrams("  " + word, grams);
+            }
+        }
+    }
+
+    private static long[] queryGrams(String token) {
+        Set<Long> grams = new HashSet<>();
+        addGrams(token.length() < 3 ? "  " + token : token, grams);
+        return grams.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static void addGrams(String text, Set<Long> grams) {
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            grams.add(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+        }
+    }
+
+    private static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(text.length());
+        boolean space = true;
+        for (char c : text.toLowerCase(Locale.ROOT).toCharArray()) {
+            if (c == 'ё') {
+                c = 'е';
+            }
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(c);
+                space = false;
+            } else if (!space) {
+                sb.append(' ');
+                space = true;
+            }
+        }
+        int length = sb.length();
+        if (length > 0 && sb.charAt(length - 1) == ' ') {
+            sb.setLength(length - 1);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,82 @@
+package com.sauda.sauda_app.security;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Кэш проверенных токенов поверх декодера: подпись и утверждения проверяются один раз на токен,
+ * а повторные запросы с тем же токеном получают готовый {@link Jwt} без разбора и без RSA.
+ *
+ * Запись живет до истечения токена (exp) и сбрасывается при смене набора ключей. Ключ карты —
+ * сама строка токена: поиск идет по ее хешу без выделения памяти, а отдельный дайджест ничего
+ * не скрыл бы — закэшированный {@link Jwt} все равно хранит исходный токен. Токены без exp и
+ * отклоненные токены не кэшируются. Размер ограничен maxTokens: при заполнении удаляются
+ * истекшие записи, а если места все равно нет, новый токен проверяется без кэширования.
+ */
+public final class CachingJwtDecoder implements JwtDecoder {
+
+    private static final long SWEEP_INTERVAL_MS = 1000;
+
+    private record Verified(Jwt jwt, long notBeforeMillis, long expiresAtMillis, long keySetVersion) {
+    }
+
+    private final JwtDecoder delegate;
+    private final int maxTokens;
+    private final LongSupplier keySetVersion;
+    private final Clock clock;
+    private final Map<String, Verified> verified = new ConcurrentHashMap<>();
+    private volatile long lastSweepAt;
+
+    public CachingJwtDecoder(JwtDecoder delegate, int maxTokens, LongSupplier keySetVersion, Clock clock) {
+        if (maxTokens <= 0) {
+            throw new IllegalArgumentException("Размер кэша токенов должен быть положительным");
+        }
+        this.delegate = delegate;
+        this.maxTokens = maxTokens;
+        this.keySetVersion = keySetVersion;
+        this.clock = clock;
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        long now = clock.millis();
+        long version = keySetVersion.getAsLong();
+        Verified cached = verified.get(token);
+        if (cached != null) {
+            if (cached.keySetVersion() == version && now >= cached.notBeforeMillis() && now < cached.expiresAtMillis()) {
+                return cached.jwt();
+            }
+            verified.remove(token, cached);
+        }
+        Jwt jwt = delegate.decode(token);
+        Instant expiresAt = jwt.getExpiresAt();
+        if (expiresAt != null && expiresAt.toEpochMilli() > now && hasRoom(now)) {
+            Instant notBefore = jwt.getNotBefore();
+            verified.put(token, new Verified(jwt, notBefore != null ? notBefore.toEpochMilli() : Long.MIN_VALUE,
+                    expiresAt.toEpochMilli(), version));
+        }
+        return jwt;
+    }
+
+    int size() {
+        return verified.size();
+    }
+
+    private boolean hasRoom(long now) {
+        if (verified.size() < maxTokens) {
+            return true;
+        }
+        if (now - lastSweepAt >= SWEEP_INTERVAL_MS) {
+            lastSweepAt = now;
+            verified.values().removeIf(entry -> entry.expiresAtMillis() <= now);
+        }
+        return verified.size() < maxTokens;
+    }
+}
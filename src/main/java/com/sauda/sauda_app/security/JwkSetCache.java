@@ -0,0 +1,113 @@
+package com.sauda.sauda_app.security;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.text.ParseException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Набор ключей Keycloak (JWK set) для проверки подписи токенов.
+ *
+ * Набор загружается при старте и обновляется в фоне по расписанию, поэтому проверка подписи
+ * в запросе берет ключ из памяти и в сеть не ходит. Токен с неизвестным ключом (новый ключ
+ * после ротации) отклоняется и запускает внеочередное фоновое обновление — не чаще
+ * min-refresh-interval-ms. Если Keycloak недоступен, остается прежний набор.
+ * Внеочередное обновление идет в общем исполнителе задач приложения (applicationTaskExecutor),
+ * а не в ForkJoinPool: загрузка блокируется на сети.
+ *
+ * Номер версии растет при каждом изменении набора ключей: по нему {@link CachingJwtDecoder}
+ * перестает доверять токенам, проверенным старым набором.
+ */
+@Component
+@Profile("!test")
+public class JwkSetCache implements JWKSource<SecurityContext> {
+
+    private static final Logger log = LoggerFactory.getLogger(JwkSetCache.class);
+
+    private static final int SIZE_LIMIT_BYTES = 512 * 1024;
+
+    private final URL jwkSetUrl;
+    private final int timeoutMs;
+    private final long minRefreshIntervalMs;
+    private final TaskExecutor refreshExecutor;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    private volatile JWKSet keys = new JWKSet();
+    private volatile long version;
+    private volatile long lastRefreshAt;
+
+    @Autowired
+    public JwkSetCache(@Value("${spring.security.oauth2.resourceserver.jwt.jwk-set-uri}") String jwkSetUri,
+                       @Value("${sauda.security.jwk-set.timeout-ms:2000}") int timeoutMs,
+                       @Value("${sauda.security.jwk-set.min-refresh-interval-ms:30000}") long minRefreshIntervalMs,
+                       @Qualifier("applicationTaskExecutor") TaskExecutor refreshExecutor)
+            throws IOException {
+        this.jwkSetUrl = URI.create(jwkSetUri).toURL();
+        this.timeoutMs = timeoutMs;
+        this.minRefreshIntervalMs = minRefreshIntervalMs;
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    @PostConstruct
+    void prefetch() {
+        refresh();
+    }
+
+    /**
+     * Загрузить набор ключей; при ошибке остается прежний набор
+     */
+    @Scheduled(initialDelayString = "${sauda.security.jwk-set.refresh-interval-ms:300000}",
+            fixedDelayString = "${sauda.security.jwk-set.refresh-interval-ms:300000}")
+    public void refresh() {
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            JWKSet loaded = JWKSet.load(jwkSetUrl, timeoutMs, timeoutMs, SIZE_LIMIT_BYTES);
+            if (!loaded.getKeys().equals(keys.getKeys())) {
+                keys = loaded;
+                version++;
+                log.info("Загружен набор ключей JWT: {} ключей, версия {}", loaded.getKeys().size(), version);
+            }
+        } catch (IOException | ParseException e) {
+            log.warn("Не удалось обновить набор ключей JWT с {}, используется прежний", jwkSetUrl, e);
+        } finally {
+            lastRefreshAt = System.currentTimeMillis();
+            refreshing.set(false);
+        }
+    }
+
+    @Override
+    public List<JWK> get(JWKSelector jwkSelector, SecurityContext context) {
+        List<JWK> matched = jwkSelector.select(keys);
+        if (matched.isEmpty() && System.currentTimeMillis() - lastRefreshAt >= minRefreshIntervalMs) {
+            refreshExecutor.execute(this::refresh);
+        }
+        return matched;
+    }
+
+    /**
+     * Версия набора ключей; меняется только при изменении самих ключей
+     */
+    public long version() {
+        return version;
+    }
+}
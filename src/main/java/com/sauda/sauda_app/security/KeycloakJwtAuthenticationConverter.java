@@ -0,0 +1,36 @@
+package com.sauda.sauda_app.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Аутентификация по токену Keycloak: имя пользователя — preferred_username,
+ * права — роли realm_access.roles с префиксом ROLE_ (см. {@link RoleAuthorities}).
+ */
+public class KeycloakJwtAuthenticationConverter extends JwtAuthenticationConverter {
+
+    private final RoleAuthorities roleAuthorities;
+
+    /**
+     * @param maxRoleSets сколько различных наборов ролей держать построенными
+     */
+    public KeycloakJwtAuthenticationConverter(int maxRoleSets) {
+        this.roleAuthorities = new RoleAuthorities(maxRoleSets);
+        setPrincipalClaimName("preferred_username");
+        setJwtGrantedAuthoritiesConverter(this::extractAuthorities);
+    }
+
+    private Collection<GrantedAuthority> extractAuthorities(Jwt jwt) {
+        // Утверждение читается как есть: getClaimAsMap запускал бы службу преобразования на каждый запрос
+        if (jwt.getClaims().get("realm_access") instanceof Map<?, ?> realmAccess
+                && realmAccess.get("roles") instanceof List<?> roles) {
+            return roleAuthorities.of(roles);
+        }
+        return List.of();
+    }
+}
@@ -0,0 +1,61 @@
+package com.sauda.sauda_app.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Права пользователя по списку ролей Keycloak (realm_access.roles).
+ *
+ * Различных наборов ролей у пользователей немного, поэтому неизменяемый список прав строится
+ * один раз на набор и дальше отдается из памяти; объекты прав общие для всех наборов.
+ * Число наборов ограничено maxRoleSets — сверх него права строятся без кэширования.
+ */
+public final class RoleAuthorities {
+
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    // Роли Keycloak по умолчанию прав в приложении не дают
+    private static final Set<String> SKIPPED_ROLES = Set.of("offline_access", "uma_authorization", "default-roles-sauda-realm");
+
+    private final int maxRoleSets;
+    private final Map<List<?>, Collection<GrantedAuthority>> byRoles = new ConcurrentHashMap<>();
+    private final Map<String, GrantedAuthority> authorities = new ConcurrentHashMap<>();
+
+    public RoleAuthorities(int maxRoleSets) {
+        this.maxRoleSets = maxRoleSets;
+    }
+
+    /**
+     * Права по списку ролей
+     * @param roles роли из токена; null — ролей нет
+     * @return неизменяемый список прав
+     */
+    public Collection<GrantedAuthority> of(List<?> roles) {
+        if (roles == null || roles.isEmpty()) {
+            return List.of();
+        }
+        Collection<GrantedAuthority> cached = byRoles.get(roles);
+        if (cached != null) {
+            return cached;
+        }
+        List<GrantedAuthority> built = new ArrayList<>(roles.size());
+        for (Object role : roles) {
+            if (role != null && !SKIPPED_ROLES.contains(role.toString())) {
+                built.add(authorities.computeIfAbsent(role.toString(), name -> new SimpleGrantedAuthority(ROLE_PREFIX + name)));
+            }
+        }
+        Collection<GrantedAuthority> result = Collections.unmodifiableList(built);
+        if (byRoles.size() < maxRoleSets) {
+            byRoles.putIfAbsent(Collections.unmodifiableList(new ArrayList<>(roles)), result);
+        }
+        return result;
+    }
+}
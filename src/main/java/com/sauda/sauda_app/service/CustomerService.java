@@ -1,5 +1,8 @@
 package com.sauda.sauda_app.service;
 
+import com.sauda.sauda_app.dto.CursorSlice;
+import com.sauda.sauda_app.dto.CustomerCounts;
+import com.sauda.sauda_app.dto.CustomerSummary;
 import com.sauda.sauda_app.entity.Customer;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -55,6 +58,22 @@ public interface CustomerService {
      */
     Optional<Customer> getCustomerByDiscountCard(String discountCard);
 
+    /**
+     * Найти клиента магазина по дисконтной карте для чека (через кэш поиска клиентов)
+     * @param tenantId идентификатор магазина
+     * @param discountCard номер дисконтной карты
+     * @return клиент или пустой Optional, если карта не выдана
+     */
+    Optional<CustomerSummary> findCustomerByDiscountCard(Long tenantId, String discountCard);
+
+    /**
+     * Найти клиента магазина по номеру телефона для чека (через кэш поиска клиентов)
+     * @param tenantId идентификатор магазина
+     * @param phone номер телефона
+     * @return клиент или пустой Optional
+     */
+    Optional<CustomerSummary> findCustomerByPhone(Long tenantId, String phone);
+
     /**
      * Получить всех клиентов с пагинацией
      * @param pageable параметры пагинации
@@ -70,6 +89,16 @@ public interface CustomerService {
      */
     Page<Customer> getCustomersByTenant(Long tenantId, Pageable pageable);
 
+    /**
+     * Получить клиентов магазина keyset-пагинацией, без запроса количества
+     * @param tenantId идентификатор магазина
+     * @param sort поле сортировки: id или name (ФИО)
+     * @param cursor курсор предыдущей страницы или null для первой
+     * @param size размер страницы
+     * @return страница клиентов (без продаж) с курсором следующей страницы
+     */
+    CursorSlice<CustomerSummary> getCustomerSlice(Long tenantId, String sort, String cursor, int size);
+
     /**
      * Поиск клиентов по имени
      * @param name имя клиента (частичное совпадение)
@@ -201,7 +230,8 @@ public interface CustomerService {
     Customer removeDiscountCard(Long customerId);
 
     /**
-     * Получить статистику клиентов по магазину
+     * Получить статистику клиентов по магазину из счетчиков в памяти (без запросов к базе,
+     * кроме первого обращения к магазину)
      * @param tenantId идентификатор магазина
      * @return статистика клиентов
      */
@@ -215,6 +245,8 @@ public interface CustomerService {
         private long customersWithDiscountCards;
         private long customersWithoutDiscountCards;
         private double discountCardPercentage;
+        private long newCustomersToday;
+        private long activeCustomersLast30Days;
 
         // Конструкторы, геттеры и сеттеры
         public CustomerStats() {}
@@ -226,6 +258,14 @@ public interface CustomerService {
             this.discountCardPercentage = totalCustomers > 0 ? (double) customersWithDiscountCards / totalCustomers * 100 : 0;
         }
 
+        public static CustomerStats of(CustomerCounts counts) {
+            CustomerStats stats = new CustomerStats(counts.total(), counts.withDiscountCard(),
+                    counts.total() - counts.withDiscountCard());
+            stats.setNewCustomersToday(counts.newToday());
+            stats.setActiveCustomersLast30Days(counts.activeLast30Days());
+            return stats;
+        }
+
         public long getTotalCustomers() { return totalCustomers; }
         public void setTotalCustomers(long totalCustomers) { this.totalCustomers = totalCustomers; }
 
@@ -237,5 +277,11 @@ public interface CustomerService {
 
         public double getDiscountCardPercentage() { return discountCardPercentage; }
         public void setDiscountCardPercentage(double discountCardPercentage) { this.discountCardPercentage = discountCardPercentage; }
+
+        public long getNewCustomersToday() { return newCustomersToday; }
+        public void setNewCustomersToday(long newCustomersToday) { this.newCustomersToday = newCustomersToday; }
+
+        public long getActiveCustomersLast30Days() { return activeCustomersLast30Days; }
+        public void setActiveCustomersLast30Days(long activeCustomersLast30Days) { this.activeCustomersLast30Days = activeCustomersLast30Days; }
     }
 }
@@ -0,0 +1,44 @@
+package com.sauda.sauda_app.service;
+
+import com.sauda.sauda_app.entity.DiscountRule;
+import com.sauda.sauda_app.entity.SalesItem;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Сервис для работы с правилами скидок и расчета скидок чека
+ */
+public interface DiscountService {
+
+    /**
+     * Рассчитать скидки по правилам магазина и записать их в позиции чека.
+     * Позиция получает наибольшую из скидок своих правил или ручную скидку, если она больше;
+     * скидка уровня чека распределяется по позициям
+     * @param tenantId идентификатор магазина
+     * @param items позиции чека с ценой и количеством
+     * @param date дата продажи
+     */
+    void applyDiscounts(Long tenantId, List<SalesItem> items, LocalDate date);
+
+    /**
+     * Создать или изменить правило скидки
+     * @param rule правило
+     * @return сохраненное правило
+     */
+    DiscountRule saveRule(DiscountRule rule);
+
+    /**
+     * Удалить правило скидки
+     * @param tenantId идентификатор магазина
+     * @param ruleId идентификатор правила
+     */
+    void deleteRule(Long tenantId, Long ruleId);
+
+    /**
+     * Получить правила скидок магазина
+     * @param tenantId идентификатор магазина
+     * @return правила по дате начала
+     */
+    List<DiscountRule> getRules(Long tenantId);
+}
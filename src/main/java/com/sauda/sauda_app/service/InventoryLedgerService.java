@@ -0,0 +1,46 @@
+package com.sauda.sauda_app.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Сервис журнала движений остатков: восстановление остатков на момент времени,
+ * контрольные точки и месячные секции журнала
+ */
+public interface InventoryLedgerService {
+
+    /**
+     * Восстановить остатки склада на момент по журналу движений
+     * @param tenantId идентификатор магазина
+     * @param warehouseId идентификатор склада
+     * @param at момент
+     * @return ненулевые остатки по товарам
+     */
+    Map<Long, BigDecimal> getStockAt(Long tenantId, Long warehouseId, LocalDateTime at);
+
+    /**
+     * Записать контрольную точку остатков магазина на момент.
+     * Точка выводится из предыдущей и журнала, поэтому момент должен отставать от текущего
+     * настолько, чтобы все транзакции с движениями до него уже завершились
+     * @param tenantId идентификатор магазина
+     * @param takenAt момент точки
+     * @return идентификатор точки
+     */
+    Long createCheckpoint(Long tenantId, LocalDateTime takenAt);
+
+    /**
+     * Создать секции журнала на месяц и следующие месяцы, если их еще нет
+     * @param month первый месяц
+     * @param monthsAhead сколько месяцев вперед создать дополнительно
+     */
+    void ensurePartitions(LocalDate month, int monthsAhead);
+
+    /**
+     * Получить магазины, для которых ведутся контрольные точки
+     * @return идентификаторы магазинов
+     */
+    List<Long> getTenantIds();
+}
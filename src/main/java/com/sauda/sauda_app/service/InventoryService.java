@@ -1,5 +1,9 @@
 package com.sauda.sauda_app.service;
 
+import com.sauda.sauda_app.dto.CursorSlice;
+import com.sauda.sauda_app.dto.InventoryLevel;
+import com.sauda.sauda_app.dto.InventoryMovement;
+import com.sauda.sauda_app.dto.TransferDto;
 import com.sauda.sauda_app.entity.Inventory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -45,6 +49,15 @@ public interface InventoryService {
      */
     Page<Inventory> getInventoryByTenant(Long tenantId, Pageable pageable);
 
+    /**
+     * Получить остатки магазина keyset-пагинацией по идентификатору, без запроса количества
+     * @param tenantId идентификатор магазина
+     * @param cursor курсор предыдущей страницы или null для первой
+     * @param size размер страницы
+     * @return страница остатков (без товара и склада) с курсором следующей страницы
+     */
+    CursorSlice<InventoryLevel> getInventorySlice(Long tenantId, String cursor, int size);
+
     /**
      * Получить остатки товара по магазину
      * @param tenantId идентификатор магазина
@@ -133,6 +146,14 @@ public interface InventoryService {
      */
     List<Inventory> transferInventory(Long productId, Long fromWarehouseId, Long toWarehouseId, BigDecimal quantity);
 
+    /**
+     * Переместить список товаров между складами одной операцией.
+     * Все позиции перемещаются целиком или не перемещаются вовсе
+     * @param transferDto DTO перемещения со складами и позициями
+     * @return количество перемещенных позиций (после объединения повторяющихся товаров)
+     */
+    int transferInventoryBatch(TransferDto transferDto);
+
     /**
      * Проверить достаточность остатка для продажи
      * @param productId идентификатор товара
@@ -178,10 +199,11 @@ public interface InventoryService {
     void deleteInventory(Long productId, Long warehouseId);
 
     /**
-     * Получить историю изменений остатков товара
+     * Получить историю изменений остатков товара из журнала движений, новые первыми
+     * @param tenantId идентификатор магазина
      * @param productId идентификатор товара
      * @param pageable параметры пагинации
-     * @return страница истории изменений
+     * @return страница движений
      */
-    Page<Inventory> getInventoryHistory(Long productId, Pageable pageable);
+    Page<InventoryMovement> getInventoryHistory(Long tenantId, Long productId, Pageable pageable);
 }
@@ -0,0 +1,48 @@
+package com.sauda.sauda_app.service;
+
+import com.sauda.sauda_app.dto.InventoryValuationReport;
+import com.sauda.sauda_app.dto.ValuationDiscrepancy;
+
+import java.util.List;
+
+/**
+ * Сервис стоимости остатков по действующим ценам прайс-листа.
+ * Стоимость поддерживается по приращениям при каждом изменении остатка; сверка с полным
+ * пересчетом находит и исправляет расхождения (например, после смены цены или начала нового
+ * ценового интервала, которые сами по себе остатки не меняют)
+ */
+public interface InventoryValuationService {
+
+    /**
+     * Получить стоимость остатков магазина по складам (поддерживаемую по приращениям)
+     * @param tenantId идентификатор магазина
+     * @return стоимость по складам и общая
+     */
+    InventoryValuationReport getValuation(Long tenantId);
+
+    /**
+     * Сравнить поддерживаемую стоимость складов магазина с полным пересчетом
+     * @param tenantId идентификатор магазина
+     * @return склады с расхождением (пустой список — стоимость согласована)
+     */
+    List<ValuationDiscrepancy> checkConsistency(Long tenantId);
+
+    /**
+     * Сверить стоимость складов магазина и заменить ее полным пересчетом
+     * @param tenantId идентификатор магазина
+     * @return расхождения, найденные перед исправлением
+     */
+    List<ValuationDiscrepancy> reconcile(Long tenantId);
+
+    /**
+     * Перенести накопленный журнал изменений стоимости в итоги складов
+     * @return число затронутых складов
+     */
+    int foldPendingDeltas();
+
+    /**
+     * Получить магазины, стоимость которых нужно сверять
+     * @return идентификаторы магазинов
+     */
+    List<Long> getTenantIds();
+}
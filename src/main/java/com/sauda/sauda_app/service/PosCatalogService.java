@@ -0,0 +1,30 @@
+package com.sauda.sauda_app.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Сервис выгрузки каталога магазина на кассы
+ * Каталог (категории, единицы, товары, цены и остатки) отдается одним потоком NDJSON:
+ * первая строка — заголовок с версией, далее по строке на запись, последняя — итог с числом записей.
+ * В изменениях после версии первыми идут удаленные строки (type=deleted)
+ */
+public interface PosCatalogService {
+
+    /**
+     * Получить текущую версию каталога магазина
+     * @param tenantId идентификатор магазина
+     * @return версия каталога (растет при любом изменении его строк)
+     */
+    long getCatalogVersion(Long tenantId);
+
+    /**
+     * Записать каталог магазина в поток
+     * @param tenantId идентификатор магазина
+     * @param sinceVersion версия, уже загруженная кассой (0 — полная выгрузка)
+     * @param out поток ответа
+     * @return версия, по которую выгружены изменения
+     * @throws IOException ошибка записи в поток
+     */
+    long writeCatalog(Long tenantId, long sinceVersion, OutputStream out) throws IOException;
+}
@@ -0,0 +1,21 @@
+package com.sauda.sauda_app.service;
+
+import com.sauda.sauda_app.dto.PosReceiptBatchDto;
+import com.sauda.sauda_app.dto.ReceiptSyncResult;
+
+import java.util.List;
+
+/**
+ * Сервис синхронизации касс, работавших без связи с сервером
+ * Касса накапливает чеки с ключами идемпотентности и выгружает их пакетами после восстановления связи;
+ * пакет можно повторять сколько угодно раз — каждый чек записывается и списывает остатки один раз
+ */
+public interface PosSyncService {
+
+    /**
+     * Выгрузить пакет чеков кассы
+     * @param batch пакет чеков с кассой и складом списания
+     * @return результат по каждому чеку, в порядке чеков пакета
+     */
+    List<ReceiptSyncResult> syncReceipts(PosReceiptBatchDto batch);
+}
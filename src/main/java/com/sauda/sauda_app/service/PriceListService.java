@@ -0,0 +1,61 @@
+package com.sauda.sauda_app.service;
+
+import com.sauda.sauda_app.entity.PriceList;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Сервис для работы с прайс-листом и определения действующих цен
+ * Цена на дату — цена интервала с самой поздней датой начала среди действующих в этот день
+ */
+public interface PriceListService {
+
+    /**
+     * Получить действующую цену товара на дату
+     * @param tenantId идентификатор магазина
+     * @param productId идентификатор товара
+     * @param date дата
+     * @return цена или пустой Optional, если на эту дату цены нет
+     */
+    Optional<BigDecimal> getEffectivePrice(Long tenantId, Long productId, LocalDate date);
+
+    /**
+     * Получить действующие цены набора товаров (например, корзины чека) на дату
+     * @param tenantId идентификатор магазина
+     * @param productIds идентификаторы товаров
+     * @param date дата
+     * @return цены по товарам; товаров без цены в результате нет
+     */
+    Map<Long, BigDecimal> getEffectivePrices(Long tenantId, Collection<Long> productIds, LocalDate date);
+
+    /**
+     * Установить цену товара с даты (заменяет цену с той же датой начала)
+     * @param tenantId идентификатор магазина
+     * @param productId идентификатор товара
+     * @param price цена
+     * @param startDate первый день действия
+     * @param endDate последний день действия включительно или null
+     * @return сохраненная строка прайс-листа
+     */
+    PriceList setPrice(Long tenantId, Long productId, BigDecimal price, LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Удалить строку прайс-листа
+     * @param tenantId идентификатор магазина
+     * @param priceId идентификатор строки
+     */
+    void deletePrice(Long tenantId, Long priceId);
+
+    /**
+     * Получить историю цен товара
+     * @param tenantId идентификатор магазина
+     * @param productId идентификатор товара
+     * @return строки прайс-листа по дате начала
+     */
+    List<PriceList> getPriceHistory(Long tenantId, Long productId);
+}
@@ -0,0 +1,21 @@
+package com.sauda.sauda_app.service;
+
+import com.sauda.sauda_app.dto.ProductDto;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Сервис истории товара: восстановление товара на момент времени
+ */
+public interface ProductHistoryService {
+
+    /**
+     * Восстановить товар на момент: последний полный снимок до момента и изменения после него
+     * @param tenantId идентификатор магазина
+     * @param productId идентификатор товара
+     * @param at момент
+     * @return товар в состоянии на момент или пусто, если история товара до момента не записана
+     */
+    Optional<ProductDto> getProductAt(Long tenantId, Long productId, LocalDateTime at);
+}
@@ -1,6 +1,8 @@
 package com.sauda.sauda_app.service;
 
+import com.sauda.sauda_app.dto.CursorSlice;
 import com.sauda.sauda_app.dto.ProductDto;
+import com.sauda.sauda_app.dto.ProductSnapshot;
 import com.sauda.sauda_app.entity.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -36,11 +38,13 @@ public interface ProductService {
     Optional<Product> getProductById(Long id);
 
     /**
-     * Получить товар по штрих-коду
+     * Получить снимок товара по штрих-коду в рамках магазина (сканирование на кассе).
+     * Удаленные товары не возвращаются
+     * @param tenantId идентификатор магазина
      * @param barcode штрих-код товара
-     * @return товар или пустой Optional
+     * @return снимок товара или пустой Optional
      */
-    Optional<Product> getProductByBarcode(String barcode);
+    Optional<ProductSnapshot> getProductSnapshotByBarcode(Long tenantId, String barcode);
 
     /**
      * Получить товар по артикулу (SKU)
@@ -64,6 +68,26 @@ public interface ProductService {
      */
     Page<Product> getProductsByTenant(Long tenantId, Pageable pageable);
 
+    /**
+     * Получить товары магазина keyset-пагинацией, без запроса количества
+     * @param tenantId идентификатор магазина
+     * @param sort поле сортировки: id или name
+     * @param cursor курсор предыдущей страницы или null для первой
+     * @param size размер страницы
+     * @return страница товаров с курсором следующей страницы
+     */
+    CursorSlice<ProductDto> getProductSlice(Long tenantId, String sort, String cursor, int size);
+
+    /**
+     * Получить активные товары категории keyset-пагинацией
+     * @param tenantId идентификатор магазина
+     * @param categoryId идентификатор категории
+     * @param cursor курсор предыдущей страницы или null для первой
+     * @param size размер страницы
+     * @return страница товаров с курсором следующей страницы
+     */
+    CursorSlice<ProductDto> getActiveProductSliceByCategory(Long tenantId, Long categoryId, String cursor, int size);
+
     /**
      * Получить активные товары
      * @param pageable параметры пагинации
@@ -96,6 +120,15 @@ public interface ProductService {
      */
     Page<Product> searchProductsByNameInTenant(Long tenantId, String name, Pageable pageable);
 
+    /**
+     * Поиск активных товаров магазина по названию, штрих-коду и артикулу с ранжированием
+     * @param tenantId идентификатор магазина
+     * @param searchTerm строка поиска (все слова должны найтись)
+     * @param pageable параметры пагинации
+     * @return страница найденных товаров по убыванию релевантности
+     */
+    Page<ProductSnapshot> searchCatalog(Long tenantId, String searchTerm, Pageable pageable);
+
     /**
      * Получить товары по категории
      * @param categoryId идентификатор категории
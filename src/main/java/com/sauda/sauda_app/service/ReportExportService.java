@@ -0,0 +1,27 @@
+package com.sauda.sauda_app.service;
+
+import com.sauda.sauda_app.dto.ExportDataset;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+
+/**
+ * Сервис выгрузки чеков, позиций и оплат за период в CSV.
+ * Первая строка — заголовок с именами колонок, далее по строке на запись в порядке даты чека
+ */
+public interface ReportExportService {
+
+    /**
+     * Записать набор данных за период в поток
+     * @param tenantId идентификатор магазина
+     * @param dataset набор данных
+     * @param from первый день периода
+     * @param to последний день периода включительно
+     * @param out поток ответа (не закрывается)
+     * @return число выгруженных строк без заголовка
+     * @throws IOException ошибка записи в поток
+     */
+    long writeCsv(Long tenantId, ExportDataset dataset, LocalDate from, LocalDate to, OutputStream out)
+            throws IOException;
+}
@@ -0,0 +1,18 @@
+package com.sauda.sauda_app.service;
+
+import com.sauda.sauda_app.dto.SaleDto;
+import com.sauda.sauda_app.entity.Sale;
+
+/**
+ * Сервис для проведения продаж
+ * Записывает чек, его позиции и оплаты и списывает остатки в одной транзакции
+ */
+public interface SaleService {
+
+    /**
+     * Провести продажу
+     * @param saleDto DTO чека с позициями и оплатами
+     * @return проведенный чек с позициями и оплатами
+     */
+    Sale createSale(SaleDto saleDto);
+}
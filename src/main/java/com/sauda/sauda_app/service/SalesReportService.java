@@ -0,0 +1,22 @@
+package com.sauda.sauda_app.service;
+
+import com.sauda.sauda_app.dto.SalesReport;
+
+import java.time.LocalDate;
+
+/**
+ * Сервис отчетов о продажах по дневным итогам
+ */
+public interface SalesReportService {
+
+    /**
+     * Получить отчет о продажах за период
+     * @param tenantId идентификатор магазина
+     * @param from первый день (null — первое число текущего месяца)
+     * @param to последний день включительно (null — сегодня)
+     * @param posTerminalId касса или null — все кассы
+     * @param employeeId сотрудник или null — все сотрудники
+     * @return выручка, число чеков и средний чек за период и по дням
+     */
+    SalesReport getSalesReport(Long tenantId, LocalDate from, LocalDate to, Long posTerminalId, Long employeeId);
+}
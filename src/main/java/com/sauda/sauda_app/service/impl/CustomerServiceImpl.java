@@ -1,28 +1,50 @@
 package com.sauda.sauda_app.service.impl;
 
+import com.sauda.sauda_app.cache.CustomerLookupCache;
+import com.sauda.sauda_app.cache.CustomerStatsCounters;
+import com.sauda.sauda_app.dto.CursorSlice;
+import com.sauda.sauda_app.dto.CustomerSummary;
+import com.sauda.sauda_app.dto.KeysetCursor;
 import com.sauda.sauda_app.entity.Customer;
+import com.sauda.sauda_app.event.CustomerChangedEvent;
 import com.sauda.sauda_app.repository.CustomerRepository;
 import com.sauda.sauda_app.service.CustomerService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 
 /**
- * Реализация сервиса для управления клиентами
+ * Реализация сервиса для управления клиентами.
+ * Поиск клиента на кассе идет через {@link CustomerLookupCache}, статистика читается из
+ * {@link CustomerStatsCounters}; изменения клиента публикуют {@link CustomerChangedEvent},
+ * по которому после фиксации сбрасываются записи кэша и обновляются счетчики
  */
 @Service
 @Transactional
 public class CustomerServiceImpl implements CustomerService {
 
     private final CustomerRepository customerRepository;
+    private final CustomerLookupCache customerLookupCache;
+    private final CustomerStatsCounters customerStatsCounters;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public CustomerServiceImpl(CustomerRepository customerRepository) {
+    public CustomerServiceImpl(CustomerRepository customerRepository,
+                               CustomerLookupCache customerLookupCache,
+                               CustomerStatsCounters customerStatsCounters,
+                               ApplicationEventPublisher eventPublisher) {
         this.customerRepository = customerRepository;
+        this.customerLookupCache = customerLookupCache;
+        this.customerStatsCounters = customerStatsCounters;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -44,7 +66,11 @@ public class CustomerServiceImpl implements CustomerService {
             throw new IllegalArgumentException("Клиент с дисконтной картой " + customer.getDiscountCard() + " уже существует");
         }
         
-        return customerRepository.save(customer);
+        Customer saved = customerRepository.save(customer);
+        // Сбрасывает закэшированный пустой результат поиска по новой карте и телефону
+        publishChanged(saved.getTenantId(), Arrays.asList(saved.getDiscountCard()), Arrays.asList(saved.getPhone()),
+                1, cardDelta(null, saved.getDiscountCard()));
+        return saved;
     }
 
     @Override
@@ -72,13 +98,19 @@ public class CustomerServiceImpl implements CustomerService {
             throw new IllegalArgumentException("Клиент с дисконтной картой " + customer.getDiscountCard() + " уже существует");
         }
         
+        String previousDiscountCard = existingCustomer.getDiscountCard();
+        String previousPhone = existingCustomer.getPhone();
+
         // Обновление данных клиента
         existingCustomer.setFullName(customer.getFullName());
         existingCustomer.setPhone(customer.getPhone());
         existingCustomer.setEmail(customer.getEmail());
         existingCustomer.setDiscountCard(customer.getDiscountCard());
         
-        return customerRepository.save(existingCustomer);
+        Customer saved = customerRepository.save(existingCustomer);
+        publishChanged(saved.getTenantId(), Arrays.asList(previousDiscountCard, saved.getDiscountCard()),
+                Arrays.asList(previousPhone, saved.getPhone()), 0, cardDelta(previousDiscountCard, saved.getDiscountCard()));
+        return saved;
     }
 
     @Override
@@ -105,6 +137,24 @@ public class CustomerServiceImpl implements CustomerService {
         return customerRepository.findByDiscountCard(discountCard);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<CustomerSummary> findCustomerByDiscountCard(Long tenantId, String discountCard) {
+        if (tenantId == null || discountCard == null || discountCard.isBlank()) {
+            throw new IllegalArgumentException("ID магазина и номер дисконтной карты обязательны");
+        }
+        return customerLookupCache.findByDiscountCard(tenantId, discountCard);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<CustomerSummary> findCustomerByPhone(Long tenantId, String phone) {
+        if (tenantId == null || phone == null || phone.isBlank()) {
+            throw new IllegalArgumentException("ID магазина и номер телефона обязательны");
+        }
+        return customerLookupCache.findByPhone(tenantId, phone);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Page<Customer> getAllCustomers(Pageable pageable) {
@@ -117,6 +167,24 @@ public class CustomerServiceImpl implements CustomerService {
         return customerRepository.findByTenantId(tenantId.longValue(), pageable);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorSlice<CustomerSummary> getCustomerSlice(Long tenantId, String sort, String cursor, int size) {
+        int pageSize = CursorSlice.clampSize(size);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        Limit limit = Limit.of(pageSize + 1);
+
+        if ("name".equals(sort)) {
+            List<CustomerSummary> rows = customerRepository.findByTenantIdAfterName(tenantId, after.name(), after.id(), limit);
+            return CursorSlice.of(rows, pageSize, c -> KeysetCursor.afterName(c.fullName(), c.id()));
+        }
+        if (sort == null || "id".equals(sort)) {
+            List<CustomerSummary> rows = customerRepository.findByTenantIdAfterId(tenantId, after.id(), limit);
+            return CursorSlice.of(rows, pageSize, c -> KeysetCursor.afterId(c.id()));
+        }
+        throw new IllegalArgumentException("Неизвестное поле сортировки: " + sort);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Page<Customer> searchCustomersByName(String name, Pageable pageable) {
@@ -159,6 +227,8 @@ public class CustomerServiceImpl implements CustomerService {
                 .orElseThrow(() -> new IllegalArgumentException("Клиент с ID " + id + " не найден"));
         
         customerRepository.delete(customer);
+        publishChanged(customer.getTenantId(), Arrays.asList(customer.getDiscountCard()), Arrays.asList(customer.getPhone()),
+                -1, cardDelta(customer.getDiscountCard(), null));
     }
 
     @Override
@@ -218,8 +288,13 @@ public class CustomerServiceImpl implements CustomerService {
             throw new IllegalArgumentException("Дисконтная карта " + discountCard + " уже используется");
         }
         
+        String previousDiscountCard = customer.getDiscountCard();
         customer.setDiscountCard(discountCard);
-        return customerRepository.save(customer);
+        Customer saved = customerRepository.save(customer);
+        // Сбрасывает и прежнюю карту, и закэшированный пустой результат по новой
+        publishChanged(saved.getTenantId(), Arrays.asList(previousDiscountCard, discountCard), List.of(),
+                0, cardDelta(previousDiscountCard, discountCard));
+        return saved;
     }
 
     @Override
@@ -227,18 +302,36 @@ public class CustomerServiceImpl implements CustomerService {
         Customer customer = customerRepository.findById(customerId)
                 .orElseThrow(() -> new IllegalArgumentException("Клиент с ID " + customerId + " не найден"));
         
+        String previousDiscountCard = customer.getDiscountCard();
         customer.setDiscountCard(null);
-        return customerRepository.save(customer);
+        Customer saved = customerRepository.save(customer);
+        publishChanged(saved.getTenantId(), Arrays.asList(previousDiscountCard), List.of(),
+                0, cardDelta(previousDiscountCard, null));
+        return saved;
     }
 
     @Override
     @Transactional(readOnly = true)
     public CustomerStats getCustomerStatsByTenant(Long tenantId) {
-        long totalCustomers = getCustomerCountByTenant(tenantId);
-        long customersWithDiscountCards = getCustomerCountWithDiscountCardsByTenant(tenantId);
-        long customersWithoutDiscountCards = totalCustomers - customersWithDiscountCards;
-        
-        return new CustomerStats(totalCustomers, customersWithDiscountCards, customersWithoutDiscountCards);
+        return CustomerStats.of(customerStatsCounters.get(tenantId));
+    }
+
+    /**
+     * Сообщить об изменении клиента; записи кэша поиска сбрасываются после фиксации
+     * @param tenantId идентификатор магазина
+     * @param discountCards затронутые дисконтные карты (прежние и новые)
+     * @param phones затронутые номера телефонов (прежние и новые)
+     * @param customersDelta изменение числа клиентов
+     * @param discountCardsDelta изменение числа клиентов с картой
+     */
+    private void publishChanged(Long tenantId, List<String> discountCards, List<String> phones,
+                                int customersDelta, int discountCardsDelta) {
+        eventPublisher.publishEvent(new CustomerChangedEvent(tenantId, discountCards, phones,
+                customersDelta, discountCardsDelta));
+    }
+
+    private static int cardDelta(String before, String after) {
+        return (after != null ? 1 : 0) - (before != null ? 1 : 0);
     }
 
     /**
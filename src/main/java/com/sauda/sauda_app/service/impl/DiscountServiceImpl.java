@@ -0,0 +1,111 @@
+package com.sauda.sauda_app.service.impl;
+
+import com.sauda.sauda_app.cache.DiscountRuleIndex;
+import com.sauda.sauda_app.entity.DiscountRule;
+import com.sauda.sauda_app.entity.SalesItem;
+import com.sauda.sauda_app.event.DiscountRulesChangedEvent;
+import com.sauda.sauda_app.repository.DiscountRuleRepository;
+import com.sauda.sauda_app.service.DiscountService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Реализация сервиса скидок.
+ * Скидки чека считаются по правилам, скомпилированным в {@link DiscountRuleIndex}; изменения правил
+ * публикуют {@link DiscountRulesChangedEvent}, по которому набор правил магазина сбрасывается
+ */
+@Service
+@Transactional
+public class DiscountServiceImpl implements DiscountService {
+
+    private static final Set<String> DISCOUNT_TYPES = Set.of("percentage", "fixed");
+    private static final Set<String> TARGETS = Set.of("product", "category", "total");
+
+    private final DiscountRuleRepository discountRuleRepository;
+    private final DiscountRuleIndex discountRuleIndex;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    public DiscountServiceImpl(DiscountRuleRepository discountRuleRepository,
+                               DiscountRuleIndex discountRuleIndex,
+                               ApplicationEventPublisher eventPublisher) {
+        this.discountRuleRepository = discountRuleRepository;
+        this.discountRuleIndex = discountRuleIndex;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void applyDiscounts(Long tenantId, List<SalesItem> items, LocalDate date) {
+        discountRuleIndex.apply(tenantId, items, date);
+    }
+
+    @Override
+    public DiscountRule saveRule(DiscountRule rule) {
+        validateRule(rule);
+        if (rule.getId() != null) {
+            discountRuleRepository.findById(rule.getId())
+                    .filter(existing -> existing.getTenantId().equals(rule.getTenantId()))
+                    .orElseThrow(() -> new IllegalArgumentException("Правило скидки с ID " + rule.getId() + " не найдено"));
+        }
+        rule.setDiscountType(rule.getDiscountType().toLowerCase());
+        rule.setAppliesTo(rule.getAppliesTo().toLowerCase());
+
+        DiscountRule saved = discountRuleRepository.save(rule);
+        eventPublisher.publishEvent(new DiscountRulesChangedEvent(rule.getTenantId()));
+        return saved;
+    }
+
+    @Override
+    public void deleteRule(Long tenantId, Long ruleId) {
+        DiscountRule rule = discountRuleRepository.findById(ruleId)
+                .filter(existing -> existing.getTenantId().equals(tenantId))
+                .orElseThrow(() -> new IllegalArgumentException("Правило скидки с ID " + ruleId + " не найдено"));
+        discountRuleRepository.delete(rule);
+        eventPublisher.publishEvent(new DiscountRulesChangedEvent(tenantId));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<DiscountRule> getRules(Long tenantId) {
+        return discountRuleRepository.findByTenantIdOrderByStartDate(tenantId);
+    }
+
+    /**
+     * Валидация правила скидки
+     * @param rule правило
+     */
+    private void validateRule(DiscountRule rule) {
+        if (rule == null || rule.getTenantId() == null) {
+            throw new IllegalArgumentException("ID магазина обязателен");
+        }
+        if (rule.getDiscountType() == null || !DISCOUNT_TYPES.contains(rule.getDiscountType().toLowerCase())) {
+            throw new IllegalArgumentException("Неизвестный тип скидки: " + rule.getDiscountType());
+        }
+        if (rule.getAppliesTo() == null || !TARGETS.contains(rule.getAppliesTo().toLowerCase())) {
+            throw new IllegalArgumentException("Неизвестный уровень скидки: " + rule.getAppliesTo());
+        }
+        if (!"total".equalsIgnoreCase(rule.getAppliesTo()) && rule.getTargetId() == null) {
+            throw new IllegalArgumentException("Для скидки на товар или категорию нужен ID цели");
+        }
+        if (rule.getValue() == null || rule.getValue().compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Размер скидки должен быть положительным");
+        }
+        if ("percentage".equalsIgnoreCase(rule.getDiscountType()) && rule.getValue().compareTo(BigDecimal.valueOf(100)) > 0) {
+            throw new IllegalArgumentException("Процент скидки не может быть больше 100");
+        }
+        if (rule.getStartDate() == null) {
+            throw new IllegalArgumentException("Дата начала действия скидки обязательна");
+        }
+        if (rule.getEndDate() != null && rule.getEndDate().isBefore(rule.getStartDate())) {
+            throw new IllegalArgumentException("Дата окончания действия скидки раньше даты начала");
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.sauda.sauda_app.service.impl;
+
+import com.sauda.sauda_app.dto.InventoryCheckpoint;
+import com.sauda.sauda_app.repository.InventoryMovementJdbcRepository;
+import com.sauda.sauda_app.service.InventoryLedgerService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Реализация сервиса журнала движений остатков
+ */
+@Service
+@Transactional
+public class InventoryLedgerServiceImpl implements InventoryLedgerService {
+
+    private final InventoryMovementJdbcRepository movementRepository;
+
+    @Autowired
+    public InventoryLedgerServiceImpl(InventoryMovementJdbcRepository movementRepository) {
+        this.movementRepository = movementRepository;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, BigDecimal> getStockAt(Long tenantId, Long warehouseId, LocalDateTime at) {
+        validateIds(tenantId, warehouseId);
+        if (at == null) {
+            throw new IllegalArgumentException("Момент времени обязателен");
+        }
+        InventoryCheckpoint checkpoint = movementRepository.findLatestCheckpoint(tenantId, at).orElse(null);
+        return movementRepository.stockAt(tenantId, warehouseId, checkpoint, at);
+    }
+
+    @Override
+    public Long createCheckpoint(Long tenantId, LocalDateTime takenAt) {
+        if (tenantId == null) {
+            throw new IllegalArgumentException("ID магазина обязателен");
+        }
+        if (takenAt == null) {
+            throw new IllegalArgumentException("Момент времени обязателен");
+        }
+        // Точка в будущем не учла бы движения, записанные до наступления ее момента
+        if (takenAt.isAfter(LocalDateTime.now())) {
+            throw new IllegalArgumentException("Момент контрольной точки не может быть в будущем");
+        }
+        InventoryCheckpoint previous = movementRepository.findLatestCheckpoint(tenantId, takenAt).orElse(null);
+        return movementRepository.insertCheckpoint(tenantId, previous, takenAt);
+    }
+
+    @Override
+    public void ensurePartitions(LocalDate month, int monthsAhead) {
+        for (int i = 0; i <= monthsAhead; i++) {
+            movementRepository.createPartition(month.plusMonths(i));
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Long> getTenantIds() {
+        return movementRepository.findTenantIds();
+    }
+
+    private void validateIds(Long tenantId, Long warehouseId) {
+        if (tenantId == null) {
+            throw new IllegalArgumentException("ID магазина обязателен");
+        }
+        if (warehouseId == null) {
+            throw new IllegalArgumentException("ID склада обязателен");
+        }
+    }
+}
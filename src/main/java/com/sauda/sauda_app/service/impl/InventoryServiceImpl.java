@@ -1,13 +1,26 @@
 package com.sauda.sauda_app.service.impl;
 
+import com.sauda.sauda_app.dto.CursorSlice;
+import com.sauda.sauda_app.dto.InventoryLevel;
+import com.sauda.sauda_app.dto.InventoryMovement;
+import com.sauda.sauda_app.dto.KeysetCursor;
+import com.sauda.sauda_app.dto.MovementType;
+import com.sauda.sauda_app.dto.TransferDto;
+import com.sauda.sauda_app.dto.TransferItemDto;
 import com.sauda.sauda_app.entity.Inventory;
-import com.sauda.sauda_app.entity.Product;
-import com.sauda.sauda_app.entity.Warehouse;
+import com.sauda.sauda_app.event.StockChangedEvent;
+import com.sauda.sauda_app.repository.InventoryJdbcRepository;
+import com.sauda.sauda_app.repository.InventoryMovementJdbcRepository;
 import com.sauda.sauda_app.repository.InventoryRepository;
+import com.sauda.sauda_app.repository.InventoryValuationJdbcRepository;
 import com.sauda.sauda_app.service.InventoryService;
+import com.sauda.sauda_app.tenant.TenantContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -15,20 +28,35 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 
 /**
- * Реализация сервиса для управления остатками товаров на складах
+ * Реализация сервиса для управления остатками товаров на складах.
+ * Каждое изменение остатка пишет движение в журнал inventory_movements в той же транзакции
  */
 @Service
 @Transactional
 public class InventoryServiceImpl implements InventoryService {
 
     private final InventoryRepository inventoryRepository;
+    private final InventoryJdbcRepository inventoryJdbcRepository;
+    private final InventoryValuationJdbcRepository valuationRepository;
+    private final InventoryMovementJdbcRepository movementRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public InventoryServiceImpl(InventoryRepository inventoryRepository) {
+    public InventoryServiceImpl(InventoryRepository inventoryRepository,
+                                InventoryJdbcRepository inventoryJdbcRepository,
+                                InventoryValuationJdbcRepository valuationRepository,
+                                InventoryMovementJdbcRepository movementRepository,
+                                ApplicationEventPublisher eventPublisher) {
         this.inventoryRepository = inventoryRepository;
+        this.inventoryJdbcRepository = inventoryJdbcRepository;
+        this.valuationRepository = valuationRepository;
+        this.movementRepository = movementRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -55,6 +83,15 @@ public class InventoryServiceImpl implements InventoryService {
         return inventoryRepository.findByTenantId(tenantId, pageable);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorSlice<InventoryLevel> getInventorySlice(Long tenantId, String cursor, int size) {
+        int pageSize = CursorSlice.clampSize(size);
+        List<InventoryLevel> rows = inventoryRepository.findByTenantIdAfterId(
+                tenantId, KeysetCursor.decode(cursor).id(), Limit.of(pageSize + 1));
+        return CursorSlice.of(rows, pageSize, i -> KeysetCursor.afterId(i.getId()));
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<Inventory> getInventoryByTenantAndProduct(Long tenantId, Long productId) {
@@ -65,64 +102,66 @@ public class InventoryServiceImpl implements InventoryService {
     public Inventory updateInventory(Long productId, Long warehouseId, BigDecimal quantity) {
         validateQuantity(quantity);
         
-        Optional<Inventory> existingInventory = inventoryRepository.findByProductIdAndWarehouseId(productId, warehouseId);
-        
-        if (existingInventory.isPresent()) {
-            Inventory inventory = existingInventory.get();
-            inventory.setQuantity(quantity);
-            inventory.setLastUpdated(LocalDateTime.now());
-            return inventoryRepository.save(inventory);
-        } else {
+        Long tenantId = warehouseTenantId(warehouseId);
+        // Прежний остаток нужен для записи изменения в журнал; строка остается заблокированной до конца транзакции
+        Optional<BigDecimal> previous = inventoryRepository.lockQuantity(tenantId, productId, warehouseId);
+        if (previous.isEmpty()) {
             // Создаем новую запись об остатке
-            return createInventory(productId, warehouseId, quantity);
+            Inventory inventory = insertInventory(tenantId, productId, warehouseId, quantity);
+            record(inventory, MovementType.ADJUSTMENT, quantity, "Установка остатка", null);
+            return inventory;
         }
+        Inventory inventory = inventoryRepository.setQuantity(tenantId, productId, warehouseId, quantity)
+                .map(this::toInventory)
+                .orElseThrow(() -> new IllegalArgumentException("Товар не найден на складе"));
+        record(inventory, MovementType.ADJUSTMENT, quantity.subtract(previous.get()), "Установка остатка", null);
+        return inventory;
     }
 
     @Override
     public Inventory increaseInventory(Long productId, Long warehouseId, BigDecimal quantity) {
         validateQuantity(quantity);
         
-        Optional<Inventory> existingInventory = inventoryRepository.findByProductIdAndWarehouseId(productId, warehouseId);
-        
-        if (existingInventory.isPresent()) {
-            Inventory inventory = existingInventory.get();
-            BigDecimal newQuantity = inventory.getQuantity().add(quantity);
-            inventory.setQuantity(newQuantity);
-            inventory.setLastUpdated(LocalDateTime.now());
-            return inventoryRepository.save(inventory);
-        } else {
-            // Создаем новую запись об остатке
-            return createInventory(productId, warehouseId, quantity);
-        }
+        Inventory inventory = increase(warehouseTenantId(warehouseId), productId, warehouseId, quantity);
+        record(inventory, MovementType.RECEIPT, quantity, "Поступление", null);
+        return inventory;
     }
 
     @Override
     public Inventory decreaseInventory(Long productId, Long warehouseId, BigDecimal quantity) {
         validateQuantity(quantity);
         
-        Optional<Inventory> existingInventory = inventoryRepository.findByProductIdAndWarehouseId(productId, warehouseId);
+        Long tenantId = warehouseTenantId(warehouseId);
+        Optional<InventoryLevel> level = inventoryRepository.decreaseTenantQuantity(tenantId, productId, warehouseId, quantity);
+        if (level.isPresent()) {
+            Inventory inventory = toInventory(level.get());
+            record(inventory, MovementType.ADJUSTMENT, quantity.negate(), "Списание", null);
+            return inventory;
+        }
         
+        // Списание не прошло: дочитываем строку только для текста ошибки
+        Optional<Inventory> existingInventory = inventoryRepository.findByTenantIdAndProductIdAndWarehouseId(
+                tenantId, productId, warehouseId);
         if (existingInventory.isPresent()) {
-            Inventory inventory = existingInventory.get();
-            BigDecimal newQuantity = inventory.getQuantity().subtract(quantity);
-            
-            if (newQuantity.compareTo(BigDecimal.ZERO) < 0) {
-                throw new IllegalArgumentException("Недостаточно товара на складе. Доступно: " + 
-                    inventory.getQuantity() + ", требуется: " + quantity);
-            }
-            
-            inventory.setQuantity(newQuantity);
-            inventory.setLastUpdated(LocalDateTime.now());
-            return inventoryRepository.save(inventory);
-        } else {
-            throw new IllegalArgumentException("Товар не найден на складе");
+            throw new IllegalArgumentException("Недостаточно товара на складе. Доступно: " + 
+                existingInventory.get().getQuantity() + ", требуется: " + quantity);
         }
+        throw new IllegalArgumentException("Товар не найден на складе");
     }
 
     @Override
     public Inventory createInventory(Long productId, Long warehouseId, BigDecimal quantity) {
         validateQuantity(quantity);
         
+        Inventory inventory = insertInventory(warehouseTenantId(warehouseId), productId, warehouseId, quantity);
+        record(inventory, MovementType.ADJUSTMENT, quantity, "Создание остатка", null);
+        return inventory;
+    }
+
+    /**
+     * Создать запись об остатке без записи в журнал (движение пишет вызывающий метод)
+     */
+    private Inventory insertInventory(Long tenantId, Long productId, Long warehouseId, BigDecimal quantity) {
         // Проверяем, не существует ли уже запись об остатке
         if (inventoryRepository.existsByProductIdAndWarehouseId(productId, warehouseId)) {
             throw new IllegalArgumentException("Запись об остатке товара на складе уже существует");
@@ -134,13 +173,24 @@ public class InventoryServiceImpl implements InventoryService {
         inventory.setQuantity(quantity);
         inventory.setLastUpdated(LocalDateTime.now());
         
-        // Устанавливаем tenant_id (можно получить из товара или склада)
-        // Здесь предполагаем, что tenant_id передается отдельно или получается из контекста
-        inventory.setTenantId(1L); // TODO: Получать из контекста безопасности
+        inventory.setTenantId(tenantId);
         
         return inventoryRepository.save(inventory);
     }
 
+    /**
+     * Магазин остатка — магазин склада; склад другого магазина в запросе недоступен
+     */
+    private Long warehouseTenantId(Long warehouseId) {
+        Long tenantId = inventoryJdbcRepository.findWarehouseTenantId(warehouseId)
+                .orElseThrow(() -> new IllegalArgumentException("Склад с ID " + warehouseId + " не найден"));
+        Optional<Long> requestTenantId = TenantContext.current();
+        if (requestTenantId.isPresent() && !requestTenantId.get().equals(tenantId)) {
+            throw new IllegalArgumentException("Склад с ID " + warehouseId + " не найден");
+        }
+        return tenantId;
+    }
+
     @Override
     @Transactional(readOnly = true)
     public BigDecimal getTotalInventoryByProduct(Long tenantId, Long productId) {
@@ -172,16 +222,24 @@ public class InventoryServiceImpl implements InventoryService {
     public List<Inventory> transferInventory(Long productId, Long fromWarehouseId, Long toWarehouseId, BigDecimal quantity) {
         validateQuantity(quantity);
         
-        // Проверяем достаточность остатка на складе-источнике
-        if (!checkInventoryAvailability(productId, fromWarehouseId, quantity)) {
-            throw new IllegalArgumentException("Недостаточно товара на складе-источнике для перемещения");
+        // Оба склада — одного магазина, как в transferInventoryBatch: оприходование создает
+        // недостающие строки остатка, поэтому склад-назначения проверяется до записи
+        Long tenantId = warehouseTenantId(fromWarehouseId);
+        if (!tenantId.equals(warehouseTenantId(toWarehouseId))) {
+            throw new IllegalArgumentException("Склад с ID " + toWarehouseId + " не найден");
         }
-        
-        // Уменьшаем остаток на складе-источнике
-        Inventory fromInventory = decreaseInventory(productId, fromWarehouseId, quantity);
+
+        // Условное списание само проверяет достаточность остатка на складе-источнике
+        Inventory fromInventory = inventoryRepository.decreaseTenantQuantity(tenantId, productId, fromWarehouseId, quantity)
+                .map(this::toInventory)
+                .orElseThrow(() -> new IllegalArgumentException("Недостаточно товара на складе-источнике для перемещения"));
         
         // Увеличиваем остаток на складе-назначения
-        Inventory toInventory = increaseInventory(productId, toWarehouseId, quantity);
+        Inventory toInventory = increase(tenantId, productId, toWarehouseId, quantity);
+
+        writeMovements(List.of(
+                movement(fromInventory.getTenantId(), productId, fromWarehouseId, quantity.negate(), toWarehouseId),
+                movement(toInventory.getTenantId(), productId, toWarehouseId, quantity, fromWarehouseId)));
         
         List<Inventory> result = new ArrayList<>();
         result.add(fromInventory);
@@ -190,6 +248,62 @@ public class InventoryServiceImpl implements InventoryService {
         return result;
     }
 
+    @Override
+    public int transferInventoryBatch(TransferDto transferDto) {
+        validateTransferDto(transferDto);
+        // Блокировка и списание ограничены магазином перемещения, а оприходование создает
+        // недостающие строки остатка, поэтому склад-назначения проверяется до записи
+        Long toTenantId = inventoryJdbcRepository.findWarehouseTenantId(transferDto.getToWarehouseId()).orElse(null);
+        if (!transferDto.getTenantId().equals(toTenantId)) {
+            throw new IllegalArgumentException("Склад с ID " + transferDto.getToWarehouseId() + " не найден");
+        }
+
+        // Объединяем повторяющиеся товары; TreeMap дает тот же порядок, в котором блокируются строки
+        Map<Long, BigDecimal> lines = new TreeMap<>();
+        for (TransferItemDto item : transferDto.getItems()) {
+            if (item == null || item.getProductId() == null) {
+                throw new IllegalArgumentException("ID товара обязателен");
+            }
+            validateQuantity(item.getQuantity());
+            lines.merge(item.getProductId(), item.getQuantity(), BigDecimal::add);
+        }
+
+        Long[] productIds = lines.keySet().toArray(new Long[0]);
+        BigDecimal[] quantities = lines.values().toArray(new BigDecimal[0]);
+
+        // Три запроса на любое число позиций: блокировка, списание, оприходование
+        Map<Long, BigDecimal> available = inventoryJdbcRepository.lockForTransfer(
+                transferDto.getTenantId(), transferDto.getFromWarehouseId(), transferDto.getToWarehouseId(), productIds);
+
+        List<Long> shortages = new ArrayList<>();
+        for (Map.Entry<Long, BigDecimal> line : lines.entrySet()) {
+            BigDecimal onHand = available.get(line.getKey());
+            if (onHand == null || onHand.compareTo(line.getValue()) < 0) {
+                shortages.add(line.getKey());
+            }
+        }
+        if (!shortages.isEmpty()) {
+            throw new IllegalArgumentException("Недостаточно товара на складе-источнике для перемещения. Товары: " +
+                    shortages);
+        }
+
+        inventoryJdbcRepository.decreaseAll(transferDto.getTenantId(), transferDto.getFromWarehouseId(),
+                productIds, quantities);
+        inventoryJdbcRepository.increaseAll(transferDto.getTenantId(), transferDto.getToWarehouseId(),
+                productIds, quantities);
+
+        List<InventoryMovement> movements = new ArrayList<>(lines.size() * 2);
+        for (Map.Entry<Long, BigDecimal> line : lines.entrySet()) {
+            movements.add(movement(transferDto.getTenantId(), line.getKey(), transferDto.getFromWarehouseId(),
+                    line.getValue().negate(), transferDto.getToWarehouseId()));
+            movements.add(movement(transferDto.getTenantId(), line.getKey(), transferDto.getToWarehouseId(),
+                    line.getValue(), transferDto.getFromWarehouseId()));
+        }
+        writeMovements(movements);
+
+        return lines.size();
+    }
+
     @Override
     @Transactional(readOnly = true)
     public boolean checkInventoryAvailability(Long productId, Long warehouseId, BigDecimal requiredQuantity) {
@@ -205,17 +319,14 @@ public class InventoryServiceImpl implements InventoryService {
     @Override
     @Transactional(readOnly = true)
     public BigDecimal getTotalInventoryValue(Long warehouseId) {
-        // TODO: Реализовать расчет стоимости на основе цен товаров
-        // Пока возвращаем 0, так как нужна интеграция с PriceList
-        return BigDecimal.ZERO;
+        return valuationRepository.trackedValue(warehouseId);
     }
 
     @Override
     @Transactional(readOnly = true)
     public BigDecimal getTotalInventoryValueByTenant(Long tenantId) {
-        // TODO: Реализовать расчет стоимости на основе цен товаров
-        // Пока возвращаем 0, так как нужна интеграция с PriceList
-        return BigDecimal.ZERO;
+        return valuationRepository.trackedValues(tenantId).values().stream()
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
     }
 
     @Override
@@ -236,6 +347,8 @@ public class InventoryServiceImpl implements InventoryService {
         
         if (inventory.isPresent()) {
             inventoryRepository.delete(inventory.get());
+            record(inventory.get(), MovementType.ADJUSTMENT, inventory.get().getQuantity().negate(),
+                    "Удаление остатка", null);
         } else {
             throw new IllegalArgumentException("Запись об остатке товара на складе не найдена");
         }
@@ -243,16 +356,90 @@ public class InventoryServiceImpl implements InventoryService {
 
     @Override
     @Transactional(readOnly = true)
-    public Page<Inventory> getInventoryHistory(Long productId, Pageable pageable) {
-        // TODO: Реализовать получение истории изменений остатков
-        // Пока возвращаем текущие остатки товара
-        return inventoryRepository.findByProductId(productId, pageable);
+    public Page<InventoryMovement> getInventoryHistory(Long tenantId, Long productId, Pageable pageable) {
+        List<InventoryMovement> movements = movementRepository.findByTenantIdAndProductId(
+                tenantId, productId, pageable.getPageSize(), pageable.getOffset());
+        return PageableExecutionUtils.getPage(movements, pageable,
+                () -> movementRepository.countByTenantIdAndProductId(tenantId, productId));
     }
 
     /**
-     * Валидация количества товара
-     * @param quantity количество товара
+     * Увеличить остаток, создав запись при ее отсутствии, без записи в журнал
      */
+    private Inventory increase(Long tenantId, Long productId, Long warehouseId, BigDecimal quantity) {
+        return toInventory(inventoryRepository.upsertQuantity(tenantId, productId, warehouseId, quantity));
+    }
+
+    /**
+     * Записать движение остатка в журнал; нулевое изменение не пишется
+     * @param inventory остаток после изменения
+     * @param type вид движения
+     * @param quantity изменение остатка со знаком
+     * @param reason причина
+     * @param referenceId документ-основание или null
+     */
+    private void record(Inventory inventory, MovementType type, BigDecimal quantity, String reason, Long referenceId) {
+        if (quantity.signum() != 0) {
+            writeMovements(List.of(InventoryMovement.of(inventory.getTenantId(), inventory.getProductId(),
+                    inventory.getWarehouseId(), type, quantity, reason, referenceId)));
+        }
+    }
+
+    /**
+     * Записать движения в журнал и сообщить об изменении остатков (подписчики получат его после фиксации)
+     */
+    private void writeMovements(List<InventoryMovement> movements) {
+        movementRepository.insertAll(movements);
+        eventPublisher.publishEvent(new StockChangedEvent(movements));
+    }
+
+    /**
+     * Движение перемещения; ссылкой служит склад-корреспондент
+     */
+    private static InventoryMovement movement(Long tenantId, Long productId, Long warehouseId, BigDecimal quantity,
+                                              Long counterpartWarehouseId) {
+        return InventoryMovement.of(tenantId, productId, warehouseId, MovementType.TRANSFER, quantity,
+                "Перемещение", counterpartWarehouseId);
+    }
+
+    /**
+     * Преобразовать результат атомарного изменения в сущность остатка
+     * @param level строка inventory после изменения
+     * @return остаток (не управляется persistence context)
+     */
+    private Inventory toInventory(InventoryLevel level) {
+        Inventory inventory = new Inventory();
+        inventory.setId(level.getId());
+        inventory.setTenantId(level.getTenantId());
+        inventory.setProductId(level.getProductId());
+        inventory.setWarehouseId(level.getWarehouseId());
+        inventory.setQuantity(level.getQuantity());
+        inventory.setLastUpdated(LocalDateTime.now());
+        return inventory;
+    }
+
+    /**
+     * Валидация DTO перемещения
+     * @param transferDto DTO перемещения
+     */
+    private void validateTransferDto(TransferDto transferDto) {
+        if (transferDto == null) {
+            throw new IllegalArgumentException("DTO перемещения не может быть null");
+        }
+        if (transferDto.getTenantId() == null) {
+            throw new IllegalArgumentException("ID магазина обязателен");
+        }
+        if (transferDto.getFromWarehouseId() == null || transferDto.getToWarehouseId() == null) {
+            throw new IllegalArgumentException("Склад-источник и склад-назначения обязательны");
+        }
+        if (transferDto.getFromWarehouseId().equals(transferDto.getToWarehouseId())) {
+            throw new IllegalArgumentException("Склад-источник и склад-назначения должны различаться");
+        }
+        if (transferDto.getItems() == null || transferDto.getItems().isEmpty()) {
+            throw new IllegalArgumentException("Перемещение должно содержать хотя бы одну позицию");
+        }
+    }
+
     private void validateQuantity(BigDecimal quantity) {
         if (quantity == null) {
             throw new IllegalArgumentException("Количество товара не может быть null");
@@ -0,0 +1,79 @@
+package com.sauda.sauda_app.service.impl;
+
+import com.sauda.sauda_app.dto.InventoryValuationReport;
+import com.sauda.sauda_app.dto.ValuationDiscrepancy;
+import com.sauda.sauda_app.repository.InventoryValuationJdbcRepository;
+import com.sauda.sauda_app.service.InventoryValuationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Реализация сервиса стоимости остатков
+ */
+@Service
+@Transactional
+public class InventoryValuationServiceImpl implements InventoryValuationService {
+
+    private final InventoryValuationJdbcRepository valuationRepository;
+
+    @Autowired
+    public InventoryValuationServiceImpl(InventoryValuationJdbcRepository valuationRepository) {
+        this.valuationRepository = valuationRepository;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public InventoryValuationReport getValuation(Long tenantId) {
+        return InventoryValuationReport.of(tenantId, valuationRepository.trackedValues(tenantId));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ValuationDiscrepancy> checkConsistency(Long tenantId) {
+        return compare(valuationRepository.trackedValues(tenantId),
+                valuationRepository.actualValues(tenantId, LocalDate.now()));
+    }
+
+    @Override
+    public List<ValuationDiscrepancy> reconcile(Long tenantId) {
+        List<ValuationDiscrepancy> discrepancies = checkConsistency(tenantId);
+        valuationRepository.reconcile(tenantId);
+        return discrepancies;
+    }
+
+    @Override
+    public int foldPendingDeltas() {
+        return valuationRepository.foldDeltas();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Long> getTenantIds() {
+        return valuationRepository.findTenantIds();
+    }
+
+    /**
+     * Сравнить стоимость по складам; склад, которого нет в одной из сторон, считается с нулем
+     */
+    static List<ValuationDiscrepancy> compare(Map<Long, BigDecimal> tracked, Map<Long, BigDecimal> actual) {
+        TreeSet<Long> warehouses = new TreeSet<>(tracked.keySet());
+        warehouses.addAll(actual.keySet());
+        List<ValuationDiscrepancy> discrepancies = new ArrayList<>();
+        for (Long warehouseId : warehouses) {
+            BigDecimal trackedValue = tracked.getOrDefault(warehouseId, BigDecimal.ZERO);
+            BigDecimal actualValue = actual.getOrDefault(warehouseId, BigDecimal.ZERO);
+            if (trackedValue.compareTo(actualValue) != 0) {
+                discrepancies.add(new ValuationDiscrepancy(warehouseId, trackedValue, actualValue));
+            }
+        }
+        return discrepancies;
+    }
+}
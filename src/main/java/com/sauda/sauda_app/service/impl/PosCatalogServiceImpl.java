@@ -0,0 +1,139 @@
+package com.sauda.sauda_app.service.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sauda.sauda_app.repository.CatalogJdbcRepository;
+import com.sauda.sauda_app.service.PosCatalogService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Реализация выгрузки каталога на кассы.
+ * Все таблицы читаются в одной транзакции REPEATABLE READ, поэтому выгрузка согласована:
+ * версия в заголовке соответствует ровно тем строкам, что попали в поток
+ */
+@Service
+@Transactional(readOnly = true)
+public class PosCatalogServiceImpl implements PosCatalogService {
+
+    private final CatalogJdbcRepository catalogJdbcRepository;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public PosCatalogServiceImpl(CatalogJdbcRepository catalogJdbcRepository, ObjectMapper objectMapper) {
+        this.catalogJdbcRepository = catalogJdbcRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public long getCatalogVersion(Long tenantId) {
+        return catalogJdbcRepository.currentVersion(tenantId);
+    }
+
+    @Override
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public long writeCatalog(Long tenantId, long sinceVersion, OutputStream out) throws IOException {
+        if (sinceVersion < 0) {
+            throw new IllegalArgumentException("Версия каталога не может быть отрицательной");
+        }
+        long version = catalogJdbcRepository.currentVersion(tenantId);
+
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            // Поток ответа закрывает контейнер, генератор его только дописывает
+            json.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+            json.setRootValueSeparator(new SerializedString("\n"));
+            StreamedRows rows = new StreamedRows(json::writeStartObject, json::writeEndObject);
+            json.writeStartObject();
+            json.writeStringField("type", "catalog");
+            json.writeNumberField("tenantId", tenantId);
+            json.writeNumberField("version", version);
+            json.writeNumberField("since", sinceVersion);
+            json.writeBooleanField("full", sinceVersion == 0);
+            json.writeEndObject();
+
+            // Касса ничего не пропустила: отдаем только заголовок и итог
+            if (version > sinceVersion) {
+                // Удаления идут первыми: строка, созданная заново после удаления, придет ниже и останется
+                if (sinceVersion > 0) {
+                    catalogJdbcRepository.streamTombstones(tenantId, sinceVersion, rows.row(rs -> {
+                        json.writeStringField("type", "deleted");
+                        String entity = rs.getString("entity");
+                        json.writeStringField("entity", entity);
+                        if ("stock".equals(entity)) {
+                            json.writeNumberField("productId", rs.getLong("entity_id"));
+                            json.writeNumberField("warehouseId", rs.getLong("warehouse_id"));
+                        } else {
+                            json.writeNumberField("id", rs.getLong("entity_id"));
+                        }
+                    }));
+                }
+                catalogJdbcRepository.streamCategories(tenantId, sinceVersion, rows.row(rs -> {
+                    json.writeStringField("type", "category");
+                    json.writeNumberField("id", rs.getLong("id"));
+                    json.writeStringField("name", rs.getString("name"));
+                    writeNullableLong(json, "parentId", rs, "parent_id");
+                }));
+                catalogJdbcRepository.streamUnits(tenantId, sinceVersion, rows.row(rs -> {
+                    json.writeStringField("type", "unit");
+                    json.writeNumberField("id", rs.getLong("id"));
+                    json.writeStringField("name", rs.getString("name"));
+                    json.writeStringField("symbol", rs.getString("symbol"));
+                }));
+                catalogJdbcRepository.streamProducts(tenantId, sinceVersion, rows.row(rs -> {
+                    json.writeStringField("type", "product");
+                    json.writeNumberField("id", rs.getLong("id"));
+                    json.writeStringField("name", rs.getString("name"));
+                    json.writeStringField("barcode", rs.getString("barcode"));
+                    json.writeStringField("sku", rs.getString("sku"));
+                    writeNullableLong(json, "categoryId", rs, "category_id");
+                    writeNullableLong(json, "unitId", rs, "unit_id");
+                    json.writeBooleanField("active", rs.getBoolean("active"));
+                }));
+                catalogJdbcRepository.streamPrices(tenantId, sinceVersion, rows.row(rs -> {
+                    json.writeStringField("type", "price");
+                    json.writeNumberField("id", rs.getLong("id"));
+                    json.writeNumberField("productId", rs.getLong("product_id"));
+                    json.writeNumberField("price", rs.getBigDecimal("price"));
+                    Date startDate = rs.getDate("start_date");
+                    Date endDate = rs.getDate("end_date");
+                    json.writeStringField("startDate", startDate.toLocalDate().toString());
+                    json.writeStringField("endDate", endDate == null ? null : endDate.toLocalDate().toString());
+                }));
+                catalogJdbcRepository.streamStock(tenantId, sinceVersion, rows.row(rs -> {
+                    json.writeStringField("type", "stock");
+                    json.writeNumberField("productId", rs.getLong("product_id"));
+                    json.writeNumberField("warehouseId", rs.getLong("warehouse_id"));
+                    json.writeNumberField("quantity", rs.getBigDecimal("quantity"));
+                }));
+            }
+
+            // Итоговая строка позволяет кассе отличить полную выгрузку от оборванной
+            json.writeStartObject();
+            json.writeStringField("type", "end");
+            json.writeNumberField("version", version);
+            json.writeNumberField("rows", rows.count());
+            json.writeEndObject();
+            json.writeRaw('\n');
+        }
+        return version;
+    }
+
+    private static void writeNullableLong(JsonGenerator json, String field, ResultSet rs, String column)
+            throws SQLException, IOException {
+        long value = rs.getLong(column);
+        if (rs.wasNull()) {
+            json.writeNullField(field);
+        } else {
+            json.writeNumberField(field, value);
+        }
+    }
+}
@@ -0,0 +1,369 @@
+package com.sauda.sauda_app.service.impl;
+
+import com.sauda.sauda_app.dto.InventoryMovement;
+import com.sauda.sauda_app.dto.MovementType;
+import com.sauda.sauda_app.dto.OfflineReceiptDto;
+import com.sauda.sauda_app.dto.PaymentDto;
+import com.sauda.sauda_app.dto.PosReceiptBatchDto;
+import com.sauda.sauda_app.dto.ReceiptSyncResult;
+import com.sauda.sauda_app.dto.SaleItemDto;
+import com.sauda.sauda_app.entity.Payment;
+import com.sauda.sauda_app.entity.Sale;
+import com.sauda.sauda_app.entity.SalesItem;
+import com.sauda.sauda_app.event.SaleCompletedEvent;
+import com.sauda.sauda_app.event.StockChangedEvent;
+import com.sauda.sauda_app.repository.InventoryJdbcRepository;
+import com.sauda.sauda_app.repository.InventoryMovementJdbcRepository;
+import com.sauda.sauda_app.repository.PosReceiptJdbcRepository;
+import com.sauda.sauda_app.repository.SaleJdbcRepository;
+import com.sauda.sauda_app.service.PosSyncService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Реализация синхронизации касс, работавших без связи.
+ *
+ * Пакет записывается в одной транзакции за фиксированное число запросов независимо от числа чеков:
+ * ключи занимаются одним INSERT ... ON CONFLICT DO NOTHING, и дальше обрабатываются только чеки,
+ * чей ключ занят этим вызовом. Поэтому повторная выгрузка пакета (касса не получила ответ) стоит
+ * одной проверки индекса на чек. Заголовки, позиции и оплаты вставляются пакетами JDBC, остатки
+ * списываются одним запросом по сумме всех чеков, дневные итоги обновляются по строке на кассу,
+ * сотрудника и день.
+ *
+ * Товар по таким чекам уже продан, поэтому остаток списывается и при нехватке (уходит в минус),
+ * а цены и скидки берутся из чека кассы без пересчета по прайс-листу и правилам скидок.
+ */
+@Service
+@Transactional
+public class PosSyncServiceImpl implements PosSyncService {
+
+    private static final int MAX_KEY_LENGTH = 64;
+
+    /**
+     * Чек, прошедший проверку: позиция в пакете, ключ и чек с позициями и оплатами
+     */
+    private record PendingReceipt(int index, String idempotencyKey, Sale sale) {
+    }
+
+    private final PosReceiptJdbcRepository posReceiptRepository;
+    private final SaleJdbcRepository saleJdbcRepository;
+    private final InventoryJdbcRepository inventoryJdbcRepository;
+    private final InventoryMovementJdbcRepository movementRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int maxReceipts;
+
+    @Autowired
+    public PosSyncServiceImpl(PosReceiptJdbcRepository posReceiptRepository, SaleJdbcRepository saleJdbcRepository,
+                              InventoryJdbcRepository inventoryJdbcRepository,
+                              InventoryMovementJdbcRepository movementRepository,
+                              ApplicationEventPublisher eventPublisher,
+                              @Value("${sauda.pos-sync.max-receipts:1000}") int maxReceipts) {
+        this.posReceiptRepository = posReceiptRepository;
+        this.saleJdbcRepository = saleJdbcRepository;
+        this.inventoryJdbcRepository = inventoryJdbcRepository;
+        this.movementRepository = movementRepository;
+        this.eventPublisher = eventPublisher;
+        this.maxReceipts = maxReceipts;
+    }
+
+    @Override
+    public List<ReceiptSyncResult> syncReceipts(PosReceiptBatchDto batch) {
+        validateBatch(batch);
+        List<OfflineReceiptDto> receipts = batch.getReceipts();
+        ReceiptSyncResult[] results = new ReceiptSyncResult[receipts.size()];
+
+        // Проверка чеков не обращается к базе: отклоненные чеки ключ не занимают
+        List<PendingReceipt> pending = new ArrayList<>(receipts.size());
+        Set<String> keys = new HashSet<>();
+        for (int i = 0; i < receipts.size(); i++) {
+            OfflineReceiptDto receipt = receipts.get(i);
+            String key = receipt != null ? receipt.getIdempotencyKey() : null;
+            try {
+                validateKey(key);
+                if (keys.contains(key)) {
+                    results[i] = ReceiptSyncResult.duplicate(key);
+                    continue;
+                }
+                Sale sale = buildSale(batch, receipt);
+                keys.add(key);
+                pending.add(new PendingReceipt(i, key, sale));
+            } catch (IllegalArgumentException e) {
+                results[i] = ReceiptSyncResult.rejected(key, e.getMessage());
+            }
+        }
+
+        if (!pending.isEmpty()) {
+            Set<String> claimed = posReceiptRepository.claim(batch.getTenantId(), batch.getPosTerminalId(),
+                    pending.stream().map(PendingReceipt::idempotencyKey).toArray(String[]::new));
+            List<PendingReceipt> fresh = new ArrayList<>(claimed.size());
+            for (PendingReceipt receipt : pending) {
+                if (claimed.contains(receipt.idempotencyKey())) {
+                    fresh.add(receipt);
+                } else {
+                    results[receipt.index()] = ReceiptSyncResult.duplicate(receipt.idempotencyKey());
+                }
+            }
+            fresh = rejectUnknownProducts(batch.getTenantId(), fresh, results);
+            if (!fresh.isEmpty()) {
+                writeReceipts(batch, fresh, results);
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Отклонить чеки с товарами, которых нет в магазине, и освободить их ключи
+     * @return оставшиеся чеки
+     */
+    private List<PendingReceipt> rejectUnknownProducts(Long tenantId, List<PendingReceipt> receipts,
+                                                       ReceiptSyncResult[] results) {
+        if (receipts.isEmpty()) {
+            return receipts;
+        }
+        Set<Long> productIds = new TreeSet<>();
+        for (PendingReceipt receipt : receipts) {
+            receipt.sale().getItems().forEach(item -> productIds.add(item.getProductId()));
+        }
+        Set<Long> known = posReceiptRepository.findTenantProductIds(tenantId, productIds.toArray(Long[]::new));
+        if (known.containsAll(productIds)) {
+            return receipts;
+        }
+
+        List<PendingReceipt> accepted = new ArrayList<>(receipts.size());
+        List<String> released = new ArrayList<>();
+        for (PendingReceipt receipt : receipts) {
+            Long unknown = receipt.sale().getItems().stream()
+                    .map(SalesItem::getProductId)
+                    .filter(productId -> !known.contains(productId))
+                    .findFirst()
+                    .orElse(null);
+            if (unknown == null) {
+                accepted.add(receipt);
+            } else {
+                released.add(receipt.idempotencyKey());
+                results[receipt.index()] = ReceiptSyncResult.rejected(receipt.idempotencyKey(),
+                        "Товар не найден в магазине. Товар: " + unknown);
+            }
+        }
+        posReceiptRepository.release(tenantId, released.toArray(String[]::new));
+        return accepted;
+    }
+
+    /**
+     * Записать чеки, ключи которых заняты этим вызовом, и списать остатки
+     */
+    private void writeReceipts(PosReceiptBatchDto batch, List<PendingReceipt> receipts, ReceiptSyncResult[] results) {
+        Long tenantId = batch.getTenantId();
+        Long warehouseId = batch.getWarehouseId();
+        List<Sale> sales = receipts.stream().map(PendingReceipt::sale).toList();
+        saleJdbcRepository.insertSales(sales);
+
+        List<SalesItem> items = new ArrayList<>();
+        List<Payment> payments = new ArrayList<>();
+        List<InventoryMovement> movements = new ArrayList<>();
+        // Списание по товару за весь пакет; по возрастанию товара, как и при проведении чека на сервере
+        Map<Long, BigDecimal> writeOffs = new TreeMap<>();
+        for (Sale sale : sales) {
+            for (SalesItem item : sale.getItems()) {
+                item.setSaleId(sale.getId());
+                items.add(item);
+                writeOffs.merge(item.getProductId(), item.getQuantity(), BigDecimal::add);
+                movements.add(InventoryMovement.of(tenantId, item.getProductId(), warehouseId,
+                        MovementType.SALE, item.getQuantity().negate(), "Продажа без связи", sale.getId()));
+            }
+            for (Payment payment : sale.getPayments()) {
+                payment.setSaleId(sale.getId());
+                payments.add(payment);
+            }
+        }
+        saleJdbcRepository.insertItems(items);
+        saleJdbcRepository.insertPayments(payments);
+        inventoryJdbcRepository.increaseAll(tenantId, warehouseId,
+                writeOffs.keySet().toArray(Long[]::new),
+                writeOffs.values().stream().map(BigDecimal::negate).toArray(BigDecimal[]::new));
+        movementRepository.insertAll(movements);
+        saleJdbcRepository.addAllToDailyRollup(sales);
+        posReceiptRepository.attachSales(tenantId,
+                receipts.stream().map(PendingReceipt::idempotencyKey).toArray(String[]::new),
+                sales.stream().map(Sale::getId).toArray(Long[]::new));
+
+        for (PendingReceipt receipt : receipts) {
+            results[receipt.index()] = ReceiptSyncResult.accepted(receipt.idempotencyKey(), receipt.sale().getId());
+        }
+        eventPublisher.publishEvent(new StockChangedEvent(movements));
+        for (Sale sale : sales) {
+            eventPublisher.publishEvent(SaleCompletedEvent.of(sale, warehouseId));
+        }
+    }
+
+    /**
+     * Собрать чек из данных кассы: позиции с одинаковым товаром объединяются и упорядочиваются по товару
+     * @param batch пакет
+     * @param receipt чек кассы
+     * @return чек с позициями и оплатами, без идентификатора
+     */
+    private Sale buildSale(PosReceiptBatchDto batch, OfflineReceiptDto receipt) {
+        if (receipt.getSoldAt() == null) {
+            throw new IllegalArgumentException("Время продажи обязательно");
+        }
+        if (receipt.getItems() == null || receipt.getItems().isEmpty()) {
+            throw new IllegalArgumentException("Чек должен содержать хотя бы одну позицию");
+        }
+
+        Map<Long, SalesItem> merged = new TreeMap<>();
+        for (SaleItemDto itemDto : receipt.getItems()) {
+            validateItem(itemDto);
+            BigDecimal discount = itemDto.getDiscount() != null ? itemDto.getDiscount() : BigDecimal.ZERO;
+            SalesItem item = merged.get(itemDto.getProductId());
+            if (item == null) {
+                item = new SalesItem();
+                item.setTenantId(batch.getTenantId());
+                item.setProductId(itemDto.getProductId());
+                item.setQuantity(itemDto.getQuantity());
+                item.setPrice(itemDto.getPrice());
+                item.setDiscount(discount);
+                merged.put(itemDto.getProductId(), item);
+            } else {
+                if (item.getPrice().compareTo(itemDto.getPrice()) != 0) {
+                    throw new IllegalArgumentException("Разные цены для одного товара в чеке. Товар: " +
+                            itemDto.getProductId());
+                }
+                item.setQuantity(item.getQuantity().add(itemDto.getQuantity()));
+                item.setDiscount(item.getDiscount().add(discount));
+            }
+        }
+
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        for (SalesItem item : merged.values()) {
+            BigDecimal lineTotal = item.getPrice().multiply(item.getQuantity()).subtract(item.getDiscount());
+            if (lineTotal.compareTo(BigDecimal.ZERO) < 0) {
+                throw new IllegalArgumentException("Скидка превышает сумму позиции. Товар: " + item.getProductId());
+            }
+            totalAmount = totalAmount.add(lineTotal);
+        }
+
+        Sale sale = new Sale();
+        sale.setTenantId(batch.getTenantId());
+        sale.setSaleDate(receipt.getSoldAt());
+        sale.setEmployeeId(receipt.getEmployeeId());
+        sale.setCustomerId(receipt.getCustomerId());
+        sale.setPosTerminalId(batch.getPosTerminalId());
+        sale.setTotalAmount(totalAmount);
+        sale.setPaymentMethod(receipt.getPaymentMethod());
+        sale.setItems(new ArrayList<>(merged.values()));
+        sale.setPayments(buildPayments(receipt, sale));
+        return sale;
+    }
+
+    /**
+     * Оплаты чека. Без явных оплат чек оплачивается целиком способом из заголовка
+     */
+    private List<Payment> buildPayments(OfflineReceiptDto receipt, Sale sale) {
+        List<Payment> payments = new ArrayList<>();
+        if (receipt.getPayments() == null || receipt.getPayments().isEmpty()) {
+            payments.add(newPayment(sale, sale.getTotalAmount(), receipt.getPaymentMethod()));
+            return payments;
+        }
+
+        BigDecimal paid = BigDecimal.ZERO;
+        for (PaymentDto paymentDto : receipt.getPayments()) {
+            if (paymentDto.getAmount() == null || paymentDto.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+                throw new IllegalArgumentException("Сумма оплаты должна быть положительной");
+            }
+            paid = paid.add(paymentDto.getAmount());
+            payments.add(newPayment(sale, paymentDto.getAmount(), paymentDto.getPaymentType()));
+        }
+        if (paid.compareTo(sale.getTotalAmount()) < 0) {
+            throw new IllegalArgumentException("Сумма оплат меньше суммы чека. Оплачено: " + paid +
+                    ", к оплате: " + sale.getTotalAmount());
+        }
+        return payments;
+    }
+
+    private Payment newPayment(Sale sale, BigDecimal amount, String paymentType) {
+        Payment payment = new Payment();
+        payment.setTenantId(sale.getTenantId());
+        payment.setAmount(amount);
+        payment.setPaymentType(paymentType);
+        return payment;
+    }
+
+    /**
+     * Валидация пакета: касса и склад должны принадлежать магазину.
+     * Касса, выгрузившая пакет, отмечается как находящаяся на связи
+     * @param batch пакет чеков
+     */
+    private void validateBatch(PosReceiptBatchDto batch) {
+        if (batch == null) {
+            throw new IllegalArgumentException("Пакет чеков не может быть null");
+        }
+        if (batch.getTenantId() == null) {
+            throw new IllegalArgumentException("ID магазина обязателен");
+        }
+        if (batch.getPosTerminalId() == null) {
+            throw new IllegalArgumentException("ID кассы обязателен");
+        }
+        if (batch.getWarehouseId() == null) {
+            throw new IllegalArgumentException("ID склада обязателен");
+        }
+        if (batch.getReceipts() == null || batch.getReceipts().isEmpty()) {
+            throw new IllegalArgumentException("Пакет должен содержать хотя бы один чек");
+        }
+        if (batch.getReceipts().size() > maxReceipts) {
+            throw new IllegalArgumentException("В пакете не больше " + maxReceipts + " чеков, получено: " +
+                    batch.getReceipts().size());
+        }
+        Long warehouseTenantId = inventoryJdbcRepository.findWarehouseTenantId(batch.getWarehouseId())
+                .orElseThrow(() -> new IllegalArgumentException("Склад не найден: " + batch.getWarehouseId()));
+        if (!warehouseTenantId.equals(batch.getTenantId())) {
+            throw new IllegalArgumentException("Склад не найден: " + batch.getWarehouseId());
+        }
+        if (!posReceiptRepository.markTerminalOnline(batch.getTenantId(), batch.getPosTerminalId())) {
+            throw new IllegalArgumentException("Касса не найдена: " + batch.getPosTerminalId());
+        }
+    }
+
+    private void validateKey(String key) {
+        if (key == null || key.isBlank()) {
+            throw new IllegalArgumentException("Ключ идемпотентности обязателен");
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Ключ идемпотентности длиннее " + MAX_KEY_LENGTH + " символов");
+        }
+    }
+
+    /**
+     * Валидация позиции чека кассы: цена обязательна — касса продала по своей цене
+     * @param itemDto позиция чека
+     */
+    private void validateItem(SaleItemDto itemDto) {
+        if (itemDto == null || itemDto.getProductId() == null) {
+            throw new IllegalArgumentException("ID товара обязателен");
+        }
+        if (itemDto.getQuantity() == null || itemDto.getQuantity().compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Количество товара должно быть положительным");
+        }
+        if (itemDto.getPrice() == null) {
+            throw new IllegalArgumentException("Цена товара обязательна. Товар: " + itemDto.getProductId());
+        }
+        if (itemDto.getPrice().compareTo(BigDecimal.ZERO) < 0) {
+            throw new IllegalArgumentException("Цена товара не может быть отрицательной");
+        }
+        if (itemDto.getDiscount() != null && itemDto.getDiscount().compareTo(BigDecimal.ZERO) < 0) {
+            throw new IllegalArgumentException("Скидка не может быть отрицательной");
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.sauda.sauda_app.service.impl;
+
+import com.sauda.sauda_app.cache.ProductPriceIndex;
+import com.sauda.sauda_app.entity.PriceList;
+import com.sauda.sauda_app.event.PriceListChangedEvent;
+import com.sauda.sauda_app.repository.PriceListRepository;
+import com.sauda.sauda_app.service.PriceListService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Реализация сервиса прайс-листа.
+ * Действующие цены читаются из {@link ProductPriceIndex}; изменения прайс-листа
+ * публикуют {@link PriceListChangedEvent}, по которому индекс перестраивает шкалу измененного товара
+ */
+@Service
+@Transactional
+public class PriceListServiceImpl implements PriceListService {
+
+    private final PriceListRepository priceListRepository;
+    private final ProductPriceIndex priceIndex;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    public PriceListServiceImpl(PriceListRepository priceListRepository,
+                                ProductPriceIndex priceIndex,
+                                ApplicationEventPublisher eventPublisher) {
+        this.priceListRepository = priceListRepository;
+        this.priceIndex = priceIndex;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<BigDecimal> getEffectivePrice(Long tenantId, Long productId, LocalDate date) {
+        return Optional.ofNullable(priceIndex.priceAt(tenantId, productId, date));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, BigDecimal> getEffectivePrices(Long tenantId, Collection<Long> productIds, LocalDate date) {
+        return priceIndex.pricesAt(tenantId, productIds, date);
+    }
+
+    @Override
+    public PriceList setPrice(Long tenantId, Long productId, BigDecimal price, LocalDate startDate, LocalDate endDate) {
+        if (tenantId == null || productId == null) {
+            throw new IllegalArgumentException("ID магазина и товара обязательны");
+        }
+        if (price == null || price.compareTo(BigDecimal.ZERO) < 0) {
+            throw new IllegalArgumentException("Цена не может быть отрицательной");
+        }
+        if (startDate == null) {
+            throw new IllegalArgumentException("Дата начала действия цены обязательна");
+        }
+        if (endDate != null && endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("Дата окончания действия цены раньше даты начала");
+        }
+
+        PriceList priceList = priceListRepository.findByTenantIdAndProductIdAndStartDate(tenantId, productId, startDate)
+                .orElseGet(PriceList::new);
+        priceList.setTenantId(tenantId);
+        priceList.setProductId(productId);
+        priceList.setPrice(price);
+        priceList.setStartDate(startDate);
+        priceList.setEndDate(endDate);
+
+        PriceList saved = priceListRepository.save(priceList);
+        eventPublisher.publishEvent(new PriceListChangedEvent(tenantId, productId));
+        return saved;
+    }
+
+    @Override
+    public void deletePrice(Long tenantId, Long priceId) {
+        PriceList priceList = priceListRepository.findById(priceId)
+                .filter(existing -> existing.getTenantId().equals(tenantId))
+                .orElseThrow(() -> new IllegalArgumentException("Цена с ID " + priceId + " не найдена"));
+        priceListRepository.delete(priceList);
+        eventPublisher.publishEvent(new PriceListChangedEvent(tenantId, priceList.getProductId()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<PriceList> getPriceHistory(Long tenantId, Long productId) {
+        return priceListRepository.findByTenantIdAndProductIdOrderByStartDate(tenantId, productId);
+    }
+}
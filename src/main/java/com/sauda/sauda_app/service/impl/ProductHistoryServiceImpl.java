@@ -0,0 +1,82 @@
+package com.sauda.sauda_app.service.impl;
+
+import com.sauda.sauda_app.audit.ProductDiffCodec;
+import com.sauda.sauda_app.dto.ProductDto;
+import com.sauda.sauda_app.repository.AuditJdbcRepository;
+import com.sauda.sauda_app.service.ProductHistoryService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Реализация сервиса истории товара
+ */
+@Service
+@Transactional
+public class ProductHistoryServiceImpl implements ProductHistoryService {
+
+    private final AuditJdbcRepository auditRepository;
+
+    @Autowired
+    public ProductHistoryServiceImpl(AuditJdbcRepository auditRepository) {
+        this.auditRepository = auditRepository;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<ProductDto> getProductAt(Long tenantId, Long productId, LocalDateTime at) {
+        if (tenantId == null || productId == null) {
+            throw new IllegalArgumentException("ID магазина и товара обязательны");
+        }
+        if (at == null) {
+            throw new IllegalArgumentException("Момент времени обязателен");
+        }
+        Map<String, Object> fields = replay(auditRepository.findProductReplay(productId, at));
+        if (fields == null || !tenantId.equals(fields.get("tenantId"))) {
+            return Optional.empty();
+        }
+        return Optional.of(toDto(productId, fields));
+    }
+
+    /**
+     * Наложить изменения на снимок по порядку ревизий
+     * @param records записи истории, первая — снимок
+     * @return значения полей или null, если снимка нет
+     */
+    static Map<String, Object> replay(List<byte[]> records) {
+        Map<String, Object> fields = null;
+        for (byte[] record : records) {
+            ProductDiffCodec.ProductDiff diff = ProductDiffCodec.decode(record);
+            if (diff.snapshot()) {
+                fields = new HashMap<>(diff.fields());
+            } else if (fields != null) {
+                fields.putAll(diff.fields());
+            }
+        }
+        return fields;
+    }
+
+    private static ProductDto toDto(Long productId, Map<String, Object> fields) {
+        ProductDto dto = new ProductDto();
+        dto.setId(productId);
+        dto.setTenantId((Long) fields.get("tenantId"));
+        dto.setName((String) fields.get("name"));
+        dto.setBarcode((String) fields.get("barcode"));
+        dto.setSku((String) fields.get("sku"));
+        dto.setCategoryId((Long) fields.get("categoryId"));
+        dto.setUnitId((Long) fields.get("unitId"));
+        dto.setDescription((String) fields.get("description"));
+        dto.setIsActive((Boolean) fields.get("isActive"));
+        dto.setIsDeleted((Boolean) fields.get("isDeleted"));
+        dto.setPrice((BigDecimal) fields.get("price"));
+        dto.setQuantity((BigDecimal) fields.get("quantity"));
+        return dto;
+    }
+}
@@ -1,17 +1,26 @@
 package com.sauda.sauda_app.service.impl;
 
+import com.sauda.sauda_app.cache.ProductBarcodeIndex;
+import com.sauda.sauda_app.dto.CursorSlice;
+import com.sauda.sauda_app.dto.KeysetCursor;
 import com.sauda.sauda_app.dto.ProductDto;
+import com.sauda.sauda_app.dto.ProductSnapshot;
 import com.sauda.sauda_app.entity.Product;
 import com.sauda.sauda_app.entity.Category;
 import com.sauda.sauda_app.entity.Unit;
+import com.sauda.sauda_app.event.ProductChangedEvent;
 import com.sauda.sauda_app.repository.ProductRepository;
+import com.sauda.sauda_app.search.ProductSearchEngine;
 import com.sauda.sauda_app.service.ProductService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -22,10 +31,19 @@ import java.util.Optional;
 public class ProductServiceImpl implements ProductService {
 
     private final ProductRepository productRepository;
+    private final ProductBarcodeIndex barcodeIndex;
+    private final ProductSearchEngine searchEngine;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public ProductServiceImpl(ProductRepository productRepository) {
+    public ProductServiceImpl(ProductRepository productRepository,
+                              ProductBarcodeIndex barcodeIndex,
+                              ProductSearchEngine searchEngine,
+                              ApplicationEventPublisher eventPublisher) {
         this.productRepository = productRepository;
+        this.barcodeIndex = barcodeIndex;
+        this.searchEngine = searchEngine;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -67,7 +85,7 @@ public class ProductServiceImpl implements ProductService {
             product.setUnit(unit);
         }
 
-        return productRepository.save(product);
+        return publishChanged(productRepository.save(product), null);
     }
 
     @Override
@@ -92,6 +110,7 @@ public class ProductServiceImpl implements ProductService {
         }
 
         // Обновление данных товара
+        String previousBarcode = existingProduct.getBarcode();
         existingProduct.setName(productDto.getName());
         existingProduct.setBarcode(productDto.getBarcode());
         existingProduct.setSku(productDto.getSku());
@@ -115,7 +134,7 @@ public class ProductServiceImpl implements ProductService {
             existingProduct.setUnit(null);
         }
 
-        return productRepository.save(existingProduct);
+        return publishChanged(productRepository.save(existingProduct), previousBarcode);
     }
 
     @Override
@@ -126,8 +145,18 @@ public class ProductServiceImpl implements ProductService {
 
     @Override
     @Transactional(readOnly = true)
-    public Optional<Product> getProductByBarcode(String barcode) {
-        return productRepository.findByBarcode(barcode);
+    public Optional<ProductSnapshot> getProductSnapshotByBarcode(Long tenantId, String barcode) {
+        // Активные товары отдаются из таблицы магазина в памяти, остальные (и промахи) — из базы
+        Optional<ProductSnapshot> indexed = barcodeIndex.find(tenantId, barcode);
+        if (indexed.isPresent()) {
+            return indexed;
+        }
+
+        Optional<ProductSnapshot> snapshot = productRepository.findByBarcodeAndTenantId(barcode, tenantId)
+                .filter(p -> !Boolean.TRUE.equals(p.getIsDeleted()))
+                .map(ProductSnapshot::from);
+        snapshot.filter(s -> Boolean.TRUE.equals(s.isActive())).ifPresent(barcodeIndex::putIfAbsent);
+        return snapshot;
     }
 
     @Override
@@ -148,6 +177,34 @@ public class ProductServiceImpl implements ProductService {
         return productRepository.findByTenantId(tenantId, pageable);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorSlice<ProductDto> getProductSlice(Long tenantId, String sort, String cursor, int size) {
+        int pageSize = CursorSlice.clampSize(size);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        // Выбираем на одну строку больше: она показывает, есть ли следующая страница
+        Limit limit = Limit.of(pageSize + 1);
+
+        if ("name".equals(sort)) {
+            List<ProductDto> rows = productRepository.findByTenantIdAfterName(tenantId, after.name(), after.id(), limit);
+            return CursorSlice.of(rows, pageSize, p -> KeysetCursor.afterName(p.getName(), p.getId()));
+        }
+        if (sort == null || "id".equals(sort)) {
+            List<ProductDto> rows = productRepository.findByTenantIdAfterId(tenantId, after.id(), limit);
+            return CursorSlice.of(rows, pageSize, p -> KeysetCursor.afterId(p.getId()));
+        }
+        throw new IllegalArgumentException("Неизвестное поле сортировки: " + sort);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorSlice<ProductDto> getActiveProductSliceByCategory(Long tenantId, Long categoryId, String cursor, int size) {
+        int pageSize = CursorSlice.clampSize(size);
+        List<ProductDto> rows = productRepository.findActiveByTenantIdAndCategoryIdAfterId(
+                tenantId, categoryId, KeysetCursor.decode(cursor).id(), Limit.of(pageSize + 1));
+        return CursorSlice.of(rows, pageSize, p -> KeysetCursor.afterId(p.getId()));
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Page<Product> getActiveProducts(Pageable pageable) {
@@ -172,6 +229,12 @@ public class ProductServiceImpl implements ProductService {
         return productRepository.findByTenantIdAndNameContainingIgnoreCaseAndIsDeletedFalse(tenantId, name, pageable);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Page<ProductSnapshot> searchCatalog(Long tenantId, String searchTerm, Pageable pageable) {
+        return searchEngine.search(tenantId, searchTerm, pageable);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Page<Product> getProductsByCategory(Long categoryId, Pageable pageable) {
@@ -190,7 +253,7 @@ public class ProductServiceImpl implements ProductService {
                 .orElseThrow(() -> new IllegalArgumentException("Товар с ID " + id + " не найден"));
         
         product.setIsActive(true);
-        return productRepository.save(product);
+        return publishChanged(productRepository.save(product), null);
     }
 
     @Override
@@ -199,7 +262,7 @@ public class ProductServiceImpl implements ProductService {
                 .orElseThrow(() -> new IllegalArgumentException("Товар с ID " + id + " не найден"));
         
         product.setIsActive(false);
-        return productRepository.save(product);
+        return publishChanged(productRepository.save(product), null);
     }
 
     @Override
@@ -209,7 +272,7 @@ public class ProductServiceImpl implements ProductService {
         
         product.setIsDeleted(true);
         product.setIsActive(false);
-        productRepository.save(product);
+        publishChanged(productRepository.save(product), null);
     }
 
     @Override
@@ -219,7 +282,7 @@ public class ProductServiceImpl implements ProductService {
         
         product.setIsDeleted(false);
         product.setIsActive(true);
-        return productRepository.save(product);
+        return publishChanged(productRepository.save(product), null);
     }
 
     @Override
@@ -258,6 +321,17 @@ public class ProductServiceImpl implements ProductService {
         return productRepository.existsByTenantIdAndSku(tenantId, sku);
     }
 
+    /**
+     * Опубликовать событие изменения товара; слушатели получат его после фиксации транзакции
+     * @param product сохраненный товар
+     * @param previousBarcode штрих-код до изменения
+     * @return тот же товар
+     */
+    private Product publishChanged(Product product, String previousBarcode) {
+        eventPublisher.publishEvent(ProductChangedEvent.of(product, previousBarcode));
+        return product;
+    }
+
     /**
      * Валидация DTO товара
      * @param productDto DTO товара
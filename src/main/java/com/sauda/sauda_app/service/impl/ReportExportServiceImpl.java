@@ -0,0 +1,186 @@
+package com.sauda.sauda_app.service.impl;
+
+import com.sauda.sauda_app.dto.ExportDataset;
+import com.sauda.sauda_app.repository.ReportExportJdbcRepository;
+import com.sauda.sauda_app.service.ReportExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+
+/**
+ * Реализация выгрузки в CSV (RFC 4180, UTF-8).
+ * Каждая строка результата сразу пишется в буфер ответа; когда клиент читает медленно,
+ * запись в поток блокируется, и чтение курсора из базы ждет вместе с ней.
+ * Поэтому память не зависит от числа строк: в ней только порция курсора и буфер записи
+ */
+@Service
+@Transactional(readOnly = true)
+public class ReportExportServiceImpl implements ReportExportService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final String SALES_HEADER =
+            "id,sale_date,employee_id,customer_id,pos_terminal_id,total_amount,payment_method";
+    private static final String SALES_ITEMS_HEADER =
+            "id,sale_id,sale_date,product_id,quantity,price,discount";
+    private static final String PAYMENTS_HEADER =
+            "id,sale_id,sale_date,payment_date,amount,payment_type";
+
+    private final ReportExportJdbcRepository reportExportJdbcRepository;
+
+    @Autowired
+    public ReportExportServiceImpl(ReportExportJdbcRepository reportExportJdbcRepository) {
+        this.reportExportJdbcRepository = reportExportJdbcRepository;
+    }
+
+    @Override
+    public long writeCsv(Long tenantId, ExportDataset dataset, LocalDate from, LocalDate to, OutputStream out)
+            throws IOException {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Период выгрузки обязателен");
+        }
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Начало периода позже его окончания");
+        }
+
+        CsvWriter csv = new CsvWriter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE));
+        StreamedRows rows = new StreamedRows(() -> { }, csv::endLine);
+        try {
+            switch (dataset) {
+                case SALES -> {
+                    csv.header(SALES_HEADER);
+                    reportExportJdbcRepository.streamSales(tenantId, from, to, rows.row(rs -> {
+                        csv.longField(rs, "id");
+                        csv.timestampField(rs, "sale_date");
+                        csv.longField(rs, "employee_id");
+                        csv.longField(rs, "customer_id");
+                        csv.longField(rs, "pos_terminal_id");
+                        csv.decimalField(rs, "total_amount");
+                        csv.textField(rs, "payment_method");
+                    }));
+                }
+                case SALES_ITEMS -> {
+                    csv.header(SALES_ITEMS_HEADER);
+                    reportExportJdbcRepository.streamSalesItems(tenantId, from, to, rows.row(rs -> {
+                        csv.longField(rs, "id");
+                        csv.longField(rs, "sale_id");
+                        csv.timestampField(rs, "sale_date");
+                        csv.longField(rs, "product_id");
+                        csv.decimalField(rs, "quantity");
+                        csv.decimalField(rs, "price");
+                        csv.decimalField(rs, "discount");
+                    }));
+                }
+                case PAYMENTS -> {
+                    csv.header(PAYMENTS_HEADER);
+                    reportExportJdbcRepository.streamPayments(tenantId, from, to, rows.row(rs -> {
+                        csv.longField(rs, "id");
+                        csv.longField(rs, "sale_id");
+                        csv.timestampField(rs, "sale_date");
+                        csv.timestampField(rs, "payment_date");
+                        csv.decimalField(rs, "amount");
+                        csv.textField(rs, "payment_type");
+                    }));
+                }
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        // Поток ответа закрывает контейнер, здесь он только дописывается
+        csv.flush();
+        return rows.count();
+    }
+
+    /**
+     * Запись строк CSV поле за полем без промежуточных строк и массивов
+     */
+    private static final class CsvWriter {
+
+        private final Writer writer;
+        private boolean lineStarted;
+
+        CsvWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        void header(String header) throws IOException {
+            writer.write(header);
+            endLine();
+        }
+
+        void longField(ResultSet rs, String column) throws SQLException, IOException {
+            long value = rs.getLong(column);
+            separate();
+            if (!rs.wasNull()) {
+                writer.write(Long.toString(value));
+            }
+        }
+
+        void decimalField(ResultSet rs, String column) throws SQLException, IOException {
+            BigDecimal value = rs.getBigDecimal(column);
+            separate();
+            if (value != null) {
+                writer.write(value.toPlainString());
+            }
+        }
+
+        void timestampField(ResultSet rs, String column) throws SQLException, IOException {
+            Timestamp value = rs.getTimestamp(column);
+            separate();
+            if (value != null) {
+                writer.write(value.toLocalDateTime().toString());
+            }
+        }
+
+        void textField(ResultSet rs, String column) throws SQLException, IOException {
+            String value = rs.getString(column);
+            separate();
+            if (value != null) {
+                writer.write(escape(value));
+            }
+        }
+
+        void endLine() throws IOException {
+            writer.write("\r\n");
+            lineStarted = false;
+        }
+
+        void flush() throws IOException {
+            writer.flush();
+        }
+
+        private void separate() throws IOException {
+            if (lineStarted) {
+                writer.write(',');
+            }
+            lineStarted = true;
+        }
+    }
+
+    /**
+     * Экранирование по RFC 4180: поле с запятой, кавычкой или переводом строки берется в кавычки,
+     * кавычки внутри удваиваются
+     */
+    static String escape(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return '"' + value.replace("\"", "\"\"") + '"';
+            }
+        }
+        return value;
+    }
+}
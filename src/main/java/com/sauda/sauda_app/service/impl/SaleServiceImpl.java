@@ -0,0 +1,261 @@
+package com.sauda.sauda_app.service.impl;
+
+import com.sauda.sauda_app.dto.InventoryMovement;
+import com.sauda.sauda_app.dto.MovementType;
+import com.sauda.sauda_app.dto.PaymentDto;
+import com.sauda.sauda_app.dto.SaleDto;
+import com.sauda.sauda_app.dto.SaleItemDto;
+import com.sauda.sauda_app.entity.Payment;
+import com.sauda.sauda_app.entity.Sale;
+import com.sauda.sauda_app.entity.SalesItem;
+import com.sauda.sauda_app.event.SaleCompletedEvent;
+import com.sauda.sauda_app.event.StockChangedEvent;
+import com.sauda.sauda_app.repository.InventoryMovementJdbcRepository;
+import com.sauda.sauda_app.repository.InventoryRepository;
+import com.sauda.sauda_app.repository.SaleJdbcRepository;
+import com.sauda.sauda_app.service.DiscountService;
+import com.sauda.sauda_app.service.PriceListService;
+import com.sauda.sauda_app.service.SaleService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Реализация сервиса для проведения продаж
+ */
+@Service
+@Transactional
+public class SaleServiceImpl implements SaleService {
+
+    private final InventoryRepository inventoryRepository;
+    private final SaleJdbcRepository saleJdbcRepository;
+    private final PriceListService priceListService;
+    private final DiscountService discountService;
+    private final InventoryMovementJdbcRepository movementRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    public SaleServiceImpl(InventoryRepository inventoryRepository, SaleJdbcRepository saleJdbcRepository,
+                           PriceListService priceListService, DiscountService discountService,
+                           InventoryMovementJdbcRepository movementRepository,
+                           ApplicationEventPublisher eventPublisher) {
+        this.inventoryRepository = inventoryRepository;
+        this.saleJdbcRepository = saleJdbcRepository;
+        this.priceListService = priceListService;
+        this.discountService = discountService;
+        this.movementRepository = movementRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public Sale createSale(SaleDto saleDto) {
+        validateSaleDto(saleDto);
+
+        List<SalesItem> items = mergeItems(saleDto, listPrices(saleDto));
+        // Скидки по правилам магазина считаются в памяти, до подсчета суммы чека
+        discountService.applyDiscounts(saleDto.getTenantId(), items, LocalDate.now());
+        BigDecimal totalAmount = items.stream()
+                .map(this::lineTotal)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        // Списываем остатки до записи чека. Позиции отсортированы по товару,
+        // поэтому параллельные чеки блокируют строки inventory в одном порядке.
+        // Списание ограничено магазином чека: чужой склад или товар не проходят
+        for (SalesItem item : items) {
+            inventoryRepository.decreaseTenantQuantity(saleDto.getTenantId(), item.getProductId(),
+                            saleDto.getWarehouseId(), item.getQuantity())
+                    .orElseThrow(() -> new IllegalArgumentException("Недостаточно товара на складе. Товар: " +
+                            item.getProductId() + ", требуется: " + item.getQuantity()));
+        }
+
+        Sale sale = new Sale();
+        sale.setTenantId(saleDto.getTenantId());
+        sale.setEmployeeId(saleDto.getEmployeeId());
+        sale.setCustomerId(saleDto.getCustomerId());
+        sale.setPosTerminalId(saleDto.getPosTerminalId());
+        sale.setTotalAmount(totalAmount);
+        sale.setPaymentMethod(saleDto.getPaymentMethod());
+        saleJdbcRepository.insertSale(sale);
+
+        for (SalesItem item : items) {
+            item.setSaleId(sale.getId());
+        }
+        saleJdbcRepository.insertItems(items);
+        List<InventoryMovement> movements = saleMovements(sale, saleDto.getWarehouseId(), items);
+        movementRepository.insertAll(movements);
+
+        List<Payment> payments = buildPayments(saleDto, sale, totalAmount);
+        saleJdbcRepository.insertPayments(payments);
+        saleJdbcRepository.addToDailyRollup(sale, items);
+
+        sale.setItems(items);
+        sale.setPayments(payments);
+        eventPublisher.publishEvent(new StockChangedEvent(movements));
+        eventPublisher.publishEvent(SaleCompletedEvent.of(sale, saleDto.getWarehouseId()));
+        return sale;
+    }
+
+    /**
+     * Движения остатков по позициям чека: одно списание на товар со ссылкой на чек
+     * @param sale записанный чек
+     * @param warehouseId склад списания
+     * @param items позиции чека
+     * @return движения
+     */
+    private List<InventoryMovement> saleMovements(Sale sale, Long warehouseId, List<SalesItem> items) {
+        List<InventoryMovement> movements = new ArrayList<>(items.size());
+        for (SalesItem item : items) {
+            movements.add(InventoryMovement.of(sale.getTenantId(), item.getProductId(), warehouseId,
+                    MovementType.SALE, item.getQuantity().negate(), "Продажа", sale.getId()));
+        }
+        return movements;
+    }
+
+    /**
+     * Действующие цены прайс-листа для позиций, пришедших без цены, одним обращением к индексу цен
+     * @param saleDto DTO чека
+     * @return цены по товарам
+     */
+    private Map<Long, BigDecimal> listPrices(SaleDto saleDto) {
+        Set<Long> unpriced = new TreeSet<>();
+        for (SaleItemDto itemDto : saleDto.getItems()) {
+            validateItem(itemDto);
+            if (itemDto.getPrice() == null) {
+                unpriced.add(itemDto.getProductId());
+            }
+        }
+        if (unpriced.isEmpty()) {
+            return Map.of();
+        }
+        return priceListService.getEffectivePrices(saleDto.getTenantId(), unpriced, LocalDate.now());
+    }
+
+    /**
+     * Объединить позиции с одинаковым товаром и упорядочить их по товару
+     * @param saleDto DTO чека
+     * @param listPrices цены прайс-листа для позиций без цены
+     * @return позиции чека
+     */
+    private List<SalesItem> mergeItems(SaleDto saleDto, Map<Long, BigDecimal> listPrices) {
+        Map<Long, SalesItem> merged = new TreeMap<>();
+        for (SaleItemDto itemDto : saleDto.getItems()) {
+            BigDecimal discount = itemDto.getDiscount() != null ? itemDto.getDiscount() : BigDecimal.ZERO;
+            BigDecimal price = itemDto.getPrice() != null ? itemDto.getPrice() : listPrices.get(itemDto.getProductId());
+            if (price == null) {
+                throw new IllegalArgumentException("Нет действующей цены для товара. Товар: " + itemDto.getProductId());
+            }
+
+            SalesItem item = merged.get(itemDto.getProductId());
+            if (item == null) {
+                item = new SalesItem();
+                item.setTenantId(saleDto.getTenantId());
+                item.setProductId(itemDto.getProductId());
+                item.setQuantity(itemDto.getQuantity());
+                item.setPrice(price);
+                item.setDiscount(discount);
+                merged.put(itemDto.getProductId(), item);
+            } else {
+                if (item.getPrice().compareTo(price) != 0) {
+                    throw new IllegalArgumentException("Разные цены для одного товара в чеке. Товар: " +
+                            itemDto.getProductId());
+                }
+                item.setQuantity(item.getQuantity().add(itemDto.getQuantity()));
+                item.setDiscount(item.getDiscount().add(discount));
+            }
+        }
+        return new ArrayList<>(merged.values());
+    }
+
+    /**
+     * Собрать оплаты чека. Без явных оплат чек оплачивается целиком способом из заголовка
+     */
+    private List<Payment> buildPayments(SaleDto saleDto, Sale sale, BigDecimal totalAmount) {
+        List<Payment> payments = new ArrayList<>();
+
+        if (saleDto.getPayments() == null || saleDto.getPayments().isEmpty()) {
+            payments.add(newPayment(sale, totalAmount, saleDto.getPaymentMethod()));
+            return payments;
+        }
+
+        BigDecimal paid = BigDecimal.ZERO;
+        for (PaymentDto paymentDto : saleDto.getPayments()) {
+            if (paymentDto.getAmount() == null || paymentDto.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+                throw new IllegalArgumentException("Сумма оплаты должна быть положительной");
+            }
+            paid = paid.add(paymentDto.getAmount());
+            payments.add(newPayment(sale, paymentDto.getAmount(), paymentDto.getPaymentType()));
+        }
+
+        if (paid.compareTo(totalAmount) < 0) {
+            throw new IllegalArgumentException("Сумма оплат меньше суммы чека. Оплачено: " + paid +
+                    ", к оплате: " + totalAmount);
+        }
+        return payments;
+    }
+
+    private Payment newPayment(Sale sale, BigDecimal amount, String paymentType) {
+        Payment payment = new Payment();
+        payment.setTenantId(sale.getTenantId());
+        payment.setSaleId(sale.getId());
+        payment.setAmount(amount);
+        payment.setPaymentType(paymentType);
+        return payment;
+    }
+
+    private BigDecimal lineTotal(SalesItem item) {
+        BigDecimal lineTotal = item.getPrice().multiply(item.getQuantity()).subtract(item.getDiscount());
+        if (lineTotal.compareTo(BigDecimal.ZERO) < 0) {
+            throw new IllegalArgumentException("Скидка превышает сумму позиции. Товар: " + item.getProductId());
+        }
+        return lineTotal;
+    }
+
+    /**
+     * Валидация DTO чека
+     * @param saleDto DTO чека
+     */
+    private void validateSaleDto(SaleDto saleDto) {
+        if (saleDto == null) {
+            throw new IllegalArgumentException("DTO чека не может быть null");
+        }
+        if (saleDto.getTenantId() == null) {
+            throw new IllegalArgumentException("ID магазина обязателен");
+        }
+        if (saleDto.getWarehouseId() == null) {
+            throw new IllegalArgumentException("ID склада обязателен");
+        }
+        if (saleDto.getItems() == null || saleDto.getItems().isEmpty()) {
+            throw new IllegalArgumentException("Чек должен содержать хотя бы одну позицию");
+        }
+    }
+
+    /**
+     * Валидация позиции чека
+     * @param itemDto позиция чека
+     */
+    private void validateItem(SaleItemDto itemDto) {
+        if (itemDto == null || itemDto.getProductId() == null) {
+            throw new IllegalArgumentException("ID товара обязателен");
+        }
+        if (itemDto.getQuantity() == null || itemDto.getQuantity().compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Количество товара должно быть положительным");
+        }
+        // Цена может не прийти: тогда она берется из прайс-листа на текущую дату
+        if (itemDto.getPrice() != null && itemDto.getPrice().compareTo(BigDecimal.ZERO) < 0) {
+            throw new IllegalArgumentException("Цена товара не может быть отрицательной");
+        }
+        if (itemDto.getDiscount() != null && itemDto.getDiscount().compareTo(BigDecimal.ZERO) < 0) {
+            throw new IllegalArgumentException("Скидка не может быть отрицательной");
+        }
+    }
+}
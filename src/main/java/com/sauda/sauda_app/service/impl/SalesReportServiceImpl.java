@@ -0,0 +1,44 @@
+package com.sauda.sauda_app.service.impl;
+
+import com.sauda.sauda_app.dto.SalesReport;
+import com.sauda.sauda_app.repository.SalesReportJdbcRepository;
+import com.sauda.sauda_app.service.SalesReportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Реализация сервиса отчетов о продажах.
+ * Отчет читается из sales_daily_rollup, которую пополняет запись чека, а не из таблицы sales
+ */
+@Service
+@Transactional(readOnly = true)
+public class SalesReportServiceImpl implements SalesReportService {
+
+    // Отчет строится по дням, период ограничен, чтобы ответ оставался небольшим
+    private static final long MAX_PERIOD_DAYS = 366;
+
+    private final SalesReportJdbcRepository salesReportJdbcRepository;
+
+    @Autowired
+    public SalesReportServiceImpl(SalesReportJdbcRepository salesReportJdbcRepository) {
+        this.salesReportJdbcRepository = salesReportJdbcRepository;
+    }
+
+    @Override
+    public SalesReport getSalesReport(Long tenantId, LocalDate from, LocalDate to, Long posTerminalId, Long employeeId) {
+        LocalDate periodTo = to != null ? to : LocalDate.now();
+        LocalDate periodFrom = from != null ? from : periodTo.withDayOfMonth(1);
+        if (periodFrom.isAfter(periodTo)) {
+            throw new IllegalArgumentException("Начало периода позже его окончания");
+        }
+        if (ChronoUnit.DAYS.between(periodFrom, periodTo) >= MAX_PERIOD_DAYS) {
+            throw new IllegalArgumentException("Период отчета не может быть длиннее " + MAX_PERIOD_DAYS + " дней");
+        }
+        return SalesReport.of(periodFrom, periodTo,
+                salesReportJdbcRepository.findDays(tenantId, periodFrom, periodTo, posTerminalId, employeeId));
+    }
+}
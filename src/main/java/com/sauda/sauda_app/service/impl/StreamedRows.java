@@ -0,0 +1,66 @@
+package com.sauda.sauda_app.service.impl;
+
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Построчная запись результата JDBC прямо в поток ответа (выгрузка CSV, каталог для касс).
+ * Обертка {@link #row} пишет начало и конец записи вокруг ее полей и считает записанные строки.
+ * Ошибка записи в поток выходит из обработчика как {@link UncheckedIOException}:
+ * {@link RowCallbackHandler} не может бросить IOException
+ */
+final class StreamedRows {
+
+    /**
+     * Поля одной записи
+     */
+    @FunctionalInterface
+    interface RowFields {
+        void write(ResultSet rs) throws SQLException, IOException;
+    }
+
+    /**
+     * Запись в поток без данных строки: начало или конец записи
+     */
+    @FunctionalInterface
+    interface Frame {
+        void write() throws IOException;
+    }
+
+    private final Frame start;
+    private final Frame end;
+    private long count;
+
+    /**
+     * @param start пишется перед полями каждой записи
+     * @param end пишется после полей каждой записи
+     */
+    StreamedRows(Frame start, Frame end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    RowCallbackHandler row(RowFields fields) {
+        return rs -> {
+            try {
+                start.write();
+                fields.write(rs);
+                end.write();
+                count++;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    /**
+     * @return сколько записей записано во всех потоках строк
+     */
+    long count() {
+        return count;
+    }
+}
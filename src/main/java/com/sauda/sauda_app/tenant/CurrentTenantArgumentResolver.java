@@ -0,0 +1,39 @@
+package com.sauda.sauda_app.tenant;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.MethodParameter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * Подстановка магазина в параметры с {@link CurrentTenant}.
+ * Обычно магазин уже определен {@link TenantFilter}; если фильтр не применялся
+ * (MockMvc без фильтров), магазин определяется здесь тем же {@link TenantResolver}.
+ */
+@Component
+public class CurrentTenantArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private final TenantResolver tenantResolver;
+
+    @Autowired
+    public CurrentTenantArgumentResolver(TenantResolver tenantResolver) {
+        this.tenantResolver = tenantResolver;
+    }
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.hasParameterAnnotation(CurrentTenant.class)
+                && Long.class.isAssignableFrom(parameter.getParameterType());
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        return TenantContext.current()
+                .orElseGet(() -> tenantResolver.resolve(webRequest.getNativeRequest(HttpServletRequest.class)));
+    }
+}
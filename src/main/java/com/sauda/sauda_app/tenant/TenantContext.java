@@ -0,0 +1,103 @@
+package com.sauda.sauda_app.tenant;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Магазин текущего запроса.
+ *
+ * Определяется один раз на запрос ({@link TenantFilter}) и хранится в ThreadLocal потока запроса:
+ * у каждого виртуального потока свои ThreadLocal, а фильтр очищает значение в finally, поэтому
+ * магазин не переходит между запросами. ScopedValue в Java 21 — preview, поэтому ThreadLocal;
+ * доступ к значению идет только через этот класс, и замена хранилища не затронет вызывающий код.
+ *
+ * Фоновые задачи работают без магазина: {@link #current()} пуст, фильтр Hibernate не применяется.
+ * Значение не переходит в другие потоки: работа, выполняемая вне потока запроса (тело потокового
+ * ответа, фоновые задачи, писатель аудита), привязывает магазин сама через {@link #runAs},
+ * иначе соединение берется из основной базы (см. {@link TenantDatabases}).
+ */
+public final class TenantContext {
+
+    /**
+     * Имя фильтра Hibernate по магазину (см. package-info пакета entity)
+     */
+    public static final String FILTER_NAME = "tenantFilter";
+
+    /**
+     * Значение параметра фильтра без магазина: записи всех магазинов
+     */
+    public static final long ALL_TENANTS = 0L;
+
+    private static final ThreadLocal<Long> CURRENT = new ThreadLocal<>();
+
+    private TenantContext() {
+    }
+
+    public static Optional<Long> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    /**
+     * Магазин запроса
+     * @throws IllegalStateException если магазин не определен (вызов вне запроса)
+     */
+    public static Long require() {
+        Long tenantId = CURRENT.get();
+        if (tenantId == null) {
+            throw new IllegalStateException("Магазин запроса не определен");
+        }
+        return tenantId;
+    }
+
+    /**
+     * Выполнить действие от имени магазина и вернуть прежнее значение после него
+     * @param tenantId идентификатор магазина
+     * @param action действие
+     * @return результат действия
+     */
+    public static <T> T callAs(Long tenantId, Supplier<T> action) {
+        Long previous = CURRENT.get();
+        CURRENT.set(tenantId);
+        try {
+            return action.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    public static void runAs(Long tenantId, Runnable action) {
+        callAs(tenantId, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Действие с проверяемым исключением, например запись в поток ответа
+     */
+    @FunctionalInterface
+    public interface CheckedAction<E extends Exception> {
+        void run() throws E;
+    }
+
+    /**
+     * То же, что {@link #runAs}, для действия с проверяемым исключением
+     */
+    public static <E extends Exception> void runCheckedAs(Long tenantId, CheckedAction<E> action) throws E {
+        Long previous = CURRENT.get();
+        CURRENT.set(tenantId);
+        try {
+            action.run();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    private static void restore(Long previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.sauda.sauda_app.tenant;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Выделенные базы крупных магазинов.
+ *
+ * Если заданы sauda.tenant.datasources.&lt;tenantId&gt;.url (а также username, password и
+ * необязательный maximum-pool-size), основной DataSource оборачивается в {@link TenantRoutingDataSource};
+ * без этих настроек DataSource остается прежним. Liquibase работает с основной базой, поэтому схема
+ * выделенной базы накатывается отдельно тем же changelog; фоновые задачи обходят выделенные базы
+ * через {@link TenantDatabases}.
+ */
+@Component
+public class TenantDataSourcePostProcessor implements BeanPostProcessor, EnvironmentAware {
+
+    static final String PROPERTY_PREFIX = "sauda.tenant.datasources";
+    private static final String DATA_SOURCE_BEAN = "dataSource";
+
+    /**
+     * Настройки выделенной базы магазина
+     */
+    public record DedicatedDataSource(String url, String username, String password, Integer maximumPoolSize) {
+    }
+
+    private Map<Long, DedicatedDataSource> dedicated = Map.of();
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        dedicated = Binder.get(environment)
+                .bind(PROPERTY_PREFIX, Bindable.mapOf(Long.class, DedicatedDataSource.class))
+                .orElse(Map.of());
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (dedicated.isEmpty() || !DATA_SOURCE_BEAN.equals(beanName) || !(bean instanceof DataSource dataSource)
+                || bean instanceof TenantRoutingDataSource) {
+            return bean;
+        }
+        Map<Object, Object> targets = new HashMap<>();
+        dedicated.forEach((tenantId, settings) -> targets.put(tenantId, create(tenantId, settings)));
+        TenantRoutingDataSource routing = new TenantRoutingDataSource();
+        routing.setDefaultTargetDataSource(dataSource);
+        routing.setTargetDataSources(targets);
+        routing.afterPropertiesSet();
+        return routing;
+    }
+
+    private static DataSource create(Long tenantId, DedicatedDataSource settings) {
+        if (settings.url() == null || settings.url().isBlank()) {
+            throw new IllegalArgumentException("Не задан url выделенной базы магазина " + tenantId);
+        }
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(settings.url())
+                .username(settings.username())
+                .password(settings.password())
+                .build();
+        dataSource.setPoolName("tenant-" + tenantId);
+        if (settings.maximumPoolSize() != null) {
+            dataSource.setMaximumPoolSize(settings.maximumPoolSize());
+        }
+        return dataSource;
+    }
+}
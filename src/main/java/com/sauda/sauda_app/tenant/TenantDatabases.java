@@ -0,0 +1,74 @@
+package com.sauda.sauda_app.tenant;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Базы магазинов для работы вне запроса.
+ *
+ * Соединение выбирается по {@link TenantContext}, а у фоновых задач и писателя аудита магазина
+ * запроса нет, поэтому без привязки они видели бы только основную базу. Обход всех данных
+ * выполняется в основной базе и в каждой выделенной ({@link #forEachDatabase}), работа по одному
+ * магазину — от имени этого магазина ({@link TenantContext#runAs}), и тогда соединение берется из его базы.
+ */
+@Component
+public class TenantDatabases {
+
+    private final Set<Long> dedicatedTenantIds;
+
+    @Autowired
+    public TenantDatabases(Environment environment) {
+        this(Binder.get(environment)
+                .bind(TenantDataSourcePostProcessor.PROPERTY_PREFIX,
+                        Bindable.mapOf(Long.class, TenantDataSourcePostProcessor.DedicatedDataSource.class))
+                .orElse(Map.of())
+                .keySet());
+    }
+
+    public TenantDatabases(Collection<Long> dedicatedTenantIds) {
+        this.dedicatedTenantIds = Set.copyOf(dedicatedTenantIds);
+    }
+
+    /**
+     * Магазины с выделенной базой
+     */
+    public Set<Long> dedicatedTenantIds() {
+        return dedicatedTenantIds;
+    }
+
+    public boolean isDedicated(Long tenantId) {
+        return tenantId != null && dedicatedTenantIds.contains(tenantId);
+    }
+
+    /**
+     * Магазины, найденные в основной базе, вместе с магазинами выделенных баз, по возрастанию
+     * @param primaryTenantIds магазины из основной базы
+     * @return все магазины
+     */
+    public List<Long> withDedicated(Collection<Long> primaryTenantIds) {
+        TreeSet<Long> tenantIds = new TreeSet<>(primaryTenantIds);
+        tenantIds.addAll(dedicatedTenantIds);
+        return List.copyOf(tenantIds);
+    }
+
+    /**
+     * Выполнить действие в основной базе, затем в каждой выделенной.
+     * Вызывается вне запроса: в основной базе действие выполняется без магазина
+     * @param action действие; ошибки обрабатывает само, иначе следующие базы пропускаются
+     */
+    public void forEachDatabase(Runnable action) {
+        action.run();
+        for (Long tenantId : new TreeSet<>(dedicatedTenantIds)) {
+            TenantContext.runAs(tenantId, action);
+        }
+    }
+}
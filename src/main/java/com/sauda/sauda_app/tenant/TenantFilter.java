@@ -0,0 +1,90 @@
+package com.sauda.sauda_app.tenant;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Определяет магазин один раз на запрос и держит его в {@link TenantContext} до конца обработки.
+ * Сервлетный фильтр регистрируется после цепочки Spring Security, поэтому токен уже проверен.
+ */
+@Component
+public class TenantFilter extends OncePerRequestFilter {
+
+    private final TenantResolver tenantResolver;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public TenantFilter(TenantResolver tenantResolver, ObjectMapper objectMapper) {
+        this.tenantResolver = tenantResolver;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!tenantResolver.appliesTo(SecurityContextHolder.getContext().getAuthentication())) {
+            // Открытые адреса без токена: магазина нет, данные магазинов через них недоступны
+            chain.doFilter(request, response);
+            return;
+        }
+        Long tenantId;
+        try {
+            tenantId = tenantResolver.resolve(request);
+        } catch (AccessDeniedException e) {
+            reject(response, HttpServletResponse.SC_FORBIDDEN, "Forbidden", e.getMessage());
+            return;
+        } catch (IllegalArgumentException e) {
+            reject(response, HttpServletResponse.SC_BAD_REQUEST, "Bad Request", e.getMessage());
+            return;
+        }
+        try {
+            TenantContext.runAs(tenantId, () -> proceed(chain, request, response));
+        } catch (UncheckedFilterException e) {
+            e.rethrow();
+        }
+    }
+
+    private void proceed(FilterChain chain, HttpServletRequest request, HttpServletResponse response) {
+        try {
+            chain.doFilter(request, response);
+        } catch (IOException | ServletException e) {
+            throw new UncheckedFilterException(e);
+        }
+    }
+
+    private void reject(HttpServletResponse response, int status, String error, String message) throws IOException {
+        response.setStatus(status);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getWriter(), Map.of("error", error, "message", message));
+    }
+
+    /**
+     * Перенос проверяемых исключений цепочки через {@link TenantContext#runAs}
+     */
+    private static final class UncheckedFilterException extends RuntimeException {
+
+        UncheckedFilterException(Exception cause) {
+            super(cause);
+        }
+
+        void rethrow() throws IOException, ServletException {
+            if (getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw (ServletException) getCause();
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.sauda.sauda_app.tenant;
+
+import java.util.function.Supplier;
+
+/**
+ * Значение параметра фильтра Hibernate по магазину: магазин запроса или
+ * {@link TenantContext#ALL_TENANTS}, если магазин не определен
+ */
+public class TenantFilterParameter implements Supplier<Long> {
+
+    @Override
+    public Long get() {
+        return TenantContext.current().orElse(TenantContext.ALL_TENANTS);
+    }
+}
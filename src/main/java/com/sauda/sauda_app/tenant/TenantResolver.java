@@ -0,0 +1,124 @@
+package com.sauda.sauda_app.tenant;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Component;
+
+/**
+ * Определение магазина запроса.
+ *
+ * Источник — утверждение токена (по умолчанию tenant_id). По умолчанию (require-claim=true)
+ * запрос без утверждения магазина отклоняется. Параметр tenantId и магазин по умолчанию
+ * учитываются, только если require-claim=false, — это задано лишь в профилях dev и test
+ * (локальный запуск, токены без маппера Keycloak, тесты без токена). Параметр, расходящийся
+ * с магазином токена, — отказ в доступе, а не молчаливая подмена.
+ */
+@Component
+public class TenantResolver {
+
+    static final String TENANT_PARAMETER = "tenantId";
+
+    private final String claimName;
+    private final Long defaultTenantId;
+    private final boolean requireClaim;
+
+    @Autowired
+    public TenantResolver(@Value("${sauda.tenant.claim:tenant_id}") String claimName,
+                          @Value("${sauda.tenant.default-id:1}") Long defaultTenantId,
+                          @Value("${sauda.tenant.require-claim:true}") boolean requireClaim) {
+        this.claimName = claimName;
+        this.defaultTenantId = defaultTenantId;
+        this.requireClaim = requireClaim;
+    }
+
+    /**
+     * Определяется ли магазин для запроса с такой аутентификацией. Без токена магазин
+     * берется только из параметра, поэтому при require-claim такие запросы (открытые адреса)
+     * идут без магазина
+     * @param authentication аутентификация или null
+     * @return true, если магазин нужно определить
+     */
+    public boolean appliesTo(Authentication authentication) {
+        return !requireClaim || jwtOf(authentication) != null;
+    }
+
+    /**
+     * Магазин запроса
+     * @param request запрос
+     * @return идентификатор магазина
+     * @throws AccessDeniedException если параметр расходится с токеном или в токене нет магазина при require-claim
+     * @throws IllegalArgumentException если идентификатор магазина не число
+     */
+    public Long resolve(HttpServletRequest request) {
+        return resolve(SecurityContextHolder.getContext().getAuthentication(),
+                parse(request.getParameter(TENANT_PARAMETER)));
+    }
+
+    /**
+     * Магазин пользователя с учетом запрошенного магазина (параметр запроса, канал подписки)
+     * @param authentication аутентификация или null
+     * @param requestedTenantId запрошенный магазин или null
+     * @return идентификатор магазина
+     * @throws AccessDeniedException если запрошенный магазин расходится с токеном или в токене нет магазина при require-claim
+     */
+    public Long resolve(Authentication authentication, Long requestedTenantId) {
+        Jwt jwt = jwtOf(authentication);
+        Long fromToken = jwt != null ? parse(jwt.getClaims().get(claimName)) : null;
+        if (fromToken != null) {
+            return checked(fromToken, requestedTenantId);
+        }
+        if (requireClaim) {
+            throw new AccessDeniedException(jwt != null
+                    ? "В токене нет магазина (" + claimName + ")"
+                    : "Магазин определяется только по токену");
+        }
+        return requestedTenantId != null ? requestedTenantId : defaultTenantId;
+    }
+
+    /**
+     * Магазин из утверждения токена, без запасного параметра и магазина по умолчанию.
+     * Для доступа, где запрошенный магазин нечем подтвердить (подписка на канал), независимо от require-claim
+     * @param authentication аутентификация или null
+     * @param requestedTenantId запрошенный магазин или null
+     * @return идентификатор магазина
+     * @throws AccessDeniedException если в токене нет магазина или запрошенный магазин расходится с токеном
+     */
+    public Long resolveFromToken(Authentication authentication, Long requestedTenantId) {
+        Jwt jwt = jwtOf(authentication);
+        Long fromToken = jwt != null ? parse(jwt.getClaims().get(claimName)) : null;
+        if (fromToken == null) {
+            throw new AccessDeniedException("В токене нет магазина (" + claimName + ")");
+        }
+        return checked(fromToken, requestedTenantId);
+    }
+
+    private static Jwt jwtOf(Authentication authentication) {
+        return authentication != null && authentication.getPrincipal() instanceof Jwt token ? token : null;
+    }
+
+    private static Long checked(Long fromToken, Long requestedTenantId) {
+        if (requestedTenantId != null && !requestedTenantId.equals(fromToken)) {
+            throw new AccessDeniedException("Магазин " + requestedTenantId + " недоступен пользователю магазина " + fromToken);
+        }
+        return fromToken;
+    }
+
+    private static Long parse(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        try {
+            return Long.valueOf(value.toString().trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Неверный идентификатор магазина: " + value);
+        }
+    }
+}
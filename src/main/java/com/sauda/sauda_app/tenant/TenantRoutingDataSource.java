@@ -0,0 +1,18 @@
+package com.sauda.sauda_app.tenant;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Соединения магазина: выделенная база, если она настроена для магазина запроса, иначе основная.
+ *
+ * База выбирается при получении соединения, то есть в начале транзакции, по {@link TenantContext}.
+ * Без магазина и для магазинов без выделенной базы используется основная. Работа вне потока
+ * запроса привязывает магазин сама (см. {@link TenantDatabases}).
+ */
+public class TenantRoutingDataSource extends AbstractRoutingDataSource {
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TenantContext.current().orElse(null);
+    }
+}
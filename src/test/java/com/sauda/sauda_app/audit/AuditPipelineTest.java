@@ -0,0 +1,194 @@
+package com.sauda.sauda_app.audit;
+
+import com.sauda.sauda_app.repository.AuditJdbcRepository;
+import com.sauda.sauda_app.tenant.TenantContext;
+import com.sauda.sauda_app.tenant.TenantDatabases;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuditPipelineTest {
+
+    @Mock
+    private AuditJdbcRepository auditRepository;
+
+    @Test
+    void queue_ShouldRejectEntries_WhenFull() {
+        // Given
+        AuditQueue queue = new AuditQueue(2);
+
+        // When & Then
+        assertTrue(queue.offer(entry(1L)));
+        assertTrue(queue.offer(entry(2L)));
+        assertFalse(queue.offer(entry(3L)));
+        assertEquals(2, queue.size());
+        assertEquals(1L, queue.poll().objectId());
+        assertEquals(1, queue.size());
+    }
+
+    @Test
+    void submit_ShouldEvictOldestEntry_WhenPolicyIsDropOldest() {
+        // Given
+        AuditPipeline pipeline = pipeline(2, 10, "drop-oldest");
+
+        // When
+        pipeline.submit(entry(1L));
+        pipeline.submit(entry(2L));
+        boolean accepted = pipeline.submit(entry(3L));
+        pipeline.flush();
+
+        // Then
+        assertTrue(accepted);
+        assertEquals(1, pipeline.getMetrics().dropped());
+        verify(auditRepository).insertAll(List.of(entry(2L), entry(3L)));
+    }
+
+    @Test
+    void submit_ShouldNeverEvictProductChanges_WhenPolicyIsDropOldest() {
+        // Given
+        AuditPipeline pipeline = pipeline(2, 10, "drop-oldest");
+        AuditEntry productChange = new AuditEntry(1L, "admin", "UPDATE", "Product", 10L,
+                LocalDateTime.of(2025, 1, 1, 12, 0), "{}", new ProductChange(Map.of("name", "Хлеб"), Set.of("name")));
+
+        // When: изменение товара старше всех, но вытесняются только обычные записи
+        pipeline.submit(productChange);
+        pipeline.submit(entry(1L));
+        pipeline.submit(entry(2L));
+        pipeline.submit(entry(3L));
+        int written = pipeline.flush();
+
+        // Then: изменение товара записывается первым в том же пакете
+        assertEquals(3, written);
+        assertEquals(1, pipeline.getMetrics().dropped());
+        verify(auditRepository).insertAll(List.of(productChange, entry(2L), entry(3L)));
+        verifyNoMoreInteractions(auditRepository);
+    }
+
+    @Test
+    void submit_ShouldRejectNewEntry_WhenPolicyIsDropNewest() {
+        // Given
+        AuditPipeline pipeline = pipeline(2, 10, "drop-newest");
+        pipeline.submit(entry(1L));
+        pipeline.submit(entry(2L));
+
+        // When
+        boolean accepted = pipeline.submit(entry(3L));
+
+        // Then
+        assertFalse(accepted);
+        AuditMetrics metrics = pipeline.getMetrics();
+        assertEquals(2, metrics.queueDepth());
+        assertEquals(2, metrics.enqueued());
+        assertEquals(1, metrics.dropped());
+    }
+
+    @Test
+    void flush_ShouldWriteQueueInBatches() {
+        // Given
+        AuditPipeline pipeline = pipeline(10, 2, "drop-newest");
+        for (long id = 1; id <= 5; id++) {
+            pipeline.submit(entry(id));
+        }
+
+        // When
+        int written = pipeline.flush();
+
+        // Then
+        assertEquals(5, written);
+        verify(auditRepository, times(3)).insertAll(anyList());
+        AuditMetrics metrics = pipeline.getMetrics();
+        assertEquals(0, metrics.queueDepth());
+        assertEquals(3, metrics.flushes());
+        assertEquals(5, metrics.written());
+    }
+
+    @Test
+    void flush_ShouldRetryRowByRow_WhenBatchFails() {
+        // Given
+        AuditPipeline pipeline = pipeline(10, 10, "drop-newest");
+        pipeline.submit(entry(1L));
+        pipeline.submit(entry(2L));
+        // Пакет целиком и строка 2 не записываются, строка 1 — записывается
+        doAnswer(invocation -> {
+            List<AuditEntry> rows = invocation.getArgument(0);
+            if (rows.size() > 1 || rows.contains(entry(2L))) {
+                throw new IllegalStateException("insert");
+            }
+            return null;
+        }).when(auditRepository).insertAll(anyList());
+
+        // When
+        int written = pipeline.flush();
+
+        // Then
+        assertEquals(1, written);
+        verify(auditRepository).insertAll(List.of(entry(1L), entry(2L)));
+        verify(auditRepository).insertAll(List.of(entry(1L)));
+        verify(auditRepository).insertAll(List.of(entry(2L)));
+        assertEquals(1, pipeline.getMetrics().failed());
+        assertEquals(1, pipeline.getMetrics().written());
+    }
+
+    @Test
+    void flush_ShouldWriteEntriesOfDedicatedTenantInItsDatabase() {
+        // Given: у магазина 7 выделенная база
+        AuditPipeline pipeline = new AuditPipeline(auditRepository, new TenantDatabases(Set.of(7L)), 10, 10, 1_000,
+                "drop-newest", 10);
+        AuditEntry dedicated = new AuditEntry(7L, "admin", "UPDATE", "Product", 2L,
+                LocalDateTime.of(2025, 1, 1, 12, 0), "{}", null);
+        pipeline.submit(entry(1L));
+        pipeline.submit(dedicated);
+        pipeline.submit(entry(3L));
+        List<Optional<Long>> tenants = new ArrayList<>();
+        doAnswer(invocation -> tenants.add(TenantContext.current())).when(auditRepository).insertAll(anyList());
+
+        // When
+        int written = pipeline.flush();
+
+        // Then
+        assertEquals(3, written);
+        verify(auditRepository).insertAll(List.of(entry(1L), entry(3L)));
+        verify(auditRepository).insertAll(List.of(dedicated));
+        assertEquals(List.of(Optional.empty(), Optional.of(7L)), tenants);
+    }
+
+    @Test
+    void writer_ShouldFlushAsSoonAsBatchIsFull() {
+        // Given: интервал сброса заведомо больше времени ожидания проверки
+        AuditPipeline pipeline = new AuditPipeline(auditRepository, new TenantDatabases(Set.of()), 100, 3, 60_000, "block", 50);
+        pipeline.start();
+        try {
+            // When
+            for (long id = 1; id <= 3; id++) {
+                pipeline.submit(entry(id));
+            }
+
+            // Then
+            verify(auditRepository, timeout(5_000)).insertAll(List.of(entry(1L), entry(2L), entry(3L)));
+        } finally {
+            pipeline.stop();
+        }
+    }
+
+    private AuditPipeline pipeline(int capacity, int batchSize, String policy) {
+        return new AuditPipeline(auditRepository, new TenantDatabases(Set.of()), capacity, batchSize, 1_000, policy, 10);
+    }
+
+    private static AuditEntry entry(Long objectId) {
+        return new AuditEntry(1L, "admin", "UPDATE", "Product", objectId, LocalDateTime.of(2025, 1, 1, 12, 0),
+                "{}", null);
+    }
+}
@@ -0,0 +1,77 @@
+package com.sauda.sauda_app.audit;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductDiffCodecTest {
+
+    @Test
+    void decode_ShouldRestoreSnapshotFields() {
+        // Given
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("tenantId", 1L);
+        state.put("name", "Чай зеленый");
+        state.put("barcode", "4600000000001");
+        state.put("categoryId", null);
+        state.put("isActive", true);
+        state.put("isDeleted", false);
+        state.put("price", new BigDecimal("-1234.50"));
+        state.put("lastUpdated", LocalDateTime.of(2025, 3, 1, 10, 15, 30, 123_456_000));
+
+        // When
+        ProductDiffCodec.ProductDiff decoded = ProductDiffCodec.decode(ProductDiffCodec.encode(state, true));
+
+        // Then
+        assertTrue(decoded.snapshot());
+        assertEquals(state, decoded.fields());
+    }
+
+    @Test
+    void encode_ShouldStoreOnlyChangedFieldsCompactly() {
+        // Given: смена названия и времени изменения
+        Map<String, Object> changed = new LinkedHashMap<>();
+        changed.put("name", "Чай черный");
+        changed.put("lastUpdated", LocalDateTime.of(2025, 3, 2, 9, 0));
+
+        // When
+        byte[] diff = ProductDiffCodec.encode(changed, false);
+
+        // Then: заголовок, два поля и сами значения — без имен полей и прежних значений
+        int nameBytes = "Чай черный".getBytes(StandardCharsets.UTF_8).length;
+        assertTrue(diff.length <= 3 + 3 + nameBytes + 2 + 6, () -> "размер " + diff.length);
+        ProductDiffCodec.ProductDiff decoded = ProductDiffCodec.decode(diff);
+        assertFalse(decoded.snapshot());
+        assertEquals(changed, decoded.fields());
+    }
+
+    @Test
+    void encode_ShouldSkipFieldsOutsideFormat() {
+        // When
+        ProductDiffCodec.ProductDiff decoded = ProductDiffCodec.decode(
+                ProductDiffCodec.encode(Map.of("sku", "SKU-1", "unknown", "x"), false));
+
+        // Then
+        assertEquals(Map.of("sku", "SKU-1"), decoded.fields());
+    }
+
+    @Test
+    void decode_ShouldRejectUnsupportedVersionAndTruncatedData() {
+        // Given
+        byte[] valid = ProductDiffCodec.encode(Map.of("name", "Кофе"), false);
+        byte[] futureVersion = valid.clone();
+        futureVersion[0] = 2;
+        byte[] truncated = Arrays.copyOf(valid, valid.length - 2);
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> ProductDiffCodec.decode(futureVersion));
+        assertThrows(IllegalArgumentException.class, () -> ProductDiffCodec.decode(truncated));
+    }
+}
@@ -0,0 +1,113 @@
+package com.sauda.sauda_app.cache;
+
+import com.sauda.sauda_app.dto.ProductSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BarcodeTableTest {
+
+    @Test
+    void put_ShouldGrowAndKeepAllEntries() {
+        // Given
+        BarcodeTable table = new BarcodeTable(0);
+
+        // When
+        for (long id = 1; id <= 10_000; id++) {
+            table.put(snapshot(id, barcode(id)));
+        }
+
+        // Then
+        assertEquals(10_000, table.size());
+        for (long id = 1; id <= 10_000; id++) {
+            assertEquals(id, table.get(barcode(id)).id());
+        }
+        assertNull(table.get("missing"));
+    }
+
+    @Test
+    void put_ShouldReplaceExistingBarcode() {
+        // Given
+        BarcodeTable table = new BarcodeTable(16);
+        table.put(snapshot(1L, "4870000000011"));
+
+        // When
+        table.put(snapshot(2L, "4870000000011"));
+
+        // Then
+        assertEquals(1, table.size());
+        assertEquals(2L, table.get("4870000000011").id());
+    }
+
+    @Test
+    void putIfAbsent_ShouldKeepExistingSnapshot() {
+        // Given
+        BarcodeTable table = new BarcodeTable(16);
+        table.put(snapshot(1L, "4870000000011"));
+
+        // When
+        boolean inserted = table.putIfAbsent(snapshot(2L, "4870000000011"));
+
+        // Then
+        assertFalse(inserted);
+        assertEquals(1L, table.get("4870000000011").id());
+    }
+
+    @Test
+    void remove_ShouldKeepCollidingEntriesReachable() {
+        // Given: "Aa" и "BB" имеют одинаковый hashCode и попадают в одну цепочку
+        BarcodeTable table = new BarcodeTable(16);
+        table.put(snapshot(1L, "Aa"));
+        table.put(snapshot(2L, "BB"));
+        table.put(snapshot(3L, "AaAa"));
+        table.put(snapshot(4L, "BBBB"));
+
+        // When
+        assertTrue(table.remove("Aa"));
+
+        // Then
+        assertNull(table.get("Aa"));
+        assertEquals(2L, table.get("BB").id());
+        assertEquals(3L, table.get("AaAa").id());
+        assertEquals(4L, table.get("BBBB").id());
+        assertEquals(3, table.size());
+        assertFalse(table.remove("Aa"));
+    }
+
+    @Test
+    void remove_ShouldSupportChurnWithoutLosingEntries() {
+        // Given
+        BarcodeTable table = new BarcodeTable(1_000);
+        List<String> live = new ArrayList<>();
+        for (long id = 1; id <= 1_000; id++) {
+            table.put(snapshot(id, barcode(id)));
+            live.add(barcode(id));
+        }
+
+        // When: удаляем каждый второй и добавляем новые
+        for (long id = 1; id <= 1_000; id += 2) {
+            assertTrue(table.remove(barcode(id)));
+            live.remove(barcode(id));
+            table.put(snapshot(id + 100_000, barcode(id + 100_000)));
+            live.add(barcode(id + 100_000));
+        }
+
+        // Then
+        assertEquals(live.size(), table.size());
+        for (String barcode : live) {
+            assertNotNull(table.get(barcode), barcode);
+        }
+        assertNull(table.get(barcode(1)));
+    }
+
+    private static String barcode(long id) {
+        return String.format("487%010d", id);
+    }
+
+    private static ProductSnapshot snapshot(Long id, String barcode) {
+        return new ProductSnapshot(id, 1L, "Товар " + id, barcode, "SKU-" + id, null, null, true);
+    }
+}
@@ -0,0 +1,109 @@
+package com.sauda.sauda_app.cache;
+
+import com.sauda.sauda_app.dto.DiscountRuleDefinition;
+import com.sauda.sauda_app.dto.ProductSnapshot;
+import com.sauda.sauda_app.entity.SalesItem;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Расчет скидок 10k чеков по 5k правил магазина: правила товаров, категорий и чека.
+ * Печатает время на чек и выделение памяти на чек (счетчик выделений потока JVM).
+ */
+class CompiledDiscountRulesBenchmarkTest {
+
+    private static final int PRODUCTS = 20_000;
+    private static final int CATEGORIES = 200;
+    private static final int PRODUCT_RULES = 4_000;
+    private static final int CATEGORY_RULES = 900;
+    private static final int BASKET_RULES = 100;
+    private static final int BASKETS = 10_000;
+    private static final int LINES_PER_BASKET = 20;
+    private static final LocalDate JAN_1 = LocalDate.of(2025, 1, 1);
+
+    @Test
+    void apply_ShouldEvaluateTenThousandBasketsAgainstFiveThousandRules() {
+        // Given
+        Random random = new Random(42);
+        List<ProductSnapshot> products = new ArrayList<>(PRODUCTS);
+        for (long id = 1; id <= PRODUCTS; id++) {
+            products.add(new ProductSnapshot(id, 1L, "Товар " + id, null, null, 1L + id % CATEGORIES, null, true));
+        }
+        List<DiscountRuleDefinition> definitions = new ArrayList<>();
+        for (int i = 0; i < PRODUCT_RULES; i++) {
+            definitions.add(rule(random, "product", 1L + random.nextInt(PRODUCTS), null));
+        }
+        for (int i = 0; i < CATEGORY_RULES; i++) {
+            definitions.add(rule(random, "category", 1L + random.nextInt(CATEGORIES), null));
+        }
+        for (int i = 0; i < BASKET_RULES; i++) {
+            definitions.add(rule(random, "total", null, BigDecimal.valueOf(500 + random.nextInt(5_000))));
+        }
+        long compileStarted = System.nanoTime();
+        CompiledDiscountRules rules = CompiledDiscountRules.compile(definitions, products);
+        long compileNanos = System.nanoTime() - compileStarted;
+
+        List<List<SalesItem>> baskets = new ArrayList<>(BASKETS);
+        for (int b = 0; b < BASKETS; b++) {
+            List<SalesItem> basket = new ArrayList<>(LINES_PER_BASKET);
+            for (int i = 0; i < LINES_PER_BASKET; i++) {
+                basket.add(item(1L + random.nextInt(PRODUCTS), 1 + random.nextInt(3), 50 + random.nextInt(950)));
+            }
+            baskets.add(basket);
+        }
+        int day = (int) JAN_1.plusDays(30).toEpochDay();
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        // When
+        run(rules, baskets, day);
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long started = System.nanoTime();
+        run(rules, baskets, day);
+        long nanos = System.nanoTime() - started;
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+        // Then
+        long discounted = baskets.stream().flatMap(List::stream).filter(item -> item.getDiscount().signum() > 0).count();
+        assertTrue(discounted > 0);
+        double seconds = nanos / 1_000_000_000.0;
+        System.out.printf("Discount rules: %d rules compiled in %.1f ms, %d baskets x %d lines in %.1f ms "
+                        + "(%.2f us/basket), %.0f bytes/basket allocated (%.0f MB/s), %d lines discounted%n",
+                definitions.size(), compileNanos / 1_000_000.0, BASKETS, LINES_PER_BASKET, nanos / 1_000_000.0,
+                nanos / 1000.0 / BASKETS, (double) allocated / BASKETS, allocated / 1_048_576.0 / seconds, discounted);
+    }
+
+    private static void run(CompiledDiscountRules rules, List<List<SalesItem>> baskets, int day) {
+        for (List<SalesItem> basket : baskets) {
+            for (SalesItem item : basket) {
+                item.setDiscount(BigDecimal.ZERO);
+            }
+            rules.apply(basket, day);
+        }
+    }
+
+    private static DiscountRuleDefinition rule(Random random, String appliesTo, Long targetId, BigDecimal minAmount) {
+        boolean percentage = random.nextBoolean();
+        BigDecimal value = BigDecimal.valueOf(percentage ? 1 + random.nextInt(30) : 5 + random.nextInt(100));
+        LocalDate start = JAN_1.plusDays(random.nextInt(60));
+        LocalDate end = random.nextInt(3) == 0 ? null : start.plusDays(random.nextInt(60));
+        return new DiscountRuleDefinition(null, percentage ? "percentage" : "fixed", value, appliesTo, targetId,
+                minAmount, start, end);
+    }
+
+    private static SalesItem item(Long productId, int quantity, int price) {
+        SalesItem item = new SalesItem();
+        item.setProductId(productId);
+        item.setQuantity(BigDecimal.valueOf(quantity));
+        item.setPrice(BigDecimal.valueOf(price, 0).setScale(2));
+        item.setDiscount(BigDecimal.ZERO);
+        return item;
+    }
+}
@@ -0,0 +1,177 @@
+package com.sauda.sauda_app.cache;
+
+import com.sauda.sauda_app.dto.DiscountRuleDefinition;
+import com.sauda.sauda_app.dto.ProductSnapshot;
+import com.sauda.sauda_app.entity.SalesItem;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompiledDiscountRulesTest {
+
+    private static final LocalDate JAN_1 = LocalDate.of(2025, 1, 1);
+    private static final int TODAY = (int) JAN_1.plusDays(5).toEpochDay();
+
+    private static final List<ProductSnapshot> PRODUCTS = List.of(
+            product(1L, 10L),
+            product(2L, 10L),
+            product(3L, 20L));
+
+    @Test
+    void apply_ShouldTakeBestOfProductAndCategoryRules() {
+        // Given: 10% на категорию 10 и 15 на товар 1
+        CompiledDiscountRules rules = CompiledDiscountRules.compile(List.of(
+                rule("percentage", "10", "category", 10L, null, JAN_1, null),
+                rule("fixed", "15", "product", 1L, null, JAN_1, null)), PRODUCTS);
+        List<SalesItem> items = List.of(item(1L, "2", "50.00"), item(2L, "1", "200.00"), item(3L, "1", "30.00"));
+
+        // When
+        rules.apply(items, TODAY);
+
+        // Then
+        assertAmount("15.00", items.get(0).getDiscount());
+        assertAmount("20.00", items.get(1).getDiscount());
+        assertAmount("0", items.get(2).getDiscount());
+        assertTrue(rules.hasCategoryRules());
+        assertEquals(2, rules.productCount());
+    }
+
+    @Test
+    void apply_ShouldIgnoreRulesOutsideDateWindow() {
+        // Given
+        CompiledDiscountRules rules = CompiledDiscountRules.compile(List.of(
+                rule("percentage", "50", "product", 1L, null, JAN_1.plusDays(6), null),
+                rule("percentage", "20", "product", 1L, null, JAN_1, JAN_1.plusDays(4)),
+                rule("percentage", "10", "product", 1L, null, JAN_1, JAN_1.plusDays(5))), PRODUCTS);
+        List<SalesItem> items = List.of(item(1L, "1", "100.00"));
+
+        // When
+        rules.apply(items, TODAY);
+
+        // Then
+        assertAmount("10.00", items.get(0).getDiscount());
+    }
+
+    @Test
+    void apply_ShouldKeepManualDiscount_WhenItIsLarger() {
+        // Given
+        CompiledDiscountRules rules = CompiledDiscountRules.compile(List.of(
+                rule("percentage", "5", "product", 1L, null, JAN_1, null)), PRODUCTS);
+        SalesItem manual = item(1L, "1", "100.00");
+        manual.setDiscount(new BigDecimal("12.00"));
+
+        // When
+        rules.apply(List.of(manual), TODAY);
+
+        // Then
+        assertAmount("12.00", manual.getDiscount());
+    }
+
+    @Test
+    void apply_ShouldCapFixedDiscountAtLineAmount() {
+        // Given
+        CompiledDiscountRules rules = CompiledDiscountRules.compile(List.of(
+                rule("fixed", "500", "product", 3L, null, JAN_1, null)), PRODUCTS);
+        List<SalesItem> items = List.of(item(3L, "1", "30.00"));
+
+        // When
+        rules.apply(items, TODAY);
+
+        // Then
+        assertAmount("30.00", items.get(0).getDiscount());
+    }
+
+    @Test
+    void apply_ShouldSpreadBasketDiscountAcrossLines_WhenThresholdIsReached() {
+        // Given: 10 с чека от 100 и 5% с чека от 1000
+        CompiledDiscountRules rules = CompiledDiscountRules.compile(List.of(
+                rule("fixed", "10", "total", null, "100", JAN_1, null),
+                rule("percentage", "5", "total", null, "1000", JAN_1, null)), PRODUCTS);
+        List<SalesItem> items = List.of(item(1L, "1", "10.00"), item(2L, "1", "10.00"), item(3L, "1", "100.00"));
+
+        // When
+        rules.apply(items, TODAY);
+
+        // Then: доли 0.83, 0.83, 8.33 и копейка остатка первой позиции
+        assertAmount("0.84", items.get(0).getDiscount());
+        assertAmount("0.83", items.get(1).getDiscount());
+        assertAmount("8.33", items.get(2).getDiscount());
+        assertAmount("10.00", items.stream().map(SalesItem::getDiscount).reduce(BigDecimal.ZERO, BigDecimal::add));
+    }
+
+    @Test
+    void apply_ShouldNotGiveBasketDiscount_WhenBelowThreshold() {
+        // Given
+        CompiledDiscountRules rules = CompiledDiscountRules.compile(List.of(
+                rule("fixed", "5000", "total", null, "100000", JAN_1, null)), PRODUCTS);
+        List<SalesItem> items = List.of(item(1L, "3", "100.00"));
+
+        // When
+        rules.apply(items, TODAY);
+
+        // Then
+        assertAmount("0", items.get(0).getDiscount());
+    }
+
+    @Test
+    void compile_ShouldSkipInvalidRules() {
+        // When
+        CompiledDiscountRules rules = CompiledDiscountRules.compile(List.of(
+                rule("percentage", "10", "category", null, null, JAN_1, null),
+                rule("bogo", "1", "product", 1L, null, JAN_1, null),
+                rule("percentage", "150", "product", 1L, null, JAN_1, null),
+                rule("fixed", "0", "product", 1L, null, JAN_1, null)), PRODUCTS);
+
+        // Then
+        assertEquals(0, rules.productCount());
+        assertFalse(rules.hasCategoryRules());
+    }
+
+    @Test
+    void compile_ShouldAcceptUpperCaseRules_WhenDefaultLocaleIsTurkish() {
+        // Given: в турецкой локали "FIXED".toLowerCase() дает "fıxed"
+        Locale defaultLocale = Locale.getDefault();
+        Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+        try {
+            CompiledDiscountRules rules = CompiledDiscountRules.compile(List.of(
+                    rule("FIXED", "15", "PRODUCT", 1L, null, JAN_1, null)), PRODUCTS);
+            List<SalesItem> items = List.of(item(1L, "1", "100.00"));
+
+            // When
+            rules.apply(items, TODAY);
+
+            // Then
+            assertAmount("15.00", items.get(0).getDiscount());
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    private static DiscountRuleDefinition rule(String type, String value, String appliesTo, Long targetId,
+                                               String minAmount, LocalDate start, LocalDate end) {
+        return new DiscountRuleDefinition(null, type, new BigDecimal(value), appliesTo, targetId,
+                minAmount == null ? null : new BigDecimal(minAmount), start, end);
+    }
+
+    private static ProductSnapshot product(Long id, Long categoryId) {
+        return new ProductSnapshot(id, 1L, "Товар " + id, null, null, categoryId, null, true);
+    }
+
+    private static SalesItem item(Long productId, String quantity, String price) {
+        SalesItem item = new SalesItem();
+        item.setProductId(productId);
+        item.setQuantity(new BigDecimal(quantity));
+        item.setPrice(new BigDecimal(price));
+        item.setDiscount(BigDecimal.ZERO);
+        return item;
+    }
+
+    private static void assertAmount(String expected, BigDecimal actual) {
+        assertEquals(0, new BigDecimal(expected).compareTo(actual), () -> "ожидалось " + expected + ", получено " + actual);
+    }
+}
@@ -0,0 +1,126 @@
+package com.sauda.sauda_app.cache;
+
+import com.sauda.sauda_app.dto.CustomerCounts;
+import com.sauda.sauda_app.event.CustomerChangedEvent;
+import com.sauda.sauda_app.repository.CustomerStatsJdbcRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerStatsCountersTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2024-03-15T10:00:00Z"), ZoneOffset.UTC);
+
+    @Mock
+    private CustomerStatsJdbcRepository statsRepository;
+
+    private CustomerStatsCounters counters;
+
+    @BeforeEach
+    void setUp() {
+        counters = new CustomerStatsCounters(statsRepository, CLOCK);
+    }
+
+    @Test
+    void get_ShouldLoadTenantOnceAndThenReadFromMemory() {
+        // Given
+        when(statsRepository.countByTenant(eq(1L), any(), any()))
+                .thenReturn(Optional.of(new CustomerCounts(1L, 100, 75, 2, 40)));
+
+        // When
+        for (int i = 0; i < 50; i++) {
+            counters.get(1L);
+        }
+        CustomerCounts result = counters.get(1L);
+
+        // Then
+        assertEquals(new CustomerCounts(1L, 100, 75, 2, 40), result);
+        verify(statsRepository, times(1)).countByTenant(eq(1L), any(), any());
+    }
+
+    @Test
+    void onCustomerChanged_ShouldUpdateCountersIncrementally() {
+        // Given
+        when(statsRepository.countByTenant(eq(1L), any(), any()))
+                .thenReturn(Optional.of(new CustomerCounts(1L, 100, 75, 2, 40)));
+        counters.get(1L);
+
+        // When: создан клиент с картой, у другого снята карта, третий удален без карты
+        counters.onCustomerChanged(new CustomerChangedEvent(1L, List.of("DC1"), List.of(), 1, 1));
+        counters.onCustomerChanged(new CustomerChangedEvent(1L, List.of("DC2"), List.of(), 0, -1));
+        counters.onCustomerChanged(new CustomerChangedEvent(1L, List.of(), List.of("+7"), -1, 0));
+
+        // Then
+        assertEquals(new CustomerCounts(1L, 100, 75, 3, 40), counters.get(1L));
+    }
+
+    @Test
+    void reconcileAll_ShouldReplaceCountersAndReportDrift() {
+        // Given: учтено 100 клиентов, в базе — 98 (удалены в обход сервиса)
+        when(statsRepository.countByTenant(eq(1L), any(), any()))
+                .thenReturn(Optional.of(new CustomerCounts(1L, 100, 75, 2, 40)));
+        counters.get(1L);
+        when(statsRepository.countAll(any(), any())).thenReturn(List.of(
+                new CustomerCounts(1L, 98, 75, 2, 41),
+                new CustomerCounts(2L, 10, 5, 0, 3)));
+
+        // When
+        List<Long> drifted = counters.reconcileAll();
+
+        // Then
+        assertEquals(List.of(1L), drifted);
+        assertEquals(new CustomerCounts(1L, 98, 75, 2, 41), counters.get(1L));
+        assertEquals(new CustomerCounts(2L, 10, 5, 0, 3), counters.get(2L));
+        verify(statsRepository, never()).countByTenant(eq(2L), any(), any());
+    }
+
+    @Test
+    void reconcileAll_ShouldNotTouchTenantsWithDedicatedDatabase() {
+        // Given: магазин 7 хранит клиентов в выделенной базе, в основной его строк нет
+        when(statsRepository.countByTenant(eq(7L), any(), any()))
+                .thenReturn(Optional.of(new CustomerCounts(7L, 500, 300, 4, 200)));
+        counters.get(7L);
+        when(statsRepository.countAll(any(), any())).thenReturn(List.of(new CustomerCounts(1L, 98, 75, 2, 41)));
+
+        // When
+        List<Long> drifted = counters.reconcileAll(Set.of(7L));
+
+        // Then
+        assertTrue(drifted.isEmpty());
+        assertEquals(new CustomerCounts(7L, 500, 300, 4, 200), counters.get(7L));
+    }
+
+    @Test
+    void reconcileAll_ShouldKeepChangesCommittedDuringQuery() {
+        // Given
+        when(statsRepository.countByTenant(eq(1L), any(), any()))
+                .thenReturn(Optional.of(new CustomerCounts(1L, 100, 75, 2, 40)));
+        counters.get(1L);
+
+        // When: клиент создан, пока идет запрос сверки, и в его снимок не попал
+        when(statsRepository.countAll(any(), any())).thenAnswer(invocation -> {
+            counters.onCustomerChanged(new CustomerChangedEvent(1L, List.of(), List.of(), 1, 0));
+            return List.of(new CustomerCounts(1L, 100, 75, 2, 40));
+        });
+        List<Long> drifted = counters.reconcileAll();
+
+        // Then
+        assertTrue(drifted.isEmpty());
+        assertEquals(new CustomerCounts(1L, 101, 75, 3, 40), counters.get(1L));
+    }
+}
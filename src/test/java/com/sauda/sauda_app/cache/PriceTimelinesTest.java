@@ -0,0 +1,126 @@
+package com.sauda.sauda_app.cache;
+
+import com.sauda.sauda_app.dto.PriceInterval;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriceTimelinesTest {
+
+    private static final LocalDate JAN_1 = LocalDate.of(2025, 1, 1);
+
+    @Test
+    void priceAt_ShouldRespectStartAndInclusiveEnd() {
+        // Given
+        PriceTimelines timelines = PriceTimelines.build(List.of(
+                interval(1L, "100", JAN_1, JAN_1.plusDays(9))));
+
+        // Then
+        assertNull(timelines.priceAt(1L, JAN_1.minusDays(1)));
+        assertPrice("100", timelines.priceAt(1L, JAN_1));
+        assertPrice("100", timelines.priceAt(1L, JAN_1.plusDays(9)));
+        assertNull(timelines.priceAt(1L, JAN_1.plusDays(10)));
+        assertNull(timelines.priceAt(2L, JAN_1));
+    }
+
+    @Test
+    void priceAt_ShouldPreferLatestStartedInterval_WhenIntervalsOverlap() {
+        // Given: бессрочная базовая цена и акция на неделю поверх нее
+        PriceTimelines timelines = PriceTimelines.build(List.of(
+                interval(1L, "100", JAN_1, null),
+                interval(1L, "80", JAN_1.plusDays(10), JAN_1.plusDays(16))));
+
+        // Then
+        assertPrice("100", timelines.priceAt(1L, JAN_1.plusDays(9)));
+        assertPrice("80", timelines.priceAt(1L, JAN_1.plusDays(10)));
+        assertPrice("80", timelines.priceAt(1L, JAN_1.plusDays(16)));
+        assertPrice("100", timelines.priceAt(1L, JAN_1.plusDays(17)));
+        assertPrice("100", timelines.priceAt(1L, JAN_1.plusYears(5)));
+    }
+
+    @Test
+    void priceAt_ShouldFallBackToEarlierInterval_WhenLaterOneEndsFirst() {
+        // Given
+        PriceTimelines timelines = PriceTimelines.build(List.of(
+                interval(1L, "100", JAN_1, JAN_1.plusDays(30)),
+                interval(1L, "120", JAN_1.plusDays(5), JAN_1.plusDays(10)),
+                interval(1L, "90", JAN_1.plusDays(40), null)));
+
+        // Then
+        assertPrice("120", timelines.priceAt(1L, JAN_1.plusDays(7)));
+        assertPrice("100", timelines.priceAt(1L, JAN_1.plusDays(11)));
+        assertNull(timelines.priceAt(1L, JAN_1.plusDays(35)));
+        assertPrice("90", timelines.priceAt(1L, JAN_1.plusDays(40)));
+    }
+
+    @Test
+    void replace_ShouldKeepLatestVersion_WhenUpdatesFinishOutOfOrder() {
+        // Given
+        PriceTimelines timelines = PriceTimelines.build(List.of(interval(1L, "100", JAN_1, null)));
+
+        // When: обновление 3 завершилось раньше обновления 2
+        timelines.replace(1L, List.of(interval(1L, "70", JAN_1, null)), 3);
+        timelines.replace(1L, List.of(interval(1L, "80", JAN_1, null)), 2);
+
+        // Then
+        assertPrice("70", timelines.priceAt(1L, JAN_1));
+    }
+
+    @Test
+    void priceAt_ShouldMatchLinearScanOnRandomIntervals() {
+        // Given
+        Random random = new Random(42);
+        List<PriceInterval> intervals = new ArrayList<>();
+        for (long productId = 1; productId <= 50; productId++) {
+            int count = 1 + random.nextInt(12);
+            for (int i = 0; i < count; i++) {
+                LocalDate start = JAN_1.plusDays(random.nextInt(365));
+                LocalDate end = random.nextInt(4) == 0 ? null : start.plusDays(random.nextInt(60));
+                long id = productId;
+                // Дата начала уникальна для товара, как и в таблице price_list
+                if (intervals.stream().noneMatch(existing -> existing.productId() == id
+                        && existing.startDate().equals(start))) {
+                    intervals.add(interval(productId, String.valueOf(1 + random.nextInt(500)), start, end));
+                }
+            }
+        }
+
+        // When
+        PriceTimelines timelines = PriceTimelines.build(intervals);
+
+        // Then
+        for (long productId = 1; productId <= 50; productId++) {
+            for (LocalDate day = JAN_1.minusDays(3); day.isBefore(JAN_1.plusDays(440)); day = day.plusDays(1)) {
+                assertEquals(linearScan(intervals, productId, day), timelines.priceAt(productId, day),
+                        "product " + productId + " at " + day);
+            }
+        }
+    }
+
+    private static BigDecimal linearScan(List<PriceInterval> intervals, long productId, LocalDate day) {
+        PriceInterval best = null;
+        for (PriceInterval interval : intervals) {
+            boolean covers = interval.productId() == productId && !interval.startDate().isAfter(day)
+                    && (interval.endDate() == null || !interval.endDate().isBefore(day));
+            if (covers && (best == null || interval.startDate().isAfter(best.startDate()))) {
+                best = interval;
+            }
+        }
+        return best == null ? null : best.price();
+    }
+
+    private static void assertPrice(String expected, BigDecimal actual) {
+        assertNotNull(actual);
+        assertEquals(0, new BigDecimal(expected).compareTo(actual));
+    }
+
+    private static PriceInterval interval(Long productId, String price, LocalDate start, LocalDate end) {
+        return new PriceInterval(productId, new BigDecimal(price), start, end);
+    }
+}
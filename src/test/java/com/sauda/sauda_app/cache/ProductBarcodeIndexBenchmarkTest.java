@@ -0,0 +1,78 @@
+package com.sauda.sauda_app.cache;
+
+import com.sauda.sauda_app.dto.ProductSnapshot;
+import com.sauda.sauda_app.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Сканирование штрих-кода на кассе: поиск в таблице магазина при 100k товаров в индексе.
+ * Время поиска не зависит от числа магазинов — просматривается только таблица магазина кассы.
+ */
+class ProductBarcodeIndexBenchmarkTest {
+
+    private static final int TENANTS = 100;
+    private static final int PRODUCTS_PER_TENANT = 1_000;
+    private static final int WARMUP = 200_000;
+    private static final int LOOKUPS = 1_000_000;
+
+    @Test
+    void find_ShouldServeScansFromTenantTable() {
+        // Given
+        List<ProductSnapshot> snapshots = new ArrayList<>(TENANTS * PRODUCTS_PER_TENANT);
+        for (long tenantId = 1; tenantId <= TENANTS; tenantId++) {
+            for (int i = 0; i < PRODUCTS_PER_TENANT; i++) {
+                long id = (tenantId - 1) * PRODUCTS_PER_TENANT + i + 1;
+                snapshots.add(new ProductSnapshot(id, tenantId, "Товар " + id, barcode(id), "SKU-" + id, null, null, true));
+            }
+        }
+        ProductRepository productRepository = mock(ProductRepository.class);
+        when(productRepository.findAllSellableSnapshots()).thenReturn(snapshots);
+        ProductBarcodeIndex index = new ProductBarcodeIndex(productRepository);
+        index.warmUp();
+        long tenantId = TENANTS / 2;
+        String[] hits = new String[PRODUCTS_PER_TENANT];
+        String[] misses = new String[PRODUCTS_PER_TENANT];
+        for (int i = 0; i < PRODUCTS_PER_TENANT; i++) {
+            hits[i] = barcode((tenantId - 1) * PRODUCTS_PER_TENANT + i + 1);
+            misses[i] = barcode(tenantId * PRODUCTS_PER_TENANT + i + 1);
+        }
+
+        // When
+        run(index, tenantId, hits, WARMUP);
+        long hitNanos = run(index, tenantId, hits, LOOKUPS);
+        run(index, tenantId, misses, WARMUP);
+        long missNanos = run(index, tenantId, misses, LOOKUPS);
+
+        // Then: штрих-код соседнего магазина в таблице кассы не находится
+        assertEquals(PRODUCTS_PER_TENANT, index.size(tenantId));
+        assertEquals(tenantId, index.find(tenantId, hits[0]).orElseThrow().tenantId());
+        assertTrue(index.find(tenantId, misses[0]).isEmpty());
+        assertTrue(index.find(tenantId + 1, misses[0]).isPresent());
+        System.out.printf("Barcode index: %d tenants x %d products, %d lookups, %.0f ns/lookup hit, %.0f ns/lookup miss%n",
+                TENANTS, PRODUCTS_PER_TENANT, LOOKUPS, (double) hitNanos / LOOKUPS, (double) missNanos / LOOKUPS);
+    }
+
+    private static long run(ProductBarcodeIndex index, long tenantId, String[] barcodes, int lookups) {
+        int found = 0;
+        long started = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            if (index.find(tenantId, barcodes[i % barcodes.length]).isPresent()) {
+                found++;
+            }
+        }
+        long elapsed = System.nanoTime() - started;
+        assertTrue(found == 0 || found == lookups);
+        return elapsed;
+    }
+
+    private static String barcode(long id) {
+        return String.format("487%010d", id);
+    }
+}
@@ -0,0 +1,84 @@
+package com.sauda.sauda_app.cache;
+
+import com.sauda.sauda_app.dto.PriceInterval;
+import com.sauda.sauda_app.repository.PriceListRepository;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Цены корзины из 100 строк на дату по индексу магазина с 100k товаров,
+ * у каждого — базовая цена и несколько акций поверх нее.
+ */
+class ProductPriceIndexBenchmarkTest {
+
+    private static final int PRODUCTS = 100_000;
+    private static final int PROMOTIONS_PER_PRODUCT = 4;
+    private static final int BASKET_LINES = 100;
+    private static final int WARMUP = 20_000;
+    private static final int BASKETS = 100_000;
+    private static final LocalDate JAN_1 = LocalDate.of(2025, 1, 1);
+
+    @Test
+    void pricesAt_ShouldPriceHundredLineBasket() {
+        // Given
+        Random random = new Random(42);
+        List<PriceInterval> intervals = new ArrayList<>(PRODUCTS * (PROMOTIONS_PER_PRODUCT + 1));
+        for (long productId = 1; productId <= PRODUCTS; productId++) {
+            intervals.add(new PriceInterval(productId, BigDecimal.valueOf(100 + random.nextInt(900)), JAN_1, null));
+            for (int i = 0; i < PROMOTIONS_PER_PRODUCT; i++) {
+                LocalDate start = JAN_1.plusDays(1 + i * 60L + random.nextInt(30));
+                intervals.add(new PriceInterval(productId, BigDecimal.valueOf(50 + random.nextInt(50)),
+                        start, start.plusDays(random.nextInt(14))));
+            }
+        }
+        PriceListRepository priceListRepository = mock(PriceListRepository.class);
+        when(priceListRepository.findIntervalsByTenantId(1L)).thenReturn(intervals);
+        ProductPriceIndex index = new ProductPriceIndex(priceListRepository);
+        long loadStarted = System.nanoTime();
+        index.priceAt(1L, 1L, JAN_1);
+        long loadNanos = System.nanoTime() - loadStarted;
+
+        List<List<Long>> baskets = new ArrayList<>();
+        for (int b = 0; b < 64; b++) {
+            List<Long> basket = new ArrayList<>(BASKET_LINES);
+            for (int i = 0; i < BASKET_LINES; i++) {
+                basket.add(1L + random.nextInt(PRODUCTS));
+            }
+            baskets.add(basket);
+        }
+        LocalDate date = JAN_1.plusDays(100);
+
+        // When
+        run(index, baskets, date, WARMUP);
+        long nanos = run(index, baskets, date, BASKETS);
+
+        // Then
+        assertEquals(Set.copyOf(baskets.get(0)).size(), index.pricesAt(1L, baskets.get(0), date).size());
+        System.out.printf("Price index: %d products x %d intervals loaded in %.0f ms, %d baskets x %d lines, %.2f us/basket%n",
+                PRODUCTS, PROMOTIONS_PER_PRODUCT + 1, loadNanos / 1_000_000.0, BASKETS, BASKET_LINES,
+                nanos / 1000.0 / BASKETS);
+    }
+
+    private static long run(ProductPriceIndex index, List<List<Long>> baskets, LocalDate date, int count) {
+        long priced = 0;
+        long started = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            Map<Long, BigDecimal> prices = index.pricesAt(1L, baskets.get(i % baskets.size()), date);
+            priced += prices.size();
+        }
+        long elapsed = System.nanoTime() - started;
+        assertTrue(priced > 0);
+        return elapsed;
+    }
+}
@@ -0,0 +1,145 @@
+package com.sauda.sauda_app.cache;
+
+import com.sauda.sauda_app.dto.PriceInterval;
+import com.sauda.sauda_app.event.PriceListChangedEvent;
+import com.sauda.sauda_app.repository.PriceListRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductPriceIndexTest {
+
+    private static final LocalDate JAN_1 = LocalDate.of(2025, 1, 1);
+
+    @Mock
+    private PriceListRepository priceListRepository;
+
+    @Test
+    void priceAt_ShouldLoadTenantOnce_WhenMissesAreConcurrent() throws Exception {
+        // Given: загрузка прайс-листа держится, пока не подойдут остальные запросы
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(priceListRepository.findIntervalsByTenantId(1L)).thenAnswer(invocation -> {
+            loading.countDown();
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+            return List.of(interval(10L, "100", JAN_1, null));
+        });
+        ProductPriceIndex index = new ProductPriceIndex(priceListRepository);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // When
+        List<Future<BigDecimal>> prices = new ArrayList<>();
+        prices.add(executor.submit(() -> index.priceAt(1L, 10L, JAN_1)));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 7; i++) {
+            prices.add(executor.submit(() -> index.priceAt(1L, 10L, JAN_1)));
+        }
+        release.countDown();
+
+        // Then
+        for (Future<BigDecimal> price : prices) {
+            assertEquals(0, new BigDecimal("100").compareTo(price.get(5, TimeUnit.SECONDS)));
+        }
+        executor.shutdown();
+        verify(priceListRepository, times(1)).findIntervalsByTenantId(1L);
+    }
+
+    @Test
+    void onPriceListChanged_ShouldRebuildOnlyChangedProduct() {
+        // Given
+        when(priceListRepository.findIntervalsByTenantId(1L)).thenReturn(List.of(
+                interval(10L, "100", JAN_1, null),
+                interval(20L, "50", JAN_1, null)));
+        when(priceListRepository.findIntervalsByTenantIdAndProductId(1L, 10L)).thenReturn(List.of(
+                interval(10L, "100", JAN_1, null),
+                interval(10L, "80", JAN_1.plusDays(10), JAN_1.plusDays(16))));
+        ProductPriceIndex index = new ProductPriceIndex(priceListRepository);
+        index.priceAt(1L, 10L, JAN_1);
+
+        // When
+        index.onPriceListChanged(new PriceListChangedEvent(1L, 10L));
+
+        // Then: индекс магазина не перезагружался, изменилась только шкала товара
+        assertEquals(0, new BigDecimal("80").compareTo(index.priceAt(1L, 10L, JAN_1.plusDays(12))));
+        assertEquals(0, new BigDecimal("50").compareTo(index.priceAt(1L, 20L, JAN_1.plusDays(12))));
+        verify(priceListRepository, times(1)).findIntervalsByTenantId(1L);
+    }
+
+    @Test
+    void onPriceListChanged_ShouldRemoveProduct_WhenItHasNoPricesLeft() {
+        // Given
+        when(priceListRepository.findIntervalsByTenantId(1L)).thenReturn(List.of(interval(10L, "100", JAN_1, null)));
+        when(priceListRepository.findIntervalsByTenantIdAndProductId(1L, 10L)).thenReturn(List.of());
+        ProductPriceIndex index = new ProductPriceIndex(priceListRepository);
+        index.priceAt(1L, 10L, JAN_1);
+
+        // When
+        index.onPriceListChanged(new PriceListChangedEvent(1L, 10L));
+
+        // Then
+        assertNull(index.priceAt(1L, 10L, JAN_1));
+    }
+
+    @Test
+    void refresh_ShouldQueryProductOutsideLocks_WhenRefreshesOverlap() throws Exception {
+        // Given: чтение цен товара 10 держится, пока не обновится товар 20
+        when(priceListRepository.findIntervalsByTenantId(1L)).thenReturn(List.of(
+                interval(10L, "100", JAN_1, null),
+                interval(20L, "50", JAN_1, null)));
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(priceListRepository.findIntervalsByTenantIdAndProductId(1L, 10L)).thenAnswer(invocation -> {
+            loading.countDown();
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+            return List.of(interval(10L, "90", JAN_1, null));
+        });
+        when(priceListRepository.findIntervalsByTenantIdAndProductId(1L, 20L))
+                .thenReturn(List.of(interval(20L, "40", JAN_1, null)));
+        ProductPriceIndex index = new ProductPriceIndex(priceListRepository);
+        index.priceAt(1L, 10L, JAN_1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        // When
+        Future<?> slow = executor.submit(() -> index.refresh(1L, 10L));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        index.refresh(1L, 20L);
+        release.countDown();
+        slow.get(5, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        // Then: второе обновление не ждало первого, оба применены
+        assertEquals(0, new BigDecimal("90").compareTo(index.priceAt(1L, 10L, JAN_1)));
+        assertEquals(0, new BigDecimal("40").compareTo(index.priceAt(1L, 20L, JAN_1)));
+    }
+
+    @Test
+    void onPriceListChanged_ShouldSkipProductQuery_WhenTenantNotLoaded() {
+        // Given
+        ProductPriceIndex index = new ProductPriceIndex(priceListRepository);
+
+        // When
+        index.onPriceListChanged(new PriceListChangedEvent(1L, 10L));
+
+        // Then
+        verifyNoInteractions(priceListRepository);
+    }
+
+    private static PriceInterval interval(Long productId, String price, LocalDate start, LocalDate end) {
+        return new PriceInterval(productId, new BigDecimal(price), start, end);
+    }
+}
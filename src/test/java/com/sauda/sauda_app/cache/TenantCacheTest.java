@@ -0,0 +1,104 @@
+package com.sauda.sauda_app.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TenantCacheTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void get_ShouldLoadOncePerTenant() {
+        // Given
+        TenantCache<String> cache = cache(10, Duration.ofMinutes(5));
+
+        // When
+        for (int i = 0; i < 100; i++) {
+            cache.get(1L, this::load);
+        }
+        List<String> other = cache.get(2L, this::load);
+
+        // Then
+        assertEquals(2, loads.get());
+        assertEquals(List.of("tenant-2"), other);
+        CacheRegionMetrics metrics = cache.metrics();
+        assertEquals(99, metrics.hits());
+        assertEquals(2, metrics.misses());
+        assertEquals(2, metrics.tenants());
+    }
+
+    @Test
+    void get_ShouldReload_WhenEntryExpired() {
+        // Given
+        TenantCache<String> cache = cache(10, Duration.ofSeconds(30));
+        cache.get(1L, this::load);
+
+        // When
+        clock.addAndGet(Duration.ofSeconds(29).toNanos());
+        cache.get(1L, this::load);
+        clock.addAndGet(Duration.ofSeconds(2).toNanos());
+        cache.get(1L, this::load);
+
+        // Then
+        assertEquals(2, loads.get());
+        assertEquals(1, cache.metrics().expirations());
+    }
+
+    @Test
+    void get_ShouldEvictLeastRecentlyUsedTenant_WhenFull() {
+        // Given
+        TenantCache<String> cache = cache(2, Duration.ofMinutes(5));
+        cache.get(1L, this::load);
+        clock.incrementAndGet();
+        cache.get(2L, this::load);
+        clock.incrementAndGet();
+        cache.get(1L, this::load);
+        clock.incrementAndGet();
+
+        // When: третий магазин вытесняет второй — к нему обращались раньше всех
+        cache.get(3L, this::load);
+        cache.get(1L, this::load);
+
+        // Then
+        assertEquals(3, loads.get());
+        CacheRegionMetrics metrics = cache.metrics();
+        assertEquals(1, metrics.evictions());
+        assertEquals(2, metrics.tenants());
+    }
+
+    @Test
+    void invalidate_ShouldDropTenantAndDiscardLoadStartedBefore() {
+        // Given
+        TenantCache<String> cache = cache(10, Duration.ofMinutes(5));
+        cache.get(1L, this::load);
+
+        // When: сброс приходит, пока идет загрузка
+        cache.invalidate(1L);
+        List<String> loadedDuringInvalidation = cache.get(1L, tenantId -> {
+            cache.invalidate(tenantId);
+            return load(tenantId);
+        });
+        cache.get(1L, this::load);
+
+        // Then: загрузка, начатая до сброса, в кэш не попала
+        assertEquals(List.of("tenant-1"), loadedDuringInvalidation);
+        assertEquals(3, loads.get());
+        assertEquals(1, cache.metrics().invalidations());
+    }
+
+    private TenantCache<String> cache(int maxTenants, Duration ttl) {
+        return new TenantCache<>("test", maxTenants, ttl, clock::get);
+    }
+
+    private List<String> load(Long tenantId) {
+        loads.incrementAndGet();
+        return List.of("tenant-" + tenantId);
+    }
+}
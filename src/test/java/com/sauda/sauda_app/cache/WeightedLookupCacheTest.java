@@ -0,0 +1,106 @@
+package com.sauda.sauda_app.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WeightedLookupCacheTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void get_ShouldCacheFoundAndMissingValues() {
+        // Given
+        WeightedLookupCache<String, String> cache = cache(1000);
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            cache.get("known", this::load);
+            cache.get("unknown", this::load);
+        }
+
+        // Then
+        assertEquals(2, loads.get());
+        assertEquals(Optional.empty(), cache.get("unknown", this::load));
+        LookupCacheMetrics metrics = cache.metrics();
+        assertEquals(19, metrics.hits());
+        assertEquals(10, metrics.negativeHits());
+        assertEquals(2, metrics.misses());
+    }
+
+    @Test
+    void get_ShouldExpireMissingValuesEarlier() {
+        // Given: найденное живет 5 минут, пустой результат — 30 секунд
+        WeightedLookupCache<String, String> cache = cache(1000);
+        cache.get("known", this::load);
+        cache.get("unknown", this::load);
+
+        // When
+        clock.addAndGet(Duration.ofSeconds(31).toNanos());
+        cache.get("known", this::load);
+        cache.get("unknown", this::load);
+
+        // Then
+        assertEquals(3, loads.get());
+        assertEquals(1, cache.metrics().expirations());
+    }
+
+    @Test
+    void get_ShouldEvictLeastRecentlyUsed_WhenOverWeightBudget() {
+        // Given: каждая запись весит 100, бюджет — три записи
+        WeightedLookupCache<String, String> cache = cache(300);
+        cache.get("known-1", this::load);
+        cache.get("known-2", this::load);
+        cache.get("known-3", this::load);
+        cache.get("known-1", this::load);
+
+        // When: четвертая запись вытесняет known-2 — к ней обращались раньше всех
+        cache.get("known-4", this::load);
+        cache.get("known-1", this::load);
+        cache.get("known-2", this::load);
+
+        // Then
+        assertEquals(5, loads.get());
+        LookupCacheMetrics metrics = cache.metrics();
+        assertEquals(2, metrics.evictions());
+        assertEquals(300, metrics.weightBytes());
+        assertEquals(3, metrics.entries());
+    }
+
+    @Test
+    void invalidate_ShouldDropEntryAndDiscardLoadStartedBefore() {
+        // Given
+        WeightedLookupCache<String, String> cache = cache(1000);
+        cache.get("unknown", this::load);
+
+        // When: сброс приходит, пока идет загрузка
+        cache.invalidate("unknown");
+        Optional<String> loadedDuringInvalidation = cache.get("unknown", key -> {
+            cache.invalidate(key);
+            return load(key);
+        });
+        cache.get("unknown", this::load);
+
+        // Then: загрузка, начатая до сброса, в кэш не попала
+        assertEquals(Optional.empty(), loadedDuringInvalidation);
+        assertEquals(3, loads.get());
+        assertEquals(1, cache.metrics().invalidations());
+        assertEquals(100, cache.metrics().weightBytes());
+    }
+
+    private WeightedLookupCache<String, String> cache(long maxWeight) {
+        return new WeightedLookupCache<>("test", maxWeight, Duration.ofMinutes(5), Duration.ofSeconds(30),
+                (key, value) -> 100, clock::get);
+    }
+
+    private Optional<String> load(String key) {
+        loads.incrementAndGet();
+        return key.startsWith("known") ? Optional.of("customer-" + key) : Optional.empty();
+    }
+}
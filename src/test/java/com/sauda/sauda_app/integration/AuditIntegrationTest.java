@@ -0,0 +1,171 @@
+package com.sauda.sauda_app.integration;
+
+import com.sauda.sauda_app.audit.AuditPipeline;
+import com.sauda.sauda_app.audit.ProductDiffCodec;
+import com.sauda.sauda_app.config.TestIntegrationSecurityConfig;
+import com.sauda.sauda_app.dto.ProductDto;
+import com.sauda.sauda_app.service.ProductHistoryService;
+import com.sauda.sauda_app.service.ProductService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Асинхронный аудит: изменение товара после фиксации попадает в журнал аудита
+ * и в историю товара фоновой пакетной записью; товар восстанавливается на момент по истории.
+ * Тест не транзакционный — слушатели аудита срабатывают только после фиксации, — поэтому
+ * данные отдельного арендатора удаляются после каждого теста.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestIntegrationSecurityConfig.class)
+class AuditIntegrationTest {
+
+    private static final long TENANT_ID = 9007L;
+    private static final long WAIT_MILLIS = 5000;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductHistoryService productHistoryService;
+
+    @Autowired
+    private AuditPipeline auditPipeline;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long productId;
+    private String code;
+
+    @BeforeEach
+    void setUp() {
+        code = "AUDIT-" + UUID.randomUUID().toString().substring(0, 8);
+        productId = jdbcTemplate.queryForObject(
+                "INSERT INTO products (tenant_id, name, barcode, sku) VALUES (?, ?, ?, ?) RETURNING id",
+                Long.class, TENANT_ID, "Кофе молотый", code, code);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM audit_log WHERE tenant_id = ?", TENANT_ID);
+        jdbcTemplate.update("DELETE FROM product_history WHERE tenant_id = ?", TENANT_ID);
+        jdbcTemplate.update("DELETE FROM products WHERE id = ?", productId);
+    }
+
+    @Test
+    void updateProduct_ShouldBeWrittenToAuditLogAndProductHistory() throws Exception {
+        // Given
+        long writtenBefore = auditPipeline.getMetrics().written();
+        ProductDto dto = new ProductDto();
+        dto.setTenantId(TENANT_ID);
+        dto.setName("Кофе в зернах");
+        dto.setBarcode(code);
+        dto.setSku(code);
+
+        // When
+        productService.updateProduct(productId, dto);
+
+        // Then: запись идет в фоне, поэтому ждем ее появления
+        Integer auditRows = await(() -> jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM audit_log WHERE tenant_id = ? AND object_type = 'Product' AND object_id = ?",
+                Integer.class, TENANT_ID, productId));
+        assertEquals(1, auditRows);
+
+        Map<String, Object> audit = jdbcTemplate.queryForMap(
+                "SELECT action, details_json::text AS details FROM audit_log WHERE tenant_id = ? AND object_id = ?",
+                TENANT_ID, productId);
+        assertEquals("UPDATE", audit.get("action"));
+        assertTrue(((String) audit.get("details")).contains("Кофе в зернах"));
+
+        Integer historyRows = await(() -> jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM product_history WHERE tenant_id = ? AND product_id = ?",
+                Integer.class, TENANT_ID, productId));
+        assertEquals(1, historyRows);
+        assertTrue(auditPipeline.getMetrics().written() > writtenBefore);
+
+        // Первая ревизия товара — полный снимок
+        assertEquals(Boolean.TRUE, jdbcTemplate.queryForObject(
+                "SELECT snapshot FROM product_history WHERE product_id = ? AND revision = 1", Boolean.class, productId));
+        Optional<ProductDto> restored = productHistoryService.getProductAt(TENANT_ID, productId, LocalDateTime.now());
+        assertTrue(restored.isPresent());
+        assertEquals("Кофе в зернах", restored.get().getName());
+        assertEquals(code, restored.get().getSku());
+    }
+
+    @Test
+    void getProductAt_ShouldReplayChangesSinceLatestSnapshot() {
+        // Given: снимок, изменение цены, снимок и изменение названия
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 10, 0);
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("tenantId", TENANT_ID);
+        state.put("name", "Кофе молотый");
+        state.put("sku", code);
+        state.put("price", new BigDecimal("450.00"));
+        insertHistory(1, start, ProductDiffCodec.encode(state, true));
+        insertHistory(2, start.plusDays(1), ProductDiffCodec.encode(Map.of("price", new BigDecimal("480.00")), false));
+        state.put("price", new BigDecimal("480.00"));
+        state.put("description", "Обжарка средняя");
+        insertHistory(3, start.plusDays(2), ProductDiffCodec.encode(state, true));
+        insertHistory(4, start.plusDays(3), ProductDiffCodec.encode(Map.of("name", "Кофе арабика"), false));
+
+        // When
+        Optional<ProductDto> beforeHistory = productHistoryService.getProductAt(TENANT_ID, productId, start.minusDays(1));
+        ProductDto afterRepricing = productHistoryService.getProductAt(TENANT_ID, productId, start.plusDays(1)).orElseThrow();
+        ProductDto latest = productHistoryService.getProductAt(TENANT_ID, productId, start.plusDays(5)).orElseThrow();
+        Optional<ProductDto> otherTenant = productHistoryService.getProductAt(1L, productId, start.plusDays(5));
+
+        // Then
+        assertTrue(beforeHistory.isEmpty());
+        assertEquals("Кофе молотый", afterRepricing.getName());
+        assertAmount("480.00", afterRepricing.getPrice());
+        assertNull(afterRepricing.getDescription());
+        assertEquals("Кофе арабика", latest.getName());
+        assertEquals("Обжарка средняя", latest.getDescription());
+        assertTrue(otherTenant.isEmpty());
+    }
+
+    @Test
+    void getMetrics_ShouldReportConfiguredCapacity() {
+        // When / Then
+        assertTrue(auditPipeline.getMetrics().queueCapacity() > 0);
+        assertTrue(auditPipeline.getMetrics().queueDepth() >= 0);
+    }
+
+    private void insertHistory(int revision, LocalDateTime changedAt, byte[] diff) {
+        jdbcTemplate.update("INSERT INTO product_history (tenant_id, product_id, changed_at, revision, snapshot, diff) " +
+                        "VALUES (?, ?, ?, ?, ?, ?)",
+                TENANT_ID, productId, Timestamp.valueOf(changedAt), revision, ProductDiffCodec.decode(diff).snapshot(), diff);
+    }
+
+    private static void assertAmount(String expected, BigDecimal actual) {
+        assertEquals(0, new BigDecimal(expected).compareTo(actual), () -> "ожидалось " + expected + ", получено " + actual);
+    }
+
+    private static Integer await(Supplier<Integer> count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + WAIT_MILLIS;
+        Integer value = count.get();
+        while (value == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            value = count.get();
+        }
+        return value;
+    }
+}
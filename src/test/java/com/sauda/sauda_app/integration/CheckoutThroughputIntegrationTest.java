@@ -0,0 +1,172 @@
+package com.sauda.sauda_app.integration;
+
+import com.sauda.sauda_app.dto.SaleDto;
+import com.sauda.sauda_app.dto.SaleItemDto;
+import com.sauda.sauda_app.service.SaleService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Пропускная способность проведения чеков на Postgres: несколько касс параллельно
+ * проводят чеки по одним и тем же товарам одного склада. Печатает чеки в секунду
+ * и p99 времени проведения с фиксацией транзакции.
+ * Данные создаются для отдельных арендаторов и удаляются после теста.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class CheckoutThroughputIntegrationTest {
+
+    private static final int TILLS = 16;
+    private static final int RECEIPTS_PER_TILL = 100;
+    private static final int LINES_PER_RECEIPT = 5;
+    private static final long TENANT_ID = 9011L;
+    private static final long OTHER_TENANT_ID = 9012L;
+
+    @Autowired
+    private SaleService saleService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long warehouseId;
+    private Long otherWarehouseId;
+    private Long otherProductId;
+    private final List<Long> productIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        warehouseId = insertWarehouse(TENANT_ID, "Торговый зал");
+        for (int i = 0; i < LINES_PER_RECEIPT; i++) {
+            Long productId = insertProduct(TENANT_ID, "CHECKOUT-" + i);
+            insertInventory(TENANT_ID, productId, warehouseId, TILLS * RECEIPTS_PER_TILL);
+            productIds.add(productId);
+        }
+        otherWarehouseId = insertWarehouse(OTHER_TENANT_ID, "Склад другого магазина");
+        otherProductId = insertProduct(OTHER_TENANT_ID, "CHECKOUT-OTHER");
+        insertInventory(OTHER_TENANT_ID, otherProductId, otherWarehouseId, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (long tenantId : new long[]{TENANT_ID, OTHER_TENANT_ID}) {
+            jdbcTemplate.update("DELETE FROM payments WHERE tenant_id = ?", tenantId);
+            jdbcTemplate.update("DELETE FROM sales_items WHERE tenant_id = ?", tenantId);
+            jdbcTemplate.update("DELETE FROM inventory_movements WHERE tenant_id = ?", tenantId);
+            jdbcTemplate.update("DELETE FROM sales_daily_rollup WHERE tenant_id = ?", tenantId);
+            jdbcTemplate.update("DELETE FROM sales WHERE tenant_id = ?", tenantId);
+            jdbcTemplate.update("DELETE FROM inventory WHERE tenant_id = ?", tenantId);
+            jdbcTemplate.update("DELETE FROM products WHERE tenant_id = ?", tenantId);
+            jdbcTemplate.update("DELETE FROM warehouses WHERE tenant_id = ?", tenantId);
+        }
+    }
+
+    @Test
+    void concurrentCheckouts_ShouldWriteEveryReceiptAndReportThroughput() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(TILLS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<long[]>> futures = new ArrayList<>();
+
+        for (int t = 0; t < TILLS; t++) {
+            futures.add(executor.submit(() -> {
+                long[] latencies = new long[RECEIPTS_PER_TILL];
+                start.await();
+                for (int i = 0; i < RECEIPTS_PER_TILL; i++) {
+                    long startedAt = System.nanoTime();
+                    saleService.createSale(receipt(warehouseId, productIds));
+                    latencies[i] = System.nanoTime() - startedAt;
+                }
+                return latencies;
+            }));
+        }
+
+        long startedAt = System.nanoTime();
+        start.countDown();
+        long[] latencies = new long[TILLS * RECEIPTS_PER_TILL];
+        int offset = 0;
+        for (Future<long[]> future : futures) {
+            long[] tillLatencies = future.get(2, TimeUnit.MINUTES);
+            System.arraycopy(tillLatencies, 0, latencies, offset, tillLatencies.length);
+            offset += tillLatencies.length;
+        }
+        long elapsedNanos = System.nanoTime() - startedAt;
+        executor.shutdown();
+
+        // Каждый чек списал по одной штуке каждого товара, склад опустел ровно до нуля
+        assertEquals(TILLS * RECEIPTS_PER_TILL, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM sales WHERE tenant_id = ?", Integer.class, TENANT_ID));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM inventory WHERE tenant_id = ? AND quantity <> 0", Integer.class, TENANT_ID));
+
+        Arrays.sort(latencies);
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        double p99Millis = latencies[(int) Math.ceil(latencies.length * 0.99) - 1] / 1_000_000.0;
+        System.out.printf("Checkout: %d tills, %d receipts x %d lines in %.2f s (%.0f receipts/s), p99 %.2f ms%n",
+                TILLS, latencies.length, LINES_PER_RECEIPT, seconds, latencies.length / seconds, p99Millis);
+    }
+
+    @Test
+    void checkout_ShouldNotWriteOffStockOfAnotherTenant() {
+        // Given: склад и товар другого магазина
+        SaleDto foreign = receipt(otherWarehouseId, List.of(otherProductId));
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> saleService.createSale(foreign));
+        assertEquals(0, BigDecimal.TEN.compareTo(jdbcTemplate.queryForObject(
+                "SELECT quantity FROM inventory WHERE product_id = ? AND warehouse_id = ?",
+                BigDecimal.class, otherProductId, otherWarehouseId)));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM sales WHERE tenant_id = ?", Integer.class, TENANT_ID));
+    }
+
+    private static SaleDto receipt(Long warehouseId, List<Long> productIds) {
+        SaleDto sale = new SaleDto();
+        sale.setTenantId(TENANT_ID);
+        sale.setWarehouseId(warehouseId);
+        sale.setPaymentMethod("CASH");
+        List<SaleItemDto> items = new ArrayList<>(productIds.size());
+        for (Long productId : productIds) {
+            SaleItemDto item = new SaleItemDto();
+            item.setProductId(productId);
+            item.setQuantity(BigDecimal.ONE);
+            item.setPrice(new BigDecimal("99.90"));
+            items.add(item);
+        }
+        sale.setItems(items);
+        return sale;
+    }
+
+    private Long insertWarehouse(long tenantId, String name) {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO warehouses (tenant_id, name) VALUES (?, ?) RETURNING id",
+                Long.class, tenantId, name);
+    }
+
+    private Long insertProduct(long tenantId, String code) {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO products (tenant_id, name, barcode, sku) VALUES (?, ?, ?, ?) RETURNING id",
+                Long.class, tenantId, "Товар " + code, code, code);
+    }
+
+    private void insertInventory(long tenantId, Long productId, Long warehouseId, int quantity) {
+        jdbcTemplate.update(
+                "INSERT INTO inventory (tenant_id, product_id, warehouse_id, quantity) VALUES (?, ?, ?, ?)",
+                tenantId, productId, warehouseId, quantity);
+    }
+}
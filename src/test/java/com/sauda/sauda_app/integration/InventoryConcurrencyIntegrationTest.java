@@ -0,0 +1,191 @@
+package com.sauda.sauda_app.integration;
+
+import com.sauda.sauda_app.dto.TransferDto;
+import com.sauda.sauda_app.dto.TransferItemDto;
+import com.sauda.sauda_app.service.InventoryService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Нагрузочная проверка атомарного списания: 64 потока списывают один и тот же товар
+ * с одного склада. Обновления не должны теряться, а остаток не должен уходить в минус.
+ * Встречные пакетные перемещения между двумя складами не должны взаимно блокироваться.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class InventoryConcurrencyIntegrationTest {
+
+    private static final int THREADS = 64;
+    private static final int DECREMENTS_PER_THREAD = 50;
+    private static final int INITIAL_QUANTITY = THREADS * DECREMENTS_PER_THREAD - 200;
+    private static final long TENANT_ID = 1L;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long productId;
+    private Long otherProductId;
+    private Long warehouseId;
+    private Long otherWarehouseId;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        warehouseId = insertWarehouse("Stress warehouse " + suffix);
+        otherWarehouseId = insertWarehouse("Stress warehouse 2 " + suffix);
+        productId = insertProduct("STRESS-" + suffix);
+        otherProductId = insertProduct("STRESS2-" + suffix);
+        insertInventory(productId, warehouseId, INITIAL_QUANTITY);
+        insertInventory(productId, otherWarehouseId, INITIAL_QUANTITY);
+        insertInventory(otherProductId, warehouseId, INITIAL_QUANTITY);
+        insertInventory(otherProductId, otherWarehouseId, INITIAL_QUANTITY);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM inventory WHERE product_id IN (?, ?)", productId, otherProductId);
+        jdbcTemplate.update("DELETE FROM products WHERE id IN (?, ?)", productId, otherProductId);
+        jdbcTemplate.update("DELETE FROM warehouses WHERE id IN (?, ?)", warehouseId, otherWarehouseId);
+    }
+
+    @Test
+    void concurrentDecreases_ShouldNotLoseUpdatesOrOversell() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < DECREMENTS_PER_THREAD; i++) {
+                    try {
+                        inventoryService.decreaseInventory(productId, warehouseId, BigDecimal.ONE);
+                        succeeded.incrementAndGet();
+                    } catch (IllegalArgumentException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long startedAt = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        long elapsedNanos = System.nanoTime() - startedAt;
+        executor.shutdown();
+
+        BigDecimal remaining = quantityOf(productId, warehouseId);
+
+        // Каждое успешное списание учтено ровно один раз, лишних продаж нет
+        assertEquals(INITIAL_QUANTITY, succeeded.get());
+        assertEquals(THREADS * DECREMENTS_PER_THREAD - INITIAL_QUANTITY, rejected.get());
+        assertEquals(0, BigDecimal.ZERO.compareTo(remaining));
+
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        System.out.printf("Inventory stress: %d threads, %d decrements in %.2f s (%.0f ops/s)%n",
+                THREADS, THREADS * DECREMENTS_PER_THREAD, seconds, THREADS * DECREMENTS_PER_THREAD / seconds);
+    }
+
+    @Test
+    void opposingBatchTransfers_ShouldCompleteWithoutDeadlockAndKeepTotals() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // Половина потоков везет товары на второй склад, половина обратно, каждый раз по одной штуке
+        for (int t = 0; t < THREADS; t++) {
+            TransferDto transfer = t % 2 == 0
+                    ? transfer(warehouseId, otherWarehouseId)
+                    : transfer(otherWarehouseId, warehouseId);
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < DECREMENTS_PER_THREAD; i++) {
+                    inventoryService.transferInventoryBatch(transfer);
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        // Потоков в обе стороны поровну, поэтому остатки возвращаются к исходным
+        BigDecimal initial = BigDecimal.valueOf(INITIAL_QUANTITY);
+        assertEquals(0, initial.compareTo(quantityOf(productId, warehouseId)));
+        assertEquals(0, initial.compareTo(quantityOf(productId, otherWarehouseId)));
+        assertEquals(0, initial.compareTo(quantityOf(otherProductId, warehouseId)));
+        assertEquals(0, initial.compareTo(quantityOf(otherProductId, otherWarehouseId)));
+    }
+
+    private TransferDto transfer(Long fromWarehouseId, Long toWarehouseId) {
+        TransferDto transfer = new TransferDto();
+        transfer.setTenantId(TENANT_ID);
+        transfer.setFromWarehouseId(fromWarehouseId);
+        transfer.setToWarehouseId(toWarehouseId);
+        // Товары перечислены в разном порядке, блокировки все равно берутся упорядоченно
+        transfer.setItems(fromWarehouseId.equals(warehouseId)
+                ? List.of(transferItem(productId), transferItem(otherProductId))
+                : List.of(transferItem(otherProductId), transferItem(productId)));
+        return transfer;
+    }
+
+    private TransferItemDto transferItem(Long productId) {
+        TransferItemDto item = new TransferItemDto();
+        item.setProductId(productId);
+        item.setQuantity(BigDecimal.ONE);
+        return item;
+    }
+
+    private Long insertWarehouse(String name) {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO warehouses (tenant_id, name) VALUES (?, ?) RETURNING id",
+                Long.class, TENANT_ID, name);
+    }
+
+    private Long insertProduct(String code) {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO products (tenant_id, name, barcode, sku) VALUES (?, ?, ?, ?) RETURNING id",
+                Long.class, TENANT_ID, "Stress product " + code, code, code);
+    }
+
+    private void insertInventory(Long productId, Long warehouseId, int quantity) {
+        jdbcTemplate.update(
+                "INSERT INTO inventory (tenant_id, product_id, warehouse_id, quantity) VALUES (?, ?, ?, ?)",
+                TENANT_ID, productId, warehouseId, quantity);
+    }
+
+    private BigDecimal quantityOf(Long productId, Long warehouseId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT quantity FROM inventory WHERE product_id = ? AND warehouse_id = ?",
+                BigDecimal.class, productId, warehouseId);
+    }
+}
@@ -14,8 +14,10 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 import com.sauda.sauda_app.config.TestIntegrationSecurityConfig;
 
+import java.util.List;
 import java.util.Map;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -47,21 +49,36 @@ class InventoryControllerIntegrationTest {
     }
 
     @Test
-    void adjustInventory_ShouldAdjustInventory_WhenValidData() throws Exception {
-        Map<String, Object> adjustmentData = Map.of(
-            "productId", "123",
-            "warehouseId", "456",
-            "quantity", "10",
-            "reason", "Stock adjustment"
+    void transferInventory_ShouldReturnBadRequest_WhenStockIsInsufficient() throws Exception {
+        Map<String, Object> transferData = Map.of(
+            "fromWarehouseId", 1,
+            "toWarehouseId", 2,
+            "items", List.of(Map.of("productId", 1, "quantity", 1000000))
         );
 
-        mockMvc.perform(post("/api/inventory/adjust")
+        mockMvc.perform(post("/api/inventory/transfer")
+                .param("tenantId", "1")
                 .contentType(MediaType.APPLICATION_JSON)
-                .content(objectMapper.writeValueAsString(adjustmentData)))
-                .andExpect(status().isOk())
-                .andExpect(jsonPath("$.message").value("Inventory adjusted successfully"))
-                .andExpect(jsonPath("$.adjustmentId").value("67890"))
-                .andExpect(jsonPath("$.status").value("success"));
+                .content(objectMapper.writeValueAsString(transferData)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Bad Request"))
+                .andExpect(jsonPath("$.message").value(containsString("Недостаточно товара")));
+    }
+
+    @Test
+    void transferInventory_ShouldReturnBadRequest_WhenWarehousesAreEqual() throws Exception {
+        Map<String, Object> transferData = Map.of(
+            "fromWarehouseId", 1,
+            "toWarehouseId", 1,
+            "items", List.of(Map.of("productId", 1, "quantity", 1))
+        );
+
+        mockMvc.perform(post("/api/inventory/transfer")
+                .param("tenantId", "1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(transferData)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Bad Request"));
     }
 
     @Test
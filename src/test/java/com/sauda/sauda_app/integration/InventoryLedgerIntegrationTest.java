@@ -0,0 +1,168 @@
+package com.sauda.sauda_app.integration;
+
+import com.sauda.sauda_app.config.TestIntegrationSecurityConfig;
+import com.sauda.sauda_app.dto.InventoryMovement;
+import com.sauda.sauda_app.dto.MovementType;
+import com.sauda.sauda_app.dto.TransferDto;
+import com.sauda.sauda_app.dto.TransferItemDto;
+import com.sauda.sauda_app.service.InventoryLedgerService;
+import com.sauda.sauda_app.service.InventoryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Журнал движений остатков: запись при каждом изменении, история товара,
+ * восстановление остатков на момент и контрольные точки.
+ * Данные создаются для отдельного арендатора, чтобы демонстрационные остатки не попадали в журнал.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestIntegrationSecurityConfig.class)
+@Transactional
+class InventoryLedgerIntegrationTest {
+
+    private static final long TENANT_ID = 9006L;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private InventoryLedgerService inventoryLedgerService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long mainWarehouseId;
+    private Long shopWarehouseId;
+    private Long productId;
+
+    @BeforeEach
+    void setUp() {
+        mainWarehouseId = jdbcTemplate.queryForObject(
+                "INSERT INTO warehouses (tenant_id, name) VALUES (?, ?) RETURNING id",
+                Long.class, TENANT_ID, "Основной склад");
+        shopWarehouseId = jdbcTemplate.queryForObject(
+                "INSERT INTO warehouses (tenant_id, name) VALUES (?, ?) RETURNING id",
+                Long.class, TENANT_ID, "Торговый зал");
+        productId = jdbcTemplate.queryForObject(
+                "INSERT INTO products (tenant_id, name, barcode, sku) VALUES (?, ?, ?, ?) RETURNING id",
+                Long.class, TENANT_ID, "Чай черный", "LEDGER-0001", "LEDGER-0001");
+        // Пустая строка остатка задает магазин; все дальнейшие изменения идут через сервис и журнал
+        jdbcTemplate.update(
+                "INSERT INTO inventory (tenant_id, product_id, warehouse_id, quantity) VALUES (?, ?, ?, 0)",
+                TENANT_ID, productId, mainWarehouseId);
+    }
+
+    @Test
+    void getStockAt_ShouldReplayMovementsToAnyMoment() {
+        // Given
+        inventoryService.increaseInventory(productId, mainWarehouseId, new BigDecimal("10"));
+        LocalDateTime afterReceipt = databaseNow();
+        inventoryService.transferInventoryBatch(transfer("4"));
+        inventoryService.decreaseInventory(productId, mainWarehouseId, new BigDecimal("1"));
+        LocalDateTime now = databaseNow();
+
+        // When
+        Map<Long, BigDecimal> mainThen = inventoryLedgerService.getStockAt(TENANT_ID, mainWarehouseId, afterReceipt);
+        Map<Long, BigDecimal> mainNow = inventoryLedgerService.getStockAt(TENANT_ID, mainWarehouseId, now);
+        Map<Long, BigDecimal> shopNow = inventoryLedgerService.getStockAt(TENANT_ID, shopWarehouseId, now);
+
+        // Then: журнал сходится с текущими остатками
+        assertAmount("10", mainThen.get(productId));
+        assertAmount("5", mainNow.get(productId));
+        assertAmount("4", shopNow.get(productId));
+        assertAmount(quantity(mainWarehouseId).toPlainString(), mainNow.get(productId));
+        assertAmount(quantity(shopWarehouseId).toPlainString(), shopNow.get(productId));
+    }
+
+    @Test
+    void getInventoryHistory_ShouldReturnMovementsNewestFirst() {
+        // Given
+        inventoryService.increaseInventory(productId, mainWarehouseId, new BigDecimal("10"));
+        inventoryService.transferInventoryBatch(transfer("4"));
+        inventoryService.decreaseInventory(productId, mainWarehouseId, new BigDecimal("1"));
+
+        // When
+        Page<InventoryMovement> history = inventoryService.getInventoryHistory(TENANT_ID, productId, PageRequest.of(0, 3));
+
+        // Then
+        assertEquals(4, history.getTotalElements());
+        List<InventoryMovement> movements = history.getContent();
+        assertEquals(3, movements.size());
+        assertEquals(MovementType.ADJUSTMENT, movements.get(0).movementType());
+        assertAmount("-1", movements.get(0).quantity());
+        assertTrue(movements.stream().allMatch(movement -> movement.tenantId() == TENANT_ID));
+        assertEquals(2, movements.stream().filter(movement -> movement.movementType() == MovementType.TRANSFER).count());
+    }
+
+    @Test
+    void getInventoryHistory_ShouldNotReturnMovementsOfAnotherTenant() {
+        // Given
+        inventoryService.increaseInventory(productId, mainWarehouseId, new BigDecimal("10"));
+
+        // When
+        Page<InventoryMovement> history = inventoryService.getInventoryHistory(TENANT_ID + 1, productId, PageRequest.of(0, 3));
+
+        // Then
+        assertEquals(0, history.getTotalElements());
+        assertTrue(history.getContent().isEmpty());
+    }
+
+    @Test
+    void createCheckpoint_ShouldFoldLedgerIntoSnapshot() {
+        // Given
+        inventoryService.increaseInventory(productId, mainWarehouseId, new BigDecimal("10"));
+        inventoryService.transferInventoryBatch(transfer("4"));
+
+        // When
+        Long checkpointId = inventoryLedgerService.createCheckpoint(TENANT_ID, databaseNow());
+        inventoryService.increaseInventory(productId, mainWarehouseId, new BigDecimal("2"));
+
+        // Then: точка хранит остатки обоих складов, остаток после нее — точка плюс новые движения
+        assertEquals(2, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM inventory_checkpoint_items WHERE checkpoint_id = ?", Integer.class, checkpointId));
+        assertAmount("8", inventoryLedgerService.getStockAt(TENANT_ID, mainWarehouseId, databaseNow()).get(productId));
+    }
+
+    private TransferDto transfer(String quantity) {
+        TransferItemDto item = new TransferItemDto();
+        item.setProductId(productId);
+        item.setQuantity(new BigDecimal(quantity));
+        TransferDto transfer = new TransferDto();
+        transfer.setTenantId(TENANT_ID);
+        transfer.setFromWarehouseId(mainWarehouseId);
+        transfer.setToWarehouseId(shopWarehouseId);
+        transfer.setItems(List.of(item));
+        return transfer;
+    }
+
+    private BigDecimal quantity(Long warehouseId) {
+        return jdbcTemplate.queryForObject("SELECT quantity FROM inventory WHERE product_id = ? AND warehouse_id = ?",
+                BigDecimal.class, productId, warehouseId);
+    }
+
+    // Время базы, по тем же часам, что и время движений
+    private LocalDateTime databaseNow() {
+        return jdbcTemplate.queryForObject("SELECT clock_timestamp()::timestamp", Timestamp.class).toLocalDateTime();
+    }
+
+    private static void assertAmount(String expected, BigDecimal actual) {
+        assertEquals(0, new BigDecimal(expected).compareTo(actual), () -> "ожидалось " + expected + ", получено " + actual);
+    }
+}
@@ -0,0 +1,104 @@
+package com.sauda.sauda_app.integration;
+
+import com.sauda.sauda_app.config.TestIntegrationSecurityConfig;
+import com.sauda.sauda_app.dto.ValuationDiscrepancy;
+import com.sauda.sauda_app.service.InventoryService;
+import com.sauda.sauda_app.service.InventoryValuationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Стоимость остатков: поддержка по приращениям из триггера, сверка с полным пересчетом.
+ * Данные создаются для отдельного арендатора, чтобы демонстрационные склады не влияли на суммы.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestIntegrationSecurityConfig.class)
+@Transactional
+class InventoryValuationIntegrationTest {
+
+    private static final long TENANT_ID = 9005L;
+
+    @Autowired
+    private InventoryValuationService inventoryValuationService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long warehouseId;
+    private Long productId;
+
+    @BeforeEach
+    void setUp() {
+        warehouseId = jdbcTemplate.queryForObject(
+                "INSERT INTO warehouses (tenant_id, name) VALUES (?, ?) RETURNING id",
+                Long.class, TENANT_ID, "Склад оценки");
+        productId = jdbcTemplate.queryForObject(
+                "INSERT INTO products (tenant_id, name, barcode, sku) VALUES (?, ?, ?, ?) RETURNING id",
+                Long.class, TENANT_ID, "Кофе молотый", "VAL-0001", "VAL-0001");
+        jdbcTemplate.update(
+                "INSERT INTO price_list (tenant_id, product_id, price, start_date) VALUES (?, ?, ?, CURRENT_DATE)",
+                TENANT_ID, productId, new BigDecimal("1200.00"));
+        jdbcTemplate.update(
+                "INSERT INTO inventory (tenant_id, product_id, warehouse_id, quantity) VALUES (?, ?, ?, ?)",
+                TENANT_ID, productId, warehouseId, new BigDecimal("10"));
+    }
+
+    @Test
+    void trackedValue_ShouldFollowStockChanges() {
+        // When
+        jdbcTemplate.update("UPDATE inventory SET quantity = quantity - 3 WHERE product_id = ? AND warehouse_id = ?",
+                productId, warehouseId);
+
+        // Then
+        assertAmount("8400.00", inventoryService.getTotalInventoryValue(warehouseId));
+        assertAmount("8400.00", inventoryService.getTotalInventoryValueByTenant(TENANT_ID));
+        assertTrue(inventoryValuationService.checkConsistency(TENANT_ID).isEmpty());
+    }
+
+    @Test
+    void foldPendingDeltas_ShouldKeepTrackedValue() {
+        // When
+        inventoryValuationService.foldPendingDeltas();
+
+        // Then
+        assertAmount("12000.00", inventoryService.getTotalInventoryValue(warehouseId));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM inventory_value_deltas WHERE warehouse_id = ?", Integer.class, warehouseId));
+    }
+
+    @Test
+    void reconcile_ShouldFixDiscrepancy_AfterPriceChange() {
+        // Given: смена цены остатков не меняет, поэтому триггер ее не видит
+        jdbcTemplate.update("UPDATE price_list SET price = ? WHERE product_id = ?", new BigDecimal("1500.00"), productId);
+        List<ValuationDiscrepancy> before = inventoryValuationService.checkConsistency(TENANT_ID);
+        assertEquals(1, before.size());
+        assertAmount("-3000.00", before.get(0).getDifference());
+
+        // When
+        List<ValuationDiscrepancy> fixed = inventoryValuationService.reconcile(TENANT_ID);
+
+        // Then
+        assertEquals(before, fixed);
+        assertTrue(inventoryValuationService.checkConsistency(TENANT_ID).isEmpty());
+        assertAmount("15000.00", inventoryValuationService.getValuation(TENANT_ID).totalValue());
+    }
+
+    private static void assertAmount(String expected, BigDecimal actual) {
+        assertEquals(0, new BigDecimal(expected).compareTo(actual), () -> "ожидалось " + expected + ", получено " + actual);
+    }
+}
@@ -0,0 +1,265 @@
+package com.sauda.sauda_app.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sauda.sauda_app.config.TestIntegrationSecurityConfig;
+import com.sauda.sauda_app.service.PosCatalogService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Выгрузка каталога на кассы: полный снимок, изменения после версии, удаления и ETag.
+ * Данные создаются для отдельного арендатора, чтобы в снимок не попадали демонстрационные товары.
+ * Версия каталога не поднимается выше незавершенных транзакций, поэтому данные теста фиксируются
+ * и удаляются после каждого теста, а не откатываются вместе с транзакцией теста.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestIntegrationSecurityConfig.class)
+class PosCatalogIntegrationTest {
+
+    private static final long TENANT_ID = 9002L;
+
+    private static final String WRITTEN_VERSION_SQL =
+            "SELECT max(catalog_version) FROM (" +
+            "SELECT catalog_version FROM product_categories WHERE tenant_id = ? " +
+            "UNION ALL SELECT catalog_version FROM units WHERE tenant_id = ? " +
+            "UNION ALL SELECT catalog_version FROM products WHERE tenant_id = ? " +
+            "UNION ALL SELECT catalog_version FROM price_list WHERE tenant_id = ? " +
+            "UNION ALL SELECT catalog_version FROM catalog_tombstones WHERE tenant_id = ?) v";
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private PosCatalogService posCatalogService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private MockMvc mockMvc;
+    private Long productId;
+    private Long hiddenProductId;
+    private Long priceId;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+
+        Long categoryId = jdbcTemplate.queryForObject(
+                "INSERT INTO product_categories (tenant_id, name) VALUES (?, ?) RETURNING id",
+                Long.class, TENANT_ID, "Молочные продукты");
+        Long unitId = jdbcTemplate.queryForObject(
+                "INSERT INTO units (tenant_id, name, symbol) VALUES (?, ?, ?) RETURNING id",
+                Long.class, TENANT_ID, "Литр", "л");
+        productId = jdbcTemplate.queryForObject(
+                "INSERT INTO products (tenant_id, name, barcode, sku, category_id, unit_id) " +
+                "VALUES (?, ?, ?, ?, ?, ?) RETURNING id",
+                Long.class, TENANT_ID, "Молоко 3.2%", "POS-CAT-0001", "POS-CAT-0001", categoryId, unitId);
+        hiddenProductId = jdbcTemplate.queryForObject(
+                "INSERT INTO products (tenant_id, name, barcode, sku, is_active) VALUES (?, ?, ?, ?, false) RETURNING id",
+                Long.class, TENANT_ID, "Снятый товар", "POS-CAT-0002", "POS-CAT-0002");
+        priceId = jdbcTemplate.queryForObject(
+                "INSERT INTO price_list (tenant_id, product_id, price, start_date) VALUES (?, ?, ?, CURRENT_DATE) " +
+                "RETURNING id",
+                Long.class, TENANT_ID, productId, new BigDecimal("450.00"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM price_list WHERE tenant_id = ?", TENANT_ID);
+        jdbcTemplate.update("DELETE FROM products WHERE tenant_id = ?", TENANT_ID);
+        jdbcTemplate.update("DELETE FROM units WHERE tenant_id = ?", TENANT_ID);
+        jdbcTemplate.update("DELETE FROM product_categories WHERE tenant_id = ?", TENANT_ID);
+        jdbcTemplate.update("DELETE FROM catalog_tombstones WHERE tenant_id = ?", TENANT_ID);
+    }
+
+    @Test
+    void writeCatalog_ShouldStreamFullSnapshotOfActiveCatalog() throws Exception {
+        // When
+        List<JsonNode> lines = writeCatalog(0);
+
+        // Then
+        JsonNode header = lines.get(0);
+        assertEquals("catalog", header.get("type").asText());
+        assertTrue(header.get("full").asBoolean());
+        assertEquals(1, count(lines, "category"));
+        assertEquals(1, count(lines, "unit"));
+        assertEquals(1, count(lines, "price"));
+        List<JsonNode> products = ofType(lines, "product");
+        assertEquals(1, products.size());
+        assertEquals(productId, products.get(0).get("id").asLong());
+        assertEquals("Молоко 3.2%", products.get(0).get("name").asText());
+
+        JsonNode end = lines.get(lines.size() - 1);
+        assertEquals("end", end.get("type").asText());
+        assertEquals(lines.size() - 2, end.get("rows").asInt());
+        assertEquals(header.get("version").asLong(), end.get("version").asLong());
+    }
+
+    @Test
+    void writeCatalog_ShouldStreamOnlyRowsChangedAfterVersion() throws Exception {
+        // Given
+        long version = settledVersion();
+        jdbcTemplate.update("UPDATE products SET name = ? WHERE id = ?", "Молоко 2.5%", productId);
+        jdbcTemplate.update("UPDATE products SET is_deleted = true WHERE id = ?", hiddenProductId);
+        settledVersion();
+
+        // When
+        List<JsonNode> lines = writeCatalog(version);
+
+        // Then
+        assertFalse(lines.get(0).get("full").asBoolean());
+        assertEquals(0, count(lines, "category") + count(lines, "unit") + count(lines, "price"));
+        List<JsonNode> products = ofType(lines, "product");
+        assertEquals(2, products.size());
+        for (JsonNode product : products) {
+            if (product.get("id").asLong() == productId) {
+                assertEquals("Молоко 2.5%", product.get("name").asText());
+                assertTrue(product.get("active").asBoolean());
+            } else {
+                assertEquals(hiddenProductId, product.get("id").asLong());
+                assertFalse(product.get("active").asBoolean());
+            }
+        }
+        assertTrue(lines.get(0).get("version").asLong() > version);
+    }
+
+    @Test
+    void writeCatalog_ShouldStreamOnlyHeaderAndEnd_WhenNothingChanged() throws Exception {
+        // When
+        List<JsonNode> lines = writeCatalog(settledVersion());
+
+        // Then
+        assertEquals(2, lines.size());
+        assertEquals(0, lines.get(1).get("rows").asInt());
+    }
+
+    @Test
+    void writeCatalog_ShouldStreamDeletedRowsBeforeChanges() throws Exception {
+        // Given
+        long version = settledVersion();
+        jdbcTemplate.update("DELETE FROM price_list WHERE id = ?", priceId);
+        settledVersion();
+
+        // When
+        List<JsonNode> lines = writeCatalog(version);
+
+        // Then
+        List<JsonNode> deleted = ofType(lines, "deleted");
+        assertEquals(1, deleted.size());
+        assertEquals("price", deleted.get(0).get("entity").asText());
+        assertEquals(priceId, deleted.get(0).get("id").asLong());
+        assertEquals("deleted", lines.get(1).get("type").asText());
+        assertEquals(0, count(lines, "price"));
+    }
+
+    @Test
+    void getCatalogVersion_ShouldStayBelowUncommittedWrites() {
+        // Given
+        long settled = settledVersion();
+
+        // When: версия читается, пока транзакция с новой строкой каталога еще не зафиксирована
+        long[] versions = new long[2];
+        transactionTemplate.executeWithoutResult(status -> {
+            versions[0] = jdbcTemplate.queryForObject(
+                    "INSERT INTO units (tenant_id, name, symbol) VALUES (?, ?, ?) RETURNING catalog_version",
+                    Long.class, TENANT_ID, "Килограмм", "кг");
+            versions[1] = posCatalogService.getCatalogVersion(TENANT_ID);
+            status.setRollbackOnly();
+        });
+
+        // Then: незафиксированная строка получит версию выше выданной и придет в следующих изменениях
+        assertTrue(versions[1] < versions[0]);
+        assertTrue(versions[1] >= settled);
+    }
+
+    @Test
+    void getCatalog_ShouldReturnNotModified_WhenEtagMatches() throws Exception {
+        // Given
+        String etag = "\"" + TENANT_ID + "-" + settledVersion() + "\"";
+
+        // When & Then
+        mockMvc.perform(get("/api/pos/catalog")
+                .param("tenantId", String.valueOf(TENANT_ID))
+                .header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag));
+    }
+
+    @Test
+    void getCatalog_ShouldReturnBadRequest_WhenVersionIsNegative() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/pos/catalog")
+                .param("tenantId", String.valueOf(TENANT_ID))
+                .param("since", "-1"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Bad Request"));
+    }
+
+    /**
+     * Версия каталога, когда завершились все транзакции, начатые до последних записей теста.
+     * Пока параллельная транзакция (например, фоновое задание) не завершена, версия держится ниже ее
+     */
+    private long settledVersion() {
+        Long written = jdbcTemplate.queryForObject(WRITTEN_VERSION_SQL, Long.class,
+                TENANT_ID, TENANT_ID, TENANT_ID, TENANT_ID, TENANT_ID);
+        for (int attempt = 0; attempt < 50; attempt++) {
+            long version = posCatalogService.getCatalogVersion(TENANT_ID);
+            if (version >= written) {
+                return version;
+            }
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return fail("Версия каталога не дошла до записей теста");
+    }
+
+    private List<JsonNode> writeCatalog(long sinceVersion) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        posCatalogService.writeCatalog(TENANT_ID, sinceVersion, out);
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            lines.add(objectMapper.readTree(line));
+        }
+        return lines;
+    }
+
+    private static List<JsonNode> ofType(List<JsonNode> lines, String type) {
+        return lines.stream().filter(line -> type.equals(line.get("type").asText())).toList();
+    }
+
+    private static int count(List<JsonNode> lines, String type) {
+        return ofType(lines, type).size();
+    }
+}
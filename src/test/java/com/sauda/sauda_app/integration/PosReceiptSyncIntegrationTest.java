@@ -0,0 +1,146 @@
+package com.sauda.sauda_app.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sauda.sauda_app.config.TestIntegrationSecurityConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Выгрузка чеков кассы после работы без связи: повторная выгрузка того же пакета
+ * не записывает чеки и не списывает остатки второй раз.
+ * Данные создаются для отдельного арендатора, чтобы не задевать демонстрационные остатки.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestIntegrationSecurityConfig.class)
+@Transactional
+class PosReceiptSyncIntegrationTest {
+
+    private static final long TENANT_ID = 9010L;
+    private static final int RECEIPTS = 200;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private MockMvc mockMvc;
+    private Long warehouseId;
+    private Long terminalId;
+    private Long productId;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+        warehouseId = jdbcTemplate.queryForObject(
+                "INSERT INTO warehouses (tenant_id, name) VALUES (?, ?) RETURNING id",
+                Long.class, TENANT_ID, "Склад кассы");
+        terminalId = jdbcTemplate.queryForObject(
+                "INSERT INTO pos_terminals (tenant_id, name, is_online) VALUES (?, ?, false) RETURNING id",
+                Long.class, TENANT_ID, "Касса 1");
+        productId = jdbcTemplate.queryForObject(
+                "INSERT INTO products (tenant_id, name, barcode, sku) VALUES (?, ?, ?, ?) RETURNING id",
+                Long.class, TENANT_ID, "Хлеб", "POS-SYNC-0001", "POS-SYNC-0001");
+        jdbcTemplate.update("INSERT INTO inventory (tenant_id, product_id, warehouse_id, quantity) VALUES (?, ?, ?, ?)",
+                TENANT_ID, productId, warehouseId, new BigDecimal("150"));
+    }
+
+    @Test
+    void syncReceipts_ShouldWriteEachReceiptOnce_WhenBatchIsUploadedTwice() throws Exception {
+        // Given: касса продала больше, чем числится на складе
+        Map<String, Object> batch = batch(RECEIPTS);
+
+        // When: касса не получила ответ и выгружает пакет повторно
+        upload(batch)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accepted").value(RECEIPTS))
+                .andExpect(jsonPath("$.duplicates").value(0));
+        upload(batch)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accepted").value(0))
+                .andExpect(jsonPath("$.duplicates").value(RECEIPTS))
+                .andExpect(jsonPath("$.results[0].status").value("DUPLICATE"));
+
+        // Then
+        assertEquals(RECEIPTS, count("SELECT COUNT(*) FROM sales WHERE tenant_id = ?"));
+        assertEquals(RECEIPTS, count("SELECT COUNT(*) FROM pos_receipt_uploads WHERE tenant_id = ? AND sale_id IS NOT NULL"));
+        assertEquals(0, new BigDecimal("-50").compareTo(jdbcTemplate.queryForObject(
+                "SELECT quantity FROM inventory WHERE product_id = ? AND warehouse_id = ?",
+                BigDecimal.class, productId, warehouseId)));
+        assertEquals(RECEIPTS, jdbcTemplate.queryForObject(
+                "SELECT receipts FROM sales_daily_rollup WHERE tenant_id = ? AND pos_terminal_id = ?",
+                Integer.class, TENANT_ID, terminalId));
+        assertTrue(jdbcTemplate.queryForObject("SELECT is_online FROM pos_terminals WHERE id = ?",
+                Boolean.class, terminalId));
+    }
+
+    @Test
+    void syncReceipts_ShouldRejectReceiptWithForeignProduct_AndAcceptTheRest() throws Exception {
+        // Given
+        Map<String, Object> batch = batch(2);
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> receipts = (List<Map<String, Object>>) batch.get("receipts");
+        receipts.set(1, receipt("sync-foreign", -1L));
+
+        // When & Then
+        upload(batch)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accepted").value(1))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.results[1].status").value("REJECTED"));
+        assertEquals(0, count("SELECT COUNT(*) FROM pos_receipt_uploads WHERE tenant_id = ? " +
+                "AND idempotency_key = 'sync-foreign'"));
+    }
+
+    private ResultActions upload(Map<String, Object> batch) throws Exception {
+        return mockMvc.perform(post("/api/pos/receipts")
+                .param("tenantId", String.valueOf(TENANT_ID))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(batch)));
+    }
+
+    private Map<String, Object> batch(int receipts) {
+        List<Map<String, Object>> list = new ArrayList<>(receipts);
+        for (int i = 0; i < receipts; i++) {
+            list.add(receipt("sync-" + i, productId));
+        }
+        return Map.of("posTerminalId", terminalId, "warehouseId", warehouseId, "receipts", list);
+    }
+
+    private static Map<String, Object> receipt(String key, Long productId) {
+        return Map.of(
+            "idempotencyKey", key,
+            "soldAt", "2026-10-01T12:30:00",
+            "paymentMethod", "CASH",
+            "items", List.of(Map.of("productId", productId, "quantity", 1, "price", 120))
+        );
+    }
+
+    private int count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Integer.class, TENANT_ID);
+    }
+}
@@ -1,12 +1,14 @@
 package com.sauda.sauda_app.integration;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sauda.sauda_app.dto.ProductSnapshot;
 import com.sauda.sauda_app.entity.Category;
 import com.sauda.sauda_app.entity.Product;
 import com.sauda.sauda_app.entity.Unit;
 import com.sauda.sauda_app.repository.CategoryRepository;
 import com.sauda.sauda_app.repository.ProductRepository;
 import com.sauda.sauda_app.repository.UnitRepository;
+import com.sauda.sauda_app.search.InMemoryProductSearchEngine;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -46,6 +48,9 @@ class ProductControllerIntegrationTest {
     @Autowired
     private UnitRepository unitRepository;
 
+    @Autowired
+    private InMemoryProductSearchEngine searchEngine;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -122,13 +127,19 @@ class ProductControllerIntegrationTest {
 
     @Test
     void searchProducts_ShouldReturnMatchingProducts_WhenValidSearchTerm() throws Exception {
-        mockMvc.perform(get("/api/products/search")
-                .param("searchTerm", "Test")
-                .param("tenantId", "1")
-                .contentType(MediaType.APPLICATION_JSON))
-                .andExpect(status().isOk())
-                .andExpect(jsonPath("$").isArray())
-                .andExpect(jsonPath("$[0].name").value("Test Product"));
+        // Товар сохранен напрямую через репозиторий в откатываемой транзакции, событие индексу не придет
+        searchEngine.index(ProductSnapshot.from(testProduct));
+        try {
+            mockMvc.perform(get("/api/products/search")
+                    .param("searchTerm", "Test")
+                    .param("tenantId", "1")
+                    .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content").isArray())
+                    .andExpect(jsonPath("$.content[0].name").value("Test Product"));
+        } finally {
+            searchEngine.remove(testProduct.getTenantId(), testProduct.getId());
+        }
     }
 
     @Test
@@ -141,9 +152,10 @@ class ProductControllerIntegrationTest {
                 .param("tenantId", "1")
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$").isArray())
-                .andExpect(jsonPath("$.length()").value(1))
-                .andExpect(jsonPath("$[0].name").value("Test Product"));
+                .andExpect(jsonPath("$.content").isArray())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].name").value("Test Product"))
+                .andExpect(jsonPath("$.hasNext").value(false));
     }
 
     @Test
@@ -0,0 +1,234 @@
+package com.sauda.sauda_app.integration;
+
+import com.sauda.sauda_app.SpringBootApplicationWithKeycloakIntegrationApplication;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.TypeExcludeFilter;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.type.classreading.MetadataReader;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.AuthorizationFilter;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Нагрузочное сравнение режимов потоков на GET /api/products: 2000 одновременных клиентов
+ * против пула платформенных потоков Tomcat и против виртуальных потоков.
+ *
+ * Для каждого режима поднимается отдельное приложение на случайном порту с профилем loadtest
+ * (без вывода SQL, одинаковый пул Hikari), затем идут прогрев и замер. Клиенты работают в том же
+ * процессе на виртуальных потоках, поэтому сравнение относительное. Тест пропускается
+ * при обычном запуске; включается профилем Maven load-test: mvn -P load-test test
+ * (число клиентов и длительность: -Dload-test.clients, -Dload-test.warmup-seconds, -Dload-test.duration-seconds).
+ *
+ * Профиль включает -Djdk.tracePinnedThreads=short: в Java 21 виртуальный поток, заблокированный
+ * внутри монитора, держит поток-носитель, и каждый такой случай печатается со стеком.
+ * Блокировки приложения на пути запроса:
+ * - WeightedLookupCache, CustomerStatsCounters и RealtimeUpdatePublisher — synchronized только
+ *   вокруг изменений в памяти; загрузки и JDBC вне монитора;
+ * - TenantCache и DiscountRuleIndex загружают данные вне ConcurrentHashMap.compute,
+ *   ProductPriceIndex — и полный прайс-лист, и цены одного товара при обновлении; под compute
+ *   остается только замена в памяти;
+ * - BarcodeTable и TrigramIndex — блокировки j.u.c;
+ * - драйвер PostgreSQL и HikariCP — ReentrantLock на соединении и при выдаче из пула.
+ */
+@EnabledIfSystemProperty(named = "sauda.load-test.enabled", matches = "true")
+class ProductsLoadTest {
+
+    private static final long TENANT_ID = 9009L;
+    private static final int PRODUCTS = 500;
+    private static final int CLIENTS = Integer.getInteger("sauda.load-test.clients", 2000);
+    private static final Duration WARMUP = Duration.ofSeconds(Long.getLong("sauda.load-test.warmup-seconds", 10));
+    private static final Duration MEASUREMENT = Duration.ofSeconds(Long.getLong("sauda.load-test.duration-seconds", 30));
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    @Test
+    void products_ShouldCompareThroughputAndP99_ForPlatformAndVirtualThreads() throws Exception {
+        // When
+        LoadResult platform = run(false);
+        LoadResult virtual = run(true);
+
+        // Then
+        System.out.printf("GET /api/products, %d clients, %ds: platform %.0f req/s p50 %.1f ms p99 %.1f ms errors %d; "
+                        + "virtual %.0f req/s p50 %.1f ms p99 %.1f ms errors %d%n",
+                CLIENTS, MEASUREMENT.toSeconds(),
+                platform.throughput(), platform.p50Millis(), platform.p99Millis(), platform.errors(),
+                virtual.throughput(), virtual.p50Millis(), virtual.p99Millis(), virtual.errors());
+        assertTrue(platform.requests() > 0);
+        assertTrue(virtual.requests() > 0);
+    }
+
+    private LoadResult run(boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(
+                SpringBootApplicationWithKeycloakIntegrationApplication.class, LoadTestSecurityConfig.class)
+                .profiles("test", "loadtest")
+                .initializers(applicationContext -> applicationContext.getBeanFactory()
+                        .registerSingleton("testConfigurationExcludeFilter", new TestConfigurationExcludeFilter()))
+                .run("--server.port=0", "--spring.threads.virtual.enabled=" + virtualThreads)) {
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            seed(jdbcTemplate);
+            try {
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                URI uri = URI.create("http://localhost:" + port + "/api/products?size=20&tenantId=" + TENANT_ID);
+                drive(uri, WARMUP);
+                return drive(uri, MEASUREMENT);
+            } finally {
+                jdbcTemplate.update("DELETE FROM products WHERE tenant_id = ?", TENANT_ID);
+            }
+        }
+    }
+
+    /**
+     * Клиенты в цикле отправляют запрос и ждут ответ до конца интервала
+     */
+    private LoadResult drive(URI uri, Duration duration) throws Exception {
+        LongAdder errors = new LongAdder();
+        long deadline = System.nanoTime() + duration.toNanos();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient httpClient = HttpClient.newBuilder().executor(clients).version(HttpClient.Version.HTTP_1_1).build()) {
+            HttpRequest request = HttpRequest.newBuilder(uri).timeout(REQUEST_TIMEOUT).GET().build();
+            List<Future<long[]>> results = new ArrayList<>(CLIENTS);
+            for (int i = 0; i < CLIENTS; i++) {
+                results.add(clients.submit(() -> loop(httpClient, request, deadline, errors)));
+            }
+            List<long[]> latencies = new ArrayList<>(CLIENTS);
+            for (Future<long[]> result : results) {
+                latencies.add(result.get());
+            }
+            return LoadResult.of(latencies, errors.sum(), duration);
+        }
+    }
+
+    private static long[] loop(HttpClient httpClient, HttpRequest request, long deadline, LongAdder errors) {
+        long[] latencies = new long[256];
+        int count = 0;
+        while (System.nanoTime() < deadline) {
+            long started = System.nanoTime();
+            try {
+                HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() != 200) {
+                    errors.increment();
+                    continue;
+                }
+            } catch (IOException e) {
+                errors.increment();
+                continue;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = System.nanoTime() - started;
+        }
+        return Arrays.copyOf(latencies, count);
+    }
+
+    private static void seed(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.update("DELETE FROM products WHERE tenant_id = ?", TENANT_ID);
+        List<Object[]> rows = new ArrayList<>(PRODUCTS);
+        for (int i = 0; i < PRODUCTS; i++) {
+            rows.add(new Object[]{TENANT_ID, "Load Product " + i, "LOAD-" + TENANT_ID + "-" + i, "LOAD-SKU-" + TENANT_ID + "-" + i});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO products (tenant_id, name, barcode, sku) VALUES (?, ?, ?, ?)", rows);
+    }
+
+    private record LoadResult(long requests, long errors, double throughput, double p50Millis, double p99Millis) {
+
+        static LoadResult of(List<long[]> latencies, long errors, Duration duration) {
+            long[] all = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+            double seconds = duration.toNanos() / 1e9;
+            return new LoadResult(all.length, errors, all.length / seconds, percentile(all, 0.50), percentile(all, 0.99));
+        }
+
+        private static double percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return sorted[Math.max(index, 0)] / 1e6;
+        }
+    }
+
+    /**
+     * Приложение запускается без тестового контекста Spring, который обычно отсекает тестовые
+     * конфигурации при сканировании, поэтому TestSecurityConfig и TestIntegrationSecurityConfig
+     * исключаются здесь
+     */
+    static final class TestConfigurationExcludeFilter extends TypeExcludeFilter {
+
+        @Override
+        public boolean match(MetadataReader metadataReader, MetadataReaderFactory metadataReaderFactory) {
+            return metadataReader.getAnnotationMetadata().hasAnnotation(TestConfiguration.class.getName());
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof TestConfigurationExcludeFilter;
+        }
+
+        @Override
+        public int hashCode() {
+            return TestConfigurationExcludeFilter.class.hashCode();
+        }
+    }
+
+    /**
+     * Все запросы — от имени кассира: /api/products требует аутентификации,
+     * а Keycloak в нагрузочном тесте не участвует
+     */
+    @TestConfiguration
+    @EnableWebSecurity
+    static class LoadTestSecurityConfig {
+
+        @Bean
+        SecurityFilterChain loadTestSecurityFilterChain(HttpSecurity http) throws Exception {
+            http
+                .csrf(csrf -> csrf.disable())
+                .authorizeHttpRequests(authz -> authz.anyRequest().permitAll())
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .addFilterBefore(new OncePerRequestFilter() {
+                    @Override
+                    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                                    FilterChain chain) throws ServletException, IOException {
+                        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                                "load-test", null, AuthorityUtils.createAuthorityList("ROLE_CASHIER")));
+                        chain.doFilter(request, response);
+                    }
+                }, AuthorizationFilter.class);
+            return http.build();
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.sauda.sauda_app.integration;
+
+import com.sauda.sauda_app.config.TestIntegrationSecurityConfig;
+import com.sauda.sauda_app.entity.Category;
+import com.sauda.sauda_app.entity.Product;
+import com.sauda.sauda_app.entity.Unit;
+import com.sauda.sauda_app.repository.CategoryRepository;
+import com.sauda.sauda_app.repository.ProductRepository;
+import com.sauda.sauda_app.repository.UnitRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Проверка числа SQL-запросов на чтение: каждая страница списка и каждая карточка
+ * отдаются ровно одним запросом, без подгрузки ленивых связей при сериализации.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@Import(TestIntegrationSecurityConfig.class)
+@Transactional
+class ReadQueryCountIntegrationTest {
+
+    private static final long TENANT_ID = 1L;
+    private static final long SHOP_TENANT_ID = 9001L;
+    private static final long LIST_TENANT_ID = 9015L;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private UnitRepository unitRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private MockMvc mockMvc;
+    private Statistics statistics;
+    private Category category;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        category = new Category();
+        category.setName("Query Count Category");
+        category.setTenantId(TENANT_ID);
+        category.setCreatedAt(LocalDateTime.now());
+        category.setLastUpdated(LocalDateTime.now());
+        category = categoryRepository.save(category);
+
+        Unit unit = new Unit();
+        unit.setName("kg");
+        unit.setSymbol("kg");
+        unit.setTenantId(TENANT_ID);
+        unit.setCreatedAt(LocalDateTime.now());
+        unit.setLastUpdated(LocalDateTime.now());
+        unit = unitRepository.save(unit);
+
+        for (int i = 0; i < 5; i++) {
+            product = productRepository.save(product("Query Count Product " + i, category.getId(), unit.getId()));
+        }
+
+        // Магазин один на арендатора, поэтому берем отдельного арендатора
+        jdbcTemplate.update("INSERT INTO shops (tenant_id, name) VALUES (?, ?)", SHOP_TENANT_ID, "Query Count Shop");
+
+        // Клиент и остаток — только колонками схемы, как их записывают касса и импорт
+        jdbcTemplate.update("INSERT INTO customers (tenant_id, full_name, phone, email) VALUES (?, ?, ?, ?)",
+                LIST_TENANT_ID, "Query Count Customer", "+70000009015", "qc@example.com");
+        Long warehouseId = jdbcTemplate.queryForObject(
+                "INSERT INTO warehouses (tenant_id, name) VALUES (?, ?) RETURNING id",
+                Long.class, LIST_TENANT_ID, "Query Count Warehouse");
+        Long productId = jdbcTemplate.queryForObject(
+                "INSERT INTO products (tenant_id, name, barcode, sku) VALUES (?, ?, ?, ?) RETURNING id",
+                Long.class, LIST_TENANT_ID, "Query Count Stock", "QC-STOCK-9015", "QC-STOCK-9015");
+        jdbcTemplate.update("INSERT INTO inventory (tenant_id, product_id, warehouse_id, quantity) VALUES (?, ?, ?, ?)",
+                LIST_TENANT_ID, productId, warehouseId, 3);
+
+        // Все вставки выполняются до замера, чтобы flush перед запросом не попал в счетчик
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+    }
+
+    @Test
+    void getAllProducts_ShouldUseOneQueryPerPage() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/products")
+                .param("tenantId", "1")
+                .param("size", "2")
+                .principal(cashier()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(2))
+                .andExpect(jsonPath("$.hasNext").value(true));
+        assertSingleQuery();
+    }
+
+    @Test
+    void getProductsByCategory_ShouldUseOneQueryAndJoinNames() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/products/category/{categoryId}", category.getId())
+                .param("tenantId", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(5))
+                .andExpect(jsonPath("$.content[0].categoryName").value("Query Count Category"))
+                .andExpect(jsonPath("$.content[0].unitName").value("kg"));
+        assertSingleQuery();
+    }
+
+    @Test
+    void getProductById_ShouldUseOneQuery() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/products/{id}", product.getId())
+                .param("tenantId", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Query Count Product 4"))
+                .andExpect(jsonPath("$.categoryName").value("Query Count Category"));
+        assertSingleQuery();
+    }
+
+    @Test
+    void getShops_ShouldUseOneQuery() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/shops")
+                .param("tenantId", String.valueOf(SHOP_TENANT_ID)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].name").value("Query Count Shop"));
+        assertSingleQuery();
+    }
+
+    @Test
+    void getCustomers_ShouldUseOneQueryAndReturnSummaries() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/customers")
+                .param("tenantId", String.valueOf(LIST_TENANT_ID))
+                .principal(cashier()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].fullName").value("Query Count Customer"))
+                .andExpect(jsonPath("$.content[0].email").doesNotExist());
+        assertSingleQuery();
+    }
+
+    @Test
+    void getInventory_ShouldUseOneQueryAndReturnLevels() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/inventory")
+                .param("tenantId", String.valueOf(LIST_TENANT_ID))
+                .principal(cashier()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].quantity").value(3))
+                .andExpect(jsonPath("$.content[0].createdAt").doesNotExist());
+        assertSingleQuery();
+    }
+
+    private void assertSingleQuery() {
+        assertEquals(1, statistics.getPrepareStatementCount(), "Ожидался ровно один SQL-запрос");
+    }
+
+    private static TestingAuthenticationToken cashier() {
+        return new TestingAuthenticationToken("cashier", null, "ROLE_CASHIER");
+    }
+
+    private static Product product(String name, Long categoryId, Long unitId) {
+        String code = UUID.randomUUID().toString().substring(0, 12);
+        Product product = new Product();
+        product.setTenantId(TENANT_ID);
+        product.setName(name);
+        product.setBarcode("QC" + code);
+        product.setSku("QC-" + code);
+        product.setCategoryId(categoryId);
+        product.setUnitId(unitId);
+        product.setPrice(new BigDecimal("10.00"));
+        product.setIsActive(true);
+        product.setIsDeleted(false);
+        product.setCreatedAt(LocalDateTime.now());
+        product.setLastUpdated(LocalDateTime.now());
+        return product;
+    }
+}
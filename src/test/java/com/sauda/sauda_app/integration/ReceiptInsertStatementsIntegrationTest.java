@@ -0,0 +1,118 @@
+package com.sauda.sauda_app.integration;
+
+import com.sauda.sauda_app.entity.Payment;
+import com.sauda.sauda_app.entity.Sale;
+import com.sauda.sauda_app.entity.SalesItem;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Число SQL-запросов на запись чека из 50 позиций через JPA (чек, позиции, оплата).
+ * «До» — запись без пакетов: как при IDENTITY, каждая строка отдельным INSERT;
+ * «после» — идентификаторы из последовательностей pooled-lo и пакетные вставки hibernate.jdbc.batch_size.
+ * Запросы считает статистика Hibernate. Тест транзакционный, записи откатываются.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@Transactional
+class ReceiptInsertStatementsIntegrationTest {
+
+    private static final long TENANT_ID = 9013L;
+    private static final int LINES = 50;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Statistics statistics;
+    private final List<Long> productIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        for (int i = 0; i < LINES; i++) {
+            productIds.add(jdbcTemplate.queryForObject(
+                    "INSERT INTO products (tenant_id, name, barcode, sku) VALUES (?, ?, ?, ?) RETURNING id",
+                    Long.class, TENANT_ID, "Товар " + i, "RECEIPT-STMT-" + i, "RECEIPT-STMT-" + i));
+        }
+    }
+
+    @Test
+    void writeReceipt_ShouldBatchInserts_WhenIdsComeFromPooledSequences() {
+        // Given: первый чек прогревает блоки идентификаторов
+        Session session = entityManager.unwrap(Session.class);
+        statementsFor(session, null);
+
+        // When
+        long unbatched = statementsFor(session, 1);
+        long batched = statementsFor(session, null);
+
+        // Then: без пакетов — INSERT на каждую строку, с пакетами — по одному на таблицу и обращения к последовательностям
+        System.out.printf("Receipt of %d lines: %d statements unbatched (IDENTITY), %d statements batched (pooled-lo)%n",
+                LINES, unbatched, batched);
+        assertTrue(unbatched >= LINES + 2);
+        assertTrue(batched <= 6, () -> "statements per receipt: " + batched);
+    }
+
+    /**
+     * Записать чек и вернуть число подготовленных запросов
+     * @param session сессия Hibernate
+     * @param batchSize размер пакета сессии; null — из hibernate.jdbc.batch_size
+     */
+    private long statementsFor(Session session, Integer batchSize) {
+        session.setJdbcBatchSize(batchSize);
+        statistics.clear();
+
+        Sale sale = new Sale();
+        sale.setTenantId(TENANT_ID);
+        sale.setSaleDate(LocalDateTime.now());
+        sale.setTotalAmount(new BigDecimal("4995.00"));
+        sale.setPaymentMethod("CASH");
+        entityManager.persist(sale);
+        for (Long productId : productIds) {
+            SalesItem item = new SalesItem();
+            item.setTenantId(TENANT_ID);
+            item.setSaleId(sale.getId());
+            item.setProductId(productId);
+            item.setQuantity(BigDecimal.ONE);
+            item.setPrice(new BigDecimal("99.90"));
+            item.setDiscount(BigDecimal.ZERO);
+            entityManager.persist(item);
+        }
+        Payment payment = new Payment();
+        payment.setTenantId(TENANT_ID);
+        payment.setSaleId(sale.getId());
+        payment.setAmount(sale.getTotalAmount());
+        payment.setPaymentType("CASH");
+        payment.setPaymentDate(LocalDateTime.now());
+        entityManager.persist(payment);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(LINES + 2, statistics.getEntityInsertCount());
+        session.setJdbcBatchSize(null);
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,149 @@
+package com.sauda.sauda_app.integration;
+
+import com.sauda.sauda_app.cache.CacheRegionMetrics;
+import com.sauda.sauda_app.cache.ReferenceDataCache;
+import com.sauda.sauda_app.cache.ReferenceRegion;
+import com.sauda.sauda_app.config.TestIntegrationSecurityConfig;
+import com.sauda.sauda_app.entity.Warehouse;
+import com.sauda.sauda_app.repository.WarehouseRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Кэш справочников под нагрузкой запросов кассы: справочники магазина читаются из базы
+ * один раз на область, а изменение через JPA сбрасывает область после фиксации.
+ * Тест не транзакционный — сброс кэша происходит только после фиксации, — поэтому
+ * данные отдельного арендатора удаляются после каждого теста.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@Import(TestIntegrationSecurityConfig.class)
+class ReferenceDataCacheIntegrationTest {
+
+    private static final long TENANT_ID = 9008L;
+    private static final int REQUESTS = 200;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
+    @Autowired
+    private WarehouseRepository warehouseRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private MockMvc mockMvc;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        jdbcTemplate.update("INSERT INTO shops (tenant_id, name) VALUES (?, ?)", TENANT_ID, "Cache Shop");
+        jdbcTemplate.update("INSERT INTO warehouses (tenant_id, name) VALUES (?, ?)", TENANT_ID, "Основной склад");
+        jdbcTemplate.update("INSERT INTO units (tenant_id, name, symbol) VALUES (?, ?, ?)", TENANT_ID, "Килограмм", "кг");
+        for (ReferenceRegion region : ReferenceRegion.values()) {
+            referenceDataCache.invalidate(region, TENANT_ID);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM units WHERE tenant_id = ?", TENANT_ID);
+        jdbcTemplate.update("DELETE FROM warehouses WHERE tenant_id = ?", TENANT_ID);
+        jdbcTemplate.update("DELETE FROM shops WHERE tenant_id = ?", TENANT_ID);
+    }
+
+    @Test
+    void posRequests_ShouldQueryDatabaseOncePerRegion() throws Exception {
+        // Given
+        CacheRegionMetrics warehousesBefore = metrics("warehouses");
+        statistics.clear();
+
+        // When: кассы запрашивают склады, единицы измерения и магазин
+        for (int i = 0; i < REQUESTS; i++) {
+            mockMvc.perform(get("/api/reference/warehouses").param("tenantId", String.valueOf(TENANT_ID)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].name").value("Основной склад"));
+            mockMvc.perform(get("/api/reference/units").param("tenantId", String.valueOf(TENANT_ID)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].symbol").value("кг"));
+            mockMvc.perform(get("/api/shops").param("tenantId", String.valueOf(TENANT_ID)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].name").value("Cache Shop"));
+        }
+
+        // Then: три запроса к базе вместо 3 * REQUESTS
+        long queries = statistics.getPrepareStatementCount();
+        System.out.printf("Reference data: %d HTTP requests, %d SQL queries (%d without cache)%n",
+                3 * REQUESTS, queries, 3 * REQUESTS);
+        assertEquals(3, queries);
+        CacheRegionMetrics warehouses = metrics("warehouses");
+        assertEquals(REQUESTS - 1, warehouses.hits() - warehousesBefore.hits());
+        assertEquals(1, warehouses.misses() - warehousesBefore.misses());
+    }
+
+    @Test
+    void save_ShouldInvalidateTenantRegionAfterCommit() {
+        // Given
+        assertEquals(1, referenceDataCache.getWarehouses(TENANT_ID).size());
+
+        // When: откаченная запись кэш не меняет, зафиксированная — сбрасывает
+        transactionTemplate.executeWithoutResult(status -> {
+            warehouseRepository.save(warehouse("Откаченный склад"));
+            warehouseRepository.flush();
+            status.setRollbackOnly();
+        });
+        int afterRollback = referenceDataCache.getWarehouses(TENANT_ID).size();
+        transactionTemplate.executeWithoutResult(status -> warehouseRepository.save(warehouse("Витрина")));
+
+        // Then
+        assertEquals(1, afterRollback);
+        assertTrue(referenceDataCache.getWarehouses(TENANT_ID).stream().anyMatch(w -> w.name().equals("Витрина")));
+        assertEquals(2, referenceDataCache.getWarehouses(TENANT_ID).size());
+    }
+
+    private CacheRegionMetrics metrics(String region) {
+        return referenceDataCache.getMetrics().stream()
+                .filter(m -> m.region().equals(region))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static Warehouse warehouse(String name) {
+        Warehouse warehouse = new Warehouse();
+        warehouse.setTenantId(TENANT_ID);
+        warehouse.setName(name);
+        warehouse.setCreatedAt(LocalDateTime.now());
+        warehouse.setLastUpdated(LocalDateTime.now());
+        return warehouse;
+    }
+}
@@ -0,0 +1,161 @@
+package com.sauda.sauda_app.integration;
+
+import com.sauda.sauda_app.config.TestIntegrationSecurityConfig;
+import com.sauda.sauda_app.dto.ExportDataset;
+import com.sauda.sauda_app.service.ReportExportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Выгрузка чеков в CSV: содержимое, экранирование и постоянная память на большом объеме.
+ * Число строк нагрузочной проверки задается свойством sauda.export.test-rows (по умолчанию 5 млн).
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestIntegrationSecurityConfig.class)
+@Transactional
+class ReportExportIntegrationTest {
+
+    private static final long TENANT_ID = 9004L;
+    private static final LocalDate JAN_1 = LocalDate.of(2025, 1, 1);
+    private static final LocalDate JAN_31 = LocalDate.of(2025, 1, 31);
+    private static final int STRESS_ROWS = Integer.getInteger("sauda.export.test-rows", 5_000_000);
+    private static final long MAX_HEAP_GROWTH = 64L * 1024 * 1024;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private ReportExportService reportExportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+    }
+
+    @Test
+    void writeCsv_ShouldExportPaymentsOfPeriodWithEscaping() throws Exception {
+        // Given
+        Long saleId = insertSale("2025-01-15 10:30:00", "150.00");
+        insertSale("2025-02-01 09:00:00", "99.00");
+        jdbcTemplate.update("INSERT INTO payments (tenant_id, sale_id, amount, payment_type) VALUES (?, ?, ?, ?)",
+                TENANT_ID, saleId, new BigDecimal("150.00"), "CARD, \"Kaspi\"");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        long rows = reportExportService.writeCsv(TENANT_ID, ExportDataset.PAYMENTS, JAN_1, JAN_31, out);
+
+        // Then
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(1, rows);
+        assertEquals(2, lines.length);
+        assertEquals("id,sale_id,sale_date,payment_date,amount,payment_type", lines[0]);
+        assertTrue(lines[1].contains("," + saleId + ",2025-01-15T10:30,"));
+        assertTrue(lines[1].endsWith(",150.00,\"CARD, \"\"Kaspi\"\"\""));
+    }
+
+    @Test
+    void exportCsv_ShouldReturnBadRequest_WhenDatasetIsUnknown() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/reports/export/customers")
+                .param("tenantId", String.valueOf(TENANT_ID)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Неизвестный набор данных: customers"));
+    }
+
+    @Test
+    void writeCsv_ShouldKeepHeapFlat_WhenExportingMillionsOfRows() throws Exception {
+        // Given
+        jdbcTemplate.update(
+                "INSERT INTO sales (tenant_id, sale_date, pos_terminal_id, total_amount, payment_method) " +
+                "SELECT ?, TIMESTAMP '2025-01-01' + (g % 30) * INTERVAL '1 day' + (g % 86400) * INTERVAL '1 second', " +
+                "NULL, (g % 100000) / 100.0, 'CASH' FROM generate_series(1, ?) g",
+                TENANT_ID, STRESS_ROWS);
+        HeapSamplingOutputStream out = new HeapSamplingOutputStream(STRESS_ROWS / 10);
+
+        // When
+        long startedAt = System.nanoTime();
+        long rows = reportExportService.writeCsv(TENANT_ID, ExportDataset.SALES, JAN_1, JAN_31, out);
+        double seconds = (System.nanoTime() - startedAt) / 1_000_000_000.0;
+
+        // Then: прирост кучи после сборки мусора не зависит от объема выгрузки
+        assertEquals(STRESS_ROWS, rows);
+        assertEquals(STRESS_ROWS + 1, out.lines);
+        assertTrue(out.maxGrowth < MAX_HEAP_GROWTH,
+                () -> "Куча выросла на " + out.maxGrowth / (1024 * 1024) + " МБ");
+        System.out.printf("CSV export: %d rows, %d MB in %.1f s, max heap growth %d MB%n",
+                rows, out.bytes / (1024 * 1024), seconds, out.maxGrowth / (1024 * 1024));
+    }
+
+    private Long insertSale(String saleDate, String totalAmount) {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO sales (tenant_id, sale_date, total_amount, payment_method) " +
+                "VALUES (?, CAST(? AS TIMESTAMP), ?, 'CASH') RETURNING id",
+                Long.class, TENANT_ID, saleDate, new BigDecimal(totalAmount));
+    }
+
+    /**
+     * Поток-приемник: считает байты и строки и через каждые sampleEvery строк
+     * замеряет занятую кучу после сборки мусора
+     */
+    private static final class HeapSamplingOutputStream extends OutputStream {
+
+        private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        private final long sampleEvery;
+        private final long baseline;
+        private long bytes;
+        private long lines;
+        private long maxGrowth;
+
+        HeapSamplingOutputStream(long sampleEvery) {
+            this.sampleEvery = Math.max(sampleEvery, 1);
+            this.baseline = usedAfterGc();
+        }
+
+        @Override
+        public void write(int b) {
+            bytes++;
+            if (b == '\n' && ++lines % sampleEvery == 0) {
+                maxGrowth = Math.max(maxGrowth, usedAfterGc() - baseline);
+            }
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                write(buffer[i]);
+            }
+        }
+
+        private long usedAfterGc() {
+            System.gc();
+            return memory.getHeapMemoryUsage().getUsed();
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.sauda.sauda_app.integration;
+
+import com.sauda.sauda_app.config.TestIntegrationSecurityConfig;
+import com.sauda.sauda_app.dto.SaleDto;
+import com.sauda.sauda_app.dto.SaleItemDto;
+import com.sauda.sauda_app.dto.SalesReport;
+import com.sauda.sauda_app.entity.Sale;
+import com.sauda.sauda_app.service.SaleService;
+import com.sauda.sauda_app.service.SalesReportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Отчеты о продажах по дневным итогам: записанный чек сразу попадает в sales_daily_rollup.
+ * Данные создаются для отдельного арендатора, чтобы в отчет не попадали демонстрационные чеки.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestIntegrationSecurityConfig.class)
+@Transactional
+class SalesReportIntegrationTest {
+
+    private static final long TENANT_ID = 9003L;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private SaleService saleService;
+
+    @Autowired
+    private SalesReportService salesReportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private MockMvc mockMvc;
+    private Long warehouseId;
+    private Long productId;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+
+        warehouseId = jdbcTemplate.queryForObject(
+                "INSERT INTO warehouses (tenant_id, name) VALUES (?, ?) RETURNING id",
+                Long.class, TENANT_ID, "Склад отчетов");
+        productId = jdbcTemplate.queryForObject(
+                "INSERT INTO products (tenant_id, name, barcode, sku) VALUES (?, ?, ?, ?) RETURNING id",
+                Long.class, TENANT_ID, "Товар для отчета", "REPORT-0001", "REPORT-0001");
+        jdbcTemplate.update(
+                "INSERT INTO inventory (tenant_id, product_id, warehouse_id, quantity) VALUES (?, ?, ?, ?)",
+                TENANT_ID, productId, warehouseId, 100);
+    }
+
+    @Test
+    void getSalesReport_ShouldCountSalesRecordedInRollup() {
+        // Given
+        createSale("3", "100.00", "0");
+        Sale sale = createSale("1", "50.00", "5.00");
+        LocalDate day = sale.getSaleDate().toLocalDate();
+
+        // When
+        SalesReport report = salesReportService.getSalesReport(TENANT_ID, day, day, null, null);
+
+        // Then
+        assertEquals(2, report.receipts());
+        assertEquals(0, new BigDecimal("345.00").compareTo(report.revenue()));
+        assertEquals(0, new BigDecimal("172.50").compareTo(report.averageTicket()));
+        assertEquals(0, new BigDecimal("5.00").compareTo(report.discountAmount()));
+        assertEquals(1, report.days().size());
+        assertEquals(day, report.days().get(0).day());
+    }
+
+    @Test
+    void getSalesReport_ShouldFilterByTerminal() {
+        // Given
+        Sale sale = createSale("1", "10.00", "0");
+        LocalDate day = sale.getSaleDate().toLocalDate();
+
+        // When
+        SalesReport report = salesReportService.getSalesReport(TENANT_ID, day, day, -1L, null);
+
+        // Then
+        assertEquals(0, report.receipts());
+        assertEquals(0, BigDecimal.ZERO.compareTo(report.averageTicket()));
+        assertTrue(report.days().isEmpty());
+    }
+
+    @Test
+    void getSalesReport_ShouldReturnBadRequest_WhenPeriodIsReversed() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/reports/sales")
+                .param("tenantId", String.valueOf(TENANT_ID))
+                .param("from", "2025-02-01")
+                .param("to", "2025-01-01"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Bad Request"));
+    }
+
+    @Test
+    void getSalesReports_ShouldReturnDailyBreakdown() throws Exception {
+        // Given
+        Sale sale = createSale("2", "20.00", "0");
+        String day = sale.getSaleDate().toLocalDate().toString();
+
+        // When & Then
+        mockMvc.perform(get("/api/sales/reports")
+                .param("tenantId", String.valueOf(TENANT_ID))
+                .param("from", day)
+                .param("to", day))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.receipts").value(1))
+                .andExpect(jsonPath("$.days[0].day").value(day))
+                .andExpect(jsonPath("$.days[0].revenue").value(40.0));
+    }
+
+    private Sale createSale(String quantity, String price, String discount) {
+        SaleItemDto item = new SaleItemDto();
+        item.setProductId(productId);
+        item.setQuantity(new BigDecimal(quantity));
+        item.setPrice(new BigDecimal(price));
+        item.setDiscount(new BigDecimal(discount));
+
+        SaleDto saleDto = new SaleDto();
+        saleDto.setTenantId(TENANT_ID);
+        saleDto.setWarehouseId(warehouseId);
+        saleDto.setPaymentMethod("CASH");
+        saleDto.setItems(new ArrayList<>());
+        saleDto.getItems().add(item);
+        return saleService.createSale(saleDto);
+    }
+}
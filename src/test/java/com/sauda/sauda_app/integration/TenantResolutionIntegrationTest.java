@@ -0,0 +1,52 @@
+package com.sauda.sauda_app.integration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Определение магазина с настройками по умолчанию: настоящая цепочка безопасности
+ * и фильтр магазина, без профиля test, где разрешен запасной параметр tenantId.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class TenantResolutionIntegrationTest {
+
+    private static final long TENANT_ID = 9014L;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void getProducts_ShouldReturnForbidden_WhenTokenHasNoTenantClaim() throws Exception {
+        // When & Then: параметр tenantId не заменяет утверждение токена
+        mockMvc.perform(get("/api/products")
+                        .param("tenantId", String.valueOf(TENANT_ID))
+                        .with(jwt().authorities(new SimpleGrantedAuthority("ROLE_CASHIER"))))
+                .andExpect(status().isForbidden())
+                .andExpect(jsonPath("$.error").value("Forbidden"));
+    }
+
+    @Test
+    void getProducts_ShouldUseTokenClaim() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/products")
+                        .with(jwt().jwt(token -> token.claim("tenant_id", TENANT_ID))
+                                .authorities(new SimpleGrantedAuthority("ROLE_CASHIER"))))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void publicEndpoint_ShouldNotNeedTenant_WhenAnonymous() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/public/health"))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,109 @@
+package com.sauda.sauda_app.realtime;
+
+import com.sauda.sauda_app.dto.InventoryMovement;
+import com.sauda.sauda_app.dto.MovementType;
+import com.sauda.sauda_app.dto.SaleNotification;
+import com.sauda.sauda_app.dto.SalesUpdateBatch;
+import com.sauda.sauda_app.dto.StockDelta;
+import com.sauda.sauda_app.dto.StockUpdateBatch;
+import com.sauda.sauda_app.event.SaleCompletedEvent;
+import com.sauda.sauda_app.event.StockChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RealtimeUpdatePublisherTest {
+
+    @Mock
+    private SimpMessageSendingOperations messagingTemplate;
+
+    private RealtimeUpdatePublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        publisher = new RealtimeUpdatePublisher(messagingTemplate, 2, 3);
+    }
+
+    @Test
+    void flush_ShouldSendOneCoalescedBatchPerWarehouse() {
+        // Given: три продажи одного товара и перемещение между складами за интервал
+        for (int i = 0; i < 3; i++) {
+            publisher.onStockChanged(new StockChangedEvent(List.of(movement(1L, 10L, "-1"))));
+        }
+        publisher.onStockChanged(new StockChangedEvent(List.of(movement(1L, 11L, "-2"), movement(1L, 20L, "2"))));
+
+        // When
+        publisher.flush();
+        publisher.flush();
+
+        // Then
+        ArgumentCaptor<StockUpdateBatch> batch = ArgumentCaptor.forClass(StockUpdateBatch.class);
+        verify(messagingTemplate).convertAndSend(eq("/topic/tenants/1/warehouses/10/stock"), batch.capture());
+        assertEquals(List.of(new StockDelta(1L, new BigDecimal("-3"))), batch.getValue().deltas());
+        assertFalse(batch.getValue().truncated());
+        verify(messagingTemplate).convertAndSend(eq("/topic/tenants/1/warehouses/11/stock"), any(StockUpdateBatch.class));
+        verify(messagingTemplate).convertAndSend(eq("/topic/tenants/1/warehouses/20/stock"), any(StockUpdateBatch.class));
+        verifyNoMoreInteractions(messagingTemplate);
+    }
+
+    @Test
+    void flush_ShouldMarkBatchTruncated_WhenMoreProductsThanBufferHolds() {
+        // Given: буфер на два товара
+        publisher.onStockChanged(new StockChangedEvent(List.of(
+                movement(1L, 10L, "1"), movement(2L, 10L, "1"), movement(3L, 10L, "1"))));
+
+        // When
+        publisher.flush();
+
+        // Then
+        ArgumentCaptor<StockUpdateBatch> batch = ArgumentCaptor.forClass(StockUpdateBatch.class);
+        verify(messagingTemplate).convertAndSend(eq("/topic/tenants/1/warehouses/10/stock"), batch.capture());
+        assertEquals(2, batch.getValue().deltas().size());
+        assertTrue(batch.getValue().truncated());
+    }
+
+    @Test
+    void flush_ShouldKeepNewestSales_WhenBufferOverflows() {
+        // Given: буфер на три чека
+        for (long saleId = 1; saleId <= 5; saleId++) {
+            publisher.onSaleCompleted(new SaleCompletedEvent(1L, saleId, 10L, 1L, BigDecimal.TEN, 1, LocalDateTime.now()));
+        }
+
+        // When
+        publisher.flush();
+
+        // Then
+        ArgumentCaptor<SalesUpdateBatch> batch = ArgumentCaptor.forClass(SalesUpdateBatch.class);
+        verify(messagingTemplate).convertAndSend(eq("/topic/tenants/1/sales"), batch.capture());
+        assertEquals(List.of(3L, 4L, 5L), batch.getValue().sales().stream().map(SaleNotification::saleId).toList());
+        assertEquals(2, batch.getValue().dropped());
+    }
+
+    @Test
+    void flush_ShouldSendNothing_WhenDeltasCancelOut() {
+        // Given
+        publisher.onStockChanged(new StockChangedEvent(List.of(movement(1L, 10L, "-1"), movement(1L, 10L, "1"))));
+
+        // When
+        publisher.flush();
+
+        // Then
+        verifyNoInteractions(messagingTemplate);
+    }
+
+    private static InventoryMovement movement(Long productId, Long warehouseId, String quantity) {
+        return InventoryMovement.of(1L, productId, warehouseId, MovementType.SALE, new BigDecimal(quantity), "Продажа", null);
+    }
+}
@@ -0,0 +1,125 @@
+package com.sauda.sauda_app.search;
+
+import com.sauda.sauda_app.dto.ProductSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrigramIndexTest {
+
+    private TrigramIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TrigramIndex();
+        index.index(product(1L, "Молоко Простоквашино 3.2%", "4870000000011", "MILK-32"));
+        index.index(product(2L, "Йогурт клубничный", "4870000000028", "YOG-STR"));
+        index.index(product(3L, "Молочный шоколад Alpen Gold", "4870000000035", "CHOC-01"));
+        index.index(product(4L, "Apple iPhone 15", "0194253401234", "IPH-15"));
+    }
+
+    @Test
+    void search_ShouldMatchCyrillicSubstringCaseInsensitive() {
+        // When
+        List<ProductSnapshot> result = index.search(TrigramIndex.tokens("МОЛО"));
+
+        // Then
+        assertEquals(List.of(1L, 3L), ids(result));
+    }
+
+    @Test
+    void search_ShouldMatchShortQueryOnlyAsWordPrefix() {
+        // When
+        List<ProductSnapshot> prefix = index.search(TrigramIndex.tokens("ш"));
+        List<ProductSnapshot> inner = index.search(TrigramIndex.tokens("ок"));
+
+        // Then
+        assertEquals(List.of(3L), ids(prefix));
+        assertTrue(inner.isEmpty());
+    }
+
+    @Test
+    void search_ShouldRequireAllWords() {
+        // When
+        List<ProductSnapshot> result = index.search(TrigramIndex.tokens("молочный gold"));
+
+        // Then
+        assertEquals(List.of(3L), ids(result));
+    }
+
+    @Test
+    void search_ShouldRankExactCodeFirst() {
+        // Given
+        index.index(product(5L, "Чехол IPH-15 прозрачный", "4870000000042", "CASE-15"));
+
+        // When
+        List<ProductSnapshot> result = index.search(TrigramIndex.tokens("0194253401234"));
+        List<ProductSnapshot> bySku = index.search(TrigramIndex.tokens("iph"));
+
+        // Then
+        assertEquals(List.of(4L), ids(result));
+        assertEquals(2, bySku.size());
+    }
+
+    @Test
+    void search_ShouldRejectTrigramFalsePositives() {
+        // Given: триграммы «мол», «оло», «лок» есть, но подстроки «молок» в названии нет
+        index.index(product(6L, "Смол олоко локо", "4870000000059", "X-1"));
+
+        // When
+        List<ProductSnapshot> result = index.search(TrigramIndex.tokens("молок"));
+
+        // Then
+        assertEquals(List.of(1L), ids(result));
+    }
+
+    @Test
+    void search_ShouldTreatYoAsYe() {
+        // Given
+        index.index(product(7L, "Мёд цветочный", "4870000000066", "HONEY"));
+
+        // When
+        List<ProductSnapshot> result = index.search(TrigramIndex.tokens("мед"));
+
+        // Then
+        assertEquals(List.of(7L), ids(result));
+    }
+
+    @Test
+    void index_ShouldReplacePreviousVersionOfProduct() {
+        // When
+        index.index(product(1L, "Кефир 1%", "4870000000011", "KEFIR-1"));
+
+        // Then
+        assertEquals(List.of(3L), ids(index.search(TrigramIndex.tokens("моло"))));
+        assertEquals(List.of(1L), ids(index.search(TrigramIndex.tokens("кефир"))));
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    void remove_ShouldHideProductAndSurviveCompaction() {
+        // When
+        for (long id = 100; id < 3_100; id++) {
+            index.index(product(id, "Временный товар " + id, "99" + id, "TMP-" + id));
+            index.remove(id);
+        }
+        index.remove(2L);
+
+        // Then
+        assertTrue(index.search(TrigramIndex.tokens("временный")).isEmpty());
+        assertTrue(index.search(TrigramIndex.tokens("йогурт")).isEmpty());
+        assertEquals(List.of(1L, 3L), ids(index.search(TrigramIndex.tokens("моло"))));
+        assertEquals(3, index.size());
+    }
+
+    private static List<Long> ids(List<ProductSnapshot> products) {
+        return products.stream().map(ProductSnapshot::id).toList();
+    }
+
+    private static ProductSnapshot product(Long id, String name, String barcode, String sku) {
+        return new ProductSnapshot(id, 1L, name, barcode, sku, null, null, true);
+    }
+}
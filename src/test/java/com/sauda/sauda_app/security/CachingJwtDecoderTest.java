@@ -0,0 +1,115 @@
+package com.sauda.sauda_app.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingJwtDecoderTest {
+
+    private static final Instant NOW = Instant.parse("2024-03-15T10:00:00Z");
+
+    private final AtomicInteger decodes = new AtomicInteger();
+    private final AtomicLong keySetVersion = new AtomicLong();
+
+    @Test
+    void decode_ShouldVerifyTokenOnceUntilExpiry() {
+        // Given
+        CachingJwtDecoder decoder = decoder(10, Clock.fixed(NOW, ZoneOffset.UTC));
+
+        // When
+        Jwt first = decoder.decode("token-a");
+        for (int i = 0; i < 100; i++) {
+            assertSame(first, decoder.decode("token-a"));
+        }
+
+        // Then
+        assertEquals(1, decodes.get());
+    }
+
+    @Test
+    void decode_ShouldVerifyAgain_WhenTokenExpiredOrKeySetChanged() {
+        // Given
+        MutableClock clock = new MutableClock(NOW);
+        CachingJwtDecoder decoder = decoder(10, clock);
+        decoder.decode("token-a");
+
+        // When: набор ключей сменился — токен проверяется заново
+        keySetVersion.incrementAndGet();
+        decoder.decode("token-a");
+        decoder.decode("token-a");
+        // Токен истек: закэшированный результат не используется
+        clock.now = NOW.plus(Duration.ofMinutes(6));
+        decoder.decode("token-a");
+
+        // Then
+        assertEquals(3, decodes.get());
+    }
+
+    @Test
+    void decode_ShouldNotCacheRejectedTokensOrGrowBeyondLimit() {
+        // Given
+        CachingJwtDecoder decoder = decoder(2, Clock.fixed(NOW, ZoneOffset.UTC));
+
+        // When
+        assertThrows(BadJwtException.class, () -> decoder.decode("bad"));
+        assertThrows(BadJwtException.class, () -> decoder.decode("bad"));
+        decoder.decode("token-a");
+        decoder.decode("token-b");
+        decoder.decode("token-c");
+        decoder.decode("token-c");
+
+        // Then: третий токен не поместился и проверялся каждый раз
+        assertEquals(6, decodes.get());
+        assertEquals(2, decoder.size());
+    }
+
+    private CachingJwtDecoder decoder(int maxTokens, Clock clock) {
+        JwtDecoder delegate = token -> {
+            decodes.incrementAndGet();
+            if (token.equals("bad")) {
+                throw new BadJwtException("Неверная подпись");
+            }
+            return Jwt.withTokenValue(token)
+                    .header("alg", "RS256")
+                    .subject("user")
+                    .issuedAt(NOW)
+                    .expiresAt(NOW.plus(Duration.ofMinutes(5)))
+                    .build();
+        };
+        return new CachingJwtDecoder(delegate, maxTokens, keySetVersion::get, clock);
+    }
+
+    private static final class MutableClock extends Clock {
+        Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
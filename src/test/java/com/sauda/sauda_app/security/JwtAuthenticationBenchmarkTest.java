@@ -0,0 +1,95 @@
+package com.sauda.sauda_app.security;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationProvider;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Шаг аутентификации цепочки фильтров (BearerTokenAuthenticationFilter → JwtAuthenticationProvider)
+ * с проверкой подписи на каждый запрос и с кэшем проверенных токенов: один и тот же токен кассы
+ * приходит с каждым запросом до истечения.
+ */
+class JwtAuthenticationBenchmarkTest {
+
+    private static final String ISSUER = "http://localhost:8081/realms/sauda-realm";
+    private static final int WARMUP = 500;
+    private static final int REQUESTS = 5_000;
+
+    @Test
+    void authenticate_ShouldSkipSignatureCheck_ForCachedToken() throws Exception {
+        // Given
+        RSAKey key = new RSAKeyGenerator(2048).keyID("bench").generate();
+        String token = sign(key);
+        NimbusJwtDecoder verifying = NimbusJwtDecoder.withPublicKey(key.toRSAPublicKey()).build();
+        verifying.setJwtValidator(JwtValidators.createDefaultWithIssuer(ISSUER));
+        JwtAuthenticationProvider uncached = provider(verifying);
+        JwtAuthenticationProvider cached = provider(new CachingJwtDecoder(verifying, 1000, () -> 0, Clock.systemUTC()));
+
+        // When
+        long uncachedNanos = run(uncached, token);
+        long cachedNanos = run(cached, token);
+
+        // Then
+        Authentication a = uncached.authenticate(new BearerTokenAuthenticationToken(token));
+        Authentication b = cached.authenticate(new BearerTokenAuthenticationToken(token));
+        assertEquals(a.getName(), b.getName());
+        assertEquals(List.of("ROLE_CASHIER"), b.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+        System.out.printf("JWT authentication: %d requests, %.1f us/request verifying, %.2f us/request cached (%.0fx)%n",
+                REQUESTS, uncachedNanos / 1000.0 / REQUESTS, cachedNanos / 1000.0 / REQUESTS,
+                (double) uncachedNanos / cachedNanos);
+        assertTrue(cachedNanos < uncachedNanos);
+    }
+
+    private static long run(JwtAuthenticationProvider provider, String token) {
+        for (int i = 0; i < WARMUP; i++) {
+            provider.authenticate(new BearerTokenAuthenticationToken(token));
+        }
+        long started = System.nanoTime();
+        for (int i = 0; i < REQUESTS; i++) {
+            provider.authenticate(new BearerTokenAuthenticationToken(token));
+        }
+        return System.nanoTime() - started;
+    }
+
+    private static JwtAuthenticationProvider provider(JwtDecoder decoder) {
+        JwtAuthenticationProvider provider = new JwtAuthenticationProvider(decoder);
+        provider.setJwtAuthenticationConverter(new KeycloakJwtAuthenticationConverter(16));
+        return provider;
+    }
+
+    private static String sign(RSAKey key) throws Exception {
+        Instant now = Instant.now();
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .issuer(ISSUER)
+                .subject("cashier-1")
+                .claim("preferred_username", "cashier1")
+                .claim("realm_access", Map.of("roles", List.of("CASHIER", "offline_access")))
+                .issueTime(Date.from(now))
+                .expirationTime(Date.from(now.plus(5, ChronoUnit.MINUTES)))
+                .build();
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).build(), claims);
+        jwt.sign(new RSASSASigner(key));
+        return jwt.serialize();
+    }
+}
@@ -0,0 +1,43 @@
+package com.sauda.sauda_app.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeycloakJwtAuthenticationConverterTest {
+
+    private final KeycloakJwtAuthenticationConverter converter = new KeycloakJwtAuthenticationConverter(16);
+
+    @Test
+    void convert_ShouldUsePreferredUsernameAndRealmRoles() {
+        // Given
+        Jwt jwt = jwt().claim("realm_access", Map.of("roles", List.of("CASHIER", "offline_access"))).build();
+
+        // When
+        AbstractAuthenticationToken authentication = converter.convert(jwt);
+
+        // Then
+        assertEquals("cashier1", authentication.getName());
+        assertEquals(List.of("ROLE_CASHIER"),
+                authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+    }
+
+    @Test
+    void convert_ShouldGrantNothing_WhenTokenHasNoRealmRoles() {
+        // When
+        AbstractAuthenticationToken authentication = converter.convert(jwt().claim("realm_access", "CASHIER").build());
+
+        // Then
+        assertTrue(authentication.getAuthorities().isEmpty());
+    }
+
+    private static Jwt.Builder jwt() {
+        return Jwt.withTokenValue("token").header("alg", "RS256").subject("cashier-1").claim("preferred_username", "cashier1");
+    }
+}
@@ -0,0 +1,43 @@
+package com.sauda.sauda_app.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoleAuthoritiesTest {
+
+    @Test
+    void of_ShouldReturnSameImmutableAuthoritiesForSameRoles() {
+        // Given
+        RoleAuthorities roleAuthorities = new RoleAuthorities(16);
+
+        // When
+        Collection<GrantedAuthority> first = roleAuthorities.of(List.of("CASHIER", "offline_access", "MANAGER"));
+        Collection<GrantedAuthority> second = roleAuthorities.of(new ArrayList<>(List.of("CASHIER", "offline_access", "MANAGER")));
+
+        // Then
+        assertSame(first, second);
+        assertEquals(List.of("ROLE_CASHIER", "ROLE_MANAGER"), first.stream().map(GrantedAuthority::getAuthority).toList());
+        assertThrows(UnsupportedOperationException.class, first::clear);
+    }
+
+    @Test
+    void of_ShouldShareAuthorityInstancesAcrossRoleSets() {
+        // Given
+        RoleAuthorities roleAuthorities = new RoleAuthorities(16);
+
+        // When
+        GrantedAuthority cashier = roleAuthorities.of(List.of("CASHIER")).iterator().next();
+        GrantedAuthority cashierInSet = roleAuthorities.of(List.of("MANAGER", "CASHIER")).stream()
+                .filter(a -> a.getAuthority().equals("ROLE_CASHIER")).findFirst().orElseThrow();
+
+        // Then
+        assertSame(cashier, cashierInSet);
+        assertTrue(roleAuthorities.of(null).isEmpty());
+    }
+}
@@ -1,15 +1,24 @@
 package com.sauda.sauda_app.service;
 
+import com.sauda.sauda_app.cache.CustomerLookupCache;
+import com.sauda.sauda_app.cache.CustomerStatsCounters;
+import com.sauda.sauda_app.dto.CustomerCounts;
+import com.sauda.sauda_app.dto.CustomerSummary;
 import com.sauda.sauda_app.entity.Customer;
+import com.sauda.sauda_app.event.CustomerChangedEvent;
 import com.sauda.sauda_app.repository.CustomerRepository;
 import com.sauda.sauda_app.service.impl.CustomerServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -23,6 +32,15 @@ class CustomerServiceTest {
     @Mock
     private CustomerRepository customerRepository;
 
+    @Mock
+    private CustomerLookupCache customerLookupCache;
+
+    @Mock
+    private CustomerStatsCounters customerStatsCounters;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private CustomerServiceImpl customerService;
 
@@ -164,6 +182,12 @@ class CustomerServiceTest {
         verify(customerRepository).existsByEmail("jane.doe@example.com");
         verify(customerRepository).existsByDiscountCard("DC654321");
         verify(customerRepository).save(customer);
+        ArgumentCaptor<CustomerChangedEvent> event = ArgumentCaptor.forClass(CustomerChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(List.of("DC123456", "DC654321"), event.getValue().discountCards());
+        assertEquals(List.of("+1234567890", "+9876543210"), event.getValue().phones());
+        assertEquals(0, event.getValue().customersDelta());
+        assertEquals(0, event.getValue().discountCardsDelta());
     }
 
     @Test
@@ -255,6 +279,27 @@ class CustomerServiceTest {
         verify(customerRepository).findByDiscountCard(discountCard);
     }
 
+    @Test
+    void findCustomerByDiscountCard_ShouldUseLookupCache() {
+        // Given
+        CustomerSummary summary = new CustomerSummary(1L, 1L, "John Doe", "+1234567890", "DC123456");
+        when(customerLookupCache.findByDiscountCard(1L, "DC123456")).thenReturn(Optional.of(summary));
+
+        // When
+        Optional<CustomerSummary> result = customerService.findCustomerByDiscountCard(1L, "DC123456");
+
+        // Then
+        assertEquals(Optional.of(summary), result);
+        verify(customerRepository, never()).findByDiscountCard(anyString());
+    }
+
+    @Test
+    void findCustomerByDiscountCard_ShouldThrowException_WhenCardIsBlank() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> customerService.findCustomerByDiscountCard(1L, " "));
+        verify(customerLookupCache, never()).findByDiscountCard(any(), any());
+    }
+
     @Test
     void deleteCustomer_ShouldDeleteCustomer_WhenExists() {
         // Given
@@ -335,14 +380,14 @@ class CustomerServiceTest {
         assertNotNull(result);
         verify(customerRepository).findById(customerId);
         verify(customerRepository).save(customer);
+        verify(eventPublisher).publishEvent(new CustomerChangedEvent(1L, Arrays.asList("DC123456"), List.of(), 0, -1));
     }
 
     @Test
     void getCustomerStatsByTenant_ShouldReturnStats_WhenValidTenant() {
         // Given
         Long tenantId = 1L;
-        when(customerRepository.countByTenantId(tenantId.longValue())).thenReturn(100L);
-        when(customerRepository.countByTenantIdAndDiscountCardIsNotNull(tenantId.longValue())).thenReturn(75L);
+        when(customerStatsCounters.get(tenantId)).thenReturn(new CustomerCounts(tenantId, 100, 75, 3, 40));
 
         // When
         CustomerService.CustomerStats result = customerService.getCustomerStatsByTenant(tenantId);
@@ -353,9 +398,9 @@ class CustomerServiceTest {
         assertEquals(75L, result.getCustomersWithDiscountCards());
         assertEquals(25L, result.getCustomersWithoutDiscountCards());
         assertEquals(75.0, result.getDiscountCardPercentage(), 0.01);
-        
-        verify(customerRepository).countByTenantId(tenantId.longValue());
-        verify(customerRepository).countByTenantIdAndDiscountCardIsNotNull(tenantId.longValue());
+        assertEquals(3L, result.getNewCustomersToday());
+        assertEquals(40L, result.getActiveCustomersLast30Days());
+        verifyNoInteractions(customerRepository);
     }
 
     @Test
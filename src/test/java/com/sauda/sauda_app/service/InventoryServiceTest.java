@@ -1,19 +1,30 @@
 package com.sauda.sauda_app.service;
 
+import com.sauda.sauda_app.dto.InventoryLevel;
+import com.sauda.sauda_app.dto.InventoryMovement;
+import com.sauda.sauda_app.dto.MovementType;
+import com.sauda.sauda_app.dto.TransferDto;
+import com.sauda.sauda_app.dto.TransferItemDto;
 import com.sauda.sauda_app.entity.Inventory;
+import com.sauda.sauda_app.repository.InventoryJdbcRepository;
+import com.sauda.sauda_app.repository.InventoryMovementJdbcRepository;
 import com.sauda.sauda_app.repository.InventoryRepository;
+import com.sauda.sauda_app.repository.InventoryValuationJdbcRepository;
 import com.sauda.sauda_app.service.impl.InventoryServiceImpl;
+import com.sauda.sauda_app.tenant.TenantContext;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -27,6 +38,18 @@ class InventoryServiceTest {
     @Mock
     private InventoryRepository inventoryRepository;
 
+    @Mock
+    private InventoryJdbcRepository inventoryJdbcRepository;
+
+    @Mock
+    private InventoryValuationJdbcRepository valuationRepository;
+
+    @Mock
+    private InventoryMovementJdbcRepository movementRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private InventoryServiceImpl inventoryService;
 
@@ -81,25 +104,29 @@ class InventoryServiceTest {
     void updateInventory_ShouldUpdateExistingInventory_WhenExists() {
         // Given
         BigDecimal newQuantity = new BigDecimal("150.00");
-        when(inventoryRepository.findByProductIdAndWarehouseId(productId, warehouseId))
-                .thenReturn(Optional.of(inventory));
-        when(inventoryRepository.save(any(Inventory.class))).thenReturn(inventory);
+        when(inventoryJdbcRepository.findWarehouseTenantId(warehouseId)).thenReturn(Optional.of(1L));
+        when(inventoryRepository.lockQuantity(1L, productId, warehouseId)).thenReturn(Optional.of(quantity));
+        when(inventoryRepository.setQuantity(1L, productId, warehouseId, newQuantity))
+                .thenReturn(Optional.of(level(newQuantity)));
 
         // When
         Inventory result = inventoryService.updateInventory(productId, warehouseId, newQuantity);
 
         // Then
         assertNotNull(result);
-        verify(inventoryRepository).findByProductIdAndWarehouseId(productId, warehouseId);
-        verify(inventoryRepository).save(inventory);
+        assertEquals(newQuantity, result.getQuantity());
+        verify(inventoryRepository).setQuantity(1L, productId, warehouseId, newQuantity);
+        verify(inventoryRepository, never()).save(any(Inventory.class));
+        verify(movementRepository).insertAll(List.of(InventoryMovement.of(1L, productId, warehouseId,
+                MovementType.ADJUSTMENT, new BigDecimal("50.00"), "Установка остатка", null)));
     }
 
     @Test
     void updateInventory_ShouldCreateNewInventory_WhenNotExists() {
         // Given
         BigDecimal newQuantity = new BigDecimal("150.00");
-        when(inventoryRepository.findByProductIdAndWarehouseId(productId, warehouseId))
-                .thenReturn(Optional.empty());
+        when(inventoryJdbcRepository.findWarehouseTenantId(warehouseId)).thenReturn(Optional.of(1L));
+        when(inventoryRepository.lockQuantity(1L, productId, warehouseId)).thenReturn(Optional.empty());
         when(inventoryRepository.existsByProductIdAndWarehouseId(productId, warehouseId))
                 .thenReturn(false);
         when(inventoryRepository.save(any(Inventory.class))).thenReturn(inventory);
@@ -109,7 +136,7 @@ class InventoryServiceTest {
 
         // Then
         assertNotNull(result);
-        verify(inventoryRepository).findByProductIdAndWarehouseId(productId, warehouseId);
+        verify(inventoryRepository, never()).setQuantity(anyLong(), anyLong(), anyLong(), any(BigDecimal.class));
         verify(inventoryRepository).save(any(Inventory.class));
     }
 
@@ -119,36 +146,52 @@ class InventoryServiceTest {
         BigDecimal increaseAmount = new BigDecimal("50.00");
         BigDecimal expectedQuantity = quantity.add(increaseAmount);
         
-        when(inventoryRepository.findByProductIdAndWarehouseId(productId, warehouseId))
-                .thenReturn(Optional.of(inventory));
-        when(inventoryRepository.save(any(Inventory.class))).thenReturn(inventory);
+        when(inventoryJdbcRepository.findWarehouseTenantId(warehouseId)).thenReturn(Optional.of(1L));
+        when(inventoryRepository.upsertQuantity(1L, productId, warehouseId, increaseAmount))
+                .thenReturn(level(expectedQuantity));
 
         // When
         Inventory result = inventoryService.increaseInventory(productId, warehouseId, increaseAmount);
 
         // Then
         assertNotNull(result);
-        verify(inventoryRepository).findByProductIdAndWarehouseId(productId, warehouseId);
-        verify(inventoryRepository).save(inventory);
+        assertEquals(expectedQuantity, result.getQuantity());
+        verify(inventoryRepository).upsertQuantity(1L, productId, warehouseId, increaseAmount);
+        verify(inventoryRepository, never()).findByProductIdAndWarehouseId(anyLong(), anyLong());
+        verify(inventoryRepository, never()).save(any(Inventory.class));
+        verify(movementRepository).insertAll(List.of(InventoryMovement.of(1L, productId, warehouseId,
+                MovementType.RECEIPT, increaseAmount, "Поступление", null)));
     }
 
     @Test
-    void increaseInventory_ShouldCreateNewInventory_WhenNotExists() {
-        // Given
+    void increaseInventory_ShouldCreateInventoryInOneUpsert_WhenNotExists() {
+        // Given: строки нет — upsert вставляет ее с количеством поступления
         BigDecimal increaseAmount = new BigDecimal("50.00");
-        when(inventoryRepository.findByProductIdAndWarehouseId(productId, warehouseId))
-                .thenReturn(Optional.empty());
-        when(inventoryRepository.existsByProductIdAndWarehouseId(productId, warehouseId))
-                .thenReturn(false);
-        when(inventoryRepository.save(any(Inventory.class))).thenReturn(inventory);
+        when(inventoryJdbcRepository.findWarehouseTenantId(warehouseId)).thenReturn(Optional.of(1L));
+        when(inventoryRepository.upsertQuantity(1L, productId, warehouseId, increaseAmount))
+                .thenReturn(level(increaseAmount));
 
         // When
         Inventory result = inventoryService.increaseInventory(productId, warehouseId, increaseAmount);
 
-        // Then
-        assertNotNull(result);
-        verify(inventoryRepository).findByProductIdAndWarehouseId(productId, warehouseId);
-        verify(inventoryRepository).save(any(Inventory.class));
+        // Then: без проверки существования и отдельной вставки, которые гонялись за уникальный ключ
+        assertEquals(increaseAmount, result.getQuantity());
+        verify(inventoryRepository, never()).existsByProductIdAndWarehouseId(anyLong(), anyLong());
+        verify(inventoryRepository, never()).save(any(Inventory.class));
+    }
+
+    @Test
+    void increaseInventory_ShouldThrowException_WhenWarehouseNotFound() {
+        // Given
+        BigDecimal increaseAmount = new BigDecimal("50.00");
+        when(inventoryJdbcRepository.findWarehouseTenantId(warehouseId)).thenReturn(Optional.empty());
+
+        // When & Then
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> inventoryService.increaseInventory(productId, warehouseId, increaseAmount));
+
+        assertEquals("Склад с ID " + warehouseId + " не найден", exception.getMessage());
+        verify(inventoryRepository, never()).upsertQuantity(anyLong(), anyLong(), anyLong(), any(BigDecimal.class));
     }
 
     @Test
@@ -157,24 +200,29 @@ class InventoryServiceTest {
         BigDecimal decreaseAmount = new BigDecimal("30.00");
         BigDecimal expectedQuantity = quantity.subtract(decreaseAmount);
         
-        when(inventoryRepository.findByProductIdAndWarehouseId(productId, warehouseId))
-                .thenReturn(Optional.of(inventory));
-        when(inventoryRepository.save(any(Inventory.class))).thenReturn(inventory);
+        when(inventoryJdbcRepository.findWarehouseTenantId(warehouseId)).thenReturn(Optional.of(1L));
+        when(inventoryRepository.decreaseTenantQuantity(1L, productId, warehouseId, decreaseAmount))
+                .thenReturn(Optional.of(level(expectedQuantity)));
 
         // When
         Inventory result = inventoryService.decreaseInventory(productId, warehouseId, decreaseAmount);
 
         // Then
         assertNotNull(result);
-        verify(inventoryRepository).findByProductIdAndWarehouseId(productId, warehouseId);
-        verify(inventoryRepository).save(inventory);
+        assertEquals(expectedQuantity, result.getQuantity());
+        verify(inventoryRepository).decreaseTenantQuantity(1L, productId, warehouseId, decreaseAmount);
+        verify(inventoryRepository, never()).findByTenantIdAndProductIdAndWarehouseId(anyLong(), anyLong(), anyLong());
+        verify(inventoryRepository, never()).save(any(Inventory.class));
     }
 
     @Test
     void decreaseInventory_ShouldThrowException_WhenInsufficientStock() {
         // Given
         BigDecimal decreaseAmount = new BigDecimal("150.00"); // More than available
-        when(inventoryRepository.findByProductIdAndWarehouseId(productId, warehouseId))
+        when(inventoryJdbcRepository.findWarehouseTenantId(warehouseId)).thenReturn(Optional.of(1L));
+        when(inventoryRepository.decreaseTenantQuantity(1L, productId, warehouseId, decreaseAmount))
+                .thenReturn(Optional.empty());
+        when(inventoryRepository.findByTenantIdAndProductIdAndWarehouseId(1L, productId, warehouseId))
                 .thenReturn(Optional.of(inventory));
 
         // When & Then
@@ -182,7 +230,7 @@ class InventoryServiceTest {
                 () -> inventoryService.decreaseInventory(productId, warehouseId, decreaseAmount));
         
         assertTrue(exception.getMessage().contains("Недостаточно товара на складе"));
-        verify(inventoryRepository).findByProductIdAndWarehouseId(productId, warehouseId);
+        verify(inventoryRepository).decreaseTenantQuantity(1L, productId, warehouseId, decreaseAmount);
         verify(inventoryRepository, never()).save(any(Inventory.class));
     }
 
@@ -190,7 +238,10 @@ class InventoryServiceTest {
     void decreaseInventory_ShouldThrowException_WhenInventoryNotExists() {
         // Given
         BigDecimal decreaseAmount = new BigDecimal("50.00");
-        when(inventoryRepository.findByProductIdAndWarehouseId(productId, warehouseId))
+        when(inventoryJdbcRepository.findWarehouseTenantId(warehouseId)).thenReturn(Optional.of(1L));
+        when(inventoryRepository.decreaseTenantQuantity(1L, productId, warehouseId, decreaseAmount))
+                .thenReturn(Optional.empty());
+        when(inventoryRepository.findByTenantIdAndProductIdAndWarehouseId(1L, productId, warehouseId))
                 .thenReturn(Optional.empty());
 
         // When & Then
@@ -198,16 +249,138 @@ class InventoryServiceTest {
                 () -> inventoryService.decreaseInventory(productId, warehouseId, decreaseAmount));
         
         assertTrue(exception.getMessage().contains("Товар не найден на складе"));
-        verify(inventoryRepository).findByProductIdAndWarehouseId(productId, warehouseId);
+        verify(inventoryRepository).decreaseTenantQuantity(1L, productId, warehouseId, decreaseAmount);
         verify(inventoryRepository, never()).save(any(Inventory.class));
     }
 
+    @Test
+    void transferInventory_ShouldMoveStock_WhenSufficientStock() {
+        // Given
+        Long toWarehouseId = 2L;
+        BigDecimal transferAmount = new BigDecimal("40.00");
+        when(inventoryJdbcRepository.findWarehouseTenantId(warehouseId)).thenReturn(Optional.of(1L));
+        when(inventoryJdbcRepository.findWarehouseTenantId(toWarehouseId)).thenReturn(Optional.of(1L));
+        when(inventoryRepository.decreaseTenantQuantity(1L, productId, warehouseId, transferAmount))
+                .thenReturn(Optional.of(level(quantity.subtract(transferAmount))));
+        when(inventoryRepository.upsertQuantity(1L, productId, toWarehouseId, transferAmount))
+                .thenReturn(level(transferAmount));
+
+        // When
+        List<Inventory> result = inventoryService.transferInventory(productId, warehouseId, toWarehouseId, transferAmount);
+
+        // Then
+        assertEquals(2, result.size());
+        assertEquals(quantity.subtract(transferAmount), result.get(0).getQuantity());
+        assertEquals(transferAmount, result.get(1).getQuantity());
+        verify(movementRepository).insertAll(List.of(
+                InventoryMovement.of(1L, productId, warehouseId, MovementType.TRANSFER, transferAmount.negate(),
+                        "Перемещение", toWarehouseId),
+                InventoryMovement.of(1L, productId, toWarehouseId, MovementType.TRANSFER, transferAmount,
+                        "Перемещение", warehouseId)));
+    }
+
+    @Test
+    void transferInventory_ShouldThrowException_WhenInsufficientStock() {
+        // Given
+        Long toWarehouseId = 2L;
+        BigDecimal transferAmount = new BigDecimal("400.00");
+        when(inventoryJdbcRepository.findWarehouseTenantId(warehouseId)).thenReturn(Optional.of(1L));
+        when(inventoryJdbcRepository.findWarehouseTenantId(toWarehouseId)).thenReturn(Optional.of(1L));
+        when(inventoryRepository.decreaseTenantQuantity(1L, productId, warehouseId, transferAmount))
+                .thenReturn(Optional.empty());
+
+        // When & Then
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> inventoryService.transferInventory(productId, warehouseId, toWarehouseId, transferAmount));
+
+        assertTrue(exception.getMessage().contains("Недостаточно товара на складе-источнике"));
+        verify(inventoryRepository, never()).upsertQuantity(anyLong(), anyLong(), anyLong(), any(BigDecimal.class));
+    }
+
+    @Test
+    void transferInventory_ShouldThrowException_WhenDestinationBelongsToAnotherTenant() {
+        // Given
+        Long toWarehouseId = 2L;
+        when(inventoryJdbcRepository.findWarehouseTenantId(warehouseId)).thenReturn(Optional.of(1L));
+        when(inventoryJdbcRepository.findWarehouseTenantId(toWarehouseId)).thenReturn(Optional.of(2L));
+
+        // When & Then
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> inventoryService.transferInventory(productId, warehouseId, toWarehouseId, new BigDecimal("1")));
+
+        assertEquals("Склад с ID " + toWarehouseId + " не найден", exception.getMessage());
+        verify(inventoryRepository, never()).decreaseTenantQuantity(anyLong(), anyLong(), anyLong(), any(BigDecimal.class));
+        verify(inventoryRepository, never()).upsertQuantity(anyLong(), anyLong(), anyLong(), any(BigDecimal.class));
+    }
+
+    @Test
+    void transferInventoryBatch_ShouldMergeLinesAndApplySetBasedDeltas() {
+        // Given
+        Long toWarehouseId = 2L;
+        TransferDto transfer = transfer(toWarehouseId, transferItem(3L, "2"), transferItem(1L, "5"), transferItem(3L, "1"));
+        when(inventoryJdbcRepository.findWarehouseTenantId(toWarehouseId)).thenReturn(Optional.of(1L));
+        Long[] productIds = {1L, 3L};
+        BigDecimal[] quantities = {new BigDecimal("5"), new BigDecimal("3")};
+        when(inventoryJdbcRepository.lockForTransfer(1L, warehouseId, toWarehouseId, productIds))
+                .thenReturn(Map.of(1L, new BigDecimal("10"), 3L, new BigDecimal("3")));
+
+        // When
+        int lines = inventoryService.transferInventoryBatch(transfer);
+
+        // Then
+        assertEquals(2, lines);
+        verify(inventoryJdbcRepository).decreaseAll(1L, warehouseId, productIds, quantities);
+        verify(inventoryJdbcRepository).increaseAll(1L, toWarehouseId, productIds, quantities);
+    }
+
+    @Test
+    void transferInventoryBatch_ShouldThrowException_WhenAnyLineIsShort() {
+        // Given
+        Long toWarehouseId = 2L;
+        TransferDto transfer = transfer(toWarehouseId, transferItem(1L, "5"), transferItem(2L, "1"));
+        when(inventoryJdbcRepository.findWarehouseTenantId(toWarehouseId)).thenReturn(Optional.of(1L));
+        when(inventoryJdbcRepository.lockForTransfer(eq(1L), eq(warehouseId), eq(toWarehouseId), any(Long[].class)))
+                .thenReturn(Map.of(1L, new BigDecimal("4")));
+
+        // When & Then
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> inventoryService.transferInventoryBatch(transfer));
+
+        assertTrue(exception.getMessage().contains("[1, 2]"));
+        verify(inventoryJdbcRepository, never()).decreaseAll(anyLong(), anyLong(), any(), any());
+        verify(inventoryJdbcRepository, never()).increaseAll(anyLong(), anyLong(), any(), any());
+    }
+
+    @Test
+    void transferInventoryBatch_ShouldThrowException_WhenDestinationBelongsToAnotherTenant() {
+        // Given
+        Long toWarehouseId = 2L;
+        TransferDto transfer = transfer(toWarehouseId, transferItem(1L, "1"));
+        when(inventoryJdbcRepository.findWarehouseTenantId(toWarehouseId)).thenReturn(Optional.of(2L));
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> inventoryService.transferInventoryBatch(transfer));
+        verify(inventoryJdbcRepository, never()).lockForTransfer(any(), any(), any(), any());
+        verify(inventoryJdbcRepository, never()).increaseAll(anyLong(), anyLong(), any(), any());
+    }
+
+    @Test
+    void transferInventoryBatch_ShouldThrowException_WhenWarehousesAreEqual() {
+        // Given
+        TransferDto transfer = transfer(warehouseId, transferItem(1L, "1"));
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> inventoryService.transferInventoryBatch(transfer));
+        verifyNoInteractions(inventoryJdbcRepository);
+    }
+
     @Test
     void createInventory_ShouldCreateNewInventory_WhenValidData() {
         // Given
         BigDecimal newQuantity = new BigDecimal("200.00");
         when(inventoryRepository.existsByProductIdAndWarehouseId(productId, warehouseId))
                 .thenReturn(false);
+        when(inventoryJdbcRepository.findWarehouseTenantId(warehouseId)).thenReturn(Optional.of(1L));
         when(inventoryRepository.save(any(Inventory.class))).thenReturn(inventory);
 
         // When
@@ -219,10 +392,25 @@ class InventoryServiceTest {
         verify(inventoryRepository).save(any(Inventory.class));
     }
 
+    @Test
+    void createInventory_ShouldThrowException_WhenWarehouseBelongsToOtherTenant() {
+        // Given
+        BigDecimal newQuantity = new BigDecimal("200.00");
+        when(inventoryJdbcRepository.findWarehouseTenantId(warehouseId)).thenReturn(Optional.of(1L));
+
+        // When & Then: запрос магазина 2 не создает остаток на складе магазина 1
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> TenantContext.runAs(2L, () -> inventoryService.createInventory(productId, warehouseId, newQuantity)));
+
+        assertTrue(exception.getMessage().contains("не найден"));
+        verify(inventoryRepository, never()).save(any(Inventory.class));
+    }
+
     @Test
     void createInventory_ShouldThrowException_WhenAlreadyExists() {
         // Given
         BigDecimal newQuantity = new BigDecimal("200.00");
+        when(inventoryJdbcRepository.findWarehouseTenantId(warehouseId)).thenReturn(Optional.of(1L));
         when(inventoryRepository.existsByProductIdAndWarehouseId(productId, warehouseId))
                 .thenReturn(true);
 
@@ -356,4 +544,52 @@ class InventoryServiceTest {
         verify(inventoryRepository).findByProductIdAndWarehouseId(productId, warehouseId);
         verify(inventoryRepository, never()).delete(any(Inventory.class));
     }
+
+    @Test
+    void getTotalInventoryValueByTenant_ShouldSumTrackedWarehouseValues() {
+        // Given
+        when(valuationRepository.trackedValues(1L))
+                .thenReturn(Map.of(1L, new BigDecimal("1500.00"), 2L, new BigDecimal("250.50")));
+
+        // When
+        BigDecimal result = inventoryService.getTotalInventoryValueByTenant(1L);
+
+        // Then
+        assertEquals(0, new BigDecimal("1750.50").compareTo(result));
+    }
+
+    private InventoryLevel level(BigDecimal levelQuantity) {
+        return new InventoryLevel() {
+            @Override
+            public Long getId() { return inventory.getId(); }
+
+            @Override
+            public Long getTenantId() { return inventory.getTenantId(); }
+
+            @Override
+            public Long getProductId() { return productId; }
+
+            @Override
+            public Long getWarehouseId() { return warehouseId; }
+
+            @Override
+            public BigDecimal getQuantity() { return levelQuantity; }
+        };
+    }
+
+    private TransferDto transfer(Long toWarehouseId, TransferItemDto... items) {
+        TransferDto transfer = new TransferDto();
+        transfer.setTenantId(1L);
+        transfer.setFromWarehouseId(warehouseId);
+        transfer.setToWarehouseId(toWarehouseId);
+        transfer.setItems(List.of(items));
+        return transfer;
+    }
+
+    private TransferItemDto transferItem(Long itemProductId, String itemQuantity) {
+        TransferItemDto item = new TransferItemDto();
+        item.setProductId(itemProductId);
+        item.setQuantity(new BigDecimal(itemQuantity));
+        return item;
+    }
 }
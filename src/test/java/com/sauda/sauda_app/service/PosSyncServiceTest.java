@@ -0,0 +1,173 @@
+package com.sauda.sauda_app.service;
+
+import com.sauda.sauda_app.dto.OfflineReceiptDto;
+import com.sauda.sauda_app.dto.PosReceiptBatchDto;
+import com.sauda.sauda_app.dto.ReceiptSyncResult;
+import com.sauda.sauda_app.dto.ReceiptSyncStatus;
+import com.sauda.sauda_app.dto.SaleItemDto;
+import com.sauda.sauda_app.entity.Sale;
+import com.sauda.sauda_app.event.StockChangedEvent;
+import com.sauda.sauda_app.repository.InventoryJdbcRepository;
+import com.sauda.sauda_app.repository.InventoryMovementJdbcRepository;
+import com.sauda.sauda_app.repository.PosReceiptJdbcRepository;
+import com.sauda.sauda_app.repository.SaleJdbcRepository;
+import com.sauda.sauda_app.service.impl.PosSyncServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PosSyncServiceTest {
+
+    private static final Long TENANT_ID = 1L;
+    private static final Long TERMINAL_ID = 5L;
+    private static final Long WAREHOUSE_ID = 7L;
+
+    @Mock
+    private PosReceiptJdbcRepository posReceiptRepository;
+
+    @Mock
+    private SaleJdbcRepository saleJdbcRepository;
+
+    @Mock
+    private InventoryJdbcRepository inventoryJdbcRepository;
+
+    @Mock
+    private InventoryMovementJdbcRepository movementRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private PosSyncServiceImpl posSyncService;
+    private PosReceiptBatchDto batch;
+
+    @BeforeEach
+    void setUp() {
+        posSyncService = new PosSyncServiceImpl(posReceiptRepository, saleJdbcRepository, inventoryJdbcRepository,
+                movementRepository, eventPublisher, 3);
+        batch = new PosReceiptBatchDto();
+        batch.setPosTerminalId(TERMINAL_ID);
+        batch.setWarehouseId(WAREHOUSE_ID);
+        batch.setTenantId(TENANT_ID);
+        batch.setReceipts(new ArrayList<>());
+    }
+
+    @Test
+    void syncReceipts_ShouldWriteNewReceiptsInBulk_AndReportDuplicates() {
+        // Given: r-2 уже выгружен ранее, r-1 повторяется в пакете
+        givenTerminalAndWarehouseOfTenant();
+        batch.getReceipts().add(receipt("r-1", item(2L, "1", "100.00"), item(1L, "2", "50.00")));
+        batch.getReceipts().add(receipt("r-2", item(1L, "1", "50.00")));
+        batch.getReceipts().add(receipt("r-1", item(1L, "1", "50.00")));
+        when(posReceiptRepository.claim(TENANT_ID, TERMINAL_ID, new String[]{"r-1", "r-2"})).thenReturn(Set.of("r-1"));
+        when(posReceiptRepository.findTenantProductIds(TENANT_ID, new Long[]{1L, 2L})).thenReturn(Set.of(1L, 2L));
+        doAnswer(invocation -> {
+            List<Sale> sales = invocation.getArgument(0);
+            sales.get(0).setId(100L);
+            return null;
+        }).when(saleJdbcRepository).insertSales(anyList());
+
+        // When
+        List<ReceiptSyncResult> results = posSyncService.syncReceipts(batch);
+
+        // Then
+        assertEquals(List.of(ReceiptSyncResult.accepted("r-1", 100L), ReceiptSyncResult.duplicate("r-2"),
+                ReceiptSyncResult.duplicate("r-1")), results);
+        verify(saleJdbcRepository).insertItems(argThat(items -> items.size() == 2));
+        verify(saleJdbcRepository).insertPayments(argThat(payments -> payments.size() == 1
+                && payments.get(0).getAmount().compareTo(new BigDecimal("200.00")) == 0));
+        verify(inventoryJdbcRepository).increaseAll(TENANT_ID, WAREHOUSE_ID, new Long[]{1L, 2L},
+                new BigDecimal[]{new BigDecimal("-2"), new BigDecimal("-1")});
+        verify(saleJdbcRepository).addAllToDailyRollup(anyList());
+        verify(posReceiptRepository).attachSales(TENANT_ID, new String[]{"r-1"}, new Long[]{100L});
+        verify(eventPublisher).publishEvent(any(StockChangedEvent.class));
+    }
+
+    @Test
+    void syncReceipts_ShouldOnlyProbeKeys_WhenWholeBatchWasUploadedBefore() {
+        // Given
+        givenTerminalAndWarehouseOfTenant();
+        batch.getReceipts().add(receipt("r-1", item(1L, "1", "50.00")));
+        batch.getReceipts().add(receipt("r-2", item(2L, "1", "100.00")));
+        when(posReceiptRepository.claim(TENANT_ID, TERMINAL_ID, new String[]{"r-1", "r-2"})).thenReturn(Set.of());
+
+        // When
+        List<ReceiptSyncResult> results = posSyncService.syncReceipts(batch);
+
+        // Then
+        assertTrue(results.stream().allMatch(r -> r.status() == ReceiptSyncStatus.DUPLICATE));
+        verify(posReceiptRepository, never()).findTenantProductIds(any(), any());
+        verifyNoInteractions(saleJdbcRepository, movementRepository, eventPublisher);
+    }
+
+    @Test
+    void syncReceipts_ShouldRejectInvalidReceiptsWithoutClaimingKeys() {
+        // Given: без времени продажи, без цены и с чужим товаром
+        givenTerminalAndWarehouseOfTenant();
+        OfflineReceiptDto withoutTime = receipt("r-1", item(1L, "1", "50.00"));
+        withoutTime.setSoldAt(null);
+        batch.getReceipts().add(withoutTime);
+        batch.getReceipts().add(receipt("r-2", item(1L, "1", null)));
+        batch.getReceipts().add(receipt("r-3", item(9L, "1", "10.00")));
+        when(posReceiptRepository.claim(TENANT_ID, TERMINAL_ID, new String[]{"r-3"})).thenReturn(Set.of("r-3"));
+        when(posReceiptRepository.findTenantProductIds(TENANT_ID, new Long[]{9L})).thenReturn(Set.of());
+
+        // When
+        List<ReceiptSyncResult> results = posSyncService.syncReceipts(batch);
+
+        // Then
+        assertTrue(results.stream().allMatch(r -> r.status() == ReceiptSyncStatus.REJECTED));
+        assertEquals("Время продажи обязательно", results.get(0).message());
+        verify(posReceiptRepository).release(TENANT_ID, new String[]{"r-3"});
+        verifyNoInteractions(saleJdbcRepository, movementRepository, eventPublisher);
+    }
+
+    @Test
+    void syncReceipts_ShouldRejectBatch_WhenLargerThanLimit() {
+        // Given
+        for (int i = 0; i < 4; i++) {
+            batch.getReceipts().add(receipt("r-" + i, item(1L, "1", "50.00")));
+        }
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> posSyncService.syncReceipts(batch));
+        verify(posReceiptRepository, never()).claim(any(), any(), any());
+    }
+
+    private void givenTerminalAndWarehouseOfTenant() {
+        when(inventoryJdbcRepository.findWarehouseTenantId(WAREHOUSE_ID)).thenReturn(Optional.of(TENANT_ID));
+        when(posReceiptRepository.markTerminalOnline(TENANT_ID, TERMINAL_ID)).thenReturn(true);
+    }
+
+    private static OfflineReceiptDto receipt(String key, SaleItemDto... items) {
+        OfflineReceiptDto receipt = new OfflineReceiptDto();
+        receipt.setIdempotencyKey(key);
+        receipt.setSoldAt(LocalDateTime.of(2026, 10, 1, 12, 30));
+        receipt.setPaymentMethod("CASH");
+        receipt.setItems(List.of(items));
+        return receipt;
+    }
+
+    private static SaleItemDto item(Long productId, String quantity, String price) {
+        SaleItemDto item = new SaleItemDto();
+        item.setProductId(productId);
+        item.setQuantity(new BigDecimal(quantity));
+        item.setPrice(price != null ? new BigDecimal(price) : null);
+        return item;
+    }
+}
@@ -1,8 +1,14 @@
 package com.sauda.sauda_app.service;
 
+import com.sauda.sauda_app.cache.ProductBarcodeIndex;
+import com.sauda.sauda_app.dto.CursorSlice;
+import com.sauda.sauda_app.dto.KeysetCursor;
 import com.sauda.sauda_app.dto.ProductDto;
+import com.sauda.sauda_app.dto.ProductSnapshot;
 import com.sauda.sauda_app.entity.Product;
+import com.sauda.sauda_app.event.ProductChangedEvent;
 import com.sauda.sauda_app.repository.ProductRepository;
+import com.sauda.sauda_app.search.ProductSearchEngine;
 import com.sauda.sauda_app.service.impl.ProductServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -10,11 +16,15 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -23,6 +33,15 @@ class ProductServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private ProductBarcodeIndex barcodeIndex;
+
+    @Mock
+    private ProductSearchEngine searchEngine;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private ProductServiceImpl productService;
 
@@ -171,4 +190,134 @@ class ProductServiceTest {
         verify(productRepository).findById(1L);
         verify(productRepository, never()).save(any(Product.class));
     }
+
+    @Test
+    void getProductSnapshotByBarcode_ShouldServeFromIndex_WhenIndexed() {
+        // Given
+        ProductSnapshot snapshot = ProductSnapshot.from(product);
+        when(barcodeIndex.find(1L, "1234567890123")).thenReturn(Optional.of(snapshot));
+
+        // When
+        Optional<ProductSnapshot> result = productService.getProductSnapshotByBarcode(1L, "1234567890123");
+
+        // Then
+        assertEquals(Optional.of(snapshot), result);
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void getProductSnapshotByBarcode_ShouldLoadFromDatabaseAndIndex_WhenNotIndexed() {
+        // Given
+        when(barcodeIndex.find(1L, "1234567890123")).thenReturn(Optional.empty());
+        when(productRepository.findByBarcodeAndTenantId("1234567890123", 1L)).thenReturn(Optional.of(product));
+
+        // When
+        Optional<ProductSnapshot> result = productService.getProductSnapshotByBarcode(1L, "1234567890123");
+
+        // Then: промах и попадание отдают одинаковый снимок
+        assertEquals(Optional.of(ProductSnapshot.from(product)), result);
+        verify(barcodeIndex).putIfAbsent(ProductSnapshot.from(product));
+    }
+
+    @Test
+    void getProductSnapshotByBarcode_ShouldReturnInactiveProductWithoutIndexing() {
+        // Given
+        product.setIsActive(false);
+        when(barcodeIndex.find(1L, "1234567890123")).thenReturn(Optional.empty());
+        when(productRepository.findByBarcodeAndTenantId("1234567890123", 1L)).thenReturn(Optional.of(product));
+
+        // When
+        Optional<ProductSnapshot> result = productService.getProductSnapshotByBarcode(1L, "1234567890123");
+
+        // Then
+        assertTrue(result.isPresent());
+        assertFalse(result.get().isActive());
+        verify(barcodeIndex, never()).putIfAbsent(any(ProductSnapshot.class));
+    }
+
+    @Test
+    void getProductSnapshotByBarcode_ShouldSkipDeletedProduct() {
+        // Given
+        product.setIsDeleted(true);
+        when(barcodeIndex.find(1L, "1234567890123")).thenReturn(Optional.empty());
+        when(productRepository.findByBarcodeAndTenantId("1234567890123", 1L)).thenReturn(Optional.of(product));
+
+        // When
+        Optional<ProductSnapshot> result = productService.getProductSnapshotByBarcode(1L, "1234567890123");
+
+        // Then
+        assertTrue(result.isEmpty());
+        verify(barcodeIndex, never()).putIfAbsent(any(ProductSnapshot.class));
+    }
+
+    @Test
+    void softDeleteProduct_ShouldPublishDeletedEvent() {
+        // Given
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productRepository.save(any(Product.class))).thenReturn(product);
+
+        // When
+        productService.softDeleteProduct(1L);
+
+        // Then
+        verify(eventPublisher).publishEvent(new ProductChangedEvent(ProductSnapshot.from(product), null, true));
+    }
+
+    @Test
+    void getProductSlice_ShouldReturnCursor_WhenMoreRowsExist() {
+        // Given
+        ProductDto first = productView(1L, "Test Product");
+        ProductDto second = productView(2L, "Second Product");
+        ProductDto third = productView(3L, "Third Product");
+        when(productRepository.findByTenantIdAfterId(1L, 0L, Limit.of(3)))
+                .thenReturn(List.of(first, second, third));
+
+        // When
+        CursorSlice<ProductDto> slice = productService.getProductSlice(1L, "id", null, 2);
+
+        // Then
+        assertEquals(List.of(first, second), slice.content());
+        assertTrue(slice.hasNext());
+        assertEquals(2L, KeysetCursor.decode(slice.nextCursor()).id());
+    }
+
+    @Test
+    void getProductSlice_ShouldContinueAfterCursor_WhenSortedByName() {
+        // Given
+        ProductDto row = productView(9L, "Молоко 3.2%");
+        String cursor = KeysetCursor.afterName("Молоко", 7L).encode();
+        when(productRepository.findByTenantIdAfterName(eq(1L), eq("Молоко"), eq(7L), eq(Limit.of(21))))
+                .thenReturn(List.of(row));
+
+        // When
+        CursorSlice<ProductDto> slice = productService.getProductSlice(1L, "name", cursor, 20);
+
+        // Then
+        assertEquals(List.of(row), slice.content());
+        assertFalse(slice.hasNext());
+        assertNull(slice.nextCursor());
+    }
+
+    @Test
+    void getProductSlice_ShouldThrowException_WhenCursorIsInvalid() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class,
+                () -> productService.getProductSlice(1L, "id", "не-курсор", 20));
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void getProductSlice_ShouldThrowException_WhenSortIsUnknown() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class,
+                () -> productService.getProductSlice(1L, "price", null, 20));
+    }
+
+    private static ProductDto productView(Long id, String name) {
+        ProductDto view = new ProductDto();
+        view.setId(id);
+        view.setTenantId(1L);
+        view.setName(name);
+        return view;
+    }
 }
@@ -0,0 +1,247 @@
+package com.sauda.sauda_app.service;
+
+import com.sauda.sauda_app.dto.InventoryLevel;
+import com.sauda.sauda_app.dto.InventoryMovement;
+import com.sauda.sauda_app.dto.MovementType;
+import com.sauda.sauda_app.dto.PaymentDto;
+import com.sauda.sauda_app.dto.SaleDto;
+import com.sauda.sauda_app.dto.SaleItemDto;
+import com.sauda.sauda_app.entity.Sale;
+import com.sauda.sauda_app.entity.SalesItem;
+import com.sauda.sauda_app.event.SaleCompletedEvent;
+import com.sauda.sauda_app.event.StockChangedEvent;
+import com.sauda.sauda_app.repository.InventoryMovementJdbcRepository;
+import com.sauda.sauda_app.repository.InventoryRepository;
+import com.sauda.sauda_app.repository.SaleJdbcRepository;
+import com.sauda.sauda_app.service.impl.SaleServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SaleServiceTest {
+
+    @Mock
+    private InventoryRepository inventoryRepository;
+
+    @Mock
+    private SaleJdbcRepository saleJdbcRepository;
+
+    @Mock
+    private PriceListService priceListService;
+
+    @Mock
+    private DiscountService discountService;
+
+    @Mock
+    private InventoryMovementJdbcRepository movementRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private SaleServiceImpl saleService;
+
+    private SaleDto saleDto;
+    private final Long warehouseId = 1L;
+
+    @BeforeEach
+    void setUp() {
+        saleDto = new SaleDto();
+        saleDto.setTenantId(1L);
+        saleDto.setWarehouseId(warehouseId);
+        saleDto.setPaymentMethod("CASH");
+        saleDto.setItems(new ArrayList<>());
+        saleDto.getItems().add(item(2L, "1", "100.00"));
+        saleDto.getItems().add(item(1L, "2", "50.00"));
+    }
+
+    @Test
+    void createSale_ShouldWriteSaleItemsAndPayment_WhenStockIsSufficient() {
+        // Given
+        when(inventoryRepository.decreaseTenantQuantity(eq(1L), anyLong(), eq(warehouseId), any(BigDecimal.class)))
+                .thenReturn(Optional.of(mock(InventoryLevel.class)));
+        when(saleJdbcRepository.insertSale(any(Sale.class))).thenAnswer(invocation -> {
+            Sale sale = invocation.getArgument(0);
+            sale.setId(42L);
+            return sale;
+        });
+
+        // When
+        Sale result = saleService.createSale(saleDto);
+
+        // Then
+        assertEquals(42L, result.getId());
+        assertEquals(0, new BigDecimal("200.00").compareTo(result.getTotalAmount()));
+        assertEquals(2, result.getItems().size());
+        assertEquals(1, result.getPayments().size());
+        assertEquals("CASH", result.getPayments().get(0).getPaymentType());
+        assertTrue(result.getItems().stream().allMatch(item -> item.getSaleId().equals(42L)));
+        verify(saleJdbcRepository).insertItems(anyList());
+        verify(saleJdbcRepository).insertPayments(anyList());
+        verify(saleJdbcRepository).addToDailyRollup(result, result.getItems());
+        verify(movementRepository).insertAll(List.of(
+                InventoryMovement.of(1L, 1L, warehouseId, MovementType.SALE, new BigDecimal("-2"), "Продажа", 42L),
+                InventoryMovement.of(1L, 2L, warehouseId, MovementType.SALE, new BigDecimal("-1"), "Продажа", 42L)));
+        verify(eventPublisher).publishEvent(any(StockChangedEvent.class));
+        verify(eventPublisher).publishEvent(any(SaleCompletedEvent.class));
+    }
+
+    @Test
+    void createSale_ShouldDecreaseStockInProductOrder() {
+        // Given
+        when(inventoryRepository.decreaseTenantQuantity(eq(1L), anyLong(), eq(warehouseId), any(BigDecimal.class)))
+                .thenReturn(Optional.of(mock(InventoryLevel.class)));
+
+        // When
+        saleService.createSale(saleDto);
+
+        // Then
+        InOrder inOrder = inOrder(inventoryRepository);
+        inOrder.verify(inventoryRepository).decreaseTenantQuantity(1L, 1L, warehouseId, new BigDecimal("2"));
+        inOrder.verify(inventoryRepository).decreaseTenantQuantity(1L, 2L, warehouseId, new BigDecimal("1"));
+    }
+
+    @Test
+    void createSale_ShouldMergeLinesWithSameProduct() {
+        // Given
+        saleDto.getItems().add(item(1L, "3", "50.00"));
+        when(inventoryRepository.decreaseTenantQuantity(eq(1L), anyLong(), eq(warehouseId), any(BigDecimal.class)))
+                .thenReturn(Optional.of(mock(InventoryLevel.class)));
+
+        // When
+        Sale result = saleService.createSale(saleDto);
+
+        // Then
+        assertEquals(2, result.getItems().size());
+        SalesItem merged = result.getItems().get(0);
+        assertEquals(1L, merged.getProductId());
+        assertEquals(new BigDecimal("5"), merged.getQuantity());
+        verify(inventoryRepository).decreaseTenantQuantity(1L, 1L, warehouseId, new BigDecimal("5"));
+    }
+
+    @Test
+    void createSale_ShouldThrowException_WhenStockIsInsufficient() {
+        // Given
+        when(inventoryRepository.decreaseTenantQuantity(1L, 1L, warehouseId, new BigDecimal("2")))
+                .thenReturn(Optional.empty());
+
+        // When & Then
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> saleService.createSale(saleDto));
+
+        assertTrue(exception.getMessage().contains("Недостаточно товара на складе"));
+        verify(saleJdbcRepository, never()).insertSale(any(Sale.class));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void createSale_ShouldThrowException_WhenPaymentsDoNotCoverTotal() {
+        // Given
+        PaymentDto payment = new PaymentDto();
+        payment.setAmount(new BigDecimal("150.00"));
+        payment.setPaymentType("CARD");
+        saleDto.setPayments(List.of(payment));
+        when(inventoryRepository.decreaseTenantQuantity(eq(1L), anyLong(), eq(warehouseId), any(BigDecimal.class)))
+                .thenReturn(Optional.of(mock(InventoryLevel.class)));
+
+        // When & Then
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> saleService.createSale(saleDto));
+
+        assertTrue(exception.getMessage().contains("Сумма оплат меньше суммы чека"));
+        verify(saleJdbcRepository, never()).insertPayments(anyList());
+    }
+
+    @Test
+    void createSale_ShouldThrowException_WhenNoItems() {
+        // Given
+        saleDto.setItems(new ArrayList<>());
+
+        // When & Then
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> saleService.createSale(saleDto));
+
+        assertTrue(exception.getMessage().contains("Чек должен содержать хотя бы одну позицию"));
+        verifyNoInteractions(inventoryRepository, saleJdbcRepository);
+    }
+
+    @Test
+    void createSale_ShouldTakeListPrice_WhenItemHasNoPrice() {
+        // Given
+        saleDto.getItems().add(item(3L, "2", null));
+        when(priceListService.getEffectivePrices(eq(1L), eq(Set.of(3L)), any()))
+                .thenReturn(Map.of(3L, new BigDecimal("25.00")));
+        when(inventoryRepository.decreaseTenantQuantity(eq(1L), anyLong(), eq(warehouseId), any(BigDecimal.class)))
+                .thenReturn(Optional.of(mock(InventoryLevel.class)));
+        when(saleJdbcRepository.insertSale(any(Sale.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        Sale result = saleService.createSale(saleDto);
+
+        // Then
+        assertEquals(0, new BigDecimal("250.00").compareTo(result.getTotalAmount()));
+        assertEquals(0, new BigDecimal("25.00").compareTo(result.getItems().get(2).getPrice()));
+    }
+
+    @Test
+    void createSale_ShouldThrowException_WhenNoListPriceForItemWithoutPrice() {
+        // Given
+        saleDto.getItems().add(item(3L, "1", null));
+        when(priceListService.getEffectivePrices(eq(1L), eq(Set.of(3L)), any())).thenReturn(Map.of());
+
+        // When & Then
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> saleService.createSale(saleDto));
+
+        assertTrue(exception.getMessage().contains("Нет действующей цены"));
+        verifyNoInteractions(inventoryRepository, saleJdbcRepository);
+    }
+
+    @Test
+    void createSale_ShouldSubtractRuleDiscountsFromTotal() {
+        // Given: правила дают 10% на товар 2
+        doAnswer(invocation -> {
+            List<SalesItem> items = invocation.getArgument(1);
+            items.stream().filter(item -> item.getProductId() == 2L)
+                    .forEach(item -> item.setDiscount(new BigDecimal("10.00")));
+            return null;
+        }).when(discountService).applyDiscounts(eq(1L), anyList(), any());
+        when(inventoryRepository.decreaseTenantQuantity(eq(1L), anyLong(), eq(warehouseId), any(BigDecimal.class)))
+                .thenReturn(Optional.of(mock(InventoryLevel.class)));
+        when(saleJdbcRepository.insertSale(any(Sale.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        Sale result = saleService.createSale(saleDto);
+
+        // Then
+        assertEquals(0, new BigDecimal("190.00").compareTo(result.getTotalAmount()));
+        assertEquals(0, new BigDecimal("10.00").compareTo(result.getItems().get(1).getDiscount()));
+        assertEquals(0, new BigDecimal("190.00").compareTo(result.getPayments().get(0).getAmount()));
+    }
+
+    private SaleItemDto item(Long productId, String quantity, String price) {
+        SaleItemDto item = new SaleItemDto();
+        item.setProductId(productId);
+        item.setQuantity(new BigDecimal(quantity));
+        item.setPrice(price == null ? null : new BigDecimal(price));
+        return item;
+    }
+}
@@ -0,0 +1,129 @@
+package com.sauda.sauda_app.tenant;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TenantResolverTest {
+
+    private final TenantResolver resolver = new TenantResolver("tenant_id", 1L, true);
+    private final TenantResolver fallbackResolver = new TenantResolver("tenant_id", 1L, false);
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void resolve_ShouldUseTokenClaim_WhenParameterAbsent() {
+        // Given
+        authenticate(42L);
+
+        // When
+        Long tenantId = resolver.resolve(new MockHttpServletRequest());
+
+        // Then
+        assertEquals(42L, tenantId);
+    }
+
+    @Test
+    void resolve_ShouldDenyAccess_WhenParameterDiffersFromClaim() {
+        // Given
+        authenticate("42");
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setParameter("tenantId", "7");
+
+        // When & Then
+        assertThrows(AccessDeniedException.class, () -> resolver.resolve(request));
+    }
+
+    @Test
+    void resolve_ShouldDenyAccess_WhenTokenHasNoClaim() {
+        // Given
+        authenticate(null);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setParameter("tenantId", "7");
+
+        // When & Then
+        assertThrows(AccessDeniedException.class, () -> resolver.resolve(request));
+        assertThrows(AccessDeniedException.class, () -> resolver.resolve(new MockHttpServletRequest()));
+    }
+
+    @Test
+    void resolve_ShouldDenyAccess_WhenAnonymous() {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setParameter("tenantId", "7");
+
+        // When & Then: открытым адресам магазин не нужен, а подставить его из параметра нельзя
+        assertFalse(resolver.appliesTo(null));
+        assertThrows(AccessDeniedException.class, () -> resolver.resolve(request));
+    }
+
+    @Test
+    void resolve_ShouldFallBackToParameterAndDefault_WhenClaimNotRequired() {
+        // Given: require-claim=false задается только в профилях dev и test
+        authenticate(null);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setParameter("tenantId", "7");
+
+        // When
+        Long fromParameter = fallbackResolver.resolve(request);
+        Long fromDefault = fallbackResolver.resolve(new MockHttpServletRequest());
+
+        // Then
+        assertEquals(7L, fromParameter);
+        assertEquals(1L, fromDefault);
+        assertTrue(fallbackResolver.appliesTo(null));
+    }
+
+    @Test
+    void resolveFromToken_ShouldDenyAccess_WhenTokenHasNoClaim() {
+        // Given: запасной параметр и магазин по умолчанию разрешены (require-claim=false)
+        authenticate(null);
+
+        // When & Then
+        assertThrows(AccessDeniedException.class,
+                () -> fallbackResolver.resolveFromToken(SecurityContextHolder.getContext().getAuthentication(), 7L));
+        assertThrows(AccessDeniedException.class, () -> fallbackResolver.resolveFromToken(null, 1L));
+    }
+
+    @Test
+    void resolveFromToken_ShouldUseTokenClaim_WhenItMatchesRequestedTenant() {
+        // Given
+        authenticate(42L);
+
+        // When
+        Long tenantId = resolver.resolveFromToken(SecurityContextHolder.getContext().getAuthentication(), 42L);
+
+        // Then
+        assertEquals(42L, tenantId);
+        assertThrows(AccessDeniedException.class,
+                () -> resolver.resolveFromToken(SecurityContextHolder.getContext().getAuthentication(), 7L));
+    }
+
+    @Test
+    void callAs_ShouldRestorePreviousTenant() {
+        // When
+        Long inner = TenantContext.callAs(1L, () -> TenantContext.callAs(2L, TenantContext::require));
+
+        // Then
+        assertEquals(2L, inner);
+        assertTrue(TenantContext.current().isEmpty());
+        assertEquals(TenantContext.ALL_TENANTS, new TenantFilterParameter().get());
+    }
+
+    private static void authenticate(Object tenantClaim) {
+        Jwt.Builder builder = Jwt.withTokenValue("token").header("alg", "RS256").subject("cashier");
+        if (tenantClaim != null) {
+            builder.claim("tenant_id", tenantClaim);
+        }
+        SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(builder.build()));
+    }
+}